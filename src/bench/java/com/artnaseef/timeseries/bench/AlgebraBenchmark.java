@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.bench;
+
+import com.artnaseef.timeseries.DoubleTimeSeries;
+import com.artnaseef.timeseries.LongTimeSeries;
+import com.artnaseef.timeseries.TimeSeriesAlgebra;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to divide one series by another, slot by slot; each operation produces the whole result series.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class AlgebraBenchmark {
+  @Param({"1000", "1000000"})
+  public int size;
+
+  private LongTimeSeries numerator;
+  private LongTimeSeries denominator;
+  private TimeSeriesAlgebra algebra;
+
+  @Setup(Level.Trial)
+  public void setup () {
+    this.numerator = BenchmarkData.longSeries(this.size);
+    this.denominator = BenchmarkData.longSeries(this.size);
+    this.algebra = new TimeSeriesAlgebra();
+  }
+
+  /**
+   * The original access pattern: copy the timestamps, then look up each one in both series.
+   */
+  @Benchmark
+  public DoubleTimeSeries divideByTimestamps () {
+    DoubleTimeSeries result = new DoubleTimeSeries();
+    for ( long oneTimestamp : this.numerator.getTimestamps() ) {
+      Long divisor = this.denominator.getTimestampSample(oneTimestamp);
+      if ( divisor != null ) {
+        result.setTimestampSample(oneTimestamp, this.numerator.getTimestampSample(oneTimestamp) / (double) divisor);
+      }
+    }
+
+    return  result;
+  }
+
+  @Benchmark
+  public DoubleTimeSeries divideMergeWalk () {
+    return  this.algebra.divide(this.numerator, this.denominator);
+  }
+}
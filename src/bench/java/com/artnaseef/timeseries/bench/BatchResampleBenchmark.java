@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.bench;
+
+import com.artnaseef.timeseries.LongBatchResampler;
+import com.artnaseef.timeseries.LongResampleUtil;
+import com.artnaseef.timeseries.LongTimeSeries;
+import com.artnaseef.timeseries.ResamplePlan;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to re-sample many series which share a timestamp grid, one re-sample utility per series against one shared
+ * plan.  Each operation re-samples every series; the plan is made once, outside of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchResampleBenchmark {
+  @Param({"1000"})
+  public int seriesCount;
+
+  @Param({"1440"})
+  public int size;
+
+  @Param({"3:2", "60:1"})
+  public String ratio;
+
+  private List<LongTimeSeries> sources;
+  private RationalRatioTimeTransform transform;
+  private LongSumResampleCalculator calculator;
+  private LongBatchResampler batchResampler;
+
+  @Setup(Level.Trial)
+  public void setup () {
+    String[] parts = this.ratio.split(":");
+    this.transform = new RationalRatioTimeTransform(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+    this.calculator = new LongSumResampleCalculator();
+
+    this.sources = new ArrayList<>();
+    int cur = 0;
+    while ( cur < this.seriesCount ) {
+      this.sources.add(BenchmarkData.longSeries(this.size));
+      cur++;
+    }
+
+    this.batchResampler = new LongBatchResampler(ResamplePlan.forSeries(this.sources.get(0), this.transform));
+  }
+
+  @Benchmark
+  public List<LongTimeSeries> perSeriesResampleUtil () {
+    List<LongTimeSeries> result = new ArrayList<>();
+    for ( LongTimeSeries oneSource : this.sources ) {
+      LongTimeSeries target = new LongTimeSeries();
+      new LongResampleUtil(oneSource).resampleDown(target, this.transform, this.calculator);
+      result.add(target);
+    }
+
+    return  result;
+  }
+
+  @Benchmark
+  public List<LongTimeSeries> batchResampler () {
+    List<LongTimeSeries> result = new ArrayList<>();
+    for ( int cur = 0; cur < this.sources.size(); cur++ ) {
+      result.add(new LongTimeSeries());
+    }
+
+    this.batchResampler.resampleDown(this.sources, result, this.calculator);
+    return  result;
+  }
+}
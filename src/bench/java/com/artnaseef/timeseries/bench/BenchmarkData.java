@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.bench;
+
+import com.artnaseef.timeseries.DoubleTimeSeries;
+import com.artnaseef.timeseries.LongTimeSeries;
+import com.artnaseef.timeseries.TimeSeries;
+
+import java.util.Random;
+
+/**
+ * Builders for the series shared by the benchmarks.  All series hold one sample per timestamp, from 0 to size - 1, with
+ * values from a fixed seed so runs are repeatable.
+ */
+public class BenchmarkData {
+  public static final long SEED = 8675309L;
+
+  public static TimeSeries<Long> boxedLongSeries (int size) {
+    TimeSeries<Long> result = new TimeSeries<>();
+    Random random = new Random(SEED);
+
+    long cur = 0;
+    while ( cur < size ) {
+      result.setTimestampSample(cur, (long) random.nextInt(1000));
+      cur++;
+    }
+
+    return  result;
+  }
+
+  public static TimeSeries<Double> boxedDoubleSeries (int size) {
+    TimeSeries<Double> result = new TimeSeries<>();
+    Random random = new Random(SEED);
+
+    long cur = 0;
+    while ( cur < size ) {
+      result.setTimestampSample(cur, random.nextDouble() * 1000.0);
+      cur++;
+    }
+
+    return  result;
+  }
+
+  public static LongTimeSeries longSeries (int size) {
+    LongTimeSeries result = new LongTimeSeries(size);
+    Random random = new Random(SEED);
+
+    long cur = 0;
+    while ( cur < size ) {
+      result.add(cur, random.nextInt(1000));
+      cur++;
+    }
+
+    return  result;
+  }
+
+  public static DoubleTimeSeries doubleSeries (int size) {
+    DoubleTimeSeries result = new DoubleTimeSeries(size);
+    Random random = new Random(SEED);
+
+    long cur = 0;
+    while ( cur < size ) {
+      result.add(cur, random.nextDouble() * 1000.0);
+      cur++;
+    }
+
+    return  result;
+  }
+
+  /**
+   * Produce timestamps spread randomly across a series of the given size.
+   */
+  public static long[] randomTimestamps (int size, int count) {
+    long[] result = new long[count];
+    Random random = new Random(SEED);
+
+    int cur = 0;
+    while ( cur < count ) {
+      result[cur] = random.nextInt(size);
+      cur++;
+    }
+
+    return  result;
+  }
+}
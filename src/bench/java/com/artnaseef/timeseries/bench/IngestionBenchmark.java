@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.bench;
+
+import com.artnaseef.timeseries.DoubleTimeSeries;
+import com.artnaseef.timeseries.LongTimeSeries;
+import com.artnaseef.timeseries.TimeSeries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to build a series of the given size from in-order samples; each operation builds one complete series.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class IngestionBenchmark {
+  private static final int BATCH_SIZE = 4096;
+
+  @Param({"1000", "1000000"})
+  public int size;
+
+  private long[] batchTimes;
+  private long[] batchValues;
+
+  @Setup
+  public void setup () {
+    this.batchTimes = new long[BATCH_SIZE];
+    this.batchValues = new long[BATCH_SIZE];
+  }
+
+  @Benchmark
+  public TimeSeries<Long> timeSeriesSet () {
+    TimeSeries<Long> result = new TimeSeries<>();
+
+    long cur = 0;
+    while ( cur < this.size ) {
+      result.setTimestampSample(cur, cur);
+      cur++;
+    }
+
+    return  result;
+  }
+
+  @Benchmark
+  public LongTimeSeries longTimeSeriesAdd () {
+    LongTimeSeries result = new LongTimeSeries();
+
+    long cur = 0;
+    while ( cur < this.size ) {
+      result.add(cur, cur);
+      cur++;
+    }
+
+    return  result;
+  }
+
+  @Benchmark
+  public LongTimeSeries longTimeSeriesAddPresized () {
+    LongTimeSeries result = new LongTimeSeries(this.size);
+
+    long cur = 0;
+    while ( cur < this.size ) {
+      result.add(cur, cur);
+      cur++;
+    }
+
+    return  result;
+  }
+
+  /**
+   * Same samples as longTimeSeriesAdd(), delivered in batches as a collector would.
+   */
+  @Benchmark
+  public LongTimeSeries longTimeSeriesAddAll () {
+    LongTimeSeries result = new LongTimeSeries();
+
+    long cur = 0;
+    while ( cur < this.size ) {
+      int len = (int) Math.min(BATCH_SIZE, this.size - cur);
+      int index = 0;
+      while ( index < len ) {
+        this.batchTimes[index] = cur + index;
+        this.batchValues[index] = cur + index;
+        index++;
+      }
+
+      result.addAll(this.batchTimes, this.batchValues, 0, len);
+      cur += len;
+    }
+
+    return  result;
+  }
+
+  @Benchmark
+  public DoubleTimeSeries doubleTimeSeriesAdd () {
+    DoubleTimeSeries result = new DoubleTimeSeries();
+
+    long cur = 0;
+    while ( cur < this.size ) {
+      result.add(cur, cur);
+      cur++;
+    }
+
+    return  result;
+  }
+}
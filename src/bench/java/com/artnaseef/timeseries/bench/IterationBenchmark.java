@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.bench;
+
+import com.artnaseef.timeseries.LongTimeSeries;
+import com.artnaseef.timeseries.LongTimeSeriesCursor;
+import com.artnaseef.timeseries.LongTimeSeriesVisitor;
+import com.artnaseef.timeseries.TimeSeries;
+import com.artnaseef.timeseries.TimeSeriesCursor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to walk every sample of a series in timestamp order, summing the values; each operation walks the whole series.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class IterationBenchmark {
+  @Param({"1000", "1000000"})
+  public int size;
+
+  private TimeSeries<Long> boxedSeries;
+  private LongTimeSeries longSeries;
+
+  @Setup(Level.Trial)
+  public void setup () {
+    this.boxedSeries = BenchmarkData.boxedLongSeries(this.size);
+    this.longSeries = BenchmarkData.longSeries(this.size);
+  }
+
+  /**
+   * The original access pattern: copy the timestamps, then look up each one.
+   */
+  @Benchmark
+  public long timeSeriesGetTimestamps () {
+    return  sumByTimestamps(this.boxedSeries);
+  }
+
+  @Benchmark
+  public long timeSeriesCursor () {
+    return  sumByCursor(this.boxedSeries);
+  }
+
+  @Benchmark
+  public long longTimeSeriesGetTimestamps () {
+    return  sumByTimestamps(this.longSeries);
+  }
+
+  @Benchmark
+  public long longTimeSeriesCursor () {
+    LongTimeSeriesCursor cursor = this.longSeries.cursor();
+
+    long result = 0;
+    while ( cursor.next() ) {
+      result += cursor.getLongValue();
+    }
+
+    return  result;
+  }
+
+  @Benchmark
+  public long longTimeSeriesForEach () {
+    SumVisitor visitor = new SumVisitor();
+    this.longSeries.forEachLong(visitor);
+
+    return  visitor.sum;
+  }
+
+  private static long sumByTimestamps (TimeSeries<Long> series) {
+    Set<Long> timestamps = series.getTimestamps();
+
+    long result = 0;
+    for ( Long oneTimestamp : timestamps ) {
+      result += series.getTimestampSample(oneTimestamp);
+    }
+
+    return  result;
+  }
+
+  private static long sumByCursor (TimeSeries<Long> series) {
+    TimeSeriesCursor<Long> cursor = series.cursor();
+
+    long result = 0;
+    while ( cursor.next() ) {
+      result += cursor.getValue();
+    }
+
+    return  result;
+  }
+
+  private static class SumVisitor implements LongTimeSeriesVisitor {
+    private long sum;
+
+    @Override
+    public void visit(long timestamp, long value) {
+      this.sum += value;
+    }
+  }
+}
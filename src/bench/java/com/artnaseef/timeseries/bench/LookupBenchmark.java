@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.bench;
+
+import com.artnaseef.timeseries.LongTimeSeries;
+import com.artnaseef.timeseries.TimeSeries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of a single lookup at a random timestamp.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class LookupBenchmark {
+  private static final int LOOKUP_COUNT = 4096;
+
+  @Param({"1000", "1000000"})
+  public int size;
+
+  private TimeSeries<Long> boxedSeries;
+  private LongTimeSeries longSeries;
+  private long[] lookups;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setup () {
+    this.boxedSeries = BenchmarkData.boxedLongSeries(this.size);
+    this.longSeries = BenchmarkData.longSeries(this.size);
+    this.lookups = BenchmarkData.randomTimestamps(this.size, LOOKUP_COUNT);
+  }
+
+  @Benchmark
+  public Long timeSeriesGet () {
+    return  this.boxedSeries.getTimestampSample(this.nextLookup());
+  }
+
+  @Benchmark
+  public Long longTimeSeriesGetBoxed () {
+    return  this.longSeries.getTimestampSample(this.nextLookup());
+  }
+
+  @Benchmark
+  public long longTimeSeriesGet () {
+    return  this.longSeries.getTimestampSample(this.nextLookup(), 0L);
+  }
+
+  private long nextLookup () {
+    long result = this.lookups[this.next];
+    this.next = ( this.next + 1 ) & ( LOOKUP_COUNT - 1 );
+
+    return  result;
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.bench;
+
+import com.artnaseef.timeseries.DoubleResampleUtil;
+import com.artnaseef.timeseries.DoubleTimeSeries;
+import com.artnaseef.timeseries.LongResampleUtil;
+import com.artnaseef.timeseries.LongTimeSeries;
+import com.artnaseef.timeseries.ResampleUtil;
+import com.artnaseef.timeseries.TimeSeries;
+import com.artnaseef.timeseries.resample.calc.DoubleAverageResampleCalculator;
+import com.artnaseef.timeseries.resample.calc.DoubleSumResampleCalculator;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to re-sample a whole series with each of the shipped calculators, through both the generic ResampleUtil and the
+ * primitive re-sample utilities.  The ratio parameter is "source slots:target slots".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ResampleBenchmark {
+  @Param({"1000000"})
+  public int size;
+
+  @Param({"2:1", "3:2", "60:1", "86400:1"})
+  public String ratio;
+
+  private TimeSeries<Long> boxedLongSeries;
+  private TimeSeries<Double> boxedDoubleSeries;
+  private LongTimeSeries longSeries;
+  private DoubleTimeSeries doubleSeries;
+
+  private RationalRatioTimeTransform transform;
+  private LongSumResampleCalculator longSumCalculator;
+  private DoubleSumResampleCalculator doubleSumCalculator;
+  private DoubleAverageResampleCalculator doubleAverageCalculator;
+
+  @Setup(Level.Trial)
+  public void setup () {
+    String[] parts = this.ratio.split(":");
+    long sourceSlots = Long.parseLong(parts[0]);
+    long targetSlots = Long.parseLong(parts[1]);
+
+    this.transform = new RationalRatioTimeTransform(sourceSlots, targetSlots);
+    this.longSumCalculator = new LongSumResampleCalculator();
+    this.doubleSumCalculator = new DoubleSumResampleCalculator();
+    this.doubleAverageCalculator = new DoubleAverageResampleCalculator((double) targetSlots / sourceSlots);
+
+    this.boxedLongSeries = BenchmarkData.boxedLongSeries(this.size);
+    this.boxedDoubleSeries = BenchmarkData.boxedDoubleSeries(this.size);
+    this.longSeries = BenchmarkData.longSeries(this.size);
+    this.doubleSeries = BenchmarkData.doubleSeries(this.size);
+  }
+
+  @Benchmark
+  public TimeSeries<Long> genericLongSum () {
+    TimeSeries<Long> result = new TimeSeries<>();
+    new ResampleUtil<>(this.boxedLongSeries).resampleDown(result, this.transform, this.longSumCalculator);
+
+    return  result;
+  }
+
+  @Benchmark
+  public TimeSeries<Double> genericDoubleSum () {
+    TimeSeries<Double> result = new TimeSeries<>();
+    new ResampleUtil<>(this.boxedDoubleSeries).resampleDown(result, this.transform, this.doubleSumCalculator);
+
+    return  result;
+  }
+
+  @Benchmark
+  public TimeSeries<Double> genericDoubleAverage () {
+    TimeSeries<Double> result = new TimeSeries<>();
+    new ResampleUtil<>(this.boxedDoubleSeries).resampleDown(result, this.transform, this.doubleAverageCalculator);
+
+    return  result;
+  }
+
+  @Benchmark
+  public LongTimeSeries longSum () {
+    LongTimeSeries result = new LongTimeSeries();
+    new LongResampleUtil(this.longSeries).resampleDown(result, this.transform, this.longSumCalculator);
+
+    return  result;
+  }
+
+  @Benchmark
+  public DoubleTimeSeries doubleSum () {
+    DoubleTimeSeries result = new DoubleTimeSeries();
+    new DoubleResampleUtil(this.doubleSeries).resampleDown(result, this.transform, this.doubleSumCalculator);
+
+    return  result;
+  }
+
+  @Benchmark
+  public DoubleTimeSeries doubleAverage () {
+    DoubleTimeSeries result = new DoubleTimeSeries();
+    new DoubleResampleUtil(this.doubleSeries).resampleDown(result, this.transform, this.doubleAverageCalculator);
+
+    return  result;
+  }
+}
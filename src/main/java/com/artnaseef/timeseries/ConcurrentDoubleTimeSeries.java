@@ -0,0 +1,331 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Time series of double values which supports concurrent add() from many threads, such as request threads summing
+ * response times per second.  Works the same way as ConcurrentLongTimeSeries: additions are spread across
+ * independently locked stripes, selected by thread, each of which keeps the most recent slots in a small ring
+ * buffer, and slots which fall out of a ring are added into a single, separately locked history shared by all of the
+ * stripes.
+ * <p/>
+ * Point reads lock one stripe at a time, and retry if a slot is retired into the history during the read, locking
+ * all of the stripes after a few attempts.  Use snapshot() to obtain a consistent, point-in-time DoubleTimeSeries for
+ * re-sampling.
+ */
+public class ConcurrentDoubleTimeSeries {
+  public static final int DEFAULT_RING_SIZE = 64;
+
+  /**
+   * Number of attempts a point read makes without blocking the writers before it locks all of the stripes.
+   */
+  private static final int OPTIMISTIC_READ_ATTEMPTS = 3;
+
+  private final Stripe[] stripes;
+  private final int stripeMask;
+  private final History history = new History();
+
+  /**
+   * Initialize the series with one stripe per available processor and the default ring size.
+   */
+  public ConcurrentDoubleTimeSeries() {
+    this(Runtime.getRuntime().availableProcessors(), DEFAULT_RING_SIZE);
+  }
+
+  /**
+   * Initialize the series.
+   *
+   * @param stripeCount number of independently locked stripes; rounded up to a power of two.
+   * @param ringSize number of recent slots held in each stripe's ring buffer; rounded up to a power of two.
+   */
+  public ConcurrentDoubleTimeSeries(int stripeCount, int ringSize) {
+    if ( ( stripeCount < 1 ) || ( ringSize < 1 ) ) {
+      throw new IllegalArgumentException("stripe count and ring size must be positive: " + stripeCount + ", " +
+              ringSize);
+    }
+
+    int stripeCapacity = ConcurrentLongTimeSeries.powerOfTwoAtLeast(stripeCount);
+    int ringCapacity = ConcurrentLongTimeSeries.powerOfTwoAtLeast(ringSize);
+
+    this.stripes = new Stripe[stripeCapacity];
+    this.stripeMask = stripeCapacity - 1;
+
+    int cur = 0;
+    while ( cur < stripeCapacity ) {
+      this.stripes[cur] = new Stripe(ringCapacity, this.history);
+      cur++;
+    }
+  }
+
+  /**
+   * Add the given value to the sample at the given timestamp.  Safe to call from any number of threads.
+   *
+   * @param time timestamp of the sample.
+   * @param value amount to add.
+   */
+  public void add (long time, double value) {
+    Stripe stripe = this.stripes[ConcurrentLongTimeSeries.stripeIndex(Thread.currentThread().getId()) &
+            this.stripeMask];
+
+    stripe.lock.lock();
+    try {
+      stripe.add(time, value);
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieve the sample at the given timestamp, summed across all stripes and the history.
+   *
+   * @param time timestamp of the sample.
+   * @param missingValue value to return when no thread has added to the given timestamp.
+   * @return value of the sample, or missingValue if there is none.
+   */
+  public double getTimestampSample (long time, double missingValue) {
+    int attempt = 0;
+    while ( attempt < OPTIMISTIC_READ_ATTEMPTS ) {
+      long retirements = this.history.retirements;
+      Lookup lookup = new Lookup();
+
+      for ( Stripe oneStripe : this.stripes ) {
+        oneStripe.lock.lock();
+        try {
+          oneStripe.lookup(time, lookup);
+        } finally {
+          oneStripe.lock.unlock();
+        }
+      }
+
+      this.history.lock.lock();
+      try {
+        //
+        // A slot retired since the stripes were read may have been counted in its ring and again in the history.
+        //
+        if ( this.history.retirements == retirements ) {
+          this.history.lookup(time, lookup);
+          return  lookup.result(missingValue);
+        }
+      } finally {
+        this.history.lock.unlock();
+      }
+
+      attempt++;
+    }
+
+    this.lockAll();
+    try {
+      Lookup lookup = new Lookup();
+      for ( Stripe oneStripe : this.stripes ) {
+        oneStripe.lookup(time, lookup);
+      }
+      this.history.lookup(time, lookup);
+
+      return  lookup.result(missingValue);
+    } finally {
+      this.unlockAll();
+    }
+  }
+
+  /**
+   * Create a consistent, point-in-time copy of the series.
+   *
+   * @return new series holding the total of every slot.
+   */
+  public DoubleTimeSeries snapshot () {
+    DoubleTimeSeries result = new DoubleTimeSeries();
+    this.snapshotInto(result);
+
+    return  result;
+  }
+
+  /**
+   * Add a consistent, point-in-time copy of the series into the given series.  The writers are only blocked while
+   * the history and ring arrays are copied; the copies are added to the target afterwards.
+   *
+   * @param target series to which the total of every slot is added.
+   */
+  public void snapshotInto (DoubleTimeSeries target) {
+    long[] historyTimes;
+    double[] historyValues;
+    int historyCount;
+    long[] ringTimes = new long[this.stripes.length * this.stripes[0].present.length];
+    double[] ringValues = new double[ringTimes.length];
+    int ringCount = 0;
+
+    this.lockAll();
+    try {
+      //
+      // With every stripe locked, nothing can be retired or added into the history.
+      //
+      historyCount = this.history.samples.size();
+      historyTimes = Arrays.copyOf(this.history.samples.getTimestampArray(), historyCount);
+      historyValues = Arrays.copyOf(this.history.samples.getValueArray(), historyCount);
+
+      for ( Stripe oneStripe : this.stripes ) {
+        int cur = 0;
+        while ( cur < oneStripe.present.length ) {
+          if ( oneStripe.present[cur] ) {
+            ringTimes[ringCount] = oneStripe.slotTimes[cur];
+            ringValues[ringCount] = oneStripe.values[cur];
+            ringCount++;
+          }
+          cur++;
+        }
+      }
+    } finally {
+      this.unlockAll();
+    }
+
+    target.addAll(historyTimes, historyValues, 0, historyCount);
+    target.addAll(ringTimes, ringValues, 0, ringCount);
+  }
+
+  private void lockAll () {
+    for ( Stripe oneStripe : this.stripes ) {
+      oneStripe.lock.lock();
+    }
+    this.history.lock.lock();
+  }
+
+  private void unlockAll () {
+    this.history.lock.unlock();
+
+    int cur = this.stripes.length - 1;
+    while ( cur >= 0 ) {
+      this.stripes[cur].lock.unlock();
+      cur--;
+    }
+  }
+
+  /**
+   * Total of one slot, gathered from the stripes and the history.
+   */
+  private static class Lookup {
+    private double total;
+    private boolean found;
+
+    public void add(double value) {
+      this.total += value;
+      this.found = true;
+    }
+
+    public double result(double missingValue) {
+      if ( this.found ) {
+        return  this.total;
+      }
+
+      return  missingValue;
+    }
+  }
+
+  /**
+   * Slots which have left the rings, shared by all of the stripes; guarded by its own lock, which is always acquired
+   * after any stripe locks.
+   */
+  private static class History {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final DoubleSampleArray samples = new DoubleSampleArray(DoubleSampleArray.DEFAULT_CAPACITY);
+
+    //
+    // Count of slots moved out of the rings; only changed while holding the lock.
+    //
+    private volatile long retirements;
+
+    public void retire(long time, double value) {
+      this.lock.lock();
+      try {
+        this.samples.add(time, value);
+        this.retirements++;
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    public void addLate(long time, double value) {
+      this.lock.lock();
+      try {
+        this.samples.add(time, value);
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    public void lookup(long time, Lookup lookup) {
+      int index = this.samples.indexOf(time);
+      if ( index >= 0 ) {
+        lookup.add(this.samples.getValue(index));
+      }
+    }
+  }
+
+  /**
+   * One stripe of the series; guarded by its own lock.
+   */
+  private static class Stripe {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] slotTimes;
+    private final double[] values;
+    private final boolean[] present;
+    private final int ringMask;
+    private final History history;
+
+    public Stripe(int ringCapacity, History history) {
+      this.slotTimes = new long[ringCapacity];
+      this.values = new double[ringCapacity];
+      this.present = new boolean[ringCapacity];
+      this.ringMask = ringCapacity - 1;
+      this.history = history;
+    }
+
+    public int ringIndex(long time) {
+      return  (int) ( time & this.ringMask );
+    }
+
+    public void lookup(long time, Lookup lookup) {
+      int index = this.ringIndex(time);
+      if ( ( this.present[index] ) && ( this.slotTimes[index] == time ) ) {
+        lookup.add(this.values[index]);
+      }
+    }
+
+    public void add(long time, double value) {
+      int index = this.ringIndex(time);
+
+      if ( ! this.present[index] ) {
+        this.slotTimes[index] = time;
+        this.values[index] = value;
+        this.present[index] = true;
+      } else if ( this.slotTimes[index] == time ) {
+        this.values[index] += value;
+      } else if ( this.slotTimes[index] < time ) {
+        //
+        // Time has moved on; retire the older slot from the ring into the shared history.
+        //
+        this.history.retire(this.slotTimes[index], this.values[index]);
+        this.slotTimes[index] = time;
+        this.values[index] = value;
+      } else {
+        //
+        // Late addition to a slot which has already left the ring.
+        //
+        this.history.addLate(time, value);
+      }
+    }
+  }
+}
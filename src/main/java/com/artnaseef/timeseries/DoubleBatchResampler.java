@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.DoubleResampleValueCalculator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Re-sampling of many series of double values which share a timestamp grid, using one ResamplePlan for all of them.
+ * Works the same way as LongBatchResampler: series holding exactly the grid timestamps are re-sampled by calculator
+ * calls on slices of their own storage, and any other series by DoubleResampleUtil with the plan standing in for the
+ * transform.
+ */
+public class DoubleBatchResampler {
+  public static final int DEFAULT_SERIES_PER_TASK = 64;
+
+  private final ResamplePlan plan;
+  private final ForkJoinPool pool;
+  private final int seriesPerTask;
+
+  /**
+   * Initialize the resampler to re-sample the series one after another on the calling thread.
+   *
+   * @param plan plan shared by the series.
+   */
+  public DoubleBatchResampler(ResamplePlan plan) {
+    this(plan, null, DEFAULT_SERIES_PER_TASK);
+  }
+
+  /**
+   * Initialize the resampler.
+   *
+   * @param plan          plan shared by the series.
+   * @param pool          pool on which to re-sample groups of series in parallel, or null to use the calling thread.
+   * @param seriesPerTask number of series re-sampled by each parallel task.
+   */
+  public DoubleBatchResampler(ResamplePlan plan, ForkJoinPool pool, int seriesPerTask) {
+    if ( seriesPerTask < 1 ) {
+      throw new IllegalArgumentException("series per task must be positive: " + seriesPerTask);
+    }
+
+    this.plan = plan;
+    this.pool = pool;
+    this.seriesPerTask = seriesPerTask;
+  }
+
+  public ResamplePlan getPlan() {
+    return  plan;
+  }
+
+  /**
+   * Re-sample each source series into the target series at the same position.
+   *
+   * @param sources                 series to re-sample.
+   * @param targets                 series into which the results will be stored, one for each source.
+   * @param resampleValueCalculator calculator of the value of each target slot.
+   */
+  public void resampleDown(List<? extends TimeSeries<Double>> sources, List<? extends DoubleTimeSeries> targets,
+                           DoubleResampleValueCalculator resampleValueCalculator) {
+
+    if ( sources.size() != targets.size() ) {
+      throw new IllegalArgumentException("number of targets, " + targets.size() + ", does not match number of " +
+              "sources, " + sources.size());
+    }
+
+    int count = sources.size();
+    if ( ( this.pool == null ) || ( count <= this.seriesPerTask ) ) {
+      this.resampleRange(sources, targets, resampleValueCalculator, 0, count);
+      return;
+    }
+
+    final List<RangeTask> tasks = new ArrayList<>();
+    int start = 0;
+    while ( start < count ) {
+      int end = (int) Math.min((long) start + this.seriesPerTask, count);
+      tasks.add(new RangeTask(sources, targets, resampleValueCalculator, start, end));
+      start = end;
+    }
+
+    this.pool.invoke(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        ForkJoinTask.invokeAll(tasks);
+      }
+    });
+  }
+
+  /**
+   * Re-sample one series.
+   *
+   * @param source                  series to re-sample.
+   * @param target                  series into which the results will be stored.
+   * @param resampleValueCalculator calculator of the value of each target slot.
+   */
+  public void resampleDown(TimeSeries<Double> source, DoubleTimeSeries target,
+                           DoubleResampleValueCalculator resampleValueCalculator) {
+
+    if ( source instanceof DoubleTimeSeries ) {
+      DoubleTimeSeries doubleSource = (DoubleTimeSeries) source;
+      DoubleSampleArray samples = doubleSource.getSamples();
+      int rangeStart = doubleSource.getRangeStart();
+
+      if ( this.plan.matchesGrid(samples.getTimestampArray(), rangeStart, doubleSource.getRangeEnd()) ) {
+        double[] values = samples.getValueArray();
+        int slot = 0;
+        int slotCount = this.plan.getSlotCount();
+        while ( slot < slotCount ) {
+          double value = resampleValueCalculator.calculateTransformedSample(values,
+                  rangeStart + this.plan.getSlotStart(slot), this.plan.getSlotLength(slot),
+                  this.plan.getSlotOverlapFirst(slot), this.plan.getSlotOverlapLast(slot));
+          target.setTimestampSample(this.plan.getSlotTime(slot), value);
+          slot++;
+        }
+
+        return;
+      }
+    }
+
+    new DoubleResampleUtil(source).resampleDown(target, this.plan.createTimeTransform(), resampleValueCalculator);
+  }
+
+  private void resampleRange(List<? extends TimeSeries<Double>> sources, List<? extends DoubleTimeSeries> targets,
+                             DoubleResampleValueCalculator resampleValueCalculator, int start, int end) {
+    int cur = start;
+    while ( cur < end ) {
+      this.resampleDown(sources.get(cur), targets.get(cur), resampleValueCalculator);
+      cur++;
+    }
+  }
+
+  /**
+   * Re-sample of the series [start, end) of the batch.
+   */
+  private class RangeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final List<? extends TimeSeries<Double>> sources;
+    private final List<? extends DoubleTimeSeries> targets;
+    private final DoubleResampleValueCalculator calculator;
+    private final int start;
+    private final int end;
+
+    public RangeTask(List<? extends TimeSeries<Double>> sources, List<? extends DoubleTimeSeries> targets,
+                     DoubleResampleValueCalculator calculator, int start, int end) {
+      this.sources = sources;
+      this.targets = targets;
+      this.calculator = calculator;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      resampleRange(this.sources, this.targets, this.calculator, this.start, this.end);
+    }
+  }
+}
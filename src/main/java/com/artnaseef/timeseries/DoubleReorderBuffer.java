@@ -0,0 +1,197 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+/**
+ * Bounded reorder buffer for double values.  Works the same way as LongReorderBuffer: samples are held until the
+ * watermark, which trails the newest timestamp by the allowed lateness, passes them and are then released in time
+ * order; samples arriving behind the watermark are counted and passed to the late sample handler.  Not safe under
+ * concurrency.
+ */
+public class DoubleReorderBuffer {
+  private final long allowedLateness;
+  private final DoubleTimeSeriesVisitor output;
+  private final DoubleTimeSeriesVisitor lateOutput;
+  private final DoubleSampleArray pending = new DoubleSampleArray(DoubleSampleArray.DEFAULT_CAPACITY);
+
+  private boolean started;
+  private long newestTimestamp;
+  private long watermark = Long.MIN_VALUE;
+  private long lateSampleCount;
+
+  /**
+   * Initialize the buffer with no late sample handler; late samples are only counted.
+   *
+   * @param allowedLateness distance, in source time, by which a sample may trail the newest sample and still be
+   *                        released in order.
+   * @param output          receiver of the samples, in time order.
+   */
+  public DoubleReorderBuffer(long allowedLateness, DoubleTimeSeriesVisitor output) {
+    this(allowedLateness, output, null);
+  }
+
+  /**
+   * Initialize the buffer.
+   *
+   * @param allowedLateness distance, in source time, by which a sample may trail the newest sample and still be
+   *                        released in order.
+   * @param output          receiver of the samples, in time order.
+   * @param lateOutput      receiver of the samples which arrive behind the watermark, or null to drop them.
+   */
+  public DoubleReorderBuffer(long allowedLateness, DoubleTimeSeriesVisitor output, DoubleTimeSeriesVisitor lateOutput) {
+    if ( allowedLateness < 0 ) {
+      throw new IllegalArgumentException("allowed lateness must not be negative: " + allowedLateness);
+    }
+
+    this.allowedLateness = allowedLateness;
+    this.output = output;
+    this.lateOutput = lateOutput;
+  }
+
+  /**
+   * Initialize the buffer to release samples into a streaming re-sampler.
+   *
+   * @param allowedLateness distance, in source time, by which a sample may trail the newest sample.
+   * @param resampler       re-sampler to receive the samples, in time order.
+   * @param lateOutput      receiver of the samples which arrive behind the watermark, or null to drop them.
+   */
+  public DoubleReorderBuffer(long allowedLateness, DoubleStreamingResampler resampler,
+                             DoubleTimeSeriesVisitor lateOutput) {
+    this(allowedLateness, new ResamplerOutput(resampler), lateOutput);
+  }
+
+  public long getAllowedLateness() {
+    return  allowedLateness;
+  }
+
+  /**
+   * Retrieve the watermark: every sample before it has been released, and samples arriving before it are late.
+   *
+   * @return the watermark, or Long.MIN_VALUE if nothing has been released yet.
+   */
+  public long getWatermark() {
+    return  watermark;
+  }
+
+  public long getLateSampleCount() {
+    return  lateSampleCount;
+  }
+
+  /**
+   * Number of samples held, waiting for the watermark.
+   */
+  public int getPendingCount() {
+    return  this.pending.size();
+  }
+
+  /**
+   * Add a sample, releasing any samples which the watermark passes as a result.
+   *
+   * @param time timestamp of the sample.
+   * @param value value of the sample.
+   * @return true if the sample was accepted; false if it was late.
+   */
+  public boolean add(long time, double value) {
+    if ( time < this.watermark ) {
+      this.lateSampleCount++;
+      if ( this.lateOutput != null ) {
+        this.lateOutput.visit(time, value);
+      }
+
+      return  false;
+    }
+
+    this.pending.add(time, value);
+    this.advanceTo(time);
+
+    return  true;
+  }
+
+  /**
+   * Advance time without a sample, releasing the samples which fall behind the new watermark.  Useful when the source
+   * goes quiet, so the last samples do not wait for the next one.
+   *
+   * @param time source timestamp which has been reached.
+   */
+  public void advanceTo(long time) {
+    if ( ( ! this.started ) || ( time > this.newestTimestamp ) ) {
+      this.newestTimestamp = time;
+      this.started = true;
+    }
+
+    long newWatermark;
+    if ( this.newestTimestamp < Long.MIN_VALUE + this.allowedLateness ) {
+      newWatermark = Long.MIN_VALUE;
+    } else {
+      newWatermark = this.newestTimestamp - this.allowedLateness;
+    }
+
+    if ( newWatermark > this.watermark ) {
+      this.watermark = newWatermark;
+      this.release();
+    }
+  }
+
+  /**
+   * Release all held samples and move the watermark past the newest sample seen.
+   */
+  public void flush() {
+    if ( this.started ) {
+      if ( this.newestTimestamp == Long.MAX_VALUE ) {
+        this.watermark = Long.MAX_VALUE;
+      } else {
+        this.watermark = Math.max(this.watermark, this.newestTimestamp + 1);
+      }
+    }
+
+    int count = this.pending.size();
+    this.releaseFirst(count);
+  }
+
+  /**
+   * Release the held samples before the watermark.
+   */
+  private void release() {
+    int count = this.pending.indexOf(this.watermark);
+    if ( count < 0 ) {
+      count = -count - 1;
+    }
+
+    this.releaseFirst(count);
+  }
+
+  private void releaseFirst(int count) {
+    int cur = 0;
+    while ( cur < count ) {
+      this.output.visit(this.pending.getTimestamp(cur), this.pending.getValue(cur));
+      cur++;
+    }
+
+    this.pending.removeFirst(count);
+  }
+
+  private static class ResamplerOutput implements DoubleTimeSeriesVisitor {
+    private final DoubleStreamingResampler resampler;
+
+    public ResamplerOutput(DoubleStreamingResampler resampler) {
+      this.resampler = resampler;
+    }
+
+    @Override
+    public void visit(long timestamp, double value) {
+      this.resampler.add(timestamp, value);
+    }
+  }
+}
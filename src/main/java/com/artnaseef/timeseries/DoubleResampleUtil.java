@@ -0,0 +1,448 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.DoubleResampleAccumulator;
+import com.artnaseef.timeseries.resample.DoubleResampleValueCalculator;
+import com.artnaseef.timeseries.resample.DoubleUpsampleFill;
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.ResampleListener;
+import com.artnaseef.timeseries.resample.ResampleMetrics;
+import com.artnaseef.timeseries.resample.ReusableTimeTransform;
+import com.artnaseef.timeseries.resample.SampleStats;
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.TimeTransformAdapter;
+
+import java.util.Arrays;
+
+/**
+ * Utility for re-sampling of the values in a time series of double values to a new time series without boxing any of
+ * the values.  The source values which map onto a target slot are collected into a reusable primitive buffer and
+ * handed to the calculator as a slice, so the re-sample itself allocates nothing per sample.  Note these utilities
+ * are not safe under concurrency for the same instance of the utilities object, but they are safe across different
+ * instances.
+ *
+ * @see ResampleUtil
+ */
+public class DoubleResampleUtil {
+  private final TimeSeries<Double> source;
+
+  private double overlapFirst;
+  private double overlapLast;
+  private double[] valueBuffer = new double[16];
+  private int valueCount;
+  private DoubleTimeSeries targetTimeseries;
+  private DoubleResampleValueCalculator resampleValueCalculator;
+  private TimeSeries<SampleStats> statsTimeseries;
+  private ResampleListener listener;
+  private ResampleMetrics metrics;
+  private boolean timed;
+
+  public DoubleResampleUtil(TimeSeries<Double> source) {
+    this.source = source;
+  }
+
+  public ResampleListener getListener() {
+    return  listener;
+  }
+
+  /**
+   * Set the listener to receive the metrics of each calculator-based or statistics re-sample.
+   *
+   * @param listener listener to receive the metrics, or null to collect none.
+   */
+  public void setListener(ResampleListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Re-sample the time series for this utility instance, storing the results in the given target time series.  Only
+   * supports down-sampling; see ResampleUtil.resampleDown() for details.
+   *
+   * @param initTargetTimeseries        series into which the results will be stored.
+   * @param timeTransform               transformer of timestamps from the original time series to the new time series.
+   *                                    Note the times returned MUST be rounded-down to the lower of two time slots
+   *                                    anytime there is overlap; otherwise, the lower timeslot value will be dropped.
+   * @param initResampleValueCalculator calculator of the value of the target timeslot given the slice of values from
+   *                                    the original series that maps down onto the target timeslot.
+   */
+  public void resampleDown(DoubleTimeSeries initTargetTimeseries, TimeTransform timeTransform,
+                           DoubleResampleValueCalculator initResampleValueCalculator) {
+
+    this.targetTimeseries = initTargetTimeseries;
+    this.resampleValueCalculator = initResampleValueCalculator;
+    this.statsTimeseries = null;
+
+    this.resampleSlices(timeTransform);
+  }
+
+  /**
+   * Re-sample only the target slots affected by a change to the source sample at the given timestamp; see
+   * ResampleUtil.resampleDownAffected().
+   *
+   * @param initTargetTimeseries        series holding the results of a prior re-sample of the source.
+   * @param timeTransform               transformer of timestamps used for the prior re-sample.
+   * @param initResampleValueCalculator calculator used for the prior re-sample.
+   * @param sourceTime                  timestamp of the source sample which was added or changed.
+   */
+  public void resampleDownAffected(DoubleTimeSeries initTargetTimeseries, TimeTransform timeTransform,
+                                   DoubleResampleValueCalculator initResampleValueCalculator, long sourceTime) {
+
+    ReusableTimeTransform reusableTimeTransform = TimeTransformAdapter.reusable(timeTransform);
+    MisalignedTimestamp misalignedTimestamp = new MisalignedTimestamp();
+    reusableTimeTransform.transformTime(sourceTime, misalignedTimestamp);
+    long affectedSlot = misalignedTimestamp.timestamp;
+
+    DoubleTimeSeries slots = new DoubleTimeSeries();
+    TimeSeries<Double> range = ResampleUtil.affectedSourceRange(this.source, reusableTimeTransform, sourceTime,
+            affectedSlot);
+    DoubleResampleUtil rangeUtil = new DoubleResampleUtil(range);
+    rangeUtil.setListener(this.listener);
+    rangeUtil.resampleDown(slots, reusableTimeTransform, initResampleValueCalculator);
+
+    ResampleUtil.copyAffectedSlots(slots, initTargetTimeseries, affectedSlot);
+  }
+
+  /**
+   * Re-sample the time series for this utility instance into statistics, storing the minimum, maximum, sum, count,
+   * mean and variance of each target slot in a single pass over the source.  Follows the same rules as the
+   * calculator-based re-sample; each value is weighted by its overlap with the target slot, just as the sum and
+   * average calculators weight it.  The statistics can be re-sampled further with SampleStatsMergeCalculator.
+   *
+   * @param initTargetTimeseries series into which the statistics will be stored.
+   * @param timeTransform        transformer of timestamps from the original time series to the new time series.
+   *                             Note the times returned MUST be rounded-down to the lower of two time slots anytime
+   *                             there is overlap; otherwise, the lower timeslot value will be dropped.
+   */
+  public void resampleDownStats(TimeSeries<SampleStats> initTargetTimeseries, TimeTransform timeTransform) {
+    this.targetTimeseries = null;
+    this.resampleValueCalculator = null;
+    this.statsTimeseries = initTargetTimeseries;
+
+    this.resampleSlices(timeTransform);
+  }
+
+  private void resampleSlices(TimeTransform timeTransform) {
+    long currentSlotTimestamp = 0;
+    boolean slotOpen = false;
+    valueCount = 0;
+    overlapFirst = 1.0;
+    overlapLast = 1.0;
+    ReusableTimeTransform reusableTimeTransform = TimeTransformAdapter.reusable(timeTransform);
+    MisalignedTimestamp misalignedTimestamp = new MisalignedTimestamp();
+
+    long startNanos = 0;
+    if (listener != null) {
+      metrics = new ResampleMetrics();
+      timed = listener.isTimed();
+      startNanos = System.nanoTime();
+    } else {
+      metrics = null;
+      timed = false;
+    }
+
+    //
+    // Read the values without boxing whenever the source supports it.
+    //
+    TimeSeriesCursor<Double> cursor = this.source.cursor();
+    DoubleTimeSeriesCursor doubleCursor = null;
+    if (cursor instanceof DoubleTimeSeriesCursor) {
+      doubleCursor = (DoubleTimeSeriesCursor) cursor;
+    }
+
+    //
+    // Loop through all of the values from the source.
+    //
+    while (cursor.next()) {
+      //
+      // Map the timestamp to the new timestamp.
+      //
+      if (timed) {
+        long transformStart = System.nanoTime();
+        reusableTimeTransform.transformTime(cursor.getTimestamp(), misalignedTimestamp);
+        metrics.addTransformNanos(System.nanoTime() - transformStart);
+      } else {
+        reusableTimeTransform.transformTime(cursor.getTimestamp(), misalignedTimestamp);
+      }
+
+      if (metrics != null) {
+        metrics.recordSample();
+      }
+
+      if (!slotOpen) {
+        //
+        // First sample in the next output.
+        //
+        overlapFirst = misalignedTimestamp.overlap;
+        overlapLast = overlapFirst;
+      } else if (currentSlotTimestamp != misalignedTimestamp.timestamp) {
+        //
+        // New target timestamp; process the prior set now and store in the result time series.
+        //
+        storeSlot(currentSlotTimestamp, overlapFirst, overlapLast);
+
+        //
+        // Start a new value list with the last value from the previous list as the start value, using the remainder
+        //  of its overlap.  Only if the overlap is worth adding though.
+        //
+        processSampleRemainder(currentSlotTimestamp, misalignedTimestamp);
+      }
+
+      //
+      // In all cases above, the latest sample goes into the sample list now.
+      //
+      currentSlotTimestamp = misalignedTimestamp.timestamp;
+      slotOpen = true;
+      overlapLast = misalignedTimestamp.overlap;
+      if (valueCount == 0) {
+        overlapFirst = overlapLast;
+      }
+
+      if (doubleCursor != null) {
+        appendValue(doubleCursor.getDoubleValue());
+      } else {
+        appendValue(cursor.getValue());
+      }
+    }
+
+    //
+    // Process the last set of samples, if any.
+    //
+    if (valueCount > 0) {
+      storeSlot(currentSlotTimestamp, overlapFirst, overlapLast);
+      this.processSampleRemainder(currentSlotTimestamp, misalignedTimestamp);
+    }
+
+    if (metrics != null) {
+      metrics.complete(System.nanoTime() - startNanos);
+      listener.resampleCompleted(metrics);
+      metrics = null;
+      timed = false;
+    }
+  }
+
+  /**
+   * Re-sample the time series for this utility instance using an accumulator, storing the results in the given target
+   * time series.  Follows the same rules as the calculator-based re-sample, but only the last source value is retained
+   * between samples, so memory use does not grow with the ratio of source slots to target slots.
+   *
+   * @param initTargetTimeseries series into which the results will be stored.
+   * @param timeTransform        transformer of timestamps from the original time series to the new time series.
+   *                             Note the times returned MUST be rounded-down to the lower of two time slots anytime
+   *                             there is overlap; otherwise, the lower timeslot value will be dropped.
+   * @param accumulator          accumulator of the value of the target timeslot from the values of the original series
+   *                             that map down onto the target timeslot.
+   */
+  public void resampleDown(DoubleTimeSeries initTargetTimeseries, TimeTransform timeTransform,
+                           DoubleResampleAccumulator accumulator) {
+
+    DoubleStreamingResampler resampler = new DoubleStreamingResampler(timeTransform, accumulator, initTargetTimeseries);
+
+    //
+    // Read the values without boxing whenever the source supports it.
+    //
+    TimeSeriesCursor<Double> cursor = this.source.cursor();
+    if (cursor instanceof DoubleTimeSeriesCursor) {
+      DoubleTimeSeriesCursor doubleCursor = (DoubleTimeSeriesCursor) cursor;
+      while (doubleCursor.next()) {
+        resampler.add(doubleCursor.getTimestamp(), doubleCursor.getDoubleValue());
+      }
+    } else {
+      while (cursor.next()) {
+        resampler.add(cursor.getTimestamp(), cursor.getValue());
+      }
+    }
+
+    resampler.flush();
+  }
+
+  /**
+   * Up-sample the time series for this utility instance, storing the results in the given target time series.
+   *
+   * @param initTargetTimeseries series into which the results will be stored.
+   * @param timeTransform        transformer of timestamps from the new time series down to the original time series.
+   * @param fill                 strategy which fills the target slots from the source samples.
+   * @see #resampleUp(DoubleTimeSeriesVisitor, TimeTransform, DoubleUpsampleFill)
+   */
+  public void resampleUp(DoubleTimeSeries initTargetTimeseries, TimeTransform timeTransform, DoubleUpsampleFill fill) {
+    this.resampleUp(new SeriesOutput(initTargetTimeseries), timeTransform, fill);
+  }
+
+  /**
+   * Up-sample the time series for this utility instance, passing each target slot to the given output as it is
+   * produced, so nothing is collected in between.  Each source sample covers the target slots which the transform
+   * maps onto its timestamp, and the fill strategy decides the values of those slots, and of any gap before the next
+   * sample; for example, DoubleLinearFill interpolates while DoubleSplitFill divides a total evenly.
+   * <p>
+   * Note the transform runs in the same direction as for down-sampling, from the finer series to the coarser one, so
+   * the transform which re-samples seconds down to minutes also up-samples minutes to seconds.
+   *
+   * @param output        receiver of the target slots, in slot order.
+   * @param timeTransform transformer of timestamps from the new time series down to the original time series.  Source
+   *                      timestamps must never decrease as target timestamps increase.
+   * @param fill          strategy which fills the target slots from the source samples.
+   */
+  public void resampleUp(DoubleTimeSeriesVisitor output, TimeTransform timeTransform, DoubleUpsampleFill fill) {
+    ReusableTimeTransform reusableTimeTransform = TimeTransformAdapter.reusable(timeTransform);
+    MisalignedTimestamp misalignedTimestamp = new MisalignedTimestamp();
+
+    //
+    // Read the values without boxing whenever the source supports it.
+    //
+    TimeSeriesCursor<Double> cursor = this.source.cursor();
+    DoubleTimeSeriesCursor doubleCursor = null;
+    if (cursor instanceof DoubleTimeSeriesCursor) {
+      doubleCursor = (DoubleTimeSeriesCursor) cursor;
+    }
+
+    if (!cursor.next()) {
+      return;
+    }
+
+    long time = cursor.getTimestamp();
+    double value = (doubleCursor != null) ? doubleCursor.getDoubleValue() : cursor.getValue();
+    long slotStart = ResampleUtil.firstTargetSlot(reusableTimeTransform, misalignedTimestamp, time, time);
+
+    //
+    // Look one sample ahead, so the fill knows where the gap after each sample ends.
+    //
+    while (true) {
+      //
+      // No source slot follows Long.MAX_VALUE, so a sample there covers the target slots up to the end of the range.
+      //
+      long slotEnd = Long.MAX_VALUE;
+      if (time != Long.MAX_VALUE) {
+        slotEnd = ResampleUtil.firstTargetSlot(reusableTimeTransform, misalignedTimestamp, time + 1, slotStart);
+      }
+
+      if (!cursor.next()) {
+        fill.fill(slotStart, slotEnd, value, false, slotEnd, value, output);
+        break;
+      }
+
+      long nextTime = cursor.getTimestamp();
+      double nextValue = (doubleCursor != null) ? doubleCursor.getDoubleValue() : cursor.getValue();
+      long nextSlotStart = slotEnd;
+      if (nextTime != time + 1) {
+        nextSlotStart = ResampleUtil.firstTargetSlot(reusableTimeTransform, misalignedTimestamp, nextTime, slotEnd);
+      }
+
+      fill.fill(slotStart, slotEnd, value, true, nextSlotStart, nextValue, output);
+
+      time = nextTime;
+      value = nextValue;
+      slotStart = nextSlotStart;
+    }
+  }
+
+  /**
+   * Process the remainder of a sample.  Adds a new, complete sample to the target output if the remainder falls on
+   * the next slot and the next sample does not fall on the next slot.
+   *
+   * @param completedTimeSlot   timestamp of the target slot which was just closed.
+   * @param misalignedTimestamp timestamp and overlap of the incoming value to apply.
+   */
+  protected void processSampleRemainder(long completedTimeSlot, MisalignedTimestamp misalignedTimestamp) {
+
+    overlapFirst = 1.0 - overlapLast;
+    if (overlapFirst > 0.0001) {
+      valueBuffer[0] = valueBuffer[valueCount - 1];
+      valueCount = 1;
+
+      //
+      // If the last sample overflow to the next time slot does not match the timeslot of the current sample, then
+      //  it creates a full output sample.
+      //
+      completedTimeSlot = completedTimeSlot + 1;
+      if (metrics != null) {
+        metrics.recordRemainder(completedTimeSlot != misalignedTimestamp.timestamp);
+      }
+
+      if (completedTimeSlot != misalignedTimestamp.timestamp) {
+        storeSlot(completedTimeSlot, overlapFirst, overlapFirst);
+
+        valueCount = 0;
+      }
+    } else {
+      valueCount = 0;
+    }
+  }
+
+  /**
+   * Store the target slot for the values in the buffer, either as a calculated value or as statistics.
+   */
+  private void storeSlot(long slotTimestamp, double slotOverlapFirst, double slotOverlapLast) {
+    long calculatorStart = 0;
+    if (timed) {
+      calculatorStart = System.nanoTime();
+    }
+
+    if (statsTimeseries != null) {
+      SampleStats stats = new SampleStats();
+      int cur = 0;
+      while (cur < valueCount) {
+        double adjustment;
+        if (cur == 0) {
+          adjustment = slotOverlapFirst;
+        } else if (cur == (valueCount - 1)) {
+          adjustment = slotOverlapLast;
+        } else {
+          adjustment = 1.0;
+        }
+
+        stats.accept(valueBuffer[cur], adjustment);
+        cur++;
+      }
+
+      statsTimeseries.setTimestampSample(slotTimestamp, stats);
+    } else {
+      double outputSampleValue = resampleValueCalculator.calculateTransformedSample(valueBuffer, 0, valueCount,
+              slotOverlapFirst, slotOverlapLast);
+      targetTimeseries.setTimestampSample(slotTimestamp, outputSampleValue);
+    }
+
+    if (metrics != null) {
+      metrics.recordSlot(valueCount);
+      if (timed) {
+        metrics.addCalculatorNanos(System.nanoTime() - calculatorStart);
+      }
+    }
+  }
+
+  private void appendValue(double value) {
+    if (valueCount == valueBuffer.length) {
+      valueBuffer = Arrays.copyOf(valueBuffer, valueCount + (valueCount >> 1));
+      if (metrics != null) {
+        metrics.recordBufferAllocation();
+      }
+    }
+
+    valueBuffer[valueCount] = value;
+    valueCount++;
+  }
+
+  private static class SeriesOutput implements DoubleTimeSeriesVisitor {
+    private final DoubleTimeSeries target;
+
+    public SeriesOutput(DoubleTimeSeries target) {
+      this.target = target;
+    }
+
+    @Override
+    public void visit(long timestamp, double value) {
+      this.target.setTimestampSample(timestamp, value);
+    }
+  }
+}
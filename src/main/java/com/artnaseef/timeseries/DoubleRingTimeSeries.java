@@ -0,0 +1,443 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import java.util.TreeSet;
+
+/**
+ * Time series of double values which only retains the most recent slots, such as the last 3600 seconds.  Works the
+ * same way as LongRingTimeSeries: samples live in a fixed-size ring buffer indexed directly by timestamp, and the
+ * window advances as newer timestamps arrive, discarding the slots which fall out of it.
+ * <p/>
+ * The series can be used anywhere a TimeSeries is expected, such as the source of a re-sample.
+ */
+public class DoubleRingTimeSeries extends TimeSeries<Double> {
+  private final Ring ring;
+  private final long lowest;
+  private final long highest;
+
+  /**
+   * Initialize the series.
+   *
+   * @param capacity number of consecutive slots, ending with the newest, retained by the series.
+   */
+  public DoubleRingTimeSeries(int capacity) {
+    this(new Ring(capacity), Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  private DoubleRingTimeSeries(Ring ring, long lowest, long highest) {
+    super(false);
+    this.ring = ring;
+    this.lowest = lowest;
+    this.highest = highest;
+  }
+
+  public int getCapacity() {
+    return  this.ring.capacity;
+  }
+
+  /**
+   * Retrieve the oldest timestamp within the window; samples before it are no longer retained.
+   *
+   * @return first timestamp of the window, or Long.MIN_VALUE if the series has never held a sample.
+   */
+  public long getWindowStart() {
+    return  this.ring.getWindowStart();
+  }
+
+  @Override
+  public Double getTimestampSample (long time) {
+    int index = this.indexInRange(time);
+    if ( index < 0 ) {
+      return  null;
+    }
+
+    return  this.ring.values[index];
+  }
+
+  /**
+   * Retrieve the sample at the given timestamp without boxing.
+   *
+   * @param time timestamp of the sample.
+   * @param missingValue value to return when the series has no sample at the given timestamp.
+   * @return value of the sample, or missingValue if there is none.
+   */
+  public double getTimestampSample (long time, double missingValue) {
+    int index = this.indexInRange(time);
+    if ( index < 0 ) {
+      return  missingValue;
+    }
+
+    return  this.ring.values[index];
+  }
+
+  /**
+   * Set the sample at the given timestamp.  Setting a null value removes the sample.
+   *
+   * @param time timestamp of the sample.
+   * @param value new value of the sample, or null to remove it.
+   */
+  @Override
+  public void setTimestampSample (long time, Double value) {
+    if ( value == null ) {
+      int index = this.indexInRange(time);
+      if ( index >= 0 ) {
+        this.ring.remove(index);
+      }
+    } else {
+      this.setTimestampSample(time, value.doubleValue());
+    }
+  }
+
+  public void setTimestampSample (long time, double value) {
+    this.checkRange(time);
+
+    int index = this.ring.claimIndex(time);
+    if ( index >= 0 ) {
+      this.ring.values[index] = value;
+    }
+  }
+
+  /**
+   * Add the given value to the sample at the given timestamp.
+   *
+   * @param time timestamp of the sample.
+   * @param value amount to add.
+   * @return new value of the sample, or 0.0 if the timestamp is older than the window and the value was ignored.
+   */
+  public double add (long time, double value) {
+    this.checkRange(time);
+
+    int index = this.ring.claimIndex(time);
+    if ( index < 0 ) {
+      return  0.0;
+    }
+
+    this.ring.values[index] += value;
+    return  this.ring.values[index];
+  }
+
+  @Override
+  public TreeSet<Long> getTimestamps () {
+    TreeSet<Long> result = new TreeSet<>();
+
+    DoubleTimeSeriesCursor cursor = this.cursor();
+    while ( cursor.next() ) {
+      result.add(cursor.getTimestamp());
+    }
+
+    return  result;
+  }
+
+  @Override
+  public int size () {
+    if ( ( this.lowest == Long.MIN_VALUE ) && ( this.highest == Long.MAX_VALUE ) ) {
+      return  this.ring.size;
+    }
+
+    int result = 0;
+    DoubleTimeSeriesCursor cursor = this.cursor();
+    while ( cursor.next() ) {
+      result++;
+    }
+
+    return  result;
+  }
+
+  @Override
+  public DoubleTimeSeriesCursor cursor () {
+    return  new RingCursor(this.ring, Math.max(this.lowest, this.ring.getWindowStart()),
+            Math.min(this.highest, this.ring.newestTime));
+  }
+
+  @Override
+  public void forEach (TimeSeriesVisitor<? super Double> visitor) {
+    DoubleTimeSeriesCursor cursor = this.cursor();
+    while ( cursor.next() ) {
+      visitor.visit(cursor.getTimestamp(), cursor.getDoubleValue());
+    }
+  }
+
+  /**
+   * Visit every sample of the series in timestamp order without boxing them.
+   *
+   * @param visitor visitor called once for each sample.
+   */
+  public void forEachDouble (DoubleTimeSeriesVisitor visitor) {
+    DoubleTimeSeriesCursor cursor = this.cursor();
+    while ( cursor.next() ) {
+      visitor.visit(cursor.getTimestamp(), cursor.getDoubleValue());
+    }
+  }
+
+  @Override
+  public Long getFirstTimestamp () {
+    return  this.getCeilingTimestamp(this.lowest);
+  }
+
+  @Override
+  public Long getLastTimestamp () {
+    return  this.getFloorTimestamp(this.highest);
+  }
+
+  @Override
+  public Long getFloorTimestamp (long time) {
+    if ( ! this.ring.started ) {
+      return  null;
+    }
+
+    long low = Math.max(this.lowest, this.ring.getWindowStart());
+    long cur = Math.min(Math.min(time, this.highest), this.ring.newestTime);
+    if ( cur < low ) {
+      return  null;
+    }
+
+    while ( this.ring.findIndex(cur) < 0 ) {
+      if ( cur == low ) {
+        return  null;
+      }
+      cur--;
+    }
+
+    return  cur;
+  }
+
+  @Override
+  public Long getCeilingTimestamp (long time) {
+    if ( ! this.ring.started ) {
+      return  null;
+    }
+
+    long high = Math.min(this.highest, this.ring.newestTime);
+    long cur = Math.max(Math.max(time, this.lowest), this.ring.getWindowStart());
+    if ( cur > high ) {
+      return  null;
+    }
+
+    while ( this.ring.findIndex(cur) < 0 ) {
+      if ( cur == high ) {
+        return  null;
+      }
+      cur++;
+    }
+
+    return  cur;
+  }
+
+  @Override
+  public DoubleRingTimeSeries subSeries (long from, long to) {
+    return  (DoubleRingTimeSeries) super.subSeries(from, to);
+  }
+
+  @Override
+  public DoubleRingTimeSeries headSeries (long to) {
+    return  (DoubleRingTimeSeries) super.headSeries(to);
+  }
+
+  @Override
+  public DoubleRingTimeSeries tailSeries (long from) {
+    return  (DoubleRingTimeSeries) super.tailSeries(from);
+  }
+
+  /**
+   * Create a view over the same ring, limited to the given range.  The window of the view moves with the ring.
+   */
+  @Override
+  protected DoubleRingTimeSeries createRangeView (long rangeLowest, long rangeHighest) {
+    return  new DoubleRingTimeSeries(this.ring, Math.max(rangeLowest, this.lowest),
+            Math.min(rangeHighest, this.highest));
+  }
+
+  private int indexInRange (long time) {
+    if ( ( time < this.lowest ) || ( time > this.highest ) ) {
+      return  -1;
+    }
+
+    return  this.ring.findIndex(time);
+  }
+
+  private void checkRange (long time) {
+    if ( ( time < this.lowest ) || ( time > this.highest ) ) {
+      throw new IllegalArgumentException("timestamp " + time + " is outside of the series range [" + this.lowest +
+              ", " + this.highest + "]");
+    }
+  }
+
+  /**
+   * Ring buffer storage, shared by the series and all of its views.
+   */
+  private static class Ring {
+    private final int capacity;
+    private final long[] slotTimes;
+    private final double[] values;
+    private final boolean[] present;
+
+    private boolean started;
+    private long newestTime;
+    private int size;
+
+    public Ring(int capacity) {
+      if ( capacity < 1 ) {
+        throw new IllegalArgumentException("capacity must be positive: " + capacity);
+      }
+
+      this.capacity = capacity;
+      this.slotTimes = new long[capacity];
+      this.values = new double[capacity];
+      this.present = new boolean[capacity];
+    }
+
+    public long getWindowStart() {
+      if ( ! this.started ) {
+        return  Long.MIN_VALUE;
+      }
+
+      return  this.newestTime - this.capacity + 1;
+    }
+
+    /**
+     * Locate the ring position holding the given timestamp.
+     *
+     * @return ring index, or -1 if the ring has no sample at the timestamp.
+     */
+    public int findIndex(long time) {
+      int index = this.ringIndex(time);
+      if ( ( this.present[index] ) && ( this.slotTimes[index] == time ) ) {
+        return  index;
+      }
+
+      return  -1;
+    }
+
+    /**
+     * Locate the ring position for the given timestamp, advancing the window if the timestamp is newer than any seen
+     * so far, and starting the slot with a 0 value if it holds no sample yet.
+     *
+     * @return ring index, or -1 if the timestamp is older than the window.
+     */
+    public int claimIndex(long time) {
+      if ( ! this.started ) {
+        this.started = true;
+        this.newestTime = time;
+      } else if ( time > this.newestTime ) {
+        this.advanceTo(time);
+      } else if ( time <= this.newestTime - this.capacity ) {
+        return  -1;
+      }
+
+      int index = this.ringIndex(time);
+      if ( ( ! this.present[index] ) || ( this.slotTimes[index] != time ) ) {
+        if ( ! this.present[index] ) {
+          this.size++;
+        }
+
+        this.slotTimes[index] = time;
+        this.values[index] = 0.0;
+        this.present[index] = true;
+      }
+
+      return  index;
+    }
+
+    public void remove(int index) {
+      this.present[index] = false;
+      this.size--;
+    }
+
+    /**
+     * Move the window forward so it ends at the given time, discarding the slots which fall out of it.
+     */
+    private void advanceTo(long time) {
+      long distance = time - this.newestTime;
+      long expireFrom = this.newestTime - this.capacity + 1;
+      long expireCount = Math.min(distance, this.capacity);
+
+      long cur = 0;
+      while ( cur < expireCount ) {
+        long expiredTime = expireFrom + cur;
+        int index = this.ringIndex(expiredTime);
+        if ( ( this.present[index] ) && ( this.slotTimes[index] == expiredTime ) ) {
+          this.remove(index);
+        }
+        cur++;
+      }
+
+      this.newestTime = time;
+    }
+
+    private int ringIndex(long time) {
+      long index = time % this.capacity;
+      if ( index < 0 ) {
+        index += this.capacity;
+      }
+
+      return  (int) index;
+    }
+  }
+
+  /**
+   * Cursor which walks the window from its oldest slot to its newest, skipping empty slots.
+   */
+  private static class RingCursor implements DoubleTimeSeriesCursor {
+    private final Ring ring;
+    private final long lastTime;
+    private long nextTime;
+    private boolean exhausted;
+    private int index = -1;
+
+    public RingCursor(Ring ring, long firstTime, long lastTime) {
+      this.ring = ring;
+      this.nextTime = firstTime;
+      this.lastTime = lastTime;
+      this.exhausted = ( ! ring.started ) || ( firstTime > lastTime );
+    }
+
+    @Override
+    public boolean next() {
+      while ( ! this.exhausted ) {
+        long time = this.nextTime;
+        if ( time == this.lastTime ) {
+          this.exhausted = true;
+        } else {
+          this.nextTime++;
+        }
+
+        int candidate = this.ring.findIndex(time);
+        if ( candidate >= 0 ) {
+          this.index = candidate;
+          return  true;
+        }
+      }
+
+      this.index = -1;
+      return  false;
+    }
+
+    @Override
+    public long getTimestamp() {
+      return  this.ring.slotTimes[this.index];
+    }
+
+    @Override
+    public double getDoubleValue() {
+      return  this.ring.values[this.index];
+    }
+
+    @Override
+    public Double getValue() {
+      return  this.ring.values[this.index];
+    }
+  }
+}
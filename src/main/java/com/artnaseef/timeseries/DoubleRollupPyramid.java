@@ -0,0 +1,298 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.DoubleResampleValueCalculator;
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Raw series of double values together with pre-aggregated rollup levels which are kept up-to-date as samples arrive.
+ * Works the same way as LongRollupPyramid: each level is built from the next finer level by its own calculator, and a
+ * query is answered from the coarsest level whose resolution divides the requested resolution.
+ */
+public class DoubleRollupPyramid {
+  private final DoubleTimeSeries raw = new DoubleTimeSeries();
+  private final List<Level> levels = new ArrayList<>();
+  private final MisalignedTimestamp misalignedTimestamp = new MisalignedTimestamp();
+
+  private boolean started;
+
+  /**
+   * Add a rollup level, coarser than all existing levels.  Levels must be added before the first sample.
+   *
+   * @param resolution number of source slots per slot of the level; must be a multiple of the previous level's.
+   * @param calculator calculator of each slot of the level from the slots of the previous level, or from the raw
+   *                   samples for the first level.
+   */
+  public void addLevel (long resolution, DoubleResampleValueCalculator calculator) {
+    if ( this.started ) {
+      throw new IllegalStateException("levels must be added before the first sample");
+    }
+
+    long finerResolution = this.getFinestLevelResolution();
+    if ( ( resolution <= finerResolution ) || ( ( resolution % finerResolution ) != 0 ) ) {
+      throw new IllegalArgumentException("resolution " + resolution + " is not a larger multiple of the previous " +
+              "resolution " + finerResolution);
+    }
+
+    this.levels.add(new Level(resolution, resolution / finerResolution, calculator));
+  }
+
+  /**
+   * Retrieve the raw series.  Changes must be made through the pyramid so the levels stay up-to-date.
+   */
+  public DoubleTimeSeries getRawSeries () {
+    return  this.raw;
+  }
+
+  /**
+   * Add the given value to the raw sample at the given timestamp, updating the rollup levels.
+   *
+   * @param time timestamp of the sample.
+   * @param value amount to add.
+   * @return new value of the raw sample.
+   */
+  public double add (long time, double value) {
+    double result = this.raw.add(time, value);
+    this.sampleChanged(time);
+
+    return  result;
+  }
+
+  /**
+   * Set the raw sample at the given timestamp, updating the rollup levels.
+   *
+   * @param time timestamp of the sample.
+   * @param value new value of the sample.
+   */
+  public void setTimestampSample (long time, double value) {
+    this.raw.setTimestampSample(time, value);
+    this.sampleChanged(time);
+  }
+
+  /**
+   * Determine the resolution of the level which answers queries at the given resolution: the coarsest level whose
+   * resolution divides it.
+   *
+   * @param resolution requested resolution, in source slots.
+   * @return resolution of the level used, or 1 for the raw series.
+   */
+  public long getQueryLevelResolution (long resolution) {
+    if ( resolution < 1 ) {
+      throw new IllegalArgumentException("resolution must be positive: " + resolution);
+    }
+
+    Level level = this.findQueryLevel(resolution);
+    if ( level == null ) {
+      return  1;
+    }
+
+    return  level.resolution;
+  }
+
+  /**
+   * Retrieve the series at the resolution of one of the levels, or 1 for the raw samples.
+   *
+   * @param resolution resolution of the result, in source slots.
+   * @param from first source timestamp of the query range.
+   * @param to end of the query range (exclusive).
+   * @return new series holding every slot which overlaps the range, timestamped by slot.
+   * @throws IllegalArgumentException if there is no level with the given resolution.
+   */
+  public DoubleTimeSeries query (long resolution, long from, long to) {
+    return  this.query(resolution, from, to, null);
+  }
+
+  /**
+   * Retrieve the series at any resolution which is a multiple of one of the levels.  Results at the resolution of a
+   * level are copied straight from the level; otherwise the level chosen by getQueryLevelResolution() is re-sampled
+   * with the given calculator, which sees the values of that level's slots.
+   *
+   * @param resolution resolution of the result, in source slots.
+   * @param from first source timestamp of the query range.
+   * @param to end of the query range (exclusive).
+   * @param calculator calculator of each result slot from the slots of the chosen level; only needed when the
+   *                   resolution does not match a level.
+   * @return new series holding every slot which overlaps the range, timestamped by slot.
+   */
+  public DoubleTimeSeries query (long resolution, long from, long to, DoubleResampleValueCalculator calculator) {
+    if ( resolution < 1 ) {
+      throw new IllegalArgumentException("resolution must be positive: " + resolution);
+    }
+
+    DoubleTimeSeries result = new DoubleTimeSeries();
+    if ( to <= from ) {
+      return  result;
+    }
+
+    this.refresh();
+
+    Level level = this.findQueryLevel(resolution);
+    DoubleTimeSeries levelSeries;
+    long levelResolution;
+    if ( level == null ) {
+      levelSeries = this.raw;
+      levelResolution = 1;
+    } else {
+      levelSeries = level.series;
+      levelResolution = level.resolution;
+    }
+
+    //
+    // Select every level slot within the result slots overlapping the range.
+    //
+    IntegerRatioTimeTransform resultTransform = new IntegerRatioTimeTransform(resolution);
+    resultTransform.transformTime(from, this.misalignedTimestamp);
+    long firstResultSlot = this.misalignedTimestamp.timestamp;
+    resultTransform.transformTime(to - 1, this.misalignedTimestamp);
+    long lastResultSlot = this.misalignedTimestamp.timestamp;
+
+    long ratio = resolution / levelResolution;
+    DoubleTimeSeries levelRange = levelSeries.subSeries(firstResultSlot * ratio, ( lastResultSlot + 1 ) * ratio);
+
+    if ( ratio == 1 ) {
+      DoubleTimeSeriesCursor cursor = levelRange.cursor();
+      while ( cursor.next() ) {
+        result.setTimestampSample(cursor.getTimestamp(), cursor.getDoubleValue());
+      }
+    } else {
+      if ( calculator == null ) {
+        throw new IllegalArgumentException("no rollup level has resolution " + resolution +
+                "; a calculator is required");
+      }
+
+      new DoubleResampleUtil(levelRange).resampleDown(result, new IntegerRatioTimeTransform(ratio), calculator);
+    }
+
+    return  result;
+  }
+
+  /**
+   * Bring the newest slot of every level up-to-date.
+   */
+  public void refresh () {
+    int cur = 0;
+    while ( cur < this.levels.size() ) {
+      Level level = this.levels.get(cur);
+      if ( level.dirty ) {
+        this.recompute(cur, level.openSlot);
+        level.dirty = false;
+      }
+      cur++;
+    }
+  }
+
+  private long getFinestLevelResolution () {
+    if ( this.levels.isEmpty() ) {
+      return  1;
+    }
+
+    return  this.levels.get(this.levels.size() - 1).resolution;
+  }
+
+  private Level findQueryLevel (long resolution) {
+    int cur = this.levels.size() - 1;
+    while ( cur >= 0 ) {
+      Level level = this.levels.get(cur);
+      if ( ( resolution % level.resolution ) == 0 ) {
+        return  level;
+      }
+      cur--;
+    }
+
+    return  null;
+  }
+
+  /**
+   * Update the levels after a change to the raw sample at the given timestamp.  Levels are visited from finest to
+   * coarsest, so a completed slot is always recomputed from finer slots which are themselves complete.
+   */
+  private void sampleChanged (long time) {
+    int cur = 0;
+    while ( cur < this.levels.size() ) {
+      Level level = this.levels.get(cur);
+      level.transform.transformTime(time, this.misalignedTimestamp);
+      long slot = this.misalignedTimestamp.timestamp;
+
+      if ( ( ! this.started ) || ( slot > level.openSlot ) ) {
+        //
+        // Time has moved on; complete the previous newest slot.
+        //
+        if ( level.dirty ) {
+          this.recompute(cur, level.openSlot);
+        }
+
+        level.openSlot = slot;
+        level.dirty = true;
+      } else if ( slot == level.openSlot ) {
+        level.dirty = true;
+      } else {
+        this.recompute(cur, slot);
+      }
+
+      cur++;
+    }
+
+    this.started = true;
+  }
+
+  /**
+   * Recalculate one slot of a level from the slots of the next finer level, which are read in place.
+   */
+  private void recompute (int levelIndex, long slot) {
+    Level level = this.levels.get(levelIndex);
+    DoubleTimeSeries finer;
+    if ( levelIndex == 0 ) {
+      finer = this.raw;
+    } else {
+      finer = this.levels.get(levelIndex - 1).series;
+    }
+
+    long finerFrom = level.finerTransform.getSourceStart(slot);
+    DoubleTimeSeries slice = finer.subSeries(finerFrom, finerFrom + level.finerTransform.getRatio());
+
+    int start = slice.getRangeStart();
+    int length = slice.getRangeEnd() - start;
+    if ( length == 0 ) {
+      level.series.setTimestampSample(slot, null);
+    } else {
+      double value = level.calculator.calculateTransformedSample(slice.getSamples().getValueArray(), start, length,
+              1.0, 1.0);
+      level.series.setTimestampSample(slot, value);
+    }
+  }
+
+  private static class Level {
+    private final long resolution;
+    private final IntegerRatioTimeTransform transform;
+    private final IntegerRatioTimeTransform finerTransform;
+    private final DoubleResampleValueCalculator calculator;
+    private final DoubleTimeSeries series = new DoubleTimeSeries();
+
+    private long openSlot;
+    private boolean dirty;
+
+    public Level(long resolution, long finerRatio, DoubleResampleValueCalculator calculator) {
+      this.resolution = resolution;
+      this.transform = new IntegerRatioTimeTransform(resolution);
+      this.finerTransform = new IntegerRatioTimeTransform(finerRatio);
+      this.calculator = calculator;
+    }
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.DoubleResampleAccumulator;
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.ReusableTimeTransform;
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.TimeTransformAdapter;
+
+/**
+ * Push-based re-sampler of double values which consumes samples as they arrive, in time order, and emits each target
+ * slot as soon as it is complete.  Follows the same rules as ResampleUtil.resampleDown(), including the carry-over of
+ * the remainder of a sample which overlaps two target slots, without first collecting the source samples into a
+ * series.
+ * <p/>
+ * A target slot is complete once a sample (or a call to advanceTo()) maps to a later slot; the final slot is only
+ * emitted by flush().  The newest sample is held back from the accumulator until the next one shows whether it is
+ * the last of its slot, so the accumulator sees the same weights a calculator does: the overlap for the first and
+ * last samples of a slot, and 1.0 for those in between.  Not safe under concurrency.
+ */
+public class DoubleStreamingResampler {
+  private final ReusableTimeTransform timeTransform;
+  private final MisalignedTimestamp misalignedTimestamp = new MisalignedTimestamp();
+  private final DoubleResampleAccumulator accumulator;
+  private final DoubleTimeSeriesVisitor output;
+
+  private boolean started;
+  private long lastSourceTimestamp;
+  private boolean slotOpen;
+  private long currentSlotTimestamp;
+  private double heldValue;
+  private double heldWeight;
+  private double heldLastWeight;
+  private double lastOverlap = 1.0;
+
+  /**
+   * Initialize the re-sampler.
+   *
+   * @param timeTransform transformer of timestamps from the source samples to the target slots.  Note the times
+   *                      returned MUST be rounded-down to the lower of two time slots anytime there is overlap.
+   * @param accumulator   accumulator of the value of each target slot.
+   * @param output        receiver of each completed target slot, in slot order.
+   */
+  public DoubleStreamingResampler(TimeTransform timeTransform, DoubleResampleAccumulator accumulator,
+                                  DoubleTimeSeriesVisitor output) {
+    this.timeTransform = TimeTransformAdapter.reusable(timeTransform);
+    this.accumulator = accumulator;
+    this.output = output;
+  }
+
+  /**
+   * Initialize the re-sampler to store completed target slots into the given series.
+   *
+   * @param timeTransform transformer of timestamps from the source samples to the target slots.
+   * @param accumulator   accumulator of the value of each target slot.
+   * @param target        series into which completed target slots are stored.
+   */
+  public DoubleStreamingResampler(TimeTransform timeTransform, DoubleResampleAccumulator accumulator,
+                                  DoubleTimeSeries target) {
+    this(timeTransform, accumulator, new SeriesOutput(target));
+  }
+
+  /**
+   * Consume the next source sample.  Any target slots completed by this sample are emitted before returning.
+   *
+   * @param timestamp timestamp of the sample; must not be earlier than any sample since the last flush.
+   * @param value value of the sample.
+   * @throws IllegalArgumentException if the timestamp is earlier than a prior sample.
+   */
+  public void add(long timestamp, double value) {
+    this.checkOrder(timestamp);
+
+    MisalignedTimestamp misalignedTimestamp = this.misalignedTimestamp;
+    this.timeTransform.transformTime(timestamp, misalignedTimestamp);
+    if ((this.slotOpen) && (this.currentSlotTimestamp != misalignedTimestamp.timestamp)) {
+      this.closeSlot(misalignedTimestamp.timestamp);
+    }
+
+    if (this.slotOpen) {
+      //
+      // The held sample is not the last of its slot, so it takes its weight as the first or a middle sample.
+      //
+      this.accumulator.accept(this.heldValue, this.heldWeight);
+      this.heldWeight = 1.0;
+    } else {
+      this.currentSlotTimestamp = misalignedTimestamp.timestamp;
+      this.accumulator.beginSlot(this.currentSlotTimestamp);
+      this.slotOpen = true;
+      this.heldWeight = misalignedTimestamp.overlap;
+    }
+
+    this.heldValue = value;
+    this.heldLastWeight = misalignedTimestamp.overlap;
+    this.lastOverlap = misalignedTimestamp.overlap;
+  }
+
+  /**
+   * Advance time without a sample, emitting any target slots which can no longer receive samples.  Useful when the
+   * source goes quiet, so the last slot does not wait for the next sample.
+   *
+   * @param timestamp source timestamp which has been reached; must not be earlier than any sample since the last
+   *                  flush.
+   * @throws IllegalArgumentException if the timestamp is earlier than a prior sample.
+   */
+  public void advanceTo(long timestamp) {
+    this.checkOrder(timestamp);
+
+    if (this.slotOpen) {
+      MisalignedTimestamp misalignedTimestamp = this.misalignedTimestamp;
+      this.timeTransform.transformTime(timestamp, misalignedTimestamp);
+      if (this.currentSlotTimestamp != misalignedTimestamp.timestamp) {
+        this.closeSlot(misalignedTimestamp.timestamp);
+      }
+    }
+  }
+
+  /**
+   * Emit the final target slot, and the remainder of its last sample, if any.  Afterwards the re-sampler is reset and
+   * may be used for a new stream of samples.
+   */
+  public void flush() {
+    if (this.slotOpen) {
+      //
+      // No more samples, so the remainder always forms a slot of its own.
+      //
+      this.closeSlot(this.currentSlotTimestamp);
+    }
+
+    this.started = false;
+    this.slotOpen = false;
+    this.lastOverlap = 1.0;
+  }
+
+  /**
+   * Close the current slot, emitting it along with the held sample, and carry the remainder of that sample into the
+   * following slot.
+   *
+   * @param nextSlotTimestamp target slot of the next sample; the remainder slot is emitted immediately unless it
+   *                          matches.
+   */
+  private void closeSlot(long nextSlotTimestamp) {
+    this.accumulator.accept(this.heldValue, this.heldLastWeight);
+    this.output.visit(this.currentSlotTimestamp, this.accumulator.finishSlot());
+    this.slotOpen = false;
+
+    double remainder = 1.0 - this.lastOverlap;
+    if (remainder > 0.0001) {
+      this.currentSlotTimestamp = this.currentSlotTimestamp + 1;
+      this.accumulator.beginSlot(this.currentSlotTimestamp);
+      this.heldWeight = remainder;
+      this.heldLastWeight = remainder;
+      this.slotOpen = true;
+
+      //
+      // The remainder is now fully accounted for, so it must never carry again.
+      //
+      this.lastOverlap = 1.0;
+
+      if (this.currentSlotTimestamp != nextSlotTimestamp) {
+        this.accumulator.accept(this.heldValue, remainder);
+        this.output.visit(this.currentSlotTimestamp, this.accumulator.finishSlot());
+        this.slotOpen = false;
+      }
+    }
+  }
+
+  private void checkOrder(long timestamp) {
+    if ((this.started) && (timestamp < this.lastSourceTimestamp)) {
+      throw new IllegalArgumentException("samples must be added in time order: " + timestamp + " is earlier than " +
+              this.lastSourceTimestamp);
+    }
+
+    this.started = true;
+    this.lastSourceTimestamp = timestamp;
+  }
+
+  private static class SeriesOutput implements DoubleTimeSeriesVisitor {
+    private final DoubleTimeSeries target;
+
+    public SeriesOutput(DoubleTimeSeries target) {
+      this.target = target;
+    }
+
+    @Override
+    public void visit(long timestamp, double value) {
+      this.target.setTimestampSample(timestamp, value);
+    }
+  }
+}
@@ -14,23 +14,377 @@
 
 package com.artnaseef.timeseries;
 
+import java.util.TreeSet;
+
 /**
- * Time series of Double values which supports operations specific to double values.
+ * Time series of Double values which supports operations specific to double values.  Samples are stored in sorted,
+ * primitive arrays, so no objects are allocated per sample; the boxed accessors inherited from TimeSeries remain
+ * available, but the primitive overloads avoid boxing entirely.
  *
  * Created by art on 4/30/15.
  */
 public class DoubleTimeSeries extends TimeSeries<Double> {
-  public double add (long time, double value) {
-    Double cur = this.getTimestampSample(time);
-    double result;
-    if ( cur == null ) {
-      result = value;
+  private final DoubleSampleArray samples;
+  private final long lowest;
+  private final long highest;
+
+  public DoubleTimeSeries() {
+    this(DoubleSampleArray.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Initialize an empty series with room for the given number of samples before the storage needs to grow.
+   *
+   * @param initialCapacity number of samples to pre-allocate.
+   */
+  public DoubleTimeSeries(int initialCapacity) {
+    this(new DoubleSampleArray(initialCapacity), Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Initialize a series which takes over the given sorted samples, for bulk operations within the package.
+   */
+  DoubleTimeSeries(DoubleSampleArray samples) {
+    this(samples, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  private DoubleTimeSeries(DoubleSampleArray samples, long lowest, long highest) {
+    super(false);
+    this.samples = samples;
+    this.lowest = lowest;
+    this.highest = highest;
+  }
+
+  @Override
+  public Double getTimestampSample (long time) {
+    int index = this.indexInRange(time);
+    if ( index < 0 ) {
+      return  null;
+    }
+
+    return  this.samples.getValue(index);
+  }
+
+  /**
+   * Retrieve the sample at the given timestamp without boxing.
+   *
+   * @param time timestamp of the sample.
+   * @param missingValue value to return when the series has no sample at the given timestamp.
+   * @return value of the sample, or missingValue if there is none.
+   */
+  public double getTimestampSample (long time, double missingValue) {
+    int index = this.indexInRange(time);
+    if ( index < 0 ) {
+      return  missingValue;
+    }
+
+    return  this.samples.getValue(index);
+  }
+
+  /**
+   * Set the sample at the given timestamp.  Setting a null value removes the sample.
+   *
+   * @param time timestamp of the sample.
+   * @param value new value of the sample, or null to remove it.
+   */
+  @Override
+  public void setTimestampSample (long time, Double value) {
+    if ( value == null ) {
+      int index = this.indexInRange(time);
+      if ( index >= 0 ) {
+        this.samples.remove(index);
+      }
     } else {
-      result = value + cur;
+      this.checkRange(time);
+      this.samples.put(time, value);
     }
+  }
+
+  public void setTimestampSample (long time, double value) {
+    this.checkRange(time);
+    this.samples.put(time, value);
+  }
 
-    this.setTimestampSample(time, result);
+  @Override
+  public TreeSet<Long> getTimestamps () {
+    TreeSet<Long> result = new TreeSet<>();
+
+    int cur = this.getRangeStart();
+    int end = this.getRangeEnd();
+    while ( cur < end ) {
+      result.add(this.samples.getTimestamp(cur));
+      cur++;
+    }
 
     return  result;
   }
+
+  @Override
+  public int size () {
+    return  this.getRangeEnd() - this.getRangeStart();
+  }
+
+  public double add (long time, double value) {
+    this.checkRange(time);
+    return  this.samples.add(time, value);
+  }
+
+  /**
+   * Add a batch of samples, adding each value to any existing sample at the same timestamp.  A sorted batch which
+   * follows all existing samples is copied in with System.arraycopy(); other batches are sorted and merged in one
+   * pass, which is still far cheaper than adding the samples one at a time.
+   *
+   * @param times timestamps of the samples.
+   * @param values values of the samples, in the same order as the timestamps.
+   * @param off index of the first sample in the arrays.
+   * @param len number of samples to add.
+   */
+  public void addAll (long[] times, double[] values, int off, int len) {
+    this.checkBatch(times, values.length, off, len);
+    this.samples.putAll(times, values, off, len, true);
+  }
+
+  /**
+   * Set a batch of samples, replacing any existing samples at the same timestamps; see addAll().  When the batch
+   * holds the same timestamp more than once, the last value wins.
+   *
+   * @param times timestamps of the samples.
+   * @param values values of the samples, in the same order as the timestamps.
+   * @param off index of the first sample in the arrays.
+   * @param len number of samples to set.
+   */
+  public void setAll (long[] times, double[] values, int off, int len) {
+    this.checkBatch(times, values.length, off, len);
+    this.samples.putAll(times, values, off, len, false);
+  }
+
+  /**
+   * Retrieve the version of the samples, which increases by one with every call which changes them, such as
+   * setTimestampSample(), add() or addAll().  The storage is shared with all range views of the series, so changes
+   * made through any of them count.
+   *
+   * @return current version.
+   */
+  public long getVersion () {
+    return  this.samples.getModifications().getVersion();
+  }
+
+  ModificationLog getModifications () {
+    return  this.samples.getModifications();
+  }
+
+  /**
+   * Retrieve the counters of the storage of this series: appends, inserts, samples moved and arrays allocated.  The
+   * storage is shared with all range views of the series, so the counters cover them all.
+   *
+   * @return snapshot of the counters.
+   */
+  public SampleStoreStats getStoreStats () {
+    return  this.samples.getStats();
+  }
+
+  DoubleSampleArray getSamples () {
+    return  this.samples;
+  }
+
+  /**
+   * Index of the first sample within the range of this series.
+   */
+  int getRangeStart () {
+    if ( this.lowest > this.highest ) {
+      return  0;
+    } else if ( this.lowest == Long.MIN_VALUE ) {
+      return  0;
+    }
+
+    int index = this.samples.indexOf(this.lowest);
+    if ( index < 0 ) {
+      return  -index - 1;
+    }
+
+    return  index;
+  }
+
+  /**
+   * Index just past the last sample within the range of this series.
+   */
+  int getRangeEnd () {
+    if ( this.lowest > this.highest ) {
+      return  0;
+    } else if ( this.highest == Long.MAX_VALUE ) {
+      return  this.samples.size();
+    }
+
+    int index = this.samples.indexOf(this.highest);
+    if ( index < 0 ) {
+      return  -index - 1;
+    }
+
+    return  index + 1;
+  }
+
+  @Override
+  public DoubleTimeSeriesCursor cursor () {
+    return  new ArrayCursor(this.samples, this.getRangeStart(), this.getRangeEnd());
+  }
+
+  @Override
+  public void forEach (TimeSeriesVisitor<? super Double> visitor) {
+    int cur = this.getRangeStart();
+    int end = this.getRangeEnd();
+    while ( cur < end ) {
+      visitor.visit(this.samples.getTimestamp(cur), this.samples.getValue(cur));
+      cur++;
+    }
+  }
+
+  /**
+   * Visit every sample of the series in timestamp order without copying or boxing them.
+   *
+   * @param visitor visitor called once for each sample.
+   */
+  public void forEachDouble (DoubleTimeSeriesVisitor visitor) {
+    int cur = this.getRangeStart();
+    int end = this.getRangeEnd();
+    while ( cur < end ) {
+      visitor.visit(this.samples.getTimestamp(cur), this.samples.getValue(cur));
+      cur++;
+    }
+  }
+
+  @Override
+  public Long getFirstTimestamp () {
+    return  this.getCeilingTimestamp(this.lowest);
+  }
+
+  @Override
+  public Long getLastTimestamp () {
+    return  this.getFloorTimestamp(this.highest);
+  }
+
+  @Override
+  public Long getFloorTimestamp (long time) {
+    if ( time < this.lowest ) {
+      return  null;
+    }
+
+    int index = this.samples.indexOf(Math.min(time, this.highest));
+    if ( index < 0 ) {
+      index = -index - 2;
+    }
+
+    if ( ( index < 0 ) || ( this.samples.getTimestamp(index) < this.lowest ) ) {
+      return  null;
+    }
+
+    return  this.samples.getTimestamp(index);
+  }
+
+  @Override
+  public Long getCeilingTimestamp (long time) {
+    if ( time > this.highest ) {
+      return  null;
+    }
+
+    int index = this.samples.indexOf(Math.max(time, this.lowest));
+    if ( index < 0 ) {
+      index = -index - 1;
+    }
+
+    if ( ( index >= this.samples.size() ) || ( this.samples.getTimestamp(index) > this.highest ) ) {
+      return  null;
+    }
+
+    return  this.samples.getTimestamp(index);
+  }
+
+  @Override
+  public DoubleTimeSeries subSeries (long from, long to) {
+    return  (DoubleTimeSeries) super.subSeries(from, to);
+  }
+
+  @Override
+  public DoubleTimeSeries headSeries (long to) {
+    return  (DoubleTimeSeries) super.headSeries(to);
+  }
+
+  @Override
+  public DoubleTimeSeries tailSeries (long from) {
+    return  (DoubleTimeSeries) super.tailSeries(from);
+  }
+
+  /**
+   * Create a view over the same sample storage, limited to the given range.
+   */
+  @Override
+  protected DoubleTimeSeries createRangeView (long rangeLowest, long rangeHighest) {
+    return  new DoubleTimeSeries(this.samples, Math.max(rangeLowest, this.lowest),
+            Math.min(rangeHighest, this.highest));
+  }
+
+  private int indexInRange (long time) {
+    if ( ( time < this.lowest ) || ( time > this.highest ) ) {
+      return  -1;
+    }
+
+    return  this.samples.indexOf(time);
+  }
+
+  private void checkRange (long time) {
+    if ( ( time < this.lowest ) || ( time > this.highest ) ) {
+      throw new IllegalArgumentException("timestamp " + time + " is outside of the series range [" + this.lowest +
+              ", " + this.highest + "]");
+    }
+  }
+
+  private void checkBatch (long[] times, int valueCount, int off, int len) {
+    if ( ( off < 0 ) || ( len < 0 ) || ( (long) off + len > times.length ) || ( (long) off + len > valueCount ) ) {
+      throw new IllegalArgumentException("batch [" + off + ", " + off + " + " + len + ") is outside of the arrays of " +
+              "length " + times.length + " and " + valueCount);
+    }
+
+    if ( ( this.lowest != Long.MIN_VALUE ) || ( this.highest != Long.MAX_VALUE ) ) {
+      int cur = off;
+      while ( cur < off + len ) {
+        this.checkRange(times[cur]);
+        cur++;
+      }
+    }
+  }
+
+  private static class ArrayCursor implements DoubleTimeSeriesCursor {
+    private final DoubleSampleArray samples;
+    private final int end;
+    private int index;
+
+    public ArrayCursor(DoubleSampleArray samples, int start, int end) {
+      this.samples = samples;
+      this.end = end;
+      this.index = start - 1;
+    }
+
+    @Override
+    public boolean next() {
+      if ( this.index < this.end ) {
+        this.index++;
+      }
+
+      return  this.index < this.end;
+    }
+
+    @Override
+    public long getTimestamp() {
+      return  this.samples.getTimestamp(this.index);
+    }
+
+    @Override
+    public double getDoubleValue() {
+      return  this.samples.getValue(this.index);
+    }
+
+    @Override
+    public Double getValue() {
+      return  this.samples.getValue(this.index);
+    }
+  }
 }
@@ -0,0 +1,272 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.LongResampleValueCalculator;
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.ReusableTimeTransform;
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.TimeTransformAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel re-sampling of a time series of long values on a fork/join pool.  The source is split into chunks at
+ * target slot boundaries and each chunk is re-sampled independently.  A sample which straddles the boundary between
+ * two chunks is carried into the later chunk exactly as the sequential re-sample carries it into the next slot, so
+ * the results are identical to LongResampleUtil.
+ * <p/>
+ * The time transform and calculator are shared by all chunks and must be safe under concurrency; the built-in
+ * transforms and calculators are.  The source must not be modified during the re-sample.
+ */
+public class LongParallelResampleUtil {
+  public static final int DEFAULT_MIN_CHUNK_SIZE = 8192;
+
+  private final LongTimeSeries source;
+  private final ForkJoinPool pool;
+  private final int minChunkSize;
+
+  public LongParallelResampleUtil(LongTimeSeries source, ForkJoinPool pool) {
+    this(source, pool, DEFAULT_MIN_CHUNK_SIZE);
+  }
+
+  /**
+   * Initialize the utility.
+   *
+   * @param source       series to re-sample.
+   * @param pool         pool on which to run the chunks.
+   * @param minChunkSize minimum number of source samples per chunk; smaller series are re-sampled in a single chunk.
+   */
+  public LongParallelResampleUtil(LongTimeSeries source, ForkJoinPool pool, int minChunkSize) {
+    if ( minChunkSize < 1 ) {
+      throw new IllegalArgumentException("minimum chunk size must be positive: " + minChunkSize);
+    }
+
+    this.source = source;
+    this.pool = pool;
+    this.minChunkSize = minChunkSize;
+  }
+
+  /**
+   * Re-sample the source series, storing the results in the given target time series.  Only supports down-sampling;
+   * see ResampleUtil.resampleDown() for details.
+   *
+   * @param target                  series into which the results will be stored.
+   * @param timeTransform           transformer of timestamps from the original time series to the new time series.
+   *                                Target timestamps must never decrease as source timestamps increase.
+   * @param resampleValueCalculator calculator of the value of the target timeslot given the slice of values from the
+   *                                original series that maps down onto the target timeslot.
+   */
+  public void resampleDown(LongTimeSeries target, TimeTransform timeTransform,
+                           LongResampleValueCalculator resampleValueCalculator) {
+
+    LongSampleArray samples = this.source.getSamples();
+    int rangeStart = this.source.getRangeStart();
+    int rangeEnd = this.source.getRangeEnd();
+    int count = rangeEnd - rangeStart;
+    if (count <= 0) {
+      return;
+    }
+
+    ReusableTimeTransform reusableTimeTransform = TimeTransformAdapter.reusable(timeTransform);
+
+    //
+    // Split into chunks, each starting on a new target slot.
+    //
+    int chunkSize = Math.max(this.minChunkSize, count / ( this.pool.getParallelism() * 4 ));
+    final List<ChunkTask> chunks = new ArrayList<>();
+    MisalignedTimestamp misalignedTimestamp = new MisalignedTimestamp();
+
+    int chunkStart = rangeStart;
+    while (chunkStart < rangeEnd) {
+      int chunkEnd = findSlotBoundary(samples, reusableTimeTransform, misalignedTimestamp,
+              (int) Math.min((long) chunkStart + chunkSize, rangeEnd), rangeEnd);
+
+      chunks.add(new ChunkTask(samples, reusableTimeTransform, resampleValueCalculator, rangeStart, rangeEnd,
+              chunkStart, chunkEnd));
+      chunkStart = chunkEnd;
+    }
+
+    //
+    // Re-sample the chunks, then collect the results in order.
+    //
+    if (chunks.size() == 1) {
+      chunks.get(0).compute();
+    } else {
+      this.pool.invoke(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          ForkJoinTask.invokeAll(chunks);
+        }
+      });
+    }
+
+    for (ChunkTask oneChunk : chunks) {
+      LongTimeSeriesCursor cursor = oneChunk.output.cursor();
+      while (cursor.next()) {
+        target.setTimestampSample(cursor.getTimestamp(), cursor.getLongValue());
+      }
+    }
+  }
+
+  /**
+   * Find the first sample at or after the given index which maps to a different target slot than the sample before
+   * it, using a binary search since target slots never decrease.
+   *
+   * @return index of the sample starting a new target slot, or rangeEnd if there is none.
+   */
+  private int findSlotBoundary(LongSampleArray samples, ReusableTimeTransform timeTransform,
+                               MisalignedTimestamp misalignedTimestamp, int index, int rangeEnd) {
+    int count = rangeEnd;
+    if (index >= count) {
+      return  count;
+    }
+
+    timeTransform.transformTime(samples.getTimestamp(index - 1), misalignedTimestamp);
+    long baseSlot = misalignedTimestamp.timestamp;
+
+    int low = index;
+    int high = count;
+    while (low < high) {
+      int mid = ( low + high ) >>> 1;
+      timeTransform.transformTime(samples.getTimestamp(mid), misalignedTimestamp);
+      if (misalignedTimestamp.timestamp == baseSlot) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    return  low;
+  }
+
+  /**
+   * Re-sample of one chunk of the source, [from, to), into its own output series.  Samples outside of the chunk are
+   * only consulted within the source range, [rangeStart, rangeEnd).
+   */
+  private static class ChunkTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final LongSampleArray samples;
+    private final ReusableTimeTransform timeTransform;
+    private final LongResampleValueCalculator calculator;
+    private final int rangeStart;
+    private final int rangeEnd;
+    private final int from;
+    private final int to;
+    private final LongTimeSeries output = new LongTimeSeries();
+
+    public ChunkTask(LongSampleArray samples, ReusableTimeTransform timeTransform,
+                     LongResampleValueCalculator calculator, int rangeStart, int rangeEnd, int from, int to) {
+      this.samples = samples;
+      this.timeTransform = timeTransform;
+      this.calculator = calculator;
+      this.rangeStart = rangeStart;
+      this.rangeEnd = rangeEnd;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      long[] timestamps = this.samples.getTimestampArray();
+      long[] values = this.samples.getValueArray();
+      int count = this.rangeEnd;
+      MisalignedTimestamp misalignedTimestamp = new MisalignedTimestamp();
+
+      //
+      // Pick up the remainder of the sample just before the chunk, if it carries into the chunk's first slot.
+      //
+      boolean carry = false;
+      long carrySlot = 0;
+      double carryOverlap = 0.0;
+      if (this.from > this.rangeStart) {
+        this.timeTransform.transformTime(timestamps[this.from - 1], misalignedTimestamp);
+        double remainder = 1.0 - misalignedTimestamp.overlap;
+        if (remainder > 0.0001) {
+          carry = true;
+          carrySlot = misalignedTimestamp.timestamp + 1;
+          carryOverlap = remainder;
+        }
+      }
+
+      this.timeTransform.transformTime(timestamps[this.from], misalignedTimestamp);
+      int groupStart = this.from;
+      long groupSlot = misalignedTimestamp.timestamp;
+      double overlapFirst = misalignedTimestamp.overlap;
+      double overlapLast = overlapFirst;
+
+      int cur = this.from + 1;
+      while (true) {
+        //
+        // Look at the next sample, which may be beyond the chunk; the last sample of the chunk needs it to decide
+        //  where its remainder goes.
+        //
+        boolean hasNext = cur < count;
+        if (hasNext) {
+          this.timeTransform.transformTime(timestamps[cur], misalignedTimestamp);
+
+          if ((cur < this.to) && (misalignedTimestamp.timestamp == groupSlot)) {
+            overlapLast = misalignedTimestamp.overlap;
+            cur++;
+            continue;
+          }
+        }
+
+        //
+        // Close the slot for samples [groupStart, cur), including the carried remainder if it lands here.
+        //
+        if ((carry) && (carrySlot == groupSlot)) {
+          this.output.setTimestampSample(groupSlot, this.calculator.calculateTransformedSample(values,
+                  groupStart - 1, cur - groupStart + 1, carryOverlap, overlapLast));
+        } else {
+          this.output.setTimestampSample(groupSlot, this.calculator.calculateTransformedSample(values,
+                  groupStart, cur - groupStart, overlapFirst, overlapLast));
+        }
+
+        //
+        // Carry the remainder of the last sample into the next slot; it stands alone unless the next sample shares
+        //  that slot.
+        //
+        carry = false;
+        double remainder = 1.0 - overlapLast;
+        if (remainder > 0.0001) {
+          if ((hasNext) && (misalignedTimestamp.timestamp == groupSlot + 1)) {
+            carry = true;
+            carrySlot = groupSlot + 1;
+            carryOverlap = remainder;
+          } else {
+            this.output.setTimestampSample(groupSlot + 1,
+                    this.calculator.calculateTransformedSample(values, cur - 1, 1, remainder, remainder));
+          }
+        }
+
+        if (cur >= this.to) {
+          break;
+        }
+
+        groupStart = cur;
+        groupSlot = misalignedTimestamp.timestamp;
+        overlapFirst = misalignedTimestamp.overlap;
+        overlapLast = overlapFirst;
+        cur++;
+      }
+    }
+  }
+}
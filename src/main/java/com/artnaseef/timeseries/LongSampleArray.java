@@ -0,0 +1,421 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * Sorted storage of long samples in parallel primitive arrays.  Appending a sample with a timestamp later than all
+ * existing samples is the fast path; all other lookups use a binary search over the timestamps.  No objects are
+ * allocated per sample; the arrays grow geometrically as needed.
+ */
+class LongSampleArray {
+  static final int DEFAULT_CAPACITY = 16;
+
+  private long[] timestamps;
+  private long[] values;
+  private int size;
+
+  private long appendCount;
+  private long insertCount;
+  private long movedCount;
+  private long allocationCount;
+  private long allocatedBytes;
+  private final ModificationLog modifications = new ModificationLog();
+
+  LongSampleArray(int initialCapacity) {
+    if ( initialCapacity < 0 ) {
+      throw new IllegalArgumentException("initial capacity must not be negative: " + initialCapacity);
+    }
+
+    this.timestamps = new long[initialCapacity];
+    this.values = new long[initialCapacity];
+    this.recordAllocation(initialCapacity);
+  }
+
+  int size() {
+    return  this.size;
+  }
+
+  /**
+   * Log of the changes made to the samples; every call which changes the samples counts once.
+   */
+  ModificationLog getModifications() {
+    return  this.modifications;
+  }
+
+  SampleStoreStats getStats() {
+    return  new SampleStoreStats(this.size, this.timestamps.length, this.appendCount, this.insertCount,
+            this.movedCount, this.allocationCount, this.allocatedBytes);
+  }
+
+  /**
+   * Locate the given timestamp.
+   *
+   * @param time timestamp to locate.
+   * @return index of the sample with the given timestamp, if present; otherwise, (-(insertion point) - 1).
+   */
+  int indexOf(long time) {
+    if ( this.size == 0 ) {
+      return  -1;
+    }
+
+    //
+    // Check the end first; in-order ingestion always lands here.
+    //
+    long last = this.timestamps[this.size - 1];
+    if ( time > last ) {
+      return  -( this.size ) - 1;
+    } else if ( time == last ) {
+      return  this.size - 1;
+    }
+
+    return  Arrays.binarySearch(this.timestamps, 0, this.size, time);
+  }
+
+  /**
+   * Direct access to the timestamp storage, for bulk operations within the package.  Only the first size() entries
+   * are valid, and the array is replaced when the storage grows.
+   */
+  long[] getTimestampArray() {
+    return  this.timestamps;
+  }
+
+  /**
+   * Direct access to the value storage, for bulk operations within the package.  Only the first size() entries are
+   * valid, and the array is replaced when the storage grows.
+   */
+  long[] getValueArray() {
+    return  this.values;
+  }
+
+  long getTimestamp(int index) {
+    return  this.timestamps[index];
+  }
+
+  long getValue(int index) {
+    return  this.values[index];
+  }
+
+  void setValue(int index, long value) {
+    this.modifications.record(this.timestamps[index]);
+    this.values[index] = value;
+  }
+
+  void put(long time, long value) {
+    this.modifications.record(time);
+    int index = this.indexOf(time);
+    if ( index >= 0 ) {
+      this.values[index] = value;
+    } else {
+      this.insert(-index - 1, time, value);
+    }
+  }
+
+  long add(long time, long value) {
+    this.modifications.record(time);
+    int index = this.indexOf(time);
+    if ( index >= 0 ) {
+      this.values[index] += value;
+      return  this.values[index];
+    }
+
+    this.insert(-index - 1, time, value);
+    return  value;
+  }
+
+  /**
+   * Store a batch of samples, replacing or adding to the values of existing timestamps.  A batch which is sorted and
+   * starts after all existing samples is copied straight onto the end of the arrays; any other batch is sorted and
+   * merged with the existing samples in a single pass.  Samples within the batch which share a timestamp are applied
+   * in batch order.
+   *
+   * @param batchTimes timestamps of the batch.
+   * @param batchValues values of the batch.
+   * @param off index of the first sample of the batch in the arrays.
+   * @param len number of samples in the batch.
+   * @param accumulate true to add the values to existing samples; false to replace them.
+   */
+  void putAll(long[] batchTimes, long[] batchValues, int off, int len, boolean accumulate) {
+    if ( len == 0 ) {
+      return;
+    }
+
+    //
+    // Check the order of the batch; in-order ingestion is strictly increasing.
+    //
+    boolean sorted = true;
+    boolean distinct = true;
+    int cur = off + 1;
+    int end = off + len;
+    while ( ( cur < end ) && ( sorted ) ) {
+      if ( batchTimes[cur] < batchTimes[cur - 1] ) {
+        sorted = false;
+      } else if ( batchTimes[cur] == batchTimes[cur - 1] ) {
+        distinct = false;
+      }
+      cur++;
+    }
+
+    long[] mergeTimes = batchTimes;
+    long[] mergeValues = batchValues;
+    int mergeOff = off;
+    int mergeLen = len;
+
+    if ( ( ! sorted ) || ( ! distinct ) ) {
+      mergeTimes = Arrays.copyOfRange(batchTimes, off, end);
+      mergeValues = Arrays.copyOfRange(batchValues, off, end);
+      mergeOff = 0;
+
+      if ( ! sorted ) {
+        sortByTimestamp(mergeTimes, mergeValues, len);
+      }
+
+      mergeLen = combineDuplicates(mergeTimes, mergeValues, len, accumulate);
+    }
+
+    this.modifications.record(mergeTimes[mergeOff], mergeTimes[mergeOff + mergeLen - 1]);
+
+    if ( ( this.size == 0 ) || ( mergeTimes[mergeOff] > this.timestamps[this.size - 1] ) ) {
+      this.ensureCapacity(this.size + mergeLen);
+      System.arraycopy(mergeTimes, mergeOff, this.timestamps, this.size, mergeLen);
+      System.arraycopy(mergeValues, mergeOff, this.values, this.size, mergeLen);
+      this.size += mergeLen;
+      this.appendCount += mergeLen;
+    } else {
+      this.merge(mergeTimes, mergeValues, mergeOff, mergeLen, accumulate);
+    }
+  }
+
+  void remove(int index) {
+    this.modifications.record(this.timestamps[index]);
+    int moved = this.size - index - 1;
+    if ( moved > 0 ) {
+      System.arraycopy(this.timestamps, index + 1, this.timestamps, index, moved);
+      System.arraycopy(this.values, index + 1, this.values, index, moved);
+      this.movedCount += moved;
+    }
+    this.size--;
+  }
+
+  /**
+   * Remove the given number of samples from the start of the arrays.
+   */
+  void removeFirst(int count) {
+    if ( ( count > 0 ) && ( this.size > 0 ) ) {
+      this.modifications.record(this.timestamps[0], this.timestamps[Math.min(count, this.size) - 1]);
+    } else {
+      this.modifications.record(Long.MAX_VALUE, Long.MIN_VALUE);
+    }
+
+    int moved = this.size - count;
+    if ( moved > 0 ) {
+      System.arraycopy(this.timestamps, count, this.timestamps, 0, moved);
+      System.arraycopy(this.values, count, this.values, 0, moved);
+      this.movedCount += moved;
+    }
+    this.size = Math.max(moved, 0);
+  }
+
+  private void insert(int index, long time, long value) {
+    if ( this.size == this.timestamps.length ) {
+      this.grow();
+    }
+
+    int moved = this.size - index;
+    if ( moved > 0 ) {
+      System.arraycopy(this.timestamps, index, this.timestamps, index + 1, moved);
+      System.arraycopy(this.values, index, this.values, index + 1, moved);
+      this.insertCount++;
+      this.movedCount += moved;
+    } else {
+      this.appendCount++;
+    }
+
+    this.timestamps[index] = time;
+    this.values[index] = value;
+    this.size++;
+  }
+
+  /**
+   * Merge a strictly increasing batch of samples with the existing samples.  Samples before the first timestamp of the
+   * batch are left untouched; the rest are merged in place from the back, after growing the arrays once if needed.
+   */
+  private void merge(long[] batchTimes, long[] batchValues, int off, int len, boolean accumulate) {
+    int start = this.indexOf(batchTimes[off]);
+    if ( start < 0 ) {
+      start = -start - 1;
+    }
+
+    //
+    // Count the batch timestamps which already exist, to find the size of the result, and those after all existing
+    // samples.
+    //
+    int batchEnd = off + len;
+    int duplicates = 0;
+    int existing = start;
+    int batch = off;
+    while ( ( existing < this.size ) && ( batch < batchEnd ) ) {
+      if ( this.timestamps[existing] < batchTimes[batch] ) {
+        existing++;
+      } else if ( batchTimes[batch] < this.timestamps[existing] ) {
+        batch++;
+      } else {
+        duplicates++;
+        existing++;
+        batch++;
+      }
+    }
+    int appended = batchEnd - batch;
+
+    int newSize = this.size + len - duplicates;
+    this.ensureCapacity(newSize);
+
+    existing = this.size - 1;
+    batch = batchEnd - 1;
+    int out = newSize - 1;
+    while ( batch >= off ) {
+      if ( ( existing >= start ) && ( this.timestamps[existing] > batchTimes[batch] ) ) {
+        this.timestamps[out] = this.timestamps[existing];
+        this.values[out] = this.values[existing];
+        this.movedCount++;
+        existing--;
+      } else if ( ( existing >= start ) && ( this.timestamps[existing] == batchTimes[batch] ) ) {
+        this.timestamps[out] = batchTimes[batch];
+        if ( accumulate ) {
+          this.values[out] = this.values[existing] + batchValues[batch];
+        } else {
+          this.values[out] = batchValues[batch];
+        }
+        existing--;
+        batch--;
+      } else {
+        this.timestamps[out] = batchTimes[batch];
+        this.values[out] = batchValues[batch];
+        batch--;
+      }
+      out--;
+    }
+
+    this.appendCount += appended;
+    this.insertCount += len - duplicates - appended;
+    this.size = newSize;
+  }
+
+  /**
+   * Stable sort of parallel timestamp and value arrays by timestamp, so samples sharing a timestamp keep their order.
+   */
+  private static void sortByTimestamp(long[] times, long[] values, int len) {
+    long[] workTimes = new long[len];
+    long[] workValues = new long[len];
+
+    long[] fromTimes = times;
+    long[] fromValues = values;
+    long[] toTimes = workTimes;
+    long[] toValues = workValues;
+
+    int width = 1;
+    while ( width < len ) {
+      int left = 0;
+      while ( left < len ) {
+        int mid = (int) Math.min((long) left + width, len);
+        int right = (int) Math.min((long) left + ( 2L * width ), len);
+
+        int leftCur = left;
+        int rightCur = mid;
+        int out = left;
+        while ( out < right ) {
+          if ( ( rightCur >= right ) || ( ( leftCur < mid ) && ( fromTimes[leftCur] <= fromTimes[rightCur] ) ) ) {
+            toTimes[out] = fromTimes[leftCur];
+            toValues[out] = fromValues[leftCur];
+            leftCur++;
+          } else {
+            toTimes[out] = fromTimes[rightCur];
+            toValues[out] = fromValues[rightCur];
+            rightCur++;
+          }
+          out++;
+        }
+
+        left = right;
+      }
+
+      long[] swapTimes = fromTimes;
+      fromTimes = toTimes;
+      toTimes = swapTimes;
+      long[] swapValues = fromValues;
+      fromValues = toValues;
+      toValues = swapValues;
+
+      width *= 2;
+    }
+
+    if ( fromTimes != times ) {
+      System.arraycopy(fromTimes, 0, times, 0, len);
+      System.arraycopy(fromValues, 0, values, 0, len);
+    }
+  }
+
+  /**
+   * Collapse runs of samples sharing a timestamp in sorted arrays, either summing them or keeping the last.
+   *
+   * @return number of samples remaining.
+   */
+  private static int combineDuplicates(long[] times, long[] values, int len, boolean accumulate) {
+    int result = 0;
+    int cur = 1;
+    while ( cur < len ) {
+      if ( times[cur] == times[result] ) {
+        if ( accumulate ) {
+          values[result] += values[cur];
+        } else {
+          values[result] = values[cur];
+        }
+      } else {
+        result++;
+        times[result] = times[cur];
+        values[result] = values[cur];
+      }
+      cur++;
+    }
+
+    return  result + 1;
+  }
+
+  private void ensureCapacity(int minCapacity) {
+    int capacity = this.timestamps.length;
+    if ( minCapacity > capacity ) {
+      int newCapacity = Math.max(minCapacity, capacity + ( capacity >> 1 ));
+
+      this.timestamps = Arrays.copyOf(this.timestamps, newCapacity);
+      this.values = Arrays.copyOf(this.values, newCapacity);
+      this.recordAllocation(newCapacity);
+    }
+  }
+
+  private void grow() {
+    int capacity = this.timestamps.length;
+    int newCapacity = Math.max(DEFAULT_CAPACITY, capacity + ( capacity >> 1 ));
+
+    this.timestamps = Arrays.copyOf(this.timestamps, newCapacity);
+    this.values = Arrays.copyOf(this.values, newCapacity);
+    this.recordAllocation(newCapacity);
+  }
+
+  private void recordAllocation(int capacity) {
+    this.allocationCount++;
+    this.allocatedBytes += (long) capacity * SampleStoreStats.BYTES_PER_SAMPLE;
+  }
+}
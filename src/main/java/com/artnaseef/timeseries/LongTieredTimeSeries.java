@@ -0,0 +1,796 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.codec.LongTimeSeriesDecoder;
+import com.artnaseef.timeseries.codec.LongTimeSeriesEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Time series of long values which keeps older data compressed, for long histories which are rarely modified.  Time
+ * is divided into fixed chunks, such as 2 hours each.  The newest chunks form a small mutable head held in primitive
+ * arrays; as soon as a sample arrives for a newer chunk, the chunks which fall out of the head are sealed into
+ * immutable blocks encoded with LongTimeSeriesEncoder, typically a few bytes per sample.
+ * <p/>
+ * Reads, cursors and re-samples decode the sealed chunks on the fly, without expanding them on the heap.  Writes to a
+ * sealed range are still accepted, but decode and re-encode the whole chunk, so they are expensive.  Not safe under
+ * concurrency.
+ */
+public class LongTieredTimeSeries extends TimeSeries<Long> {
+  public static final long DEFAULT_CHUNK_DURATION = 2L * 60L * 60L * 1000L;
+  public static final int DEFAULT_HEAD_CHUNKS = 1;
+
+  private final Tiers tiers;
+  private final long lowest;
+  private final long highest;
+
+  /**
+   * Initialize the series with 2-hour chunks of millisecond timestamps, keeping only the newest chunk mutable.
+   */
+  public LongTieredTimeSeries() {
+    this(DEFAULT_CHUNK_DURATION, DEFAULT_HEAD_CHUNKS);
+  }
+
+  /**
+   * Initialize the series.
+   *
+   * @param chunkDuration length of the time range of each chunk, in the units of the timestamps.
+   * @param headChunks number of the newest chunks kept mutable in the head.
+   */
+  public LongTieredTimeSeries(long chunkDuration, int headChunks) {
+    this(new Tiers(chunkDuration, headChunks), Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  private LongTieredTimeSeries(Tiers tiers, long lowest, long highest) {
+    super(false);
+    this.tiers = tiers;
+    this.lowest = lowest;
+    this.highest = highest;
+  }
+
+  public long getChunkDuration() {
+    return  this.tiers.chunkDuration;
+  }
+
+  public int getHeadChunks() {
+    return  this.tiers.headChunks;
+  }
+
+  /**
+   * Number of sealed chunks in the whole series.
+   */
+  public int getSealedChunkCount() {
+    return  this.tiers.chunks.size();
+  }
+
+  /**
+   * Number of encoded bytes held by the sealed chunks of the whole series.
+   */
+  public long getSealedBytes() {
+    return  this.tiers.sealedBytes;
+  }
+
+  /**
+   * Number of samples held in the mutable head of the whole series.
+   */
+  public int getHeadSize() {
+    return  this.tiers.head.size();
+  }
+
+  /**
+   * Retrieve the version of the samples, which increases by one with every call which changes them.  Sealing does not
+   * change the samples, so it leaves the version as is.
+   *
+   * @return current version.
+   */
+  public long getVersion() {
+    return  this.tiers.modifications.getVersion();
+  }
+
+  ModificationLog getModifications() {
+    return  this.tiers.modifications;
+  }
+
+  /**
+   * Seal every whole chunk before the given time, regardless of the number of head chunks.  Useful to compress a
+   * series which has stopped receiving samples.
+   *
+   * @param time time before which to seal; the chunk containing this time stays in the head.
+   */
+  public void sealBefore(long time) {
+    this.tiers.sealBefore(this.tiers.chunkStart(time));
+  }
+
+  @Override
+  public Long getTimestampSample (long time) {
+    if ( ( time < this.lowest ) || ( time > this.highest ) ) {
+      return  null;
+    }
+
+    int index = this.tiers.head.indexOf(time);
+    if ( index >= 0 ) {
+      return  this.tiers.head.getValue(index);
+    }
+
+    LongTimeSeriesDecoder decoder = this.tiers.seek(time);
+    if ( decoder != null ) {
+      return  decoder.getLongValue();
+    }
+
+    return  null;
+  }
+
+  /**
+   * Retrieve the sample at the given timestamp without boxing.
+   *
+   * @param time timestamp of the sample.
+   * @param missingValue value to return when the series has no sample at the given timestamp.
+   * @return value of the sample, or missingValue if there is none.
+   */
+  public long getTimestampSample (long time, long missingValue) {
+    if ( ( time < this.lowest ) || ( time > this.highest ) ) {
+      return  missingValue;
+    }
+
+    int index = this.tiers.head.indexOf(time);
+    if ( index >= 0 ) {
+      return  this.tiers.head.getValue(index);
+    }
+
+    LongTimeSeriesDecoder decoder = this.tiers.seek(time);
+    if ( decoder != null ) {
+      return  decoder.getLongValue();
+    }
+
+    return  missingValue;
+  }
+
+  /**
+   * Set the sample at the given timestamp.  Setting a null value removes the sample.
+   *
+   * @param time timestamp of the sample.
+   * @param value new value of the sample, or null to remove it.
+   */
+  @Override
+  public void setTimestampSample (long time, Long value) {
+    if ( value == null ) {
+      this.checkRange(time);
+      this.tiers.remove(time);
+    } else {
+      this.setTimestampSample(time, value.longValue());
+    }
+  }
+
+  public void setTimestampSample (long time, long value) {
+    this.checkRange(time);
+    this.tiers.update(time, value, false);
+  }
+
+  /**
+   * Add the given value to the sample at the given timestamp.
+   *
+   * @param time timestamp of the sample.
+   * @param value amount to add.
+   * @return new value of the sample.
+   */
+  public long add (long time, long value) {
+    this.checkRange(time);
+    return  this.tiers.update(time, value, true);
+  }
+
+  @Override
+  public TreeSet<Long> getTimestamps () {
+    TreeSet<Long> result = new TreeSet<>();
+
+    LongTimeSeriesCursor cursor = this.cursor();
+    while ( cursor.next() ) {
+      result.add(cursor.getTimestamp());
+    }
+
+    return  result;
+  }
+
+  @Override
+  public int size () {
+    if ( ( this.lowest == Long.MIN_VALUE ) && ( this.highest == Long.MAX_VALUE ) ) {
+      return  this.tiers.sealedSampleCount + this.tiers.head.size();
+    }
+
+    int result = 0;
+    LongTimeSeriesCursor cursor = this.cursor();
+    while ( cursor.next() ) {
+      result++;
+    }
+
+    return  result;
+  }
+
+  @Override
+  public LongTimeSeriesCursor cursor () {
+    return  new TieredCursor(this.tiers, this.lowest, this.highest);
+  }
+
+  @Override
+  public void forEach (TimeSeriesVisitor<? super Long> visitor) {
+    LongTimeSeriesCursor cursor = this.cursor();
+    while ( cursor.next() ) {
+      visitor.visit(cursor.getTimestamp(), cursor.getLongValue());
+    }
+  }
+
+  /**
+   * Visit every sample of the series in timestamp order without boxing them.
+   *
+   * @param visitor visitor called once for each sample.
+   */
+  public void forEachLong (LongTimeSeriesVisitor visitor) {
+    LongTimeSeriesCursor cursor = this.cursor();
+    while ( cursor.next() ) {
+      visitor.visit(cursor.getTimestamp(), cursor.getLongValue());
+    }
+  }
+
+  @Override
+  public Long getFirstTimestamp () {
+    return  this.getCeilingTimestamp(this.lowest);
+  }
+
+  @Override
+  public Long getLastTimestamp () {
+    return  this.getFloorTimestamp(this.highest);
+  }
+
+  @Override
+  public Long getFloorTimestamp (long time) {
+    if ( time < this.lowest ) {
+      return  null;
+    }
+
+    Long result = this.tiers.floorTimestamp(Math.min(time, this.highest));
+    if ( ( result == null ) || ( result < this.lowest ) ) {
+      return  null;
+    }
+
+    return  result;
+  }
+
+  @Override
+  public Long getCeilingTimestamp (long time) {
+    if ( time > this.highest ) {
+      return  null;
+    }
+
+    Long result = this.tiers.ceilingTimestamp(Math.max(time, this.lowest));
+    if ( ( result == null ) || ( result > this.highest ) ) {
+      return  null;
+    }
+
+    return  result;
+  }
+
+  @Override
+  public LongTieredTimeSeries subSeries (long from, long to) {
+    return  (LongTieredTimeSeries) super.subSeries(from, to);
+  }
+
+  @Override
+  public LongTieredTimeSeries headSeries (long to) {
+    return  (LongTieredTimeSeries) super.headSeries(to);
+  }
+
+  @Override
+  public LongTieredTimeSeries tailSeries (long from) {
+    return  (LongTieredTimeSeries) super.tailSeries(from);
+  }
+
+  /**
+   * Create a view over the same chunks and head, limited to the given range.
+   */
+  @Override
+  protected LongTieredTimeSeries createRangeView (long rangeLowest, long rangeHighest) {
+    return  new LongTieredTimeSeries(this.tiers, Math.max(rangeLowest, this.lowest),
+            Math.min(rangeHighest, this.highest));
+  }
+
+  private void checkRange (long time) {
+    if ( ( time < this.lowest ) || ( time > this.highest ) ) {
+      throw new IllegalArgumentException("timestamp " + time + " is outside of the series range [" + this.lowest +
+              ", " + this.highest + "]");
+    }
+  }
+
+  /**
+   * Advance the decoder, reporting the impossible failure of an in-memory stream as an IllegalStateException.
+   */
+  private static boolean readNext(LongTimeSeriesDecoder decoder) {
+    try {
+      return  decoder.next();
+    } catch ( IOException ioExc ) {
+      throw new IllegalStateException("failed to decode sealed chunk", ioExc);
+    }
+  }
+
+  /**
+   * Storage of the series, shared by the series and all of its views: sealed chunks, sorted by time, followed by the
+   * head.  Every sealed sample is before headStart, and every head sample is at or after it.
+   */
+  private static class Tiers {
+    private final long chunkDuration;
+    private final int headChunks;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final LongSampleArray head = new LongSampleArray(LongSampleArray.DEFAULT_CAPACITY);
+
+    private long headStart = Long.MIN_VALUE;
+    private int sealedSampleCount;
+    private long sealedBytes;
+    private final ModificationLog modifications = new ModificationLog();
+
+    public Tiers(long chunkDuration, int headChunks) {
+      if ( chunkDuration < 1 ) {
+        throw new IllegalArgumentException("chunk duration must be positive: " + chunkDuration);
+      }
+      if ( headChunks < 1 ) {
+        throw new IllegalArgumentException("head chunk count must be positive: " + headChunks);
+      }
+
+      this.chunkDuration = chunkDuration;
+      this.headChunks = headChunks;
+    }
+
+    /**
+     * Start of the chunk containing the given time.
+     */
+    public long chunkStart(long time) {
+      long offset = time % this.chunkDuration;
+      if ( offset < 0 ) {
+        offset += this.chunkDuration;
+      }
+
+      return  time - offset;
+    }
+
+    public long update(long time, long value, boolean accumulate) {
+      this.modifications.record(time);
+
+      if ( time >= this.headStart ) {
+        long result = value;
+        if ( accumulate ) {
+          result = this.head.add(time, value);
+        } else {
+          this.head.put(time, value);
+        }
+
+        this.advanceTo(time);
+        return  result;
+      }
+
+      long start = this.chunkStart(time);
+      int position = this.chunkPosition(start);
+
+      LongSampleArray samples;
+      if ( position >= 0 ) {
+        samples = this.chunks.get(position).decode();
+      } else {
+        samples = new LongSampleArray(1);
+      }
+
+      long result = value;
+      if ( accumulate ) {
+        result = samples.add(time, value);
+      } else {
+        samples.put(time, value);
+      }
+
+      this.replaceChunk(position, start, samples);
+      return  result;
+    }
+
+    public void remove(long time) {
+      this.modifications.record(time);
+
+      if ( time >= this.headStart ) {
+        int index = this.head.indexOf(time);
+        if ( index >= 0 ) {
+          this.head.remove(index);
+        }
+
+        return;
+      }
+
+      int position = this.chunkPosition(this.chunkStart(time));
+      if ( position >= 0 ) {
+        Chunk chunk = this.chunks.get(position);
+        LongSampleArray samples = chunk.decode();
+        int index = samples.indexOf(time);
+        if ( index >= 0 ) {
+          samples.remove(index);
+          this.replaceChunk(position, chunk.start, samples);
+        }
+      }
+    }
+
+    /**
+     * Seal the head chunks which fall out of the head once the newest chunk is the one containing the given time.
+     */
+    private void advanceTo(long time) {
+      long newestStart = this.chunkStart(time);
+      long span = ( this.headChunks - 1 ) * this.chunkDuration;
+      if ( ( span / this.chunkDuration != this.headChunks - 1 ) || ( newestStart < Long.MIN_VALUE + span ) ) {
+        return;
+      }
+
+      long boundary = newestStart - span;
+      if ( boundary > this.headStart ) {
+        this.sealBefore(boundary);
+      }
+    }
+
+    /**
+     * Move every head sample before the given chunk boundary into sealed chunks.
+     */
+    public void sealBefore(long boundary) {
+      if ( boundary <= this.headStart ) {
+        return;
+      }
+
+      int count = this.head.indexOf(boundary);
+      if ( count < 0 ) {
+        count = -count - 1;
+      }
+
+      long[] times = this.head.getTimestampArray();
+      long[] values = this.head.getValueArray();
+      int first = 0;
+      while ( first < count ) {
+        long start = this.chunkStart(times[first]);
+        int end = first + 1;
+        while ( ( end < count ) && ( times[end] - start < this.chunkDuration ) ) {
+          end++;
+        }
+
+        Chunk chunk = Chunk.encode(start, times, values, first, end - first);
+        this.chunks.add(chunk);
+        this.sealedSampleCount += chunk.count;
+        this.sealedBytes += chunk.data.length;
+
+        first = end;
+      }
+
+      this.head.removeFirst(count);
+      this.headStart = boundary;
+    }
+
+    /**
+     * Locate the sealed sample at the given timestamp.
+     *
+     * @return decoder positioned at the sample, or null if there is no sealed sample at the timestamp.
+     */
+    public LongTimeSeriesDecoder seek(long time) {
+      int position = this.lastChunkStartingAtOrBefore(time);
+      if ( ( position < 0 ) || ( this.chunks.get(position).lastTime < time ) ) {
+        return  null;
+      }
+
+      LongTimeSeriesDecoder decoder = this.chunks.get(position).openDecoder();
+      while ( readNext(decoder) ) {
+        if ( decoder.getTimestamp() == time ) {
+          return  decoder;
+        } else if ( decoder.getTimestamp() > time ) {
+          return  null;
+        }
+      }
+
+      return  null;
+    }
+
+    public Long floorTimestamp(long time) {
+      int index = this.head.indexOf(time);
+      if ( index >= 0 ) {
+        return  time;
+      } else if ( -index - 2 >= 0 ) {
+        return  this.head.getTimestamp(-index - 2);
+      }
+
+      int position = this.lastChunkStartingAtOrBefore(time);
+      if ( position < 0 ) {
+        return  null;
+      }
+
+      Chunk chunk = this.chunks.get(position);
+      if ( chunk.lastTime <= time ) {
+        return  chunk.lastTime;
+      }
+
+      long result = chunk.firstTime;
+      LongTimeSeriesDecoder decoder = chunk.openDecoder();
+      while ( ( readNext(decoder) ) && ( decoder.getTimestamp() <= time ) ) {
+        result = decoder.getTimestamp();
+      }
+
+      return  result;
+    }
+
+    public Long ceilingTimestamp(long time) {
+      int position = this.firstChunkEndingAtOrAfter(time);
+      if ( position < this.chunks.size() ) {
+        Chunk chunk = this.chunks.get(position);
+        if ( chunk.firstTime >= time ) {
+          return  chunk.firstTime;
+        }
+
+        LongTimeSeriesDecoder decoder = chunk.openDecoder();
+        while ( readNext(decoder) ) {
+          if ( decoder.getTimestamp() >= time ) {
+            return  decoder.getTimestamp();
+          }
+        }
+      }
+
+      int index = this.head.indexOf(time);
+      if ( index >= 0 ) {
+        return  time;
+      } else if ( -index - 1 < this.head.size() ) {
+        return  this.head.getTimestamp(-index - 1);
+      }
+
+      return  null;
+    }
+
+    /**
+     * Locate the sealed chunk with the given start.
+     *
+     * @return index of the chunk, if present; otherwise, (-(insertion point) - 1).
+     */
+    private int chunkPosition(long start) {
+      int low = 0;
+      int high = this.chunks.size() - 1;
+      while ( low <= high ) {
+        int mid = ( low + high ) >>> 1;
+        long midStart = this.chunks.get(mid).start;
+        if ( midStart < start ) {
+          low = mid + 1;
+        } else if ( midStart > start ) {
+          high = mid - 1;
+        } else {
+          return  mid;
+        }
+      }
+
+      return  -( low + 1 );
+    }
+
+    /**
+     * Index of the last sealed chunk whose first sample is at or before the given time, or -1 if there is none.
+     */
+    private int lastChunkStartingAtOrBefore(long time) {
+      int low = 0;
+      int high = this.chunks.size();
+      while ( low < high ) {
+        int mid = ( low + high ) >>> 1;
+        if ( this.chunks.get(mid).firstTime <= time ) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+
+      return  low - 1;
+    }
+
+    /**
+     * Index of the first sealed chunk whose last sample is at or after the given time, or the number of chunks if
+     * there is none.
+     */
+    public int firstChunkEndingAtOrAfter(long time) {
+      int low = 0;
+      int high = this.chunks.size();
+      while ( low < high ) {
+        int mid = ( low + high ) >>> 1;
+        if ( this.chunks.get(mid).lastTime < time ) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+
+      return  low;
+    }
+
+    /**
+     * Re-encode the samples of a sealed chunk, replacing the chunk at the given position, inserting a new one if the
+     * position is negative, or dropping the chunk if there are no samples left.
+     */
+    private void replaceChunk(int position, long start, LongSampleArray samples) {
+      if ( position >= 0 ) {
+        Chunk old = this.chunks.get(position);
+        this.sealedSampleCount -= old.count;
+        this.sealedBytes -= old.data.length;
+      }
+
+      if ( samples.size() == 0 ) {
+        this.chunks.remove(position);
+        return;
+      }
+
+      Chunk chunk = Chunk.encode(start, samples.getTimestampArray(), samples.getValueArray(), 0, samples.size());
+      if ( position >= 0 ) {
+        this.chunks.set(position, chunk);
+      } else {
+        this.chunks.add(-position - 1, chunk);
+      }
+
+      this.sealedSampleCount += chunk.count;
+      this.sealedBytes += chunk.data.length;
+    }
+  }
+
+  /**
+   * Immutable, encoded samples of one chunk of time.
+   */
+  private static class Chunk {
+    private final long start;
+    private final long firstTime;
+    private final long lastTime;
+    private final int count;
+    private final byte[] data;
+
+    public Chunk(long start, long firstTime, long lastTime, int count, byte[] data) {
+      this.start = start;
+      this.firstTime = firstTime;
+      this.lastTime = lastTime;
+      this.count = count;
+      this.data = data;
+    }
+
+    public static Chunk encode(long start, long[] times, long[] values, int off, int len) {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 + ( len * 2 ));
+      try {
+        LongTimeSeriesEncoder encoder = new LongTimeSeriesEncoder(buffer);
+        int cur = off;
+        while ( cur < off + len ) {
+          encoder.writeSample(times[cur], values[cur]);
+          cur++;
+        }
+        encoder.finish();
+      } catch ( IOException ioExc ) {
+        throw new IllegalStateException("failed to encode sealed chunk", ioExc);
+      }
+
+      return  new Chunk(start, times[off], times[off + len - 1], len, buffer.toByteArray());
+    }
+
+    public LongTimeSeriesDecoder openDecoder() {
+      try {
+        return  new LongTimeSeriesDecoder(new ByteArrayInputStream(this.data));
+      } catch ( IOException ioExc ) {
+        throw new IllegalStateException("failed to decode sealed chunk", ioExc);
+      }
+    }
+
+    public LongSampleArray decode() {
+      LongSampleArray result = new LongSampleArray(this.count);
+      LongTimeSeriesDecoder decoder = this.openDecoder();
+      while ( readNext(decoder) ) {
+        result.put(decoder.getTimestamp(), decoder.getLongValue());
+      }
+
+      return  result;
+    }
+  }
+
+  /**
+   * Cursor which decodes the sealed chunks in order, one at a time, and then walks the head, starting with the first
+   * sample at or after the lowest timestamp of the range and stopping after the highest.
+   */
+  private static class TieredCursor implements LongTimeSeriesCursor {
+    private final Tiers tiers;
+    private final long lowest;
+    private final long highest;
+    private int chunkIndex;
+    private LongTimeSeriesDecoder decoder;
+    private boolean inHead;
+    private int headIndex;
+    private boolean exhausted;
+    private long timestamp;
+    private long value;
+
+    public TieredCursor(Tiers tiers, long lowest, long highest) {
+      this.tiers = tiers;
+      this.lowest = lowest;
+      this.highest = highest;
+      this.exhausted = lowest > highest;
+      this.chunkIndex = tiers.firstChunkEndingAtOrAfter(lowest);
+    }
+
+    @Override
+    public boolean next() {
+      if ( this.exhausted ) {
+        return  false;
+      }
+
+      while ( ! this.inHead ) {
+        if ( this.decoder == null ) {
+          if ( this.chunkIndex >= this.tiers.chunks.size() ) {
+            this.startHead();
+            break;
+          }
+
+          this.decoder = this.tiers.chunks.get(this.chunkIndex).openDecoder();
+          this.chunkIndex++;
+        }
+
+        if ( readNext(this.decoder) ) {
+          long time = this.decoder.getTimestamp();
+          if ( time >= this.lowest ) {
+            return  this.position(time, this.decoder.getLongValue());
+          }
+        } else {
+          this.decoder = null;
+        }
+      }
+
+      this.headIndex++;
+      if ( this.headIndex >= this.tiers.head.size() ) {
+        this.exhausted = true;
+        return  false;
+      }
+
+      return  this.position(this.tiers.head.getTimestamp(this.headIndex), this.tiers.head.getValue(this.headIndex));
+    }
+
+    @Override
+    public long getTimestamp() {
+      return  this.timestamp;
+    }
+
+    @Override
+    public long getLongValue() {
+      return  this.value;
+    }
+
+    @Override
+    public Long getValue() {
+      return  this.value;
+    }
+
+    private void startHead() {
+      this.inHead = true;
+      this.decoder = null;
+
+      int index = this.tiers.head.indexOf(this.lowest);
+      if ( index < 0 ) {
+        index = -index - 1;
+      }
+      this.headIndex = index - 1;
+    }
+
+    private boolean position(long time, long newValue) {
+      if ( time > this.highest ) {
+        this.exhausted = true;
+        return  false;
+      }
+
+      this.timestamp = time;
+      this.value = newValue;
+      return  true;
+    }
+  }
+}
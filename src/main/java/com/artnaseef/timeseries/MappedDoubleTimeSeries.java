@@ -0,0 +1,361 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.TreeSet;
+
+/**
+ * Time series of double values stored in memory-mapped segment files, for histories larger than the heap.  Works the
+ * same way as MappedLongTimeSeries, storing the raw bits of each value in the value column; the series is append-only,
+ * and re-opening the same directory restores it.
+ */
+public class MappedDoubleTimeSeries extends TimeSeries<Double> implements Closeable {
+  private final MappedSegmentStore store;
+  private final long lowest;
+  private final long highest;
+
+  /**
+   * Open the series stored in the given directory, creating it if needed, with the default segment size.
+   *
+   * @param directory directory holding the segment files of the series.
+   */
+  public MappedDoubleTimeSeries(File directory) throws IOException {
+    this(directory, MappedSegmentStore.DEFAULT_SEGMENT_CAPACITY);
+  }
+
+  /**
+   * Open the series stored in the given directory, creating it if needed.
+   *
+   * @param directory directory holding the segment files of the series.
+   * @param segmentCapacity number of samples in each new segment file.
+   */
+  public MappedDoubleTimeSeries(File directory, int segmentCapacity) throws IOException {
+    this(new MappedSegmentStore(directory, segmentCapacity), Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  private MappedDoubleTimeSeries(MappedSegmentStore store, long lowest, long highest) {
+    super(false);
+    this.store = store;
+    this.lowest = lowest;
+    this.highest = highest;
+  }
+
+  @Override
+  public Double getTimestampSample (long time) {
+    MappedSegmentStore.Segment segment = this.segmentInRange(time);
+    if ( segment != null ) {
+      int index = segment.indexOf(time);
+      if ( index >= 0 ) {
+        return  Double.longBitsToDouble(segment.getValue(index));
+      }
+    }
+
+    return  null;
+  }
+
+  /**
+   * Retrieve the sample at the given timestamp without boxing.
+   *
+   * @param time timestamp of the sample.
+   * @param missingValue value to return when the series has no sample at the given timestamp.
+   * @return value of the sample, or missingValue if there is none.
+   */
+  public double getTimestampSample (long time, double missingValue) {
+    MappedSegmentStore.Segment segment = this.segmentInRange(time);
+    if ( segment != null ) {
+      int index = segment.indexOf(time);
+      if ( index >= 0 ) {
+        return  Double.longBitsToDouble(segment.getValue(index));
+      }
+    }
+
+    return  missingValue;
+  }
+
+  /**
+   * Set the sample at the given timestamp.  Samples can not be removed, so the value must not be null.
+   *
+   * @param time timestamp of the sample; must be an existing timestamp or later than all existing samples.
+   * @param value new value of the sample.
+   */
+  @Override
+  public void setTimestampSample (long time, Double value) {
+    if ( value == null ) {
+      throw new UnsupportedOperationException("samples can not be removed from a mapped series");
+    }
+
+    this.setTimestampSample(time, value.doubleValue());
+  }
+
+  public void setTimestampSample (long time, double value) {
+    this.checkRange(time);
+
+    try {
+      this.store.put(time, Double.doubleToRawLongBits(value));
+    } catch ( IOException ioExc ) {
+      throw new IllegalStateException("failed to extend mapped series", ioExc);
+    }
+  }
+
+  /**
+   * Add the given value to the sample at the given timestamp.
+   *
+   * @param time timestamp of the sample; must be an existing timestamp or later than all existing samples.
+   * @param value amount to add.
+   * @return new value of the sample.
+   */
+  public double add (long time, double value) {
+    this.checkRange(time);
+    this.store.checkOpen();
+
+    MappedSegmentStore.Segment segment = this.store.segmentFor(time);
+    if ( segment != null ) {
+      int index = segment.indexOf(time);
+      if ( index >= 0 ) {
+        double result = Double.longBitsToDouble(segment.getValue(index)) + value;
+        segment.setValue(index, Double.doubleToRawLongBits(result));
+
+        return  result;
+      }
+    }
+
+    this.setTimestampSample(time, value);
+    return  value;
+  }
+
+  @Override
+  public TreeSet<Long> getTimestamps () {
+    TreeSet<Long> result = new TreeSet<>();
+
+    DoubleTimeSeriesCursor cursor = this.cursor();
+    while ( cursor.next() ) {
+      result.add(cursor.getTimestamp());
+    }
+
+    return  result;
+  }
+
+  /**
+   * Number of samples in the series, limited to Integer.MAX_VALUE; see getSampleCount() for the full count.
+   */
+  @Override
+  public int size () {
+    return  (int) Math.min(this.getSampleCount(), Integer.MAX_VALUE);
+  }
+
+  public long getSampleCount () {
+    if ( ( this.lowest == Long.MIN_VALUE ) && ( this.highest == Long.MAX_VALUE ) ) {
+      return  this.store.getSampleCount();
+    } else if ( this.lowest > this.highest ) {
+      return  0;
+    }
+
+    long before = 0;
+    if ( this.lowest != Long.MIN_VALUE ) {
+      before = this.store.countThrough(this.lowest - 1);
+    }
+
+    return  this.store.countThrough(this.highest) - before;
+  }
+
+  @Override
+  public DoubleTimeSeriesCursor cursor () {
+    return  new SegmentCursor(this.store, this.lowest, this.highest);
+  }
+
+  @Override
+  public void forEach (TimeSeriesVisitor<? super Double> visitor) {
+    DoubleTimeSeriesCursor cursor = this.cursor();
+    while ( cursor.next() ) {
+      visitor.visit(cursor.getTimestamp(), cursor.getDoubleValue());
+    }
+  }
+
+  /**
+   * Visit every sample of the series in timestamp order without boxing them.
+   *
+   * @param visitor visitor called once for each sample.
+   */
+  public void forEachDouble (DoubleTimeSeriesVisitor visitor) {
+    DoubleTimeSeriesCursor cursor = this.cursor();
+    while ( cursor.next() ) {
+      visitor.visit(cursor.getTimestamp(), cursor.getDoubleValue());
+    }
+  }
+
+  @Override
+  public Long getFirstTimestamp () {
+    return  this.getCeilingTimestamp(this.lowest);
+  }
+
+  @Override
+  public Long getLastTimestamp () {
+    return  this.getFloorTimestamp(this.highest);
+  }
+
+  @Override
+  public Long getFloorTimestamp (long time) {
+    if ( time < this.lowest ) {
+      return  null;
+    }
+
+    Long result = this.store.floorTimestamp(Math.min(time, this.highest));
+    if ( ( result == null ) || ( result < this.lowest ) ) {
+      return  null;
+    }
+
+    return  result;
+  }
+
+  @Override
+  public Long getCeilingTimestamp (long time) {
+    if ( time > this.highest ) {
+      return  null;
+    }
+
+    Long result = this.store.ceilingTimestamp(Math.max(time, this.lowest));
+    if ( ( result == null ) || ( result > this.highest ) ) {
+      return  null;
+    }
+
+    return  result;
+  }
+
+  @Override
+  public MappedDoubleTimeSeries subSeries (long from, long to) {
+    return  (MappedDoubleTimeSeries) super.subSeries(from, to);
+  }
+
+  @Override
+  public MappedDoubleTimeSeries headSeries (long to) {
+    return  (MappedDoubleTimeSeries) super.headSeries(to);
+  }
+
+  @Override
+  public MappedDoubleTimeSeries tailSeries (long from) {
+    return  (MappedDoubleTimeSeries) super.tailSeries(from);
+  }
+
+  /**
+   * Create a view over the same segment files, limited to the given range.  Closing a view closes the whole series.
+   */
+  @Override
+  protected MappedDoubleTimeSeries createRangeView (long rangeLowest, long rangeHighest) {
+    return  new MappedDoubleTimeSeries(this.store, Math.max(rangeLowest, this.lowest),
+            Math.min(rangeHighest, this.highest));
+  }
+
+  /**
+   * Write all changes through to the storage device.
+   */
+  public void force () {
+    this.store.force();
+  }
+
+  /**
+   * Write all changes through to the storage device and close the segment files.  The series must not be used
+   * afterwards.
+   */
+  @Override
+  public void close () throws IOException {
+    this.store.close();
+  }
+
+  private MappedSegmentStore.Segment segmentInRange (long time) {
+    if ( ( time < this.lowest ) || ( time > this.highest ) ) {
+      return  null;
+    }
+
+    return  this.store.segmentFor(time);
+  }
+
+  private void checkRange (long time) {
+    if ( ( time < this.lowest ) || ( time > this.highest ) ) {
+      throw new IllegalArgumentException("timestamp " + time + " is outside of the series range [" + this.lowest +
+              ", " + this.highest + "]");
+    }
+  }
+
+  /**
+   * Cursor which walks the segments in order, starting with the first sample at or after the lowest timestamp of the
+   * range and stopping after the highest.
+   */
+  private static class SegmentCursor implements DoubleTimeSeriesCursor {
+    private final MappedSegmentStore store;
+    private final long highest;
+    private int segmentIndex;
+    private MappedSegmentStore.Segment segment;
+    private int index;
+    private boolean exhausted;
+
+    public SegmentCursor(MappedSegmentStore store, long lowest, long highest) {
+      this.store = store;
+      this.highest = highest;
+      this.exhausted = lowest > highest;
+
+      int startSegment = store.segmentIndexFor(lowest);
+      if ( startSegment >= 0 ) {
+        this.segment = store.getSegments().get(startSegment);
+        this.segmentIndex = startSegment + 1;
+        this.index = this.segment.ceilingIndex(lowest) - 1;
+      }
+    }
+
+    @Override
+    public boolean next() {
+      if ( this.exhausted ) {
+        return  false;
+      }
+
+      this.index++;
+
+      while ( ( this.segment == null ) || ( this.index >= this.segment.size() ) ) {
+        if ( this.segmentIndex >= this.store.getSegments().size() ) {
+          this.exhausted = true;
+          return  false;
+        }
+
+        this.segment = this.store.getSegments().get(this.segmentIndex);
+        this.segmentIndex++;
+        this.index = 0;
+      }
+
+      if ( this.segment.getTimestamp(this.index) > this.highest ) {
+        this.exhausted = true;
+        return  false;
+      }
+
+      return  true;
+    }
+
+    @Override
+    public long getTimestamp() {
+      return  this.segment.getTimestamp(this.index);
+    }
+
+    @Override
+    public double getDoubleValue() {
+      return  Double.longBitsToDouble(this.segment.getValue(this.index));
+    }
+
+    @Override
+    public Double getValue() {
+      return  this.getDoubleValue();
+    }
+  }
+}
@@ -0,0 +1,442 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only storage of samples in memory-mapped segment files within a directory.  Each segment holds a fixed number
+ * of samples as two sorted columns of 64-bit values, timestamps followed by values; values are stored as raw bits, so
+ * the same store serves long and double series.
+ * <p/>
+ * Segment file layout: a 16-byte header (magic, capacity, count, reserved) followed by the timestamp column and then
+ * the value column, each capacity * 8 bytes long.  The count is updated after each appended sample is written.
+ */
+class MappedSegmentStore {
+  static final int DEFAULT_SEGMENT_CAPACITY = 1 << 20;
+  static final int MAX_SEGMENT_CAPACITY = ( Integer.MAX_VALUE - Segment.HEADER_SIZE ) / 16;
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".dat";
+
+  private final File directory;
+  private final int segmentCapacity;
+  private final List<Segment> segments = new ArrayList<>();
+
+  private long sampleCount;
+  private long highestTimestamp = Long.MIN_VALUE;
+  private boolean closed;
+
+  /**
+   * Open the store in the given directory, mapping any segments already there and creating the directory if needed.
+   *
+   * @param directory directory holding the segment files.
+   * @param segmentCapacity number of samples held by each new segment.
+   */
+  MappedSegmentStore(File directory, int segmentCapacity) throws IOException {
+    if ( ( segmentCapacity < 1 ) || ( segmentCapacity > MAX_SEGMENT_CAPACITY ) ) {
+      throw new IllegalArgumentException("segment capacity out of range: " + segmentCapacity);
+    }
+
+    if ( ( ! directory.isDirectory() ) && ( ! directory.mkdirs() ) ) {
+      throw new IOException("unable to create directory " + directory);
+    }
+
+    this.directory = directory;
+    this.segmentCapacity = segmentCapacity;
+
+    File[] segmentFiles = directory.listFiles(new FileFilter() {
+      @Override
+      public boolean accept(File pathname) {
+        String name = pathname.getName();
+        return  name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+      }
+    });
+
+    if ( segmentFiles != null ) {
+      // Names are zero-padded, so name order is creation order.
+      Arrays.sort(segmentFiles);
+
+      try {
+        for ( File oneFile : segmentFiles ) {
+          Segment segment = Segment.open(oneFile);
+          this.segments.add(segment);
+          this.sampleCount += segment.count;
+
+          //
+          // A crash can leave an empty segment file behind; only segments holding samples set the highest timestamp.
+          //
+          if ( segment.count > 0 ) {
+            this.highestTimestamp = segment.getTimestamp(segment.count - 1);
+          }
+        }
+      } catch ( IOException ioExc ) {
+        //
+        // The store is never returned, so release the segments opened so far here.
+        //
+        this.closeSegments();
+        throw ioExc;
+      }
+    }
+  }
+
+  long getSampleCount() {
+    return  this.sampleCount;
+  }
+
+  List<Segment> getSegments() {
+    return  this.segments;
+  }
+
+  /**
+   * Find the segment which would hold the given timestamp: the last segment starting at or before it.
+   *
+   * @return the segment, or null if the timestamp is before all samples.
+   */
+  Segment segmentFor(long time) {
+    int index = this.segmentIndexFor(time);
+    if ( index < 0 ) {
+      return  null;
+    }
+
+    return  this.segments.get(index);
+  }
+
+  /**
+   * Find the index of the last segment starting at or before the given timestamp.
+   *
+   * @return index of the segment, or -1 if the timestamp is before all samples.
+   */
+  int segmentIndexFor(long time) {
+    int low = 0;
+    int high = this.segments.size() - 1;
+    int result = -1;
+
+    while ( low <= high ) {
+      int mid = ( low + high ) >>> 1;
+      Segment candidate = this.segments.get(mid);
+
+      if ( ( candidate.count > 0 ) && ( candidate.getTimestamp(0) <= time ) ) {
+        result = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    return  result;
+  }
+
+  /**
+   * Count the samples with timestamps at or before the given time.
+   */
+  long countThrough(long time) {
+    int segmentIndex = this.segmentIndexFor(time);
+    if ( segmentIndex < 0 ) {
+      return  0;
+    }
+
+    long result = 0;
+    int cur = 0;
+    while ( cur < segmentIndex ) {
+      result += this.segments.get(cur).count;
+      cur++;
+    }
+
+    return  result + this.segments.get(segmentIndex).floorIndex(time) + 1;
+  }
+
+  /**
+   * Find the latest timestamp at or before the given time.
+   *
+   * @return the timestamp, or null if there is none.
+   */
+  Long floorTimestamp(long time) {
+    Segment segment = this.segmentFor(time);
+    if ( segment == null ) {
+      return  null;
+    }
+
+    return  segment.getTimestamp(segment.floorIndex(time));
+  }
+
+  /**
+   * Find the earliest timestamp at or after the given time.
+   *
+   * @return the timestamp, or null if there is none.
+   */
+  Long ceilingTimestamp(long time) {
+    int segmentIndex = Math.max(this.segmentIndexFor(time), 0);
+
+    while ( segmentIndex < this.segments.size() ) {
+      Segment segment = this.segments.get(segmentIndex);
+      int index = segment.ceilingIndex(time);
+      if ( index < segment.count ) {
+        return  segment.getTimestamp(index);
+      }
+
+      segmentIndex++;
+    }
+
+    return  null;
+  }
+
+  /**
+   * Replace the value at the given timestamp if present, or append a new sample if the timestamp is later than all
+   * existing samples.
+   */
+  void put(long time, long valueBits) throws IOException {
+    this.checkOpen();
+
+    Segment segment = this.segmentFor(time);
+    if ( segment != null ) {
+      int index = segment.indexOf(time);
+      if ( index >= 0 ) {
+        segment.setValue(index, valueBits);
+        return;
+      }
+    }
+
+    this.append(time, valueBits);
+  }
+
+  /**
+   * Append a sample; the timestamp must be later than all existing samples.
+   */
+  void append(long time, long valueBits) throws IOException {
+    this.checkOpen();
+
+    if ( ( this.sampleCount > 0 ) && ( time <= this.highestTimestamp ) ) {
+      throw new IllegalArgumentException("samples must be appended in timestamp order: " + time + " <= " +
+              this.highestTimestamp);
+    }
+
+    Segment last = null;
+    if ( ! this.segments.isEmpty() ) {
+      last = this.segments.get(this.segments.size() - 1);
+    }
+
+    if ( ( last == null ) || ( last.count == last.capacity ) ) {
+      File file = new File(this.directory, String.format("%s%010d%s", SEGMENT_PREFIX, this.segments.size(),
+              SEGMENT_SUFFIX));
+      last = Segment.create(file, this.segmentCapacity);
+      this.segments.add(last);
+    }
+
+    last.append(time, valueBits);
+    this.sampleCount++;
+    this.highestTimestamp = time;
+  }
+
+  /**
+   * Write any changes to the mapped segments through to the storage device.
+   */
+  void force() {
+    for ( Segment oneSegment : this.segments ) {
+      oneSegment.buffer.force();
+    }
+  }
+
+  /**
+   * Close the segment files.  The mappings themselves are released once they are garbage collected.
+   */
+  void close() throws IOException {
+    if ( this.closed ) {
+      return;
+    }
+
+    this.closed = true;
+    this.force();
+
+    IOException failure = this.closeSegments();
+    if ( failure != null ) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Close the channels of all of the segments, attempting every one even if some fail.
+   *
+   * @return the last failure, or null if all of them closed.
+   */
+  private IOException closeSegments() {
+    IOException failure = null;
+    for ( Segment oneSegment : this.segments ) {
+      try {
+        oneSegment.channel.close();
+      } catch ( IOException ioExc ) {
+        failure = ioExc;
+      }
+    }
+
+    return  failure;
+  }
+
+  void checkOpen() {
+    if ( this.closed ) {
+      throw new IllegalStateException("series is closed");
+    }
+  }
+
+  /**
+   * One mapped segment file.
+   */
+  static class Segment {
+    static final int HEADER_SIZE = 16;
+
+    private static final int MAGIC = 0x54534D31;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int COUNT_OFFSET = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int valueOffset;
+    private int count;
+
+    private Segment(FileChannel channel, MappedByteBuffer buffer, int capacity, int count) {
+      this.channel = channel;
+      this.buffer = buffer;
+      this.capacity = capacity;
+      this.valueOffset = HEADER_SIZE + capacity * 8;
+      this.count = count;
+    }
+
+    static Segment create(File file, int capacity) throws IOException {
+      long length = HEADER_SIZE + capacity * 16L;
+
+      RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+      try {
+        randomAccessFile.setLength(length);
+        FileChannel channel = randomAccessFile.getChannel();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(COUNT_OFFSET, 0);
+
+        return  new Segment(channel, buffer, capacity, 0);
+      } catch ( IOException ioExc ) {
+        randomAccessFile.close();
+        throw ioExc;
+      }
+    }
+
+    static Segment open(File file) throws IOException {
+      RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+      try {
+        long length = randomAccessFile.length();
+        if ( length < HEADER_SIZE ) {
+          throw new IOException("segment file too short: " + file);
+        }
+
+        FileChannel channel = randomAccessFile.getChannel();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+
+        int capacity = buffer.getInt(CAPACITY_OFFSET);
+        int count = buffer.getInt(COUNT_OFFSET);
+        if ( ( buffer.getInt(0) != MAGIC ) || ( capacity < 1 ) || ( length != HEADER_SIZE + capacity * 16L ) ||
+                ( count < 0 ) || ( count > capacity ) ) {
+          throw new IOException("invalid segment file: " + file);
+        }
+
+        return  new Segment(channel, buffer, capacity, count);
+      } catch ( IOException ioExc ) {
+        randomAccessFile.close();
+        throw ioExc;
+      }
+    }
+
+    int size() {
+      return  this.count;
+    }
+
+    long getTimestamp(int index) {
+      return  this.buffer.getLong(HEADER_SIZE + index * 8);
+    }
+
+    long getValue(int index) {
+      return  this.buffer.getLong(this.valueOffset + index * 8);
+    }
+
+    void setValue(int index, long valueBits) {
+      this.buffer.putLong(this.valueOffset + index * 8, valueBits);
+    }
+
+    /**
+     * Locate the given timestamp within the segment.
+     *
+     * @return index of the sample with the given timestamp, or -1 if not present.
+     */
+    int indexOf(long time) {
+      int index = this.ceilingIndex(time);
+      if ( ( index < this.count ) && ( this.getTimestamp(index) == time ) ) {
+        return  index;
+      }
+
+      return  -1;
+    }
+
+    /**
+     * Locate the first sample at or after the given timestamp.
+     *
+     * @return index of the sample, or size() if there is none.
+     */
+    int ceilingIndex(long time) {
+      int low = 0;
+      int high = this.count;
+
+      while ( low < high ) {
+        int mid = ( low + high ) >>> 1;
+        if ( this.getTimestamp(mid) < time ) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+
+      return  low;
+    }
+
+    /**
+     * Locate the last sample at or before the given timestamp.
+     *
+     * @return index of the sample, or -1 if there is none.
+     */
+    int floorIndex(long time) {
+      int index = this.ceilingIndex(time);
+      if ( ( index < this.count ) && ( this.getTimestamp(index) == time ) ) {
+        return  index;
+      }
+
+      return  index - 1;
+    }
+
+    private void append(long time, long valueBits) {
+      this.buffer.putLong(HEADER_SIZE + this.count * 8, time);
+      this.buffer.putLong(this.valueOffset + this.count * 8, valueBits);
+      this.count++;
+      this.buffer.putInt(COUNT_OFFSET, this.count);
+    }
+  }
+}
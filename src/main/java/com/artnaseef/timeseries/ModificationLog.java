@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+/**
+ * Version counter of a sample store which also remembers which timestamps recent changes touched, so a cached result
+ * over one time range can tell whether changes since it was computed affect it.  Changes are grouped into a fixed ring
+ * of records, each covering a run of consecutive versions with the lowest and highest timestamp touched by any of
+ * them.  A run only grows with changes after every timestamp touched so far, such as appends, or changes within its
+ * own range, so late changes do not widen it; checkpoint() ends the run, so no run spans a version handed out.
+ * Answers are exact, or err towards reporting a change once the changes since a version no longer fit in the ring.
+ * <p/>
+ * Every sample store keeps a log, while few are ever cached against, so the ring is only created by the first
+ * checkpoint(); until then the log is just the version counter.  Not safe under concurrency.
+ */
+class ModificationLog {
+  static final int RECORD_COUNT = 64;
+
+  private long[] firstVersions;
+  private long[] lowestTimes;
+  private long[] highestTimes;
+  private int newest = -1;
+  private int recordCount;
+  private boolean newestOpen;
+  private boolean newestAppending;
+  private long highestTouched = Long.MIN_VALUE;
+  private long version;
+
+  long getVersion() {
+    return  this.version;
+  }
+
+  /**
+   * Retrieve the current version, ending the current run of changes so later changes are recorded apart from earlier
+   * ones.
+   *
+   * @return the current version.
+   */
+  long checkpoint() {
+    if ( this.firstVersions == null ) {
+      this.firstVersions = new long[RECORD_COUNT];
+      this.lowestTimes = new long[RECORD_COUNT];
+      this.highestTimes = new long[RECORD_COUNT];
+    }
+
+    this.newestOpen = false;
+    return  this.version;
+  }
+
+  /**
+   * Count one change which touched the timestamps in [lowest, highest]; lowest above highest for a change which
+   * touched nothing.
+   */
+  void record(long lowest, long highest) {
+    this.version++;
+
+    boolean empty = lowest > highest;
+    boolean appending = ( ! empty ) && ( lowest >= this.highestTouched );
+    if ( ( ! empty ) && ( highest > this.highestTouched ) ) {
+      this.highestTouched = highest;
+    }
+
+    if ( this.firstVersions == null ) {
+      //
+      // No version was handed out yet, so no one asks about these changes.
+      //
+      return;
+    }
+
+    if ( this.newestOpen ) {
+      if ( empty ) {
+        return;
+      } else if ( ( appending ) && ( this.newestAppending ) ) {
+        this.highestTimes[this.newest] = Math.max(this.highestTimes[this.newest], highest);
+        return;
+      } else if ( ( lowest >= this.lowestTimes[this.newest] ) && ( highest <= this.highestTimes[this.newest] ) ) {
+        return;
+      }
+    }
+
+    this.newest = ( this.newest + 1 ) % RECORD_COUNT;
+    this.recordCount = Math.min(this.recordCount + 1, RECORD_COUNT);
+    this.firstVersions[this.newest] = this.version;
+    this.lowestTimes[this.newest] = lowest;
+    this.highestTimes[this.newest] = highest;
+    this.newestOpen = true;
+    this.newestAppending = appending;
+  }
+
+  void record(long time) {
+    this.record(time, time);
+  }
+
+  /**
+   * Determine whether any change made after the given version may have touched the time range [from, to).
+   *
+   * @param sinceVersion version returned by checkpoint().
+   * @return false only if no change since the version touched the range.
+   */
+  boolean changedSince(long sinceVersion, long from, long to) {
+    if ( sinceVersion >= this.version ) {
+      return  false;
+    }
+
+    int index = this.newest;
+    int remaining = this.recordCount;
+    while ( remaining > 0 ) {
+      if ( ( this.lowestTimes[index] < to ) && ( this.highestTimes[index] >= from ) &&
+              ( this.lowestTimes[index] <= this.highestTimes[index] ) ) {
+        return  true;
+      }
+
+      if ( this.firstVersions[index] <= sinceVersion + 1 ) {
+        return  false;
+      }
+
+      index = ( index + RECORD_COUNT - 1 ) % RECORD_COUNT;
+      remaining--;
+    }
+
+    //
+    // The changes since the version are older than the log.
+    //
+    return  true;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.QuantileSketch;
+
+/**
+ * Time series whose samples are quantile sketches, such as one sketch of request latencies per second.  Values are
+ * recorded into the sketch of their slot, which is created on first use, and coarser series with the same percentiles
+ * are produced by re-sampling with ResampleUtil and QuantileSketchMergeCalculator, without keeping the raw values.
+ * <p/>
+ * Range views created by subSeries() and the like are plain TimeSeries views of the same sketches.
+ */
+public class QuantileSketchTimeSeries extends TimeSeries<QuantileSketch> {
+  private final double relativeAccuracy;
+
+  public QuantileSketchTimeSeries() {
+    this(QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+  }
+
+  /**
+   * Initialize the series.
+   *
+   * @param relativeAccuracy relative accuracy of the sketches created by record().
+   */
+  public QuantileSketchTimeSeries(double relativeAccuracy) {
+    if ( ( relativeAccuracy <= 0.0 ) || ( relativeAccuracy >= 1.0 ) ) {
+      throw new IllegalArgumentException("relative accuracy must be between 0 and 1: " + relativeAccuracy);
+    }
+
+    this.relativeAccuracy = relativeAccuracy;
+  }
+
+  public double getRelativeAccuracy() {
+    return  relativeAccuracy;
+  }
+
+  /**
+   * Record a value into the sketch at the given timestamp.
+   *
+   * @param time timestamp of the sketch.
+   * @param value value to record.
+   */
+  public void record (long time, double value) {
+    QuantileSketch sketch = this.getTimestampSample(time);
+    if ( sketch == null ) {
+      sketch = new QuantileSketch(this.relativeAccuracy);
+      this.setTimestampSample(time, sketch);
+    }
+
+    sketch.accept(value);
+  }
+
+  /**
+   * Retrieve the value at the given quantile of the sketch at the given timestamp.
+   *
+   * @param time timestamp of the sketch.
+   * @param quantile quantile to retrieve, from 0.0 to 1.0.
+   * @param missingValue value to return when there is no sketch at the given timestamp.
+   * @return value at the quantile, or missingValue if there is no sketch.
+   */
+  public double getQuantile (long time, double quantile, double missingValue) {
+    QuantileSketch sketch = this.getTimestampSample(time);
+    if ( ( sketch == null ) || ( sketch.getCount() <= 0.0 ) ) {
+      return  missingValue;
+    }
+
+    return  sketch.getQuantile(quantile);
+  }
+}
@@ -0,0 +1,488 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.DoubleResampleValueCalculator;
+import com.artnaseef.timeseries.resample.LongResampleValueCalculator;
+import com.artnaseef.timeseries.resample.ResampleValueCalculator;
+import com.artnaseef.timeseries.resample.TimeTransform;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of re-sample results, for callers which ask for the same re-samples repeatedly, such as dashboards.  Results
+ * are keyed on the source series, the source time range, the time transform and the calculator, all compared by
+ * identity, so the same transform and calculator instances must be reused to get hits.  The cache is bounded by the
+ * total number of samples in the cached results, evicting the least recently used results first.
+ * <p/>
+ * Results of LongTimeSeries, DoubleTimeSeries, LongTieredTimeSeries and DoubleTieredTimeSeries sources are checked
+ * against the changes made to the source on every lookup, and re-computed only if a change since they were computed
+ * touched their source range; samples appended after the range leave them valid.  A change reported through
+ * sampleChanged() instead patches only the target slots it affects, using resampleDownAffected().  Results of other
+ * sources are only updated through sampleChanged() and invalidate().
+ * <p/>
+ * The returned series are shared by all callers and must not be modified.  The cache never modifies them either:
+ * a patch is applied to a copy, which replaces the cached result, so a series already returned stays as it was.  The
+ * cache holds references to the source series of its results until they are evicted or invalidated.  Safe under
+ * concurrency; lookups are serialized.
+ */
+public class ResampleCache {
+  private final long maxWeight;
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+
+  private long hitCount;
+  private long missCount;
+  private long patchCount;
+  private long evictionCount;
+
+  /**
+   * Initialize the cache.
+   *
+   * @param maxWeight maximum total number of samples in the cached results; a result larger than this is returned but
+   *                  not cached.
+   */
+  public ResampleCache(long maxWeight) {
+    if ( maxWeight < 0 ) {
+      throw new IllegalArgumentException("maximum weight must not be negative: " + maxWeight);
+    }
+
+    this.maxWeight = maxWeight;
+  }
+
+  public long getMaxWeight() {
+    return  maxWeight;
+  }
+
+  /**
+   * Total number of samples in the cached results.
+   */
+  public synchronized long getWeight() {
+    return  weight;
+  }
+
+  public synchronized int size() {
+    return  this.entries.size();
+  }
+
+  public synchronized long getHitCount() {
+    return  hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return  missCount;
+  }
+
+  public synchronized long getPatchCount() {
+    return  patchCount;
+  }
+
+  public synchronized long getEvictionCount() {
+    return  evictionCount;
+  }
+
+  /**
+   * Retrieve the re-sample of the given range of a series, computing it with ResampleUtil if it is not cached.
+   *
+   * @param source        series to re-sample.
+   * @param timeTransform transformer of timestamps from the source to the result.
+   * @param calculator    calculator of the value of each target slot.
+   * @param from          first source timestamp to re-sample, inclusive.
+   * @param to            end of the source timestamps to re-sample, exclusive.
+   * @return the re-sampled series, which must not be modified.
+   * @see ResampleUtil#resampleDown(TimeSeries, TimeTransform, ResampleValueCalculator, long, long)
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized <T> TimeSeries<T> resampleDown(TimeSeries<T> source, TimeTransform timeTransform,
+                                                     ResampleValueCalculator<T> calculator, long from, long to) {
+
+    Key key = new Key(GenericEntry.class, source, timeTransform, calculator, from, to);
+    Entry entry = this.lookup(key);
+    if ( entry == null ) {
+      entry = new GenericEntry<>(key, source, calculator);
+      this.store(entry);
+    }
+
+    return  (TimeSeries<T>) entry.result;
+  }
+
+  /**
+   * Retrieve the re-sample of the given range of a series of long values, computing it with LongResampleUtil if it is
+   * not cached.
+   *
+   * @see #resampleDown(TimeSeries, TimeTransform, ResampleValueCalculator, long, long)
+   */
+  public synchronized LongTimeSeries resampleDownLong(TimeSeries<Long> source, TimeTransform timeTransform,
+                                                      LongResampleValueCalculator calculator, long from, long to) {
+
+    Key key = new Key(LongEntry.class, source, timeTransform, calculator, from, to);
+    Entry entry = this.lookup(key);
+    if ( entry == null ) {
+      entry = new LongEntry(key, source, calculator);
+      this.store(entry);
+    }
+
+    return  (LongTimeSeries) entry.result;
+  }
+
+  /**
+   * Retrieve the re-sample of the given range of a series of double values, computing it with DoubleResampleUtil if it
+   * is not cached.
+   *
+   * @see #resampleDown(TimeSeries, TimeTransform, ResampleValueCalculator, long, long)
+   */
+  public synchronized DoubleTimeSeries resampleDownDouble(TimeSeries<Double> source, TimeTransform timeTransform,
+                                                          DoubleResampleValueCalculator calculator, long from,
+                                                          long to) {
+
+    Key key = new Key(DoubleEntry.class, source, timeTransform, calculator, from, to);
+    Entry entry = this.lookup(key);
+    if ( entry == null ) {
+      entry = new DoubleEntry(key, source, calculator);
+      this.store(entry);
+    }
+
+    return  (DoubleTimeSeries) entry.result;
+  }
+
+  /**
+   * Report a change to the source sample at the given timestamp, after making it.  Results covering the timestamp are
+   * replaced by a copy in which only the affected target slots are re-sampled; as with resampleDownAffected(), this is
+   * exact provided samples are only added or changed, so use invalidate() after removing samples.  Results of
+   * versioned sources which have also missed other changes within their range are dropped instead.
+   *
+   * @param source series which was changed.
+   * @param time   timestamp of the sample which was added or changed.
+   */
+  public synchronized void sampleChanged(TimeSeries<?> source, long time) {
+    ModificationLog modifications = modificationsOf(source);
+
+    Iterator<Entry> iterator = this.entries.values().iterator();
+    while ( iterator.hasNext() ) {
+      Entry entry = iterator.next();
+      if ( entry.key.source != source ) {
+        continue;
+      }
+
+      boolean covered = ( time >= entry.key.from ) && ( time < entry.key.to );
+      if ( modifications == null ) {
+        if ( covered ) {
+          this.patch(entry, time);
+        }
+      } else if ( modifications.getVersion() - entry.version <= 1 ) {
+        //
+        // The reported change is the only one since the result was last checked.
+        //
+        if ( covered ) {
+          this.patch(entry, time);
+        }
+        entry.version = modifications.checkpoint();
+      } else if ( modifications.changedSince(entry.version, entry.key.from, entry.key.to) ) {
+        iterator.remove();
+        this.weight -= entry.weight;
+      } else {
+        entry.version = modifications.checkpoint();
+      }
+    }
+
+    this.evict();
+  }
+
+  /**
+   * Drop every cached result of the given source.
+   *
+   * @param source series whose results to drop.
+   */
+  public synchronized void invalidate(TimeSeries<?> source) {
+    this.invalidate(source, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Drop the cached results of the given source whose range overlaps the source time range [from, to).
+   *
+   * @param source series whose results to drop.
+   * @param from   first timestamp of the range, inclusive.
+   * @param to     end of the range, exclusive.
+   */
+  public synchronized void invalidate(TimeSeries<?> source, long from, long to) {
+    Iterator<Entry> iterator = this.entries.values().iterator();
+    while ( iterator.hasNext() ) {
+      Entry entry = iterator.next();
+      if ( ( entry.key.source == source ) && ( entry.key.from < to ) && ( from < entry.key.to ) ) {
+        iterator.remove();
+        this.weight -= entry.weight;
+      }
+    }
+  }
+
+  /**
+   * Drop every cached result.
+   */
+  public synchronized void clear() {
+    this.entries.clear();
+    this.weight = 0;
+  }
+
+  /**
+   * Find the cached entry for the key, dropping it if a change to its source since it was computed touched its range.
+   */
+  private Entry lookup(Key key) {
+    Entry entry = this.entries.get(key);
+    if ( entry != null ) {
+      ModificationLog modifications = modificationsOf(key.source);
+      if ( ( modifications == null ) || ( ! modifications.changedSince(entry.version, key.from, key.to) ) ) {
+        if ( modifications != null ) {
+          entry.version = modifications.checkpoint();
+        }
+
+        this.hitCount++;
+        return  entry;
+      }
+
+      this.entries.remove(key);
+      this.weight -= entry.weight;
+    }
+
+    this.missCount++;
+    return  null;
+  }
+
+  private void store(Entry entry) {
+    ModificationLog modifications = modificationsOf(entry.key.source);
+    if ( modifications != null ) {
+      entry.version = modifications.checkpoint();
+    }
+    entry.compute();
+    entry.weight = entry.result.size();
+
+    if ( entry.weight <= this.maxWeight ) {
+      this.entries.put(entry.key, entry);
+      this.weight += entry.weight;
+      this.evict();
+    }
+  }
+
+  /**
+   * Evict the least recently used entries until the weight is within the limit.
+   */
+  private void evict() {
+    Iterator<Entry> iterator = this.entries.values().iterator();
+    while ( ( this.weight > this.maxWeight ) && ( iterator.hasNext() ) ) {
+      Entry entry = iterator.next();
+      iterator.remove();
+      this.weight -= entry.weight;
+      this.evictionCount++;
+    }
+  }
+
+  /**
+   * Replace the result of the entry with a patched copy, so series already returned are never modified.
+   */
+  private void patch(Entry entry, long time) {
+    entry.patch(time);
+    this.patchCount++;
+
+    int newWeight = entry.result.size();
+    this.weight += newWeight - entry.weight;
+    entry.weight = newWeight;
+  }
+
+  /**
+   * Retrieve the log of changes of a versioned source.
+   *
+   * @return the log, or null if the source does not keep one.
+   */
+  private static ModificationLog modificationsOf(TimeSeries<?> source) {
+    if ( source instanceof LongTimeSeries ) {
+      return  ( (LongTimeSeries) source ).getModifications();
+    } else if ( source instanceof DoubleTimeSeries ) {
+      return  ( (DoubleTimeSeries) source ).getModifications();
+    } else if ( source instanceof LongTieredTimeSeries ) {
+      return  ( (LongTieredTimeSeries) source ).getModifications();
+    } else if ( source instanceof DoubleTieredTimeSeries ) {
+      return  ( (DoubleTieredTimeSeries) source ).getModifications();
+    }
+
+    return  null;
+  }
+
+  /**
+   * Identity of a re-sample: the kind of entry holding it, the source, transform and calculator instances, and the
+   * source range.  The kind keeps apart results of the same calculator asked for through different methods, such as
+   * a LongSumResampleCalculator through resampleDown() and resampleDownLong().
+   */
+  private static class Key {
+    private final Class<?> kind;
+    private final TimeSeries<?> source;
+    private final TimeTransform timeTransform;
+    private final Object calculator;
+    private final long from;
+    private final long to;
+
+    public Key(Class<?> kind, TimeSeries<?> source, TimeTransform timeTransform, Object calculator, long from,
+               long to) {
+      this.kind = kind;
+      this.source = source;
+      this.timeTransform = timeTransform;
+      this.calculator = calculator;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if ( ! ( other instanceof Key ) ) {
+        return  false;
+      }
+
+      Key otherKey = (Key) other;
+      return  ( this.kind == otherKey.kind ) && ( this.source == otherKey.source ) &&
+              ( this.timeTransform == otherKey.timeTransform ) && ( this.calculator == otherKey.calculator ) &&
+              ( this.from == otherKey.from ) && ( this.to == otherKey.to );
+    }
+
+    @Override
+    public int hashCode() {
+      int result = this.kind.hashCode();
+      result = ( 31 * result ) + System.identityHashCode(this.source);
+      result = ( 31 * result ) + System.identityHashCode(this.timeTransform);
+      result = ( 31 * result ) + System.identityHashCode(this.calculator);
+      result = ( 31 * result ) + (int) ( this.from ^ ( this.from >>> 32 ) );
+      result = ( 31 * result ) + (int) ( this.to ^ ( this.to >>> 32 ) );
+
+      return  result;
+    }
+  }
+
+  /**
+   * Cached result, along with the means to compute and patch it.
+   */
+  private abstract static class Entry {
+    protected final Key key;
+    protected TimeSeries<?> result;
+    protected long version;
+    protected int weight;
+
+    protected Entry(Key key) {
+      this.key = key;
+    }
+
+    /**
+     * Re-sample the range of the source into a new result.
+     */
+    protected abstract void compute();
+
+    /**
+     * Replace the result with a copy in which the target slots affected by a change to the source at the given time
+     * are re-sampled.
+     */
+    protected abstract void patch(long time);
+  }
+
+  private static class GenericEntry<T> extends Entry {
+    private final TimeSeries<T> source;
+    private final ResampleValueCalculator<T> calculator;
+
+    public GenericEntry(Key key, TimeSeries<T> source, ResampleValueCalculator<T> calculator) {
+      super(key);
+      this.source = source;
+      this.calculator = calculator;
+    }
+
+    @Override
+    protected void compute() {
+      TimeSeries<T> target = new TimeSeries<>();
+      new ResampleUtil<>(this.source).resampleDown(target, this.key.timeTransform, this.calculator, this.key.from,
+              this.key.to);
+      this.result = target;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void patch(long time) {
+      TimeSeries<T> copy = new TimeSeries<>();
+      TimeSeriesCursor<T> cursor = ( (TimeSeries<T>) this.result ).cursor();
+      while ( cursor.next() ) {
+        copy.setTimestampSample(cursor.getTimestamp(), cursor.getValue());
+      }
+
+      new ResampleUtil<>(this.source.subSeries(this.key.from, this.key.to)).resampleDownAffected(copy,
+              this.key.timeTransform, this.calculator, time);
+      this.result = copy;
+    }
+  }
+
+  private static class LongEntry extends Entry {
+    private final TimeSeries<Long> source;
+    private final LongResampleValueCalculator calculator;
+
+    public LongEntry(Key key, TimeSeries<Long> source, LongResampleValueCalculator calculator) {
+      super(key);
+      this.source = source;
+      this.calculator = calculator;
+    }
+
+    @Override
+    protected void compute() {
+      LongTimeSeries target = new LongTimeSeries();
+      new LongResampleUtil(this.source.subSeries(this.key.from, this.key.to)).resampleDown(target,
+              this.key.timeTransform, this.calculator);
+      this.result = target;
+    }
+
+    @Override
+    protected void patch(long time) {
+      LongSampleArray samples = ( (LongTimeSeries) this.result ).getSamples();
+      LongTimeSeries copy = new LongTimeSeries(samples.size());
+      copy.setAll(samples.getTimestampArray(), samples.getValueArray(), 0, samples.size());
+
+      new LongResampleUtil(this.source.subSeries(this.key.from, this.key.to)).resampleDownAffected(copy,
+              this.key.timeTransform, this.calculator, time);
+      this.result = copy;
+    }
+  }
+
+  private static class DoubleEntry extends Entry {
+    private final TimeSeries<Double> source;
+    private final DoubleResampleValueCalculator calculator;
+
+    public DoubleEntry(Key key, TimeSeries<Double> source, DoubleResampleValueCalculator calculator) {
+      super(key);
+      this.source = source;
+      this.calculator = calculator;
+    }
+
+    @Override
+    protected void compute() {
+      DoubleTimeSeries target = new DoubleTimeSeries();
+      new DoubleResampleUtil(this.source.subSeries(this.key.from, this.key.to)).resampleDown(target,
+              this.key.timeTransform, this.calculator);
+      this.result = target;
+    }
+
+    @Override
+    protected void patch(long time) {
+      DoubleSampleArray samples = ( (DoubleTimeSeries) this.result ).getSamples();
+      DoubleTimeSeries copy = new DoubleTimeSeries(samples.size());
+      copy.setAll(samples.getTimestampArray(), samples.getValueArray(), 0, samples.size());
+
+      new DoubleResampleUtil(this.source.subSeries(this.key.from, this.key.to)).resampleDownAffected(copy,
+              this.key.timeTransform, this.calculator, time);
+      this.result = copy;
+    }
+  }
+}
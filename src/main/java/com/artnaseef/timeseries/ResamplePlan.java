@@ -0,0 +1,316 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.ReusableTimeTransform;
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.TimeTransformAdapter;
+
+import java.util.Arrays;
+
+/**
+ * Re-sample of a fixed grid of source timestamps, worked out once so it can be applied to many series which share
+ * that grid, such as thousands of metrics scraped on the same schedule.  The plan transforms every grid timestamp
+ * once, then lays out the target slots just as the re-sample would produce them: the slot timestamp, the run of
+ * source samples making up the slot, and the overlaps of the first and last of them.  Applying the plan to a series
+ * which holds exactly the grid timestamps is then only the calculator work.
+ * <p/>
+ * A plan is immutable and safe under concurrency once created.
+ *
+ * @see LongBatchResampler
+ * @see DoubleBatchResampler
+ */
+public class ResamplePlan {
+  private final TimeTransform timeTransform;
+  private final long[] gridTimes;
+  private final long[] gridSlots;
+  private final double[] gridOverlaps;
+
+  private long[] slotTimes;
+  private int[] slotStarts;
+  private int[] slotLengths;
+  private double[] slotOverlapFirsts;
+  private double[] slotOverlapLasts;
+  private int slotCount;
+
+  /**
+   * Plan the re-sample of the given grid.
+   *
+   * @param gridTimes     source timestamps shared by the series, strictly increasing; the array is copied.
+   * @param timeTransform transformer of timestamps from the source series to the target series, with the same rules
+   *                      as ResampleUtil.resampleDown().
+   */
+  public ResamplePlan(long[] gridTimes, TimeTransform timeTransform) {
+    this(checkGrid(gridTimes), gridTimes.length, timeTransform);
+  }
+
+  /**
+   * Plan the re-sample of the first count timestamps of the given array, which the caller guarantees are strictly
+   * increasing.  The timestamps are copied.
+   */
+  ResamplePlan(long[] gridTimes, int count, TimeTransform timeTransform) {
+    this.timeTransform = timeTransform;
+    this.gridTimes = Arrays.copyOf(gridTimes, count);
+    this.gridSlots = new long[count];
+    this.gridOverlaps = new double[count];
+
+    ReusableTimeTransform reusableTimeTransform = TimeTransformAdapter.reusable(timeTransform);
+    MisalignedTimestamp misalignedTimestamp = new MisalignedTimestamp();
+    int cur = 0;
+    while ( cur < count ) {
+      reusableTimeTransform.transformTime(gridTimes[cur], misalignedTimestamp);
+      this.gridSlots[cur] = misalignedTimestamp.timestamp;
+      this.gridOverlaps[cur] = misalignedTimestamp.overlap;
+      cur++;
+    }
+
+    this.layOutSlots();
+  }
+
+  /**
+   * Plan the re-sample of the timestamps of the given series.
+   *
+   * @param grid          series whose timestamps form the grid.
+   * @param timeTransform transformer of timestamps from the source series to the target series.
+   * @return the plan.
+   */
+  public static ResamplePlan forSeries(TimeSeries<?> grid, TimeTransform timeTransform) {
+    long[] times = new long[Math.max(grid.size(), 1)];
+    int count = 0;
+
+    TimeSeriesCursor<?> cursor = grid.cursor();
+    while ( cursor.next() ) {
+      if ( count == times.length ) {
+        times = Arrays.copyOf(times, count + ( count >> 1 ) + 1);
+      }
+      times[count] = cursor.getTimestamp();
+      count++;
+    }
+
+    return  new ResamplePlan(times, count, timeTransform);
+  }
+
+  private static long[] checkGrid(long[] gridTimes) {
+    int cur = 1;
+    while ( cur < gridTimes.length ) {
+      if ( gridTimes[cur] <= gridTimes[cur - 1] ) {
+        throw new IllegalArgumentException("grid timestamps must be strictly increasing: " + gridTimes[cur] +
+                " follows " + gridTimes[cur - 1]);
+      }
+      cur++;
+    }
+
+    return  gridTimes;
+  }
+
+  public TimeTransform getTimeTransform() {
+    return  timeTransform;
+  }
+
+  /**
+   * Number of source timestamps in the grid.
+   */
+  public int getGridSize() {
+    return  this.gridTimes.length;
+  }
+
+  /**
+   * Number of target slots produced by re-sampling a series holding exactly the grid timestamps.
+   */
+  public int getSlotCount() {
+    return  slotCount;
+  }
+
+  /**
+   * Create a transform which looks up the planned result for grid timestamps instead of recomputing it, and falls
+   * back to the time transform of the plan for any other timestamp.  Lookups are fastest when timestamps are
+   * transformed in increasing order, as a re-sample does.  The transform keeps its position, so it is not safe under
+   * concurrency; create one per thread.
+   *
+   * @return new transform.
+   */
+  public ReusableTimeTransform createTimeTransform() {
+    return  new PlannedTimeTransform();
+  }
+
+  /**
+   * Determine whether the given samples are exactly the grid timestamps.
+   *
+   * @param times timestamp storage of a series.
+   * @param start index of the first sample of the series in the storage.
+   * @param end index just past the last sample of the series.
+   */
+  boolean matchesGrid(long[] times, int start, int end) {
+    if ( end - start != this.gridTimes.length ) {
+      return  false;
+    }
+
+    int cur = 0;
+    while ( cur < this.gridTimes.length ) {
+      if ( times[start + cur] != this.gridTimes[cur] ) {
+        return  false;
+      }
+      cur++;
+    }
+
+    return  true;
+  }
+
+  long getSlotTime(int slot) {
+    return  this.slotTimes[slot];
+  }
+
+  /**
+   * Index, within the grid, of the first source sample of the given target slot.
+   */
+  int getSlotStart(int slot) {
+    return  this.slotStarts[slot];
+  }
+
+  int getSlotLength(int slot) {
+    return  this.slotLengths[slot];
+  }
+
+  double getSlotOverlapFirst(int slot) {
+    return  this.slotOverlapFirsts[slot];
+  }
+
+  double getSlotOverlapLast(int slot) {
+    return  this.slotOverlapLasts[slot];
+  }
+
+  /**
+   * Lay out the target slots, following the same rules as the re-sample: consecutive samples mapping onto the same
+   * slot form one slice, and the remainder of the last sample of a slot carries into the next slot, either joining
+   * the samples of that slot or standing alone.
+   */
+  private void layOutSlots() {
+    int count = this.gridTimes.length;
+    int capacity = Math.max(count * 2, 1);
+    this.slotTimes = new long[capacity];
+    this.slotStarts = new int[capacity];
+    this.slotLengths = new int[capacity];
+    this.slotOverlapFirsts = new double[capacity];
+    this.slotOverlapLasts = new double[capacity];
+
+    if ( count == 0 ) {
+      return;
+    }
+
+    boolean carry = false;
+    double carryOverlap = 0.0;
+
+    int groupStart = 0;
+    long groupSlot = this.gridSlots[0];
+    double overlapFirst = this.gridOverlaps[0];
+    double overlapLast = overlapFirst;
+
+    int cur = 1;
+    while ( true ) {
+      boolean hasNext = cur < count;
+      if ( ( hasNext ) && ( this.gridSlots[cur] == groupSlot ) ) {
+        overlapLast = this.gridOverlaps[cur];
+        cur++;
+        continue;
+      }
+
+      //
+      // Close the slot for samples [groupStart, cur), including the carried remainder of the sample before them.
+      //
+      if ( carry ) {
+        this.addSlot(groupSlot, groupStart - 1, cur - groupStart + 1, carryOverlap, overlapLast);
+      } else {
+        this.addSlot(groupSlot, groupStart, cur - groupStart, overlapFirst, overlapLast);
+      }
+
+      //
+      // Carry the remainder of the last sample into the next slot; it stands alone unless the next sample shares
+      //  that slot.
+      //
+      carry = false;
+      double remainder = 1.0 - overlapLast;
+      if ( remainder > 0.0001 ) {
+        if ( ( hasNext ) && ( this.gridSlots[cur] == groupSlot + 1 ) ) {
+          carry = true;
+          carryOverlap = remainder;
+        } else {
+          this.addSlot(groupSlot + 1, cur - 1, 1, remainder, remainder);
+        }
+      }
+
+      if ( ! hasNext ) {
+        break;
+      }
+
+      groupStart = cur;
+      groupSlot = this.gridSlots[cur];
+      overlapFirst = this.gridOverlaps[cur];
+      overlapLast = overlapFirst;
+      cur++;
+    }
+  }
+
+  private void addSlot(long slotTime, int start, int length, double overlapFirst, double overlapLast) {
+    this.slotTimes[this.slotCount] = slotTime;
+    this.slotStarts[this.slotCount] = start;
+    this.slotLengths[this.slotCount] = length;
+    this.slotOverlapFirsts[this.slotCount] = overlapFirst;
+    this.slotOverlapLasts[this.slotCount] = overlapLast;
+    this.slotCount++;
+  }
+
+  /**
+   * Transform which walks the grid alongside the re-sample, so each lookup is usually a single comparison.
+   */
+  private class PlannedTimeTransform implements ReusableTimeTransform {
+    private final ReusableTimeTransform fallback = TimeTransformAdapter.reusable(timeTransform);
+    private int position;
+
+    @Override
+    public void transformTime(long sourceTime, MisalignedTimestamp result) {
+      int index = this.locate(sourceTime);
+      if ( index < 0 ) {
+        this.fallback.transformTime(sourceTime, result);
+      } else {
+        result.timestamp = gridSlots[index];
+        result.overlap = gridOverlaps[index];
+      }
+    }
+
+    @Override
+    public MisalignedTimestamp transformTime(long sourceTime) {
+      MisalignedTimestamp result = new MisalignedTimestamp();
+      this.transformTime(sourceTime, result);
+
+      return  result;
+    }
+
+    private int locate(long sourceTime) {
+      if ( ( this.position < gridTimes.length ) && ( gridTimes[this.position] == sourceTime ) ) {
+        return  this.position++;
+      }
+
+      int index = Arrays.binarySearch(gridTimes, sourceTime);
+      if ( index >= 0 ) {
+        this.position = index + 1;
+        return  index;
+      }
+
+      this.position = -index - 1;
+      return  -1;
+    }
+  }
+}
@@ -15,8 +15,13 @@
 package com.artnaseef.timeseries;
 
 import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.ResampleAccumulator;
+import com.artnaseef.timeseries.resample.ResampleListener;
+import com.artnaseef.timeseries.resample.ResampleMetrics;
 import com.artnaseef.timeseries.resample.ResampleValueCalculator;
+import com.artnaseef.timeseries.resample.ReusableTimeTransform;
 import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.TimeTransformAdapter;
 
 import java.util.ArrayList;
 
@@ -34,15 +39,34 @@ public class ResampleUtil<T> {
   private ArrayList<T> valueList = new ArrayList<>();
   private TimeSeries<T> targetTimeseries;
   private ResampleValueCalculator<T> resampleValueCalculator;
+  private ResampleListener listener;
+  private ResampleMetrics metrics;
+  private boolean timed;
 
   public ResampleUtil(TimeSeries<T> source) {
     this.source = source;
   }
 
+  public ResampleListener getListener() {
+    return  listener;
+  }
+
+  /**
+   * Set the listener to receive the metrics of each calculator-based re-sample: source samples scanned, target slots
+   * emitted, remainders carried into the next slot, and optionally the time spent in the transform and calculator.
+   * Accumulator-based re-samples are not reported.
+   *
+   * @param listener listener to receive the metrics, or null to collect none.
+   */
+  public void setListener(ResampleListener listener) {
+    this.listener = listener;
+  }
+
   /**
    * Re-sample the time series for this utility instance, storing the results in the given target time series.  Only
    * supports down-sampling, meaning that the target time series must have the same or fewer time slots.  Attempts to
-   * up-sample will result in a series with holes between the samples.
+   * up-sample will result in a series with holes between the samples; see LongResampleUtil.resampleUp() and
+   * DoubleResampleUtil.resampleUp() for up-sampling.
    *
    * @param initTargetTimeseries        series into which the results will be stored.
    * @param timeTransform               transformer of timestamps from the original time series to the new time series.
@@ -54,24 +78,232 @@ public class ResampleUtil<T> {
   public void resampleDown(TimeSeries<T> initTargetTimeseries, TimeTransform timeTransform,
                            ResampleValueCalculator<T> initResampleValueCalculator) {
 
+    this.resampleSource(this.source, initTargetTimeseries, timeTransform, initResampleValueCalculator);
+  }
+
+  /**
+   * Re-sample only the samples of the time series in the time range [from, to), storing the results in the given
+   * target time series.  The range is read through a view of the source, so for the series in this package the cost is
+   * proportional to the number of samples in the range rather than the size of the whole series.  Samples outside of
+   * the range are ignored entirely; in particular, the remainder of a sample just before the range is not carried into
+   * the first target slot.
+   *
+   * @param initTargetTimeseries        series into which the results will be stored.
+   * @param timeTransform               transformer of timestamps from the original time series to the new time series.
+   * @param initResampleValueCalculator calculator of the value of the target timeslot.
+   * @param from                        first source timestamp to re-sample, inclusive.
+   * @param to                          end of the source timestamps to re-sample, exclusive.
+   * @see #resampleDown(TimeSeries, TimeTransform, ResampleValueCalculator)
+   */
+  public void resampleDown(TimeSeries<T> initTargetTimeseries, TimeTransform timeTransform,
+                           ResampleValueCalculator<T> initResampleValueCalculator, long from, long to) {
+
+    this.resampleSource(this.source.subSeries(from, to), initTargetTimeseries, timeTransform,
+            initResampleValueCalculator);
+  }
+
+  /**
+   * Re-sample only the target slots affected by a change to the source sample at the given timestamp, such as a late
+   * sample added after the series was re-sampled, instead of re-sampling the whole series.  Two target slots are
+   * recomputed: the slot of the sample, and the following slot, which can receive the remainder of its last sample.
+   * The result is the same as a full re-sample, provided samples are only added to or changed in the source.
+   *
+   * @param initTargetTimeseries        series holding the results of a prior re-sample of the source.
+   * @param timeTransform               transformer of timestamps used for the prior re-sample.
+   * @param initResampleValueCalculator calculator used for the prior re-sample.
+   * @param sourceTime                  timestamp of the source sample which was added or changed.
+   */
+  public void resampleDownAffected(TimeSeries<T> initTargetTimeseries, TimeTransform timeTransform,
+                                   ResampleValueCalculator<T> initResampleValueCalculator, long sourceTime) {
+
+    ReusableTimeTransform reusableTimeTransform = TimeTransformAdapter.reusable(timeTransform);
+    MisalignedTimestamp misalignedTimestamp = new MisalignedTimestamp();
+    reusableTimeTransform.transformTime(sourceTime, misalignedTimestamp);
+    long affectedSlot = misalignedTimestamp.timestamp;
+
+    TimeSeries<T> slots = new TimeSeries<>();
+    this.resampleSource(affectedSourceRange(this.source, reusableTimeTransform, sourceTime, affectedSlot), slots,
+            reusableTimeTransform, initResampleValueCalculator);
+
+    copyAffectedSlots(slots, initTargetTimeseries, affectedSlot);
+  }
+
+  /**
+   * Find the source samples needed to recompute the target slots affected by a change at the given source time: the
+   * samples mapping onto the affected slot and the slot after it, plus those of the slot before, whose last sample can
+   * carry its remainder into the affected slot.
+   *
+   * @param source        series which was re-sampled.
+   * @param timeTransform transformer of timestamps from the source to the target slots.
+   * @param sourceTime    timestamp of the changed source sample.
+   * @param affectedSlot  target slot onto which the source time maps.
+   * @return view of the source covering the samples needed.
+   */
+  static <V> TimeSeries<V> affectedSourceRange(TimeSeries<V> source, ReusableTimeTransform timeTransform,
+                                               long sourceTime, long affectedSlot) {
+
+    MisalignedTimestamp misalignedTimestamp = new MisalignedTimestamp();
+
+    long first = sourceTime;
+    while (first != Long.MIN_VALUE) {
+      Long previous = source.getFloorTimestamp(first - 1);
+      if (previous == null) {
+        break;
+      }
+
+      timeTransform.transformTime(previous, misalignedTimestamp);
+      if (misalignedTimestamp.timestamp < affectedSlot - 1) {
+        break;
+      }
+      first = previous;
+    }
+
+    long last = sourceTime;
+    while (last != Long.MAX_VALUE) {
+      Long next = source.getCeilingTimestamp(last + 1);
+      if (next == null) {
+        break;
+      }
+
+      timeTransform.transformTime(next, misalignedTimestamp);
+      if (misalignedTimestamp.timestamp > affectedSlot + 1) {
+        break;
+      }
+      last = next;
+    }
+
+    return  source.createRangeView(first, last);
+  }
+
+  /**
+   * Copy the affected slot and the one after it from the recomputed slots into the target.
+   */
+  static <V> void copyAffectedSlots(TimeSeries<V> slots, TimeSeries<V> target, long affectedSlot) {
+    long slot = affectedSlot;
+    while (slot <= affectedSlot + 1) {
+      V value = slots.getTimestampSample(slot);
+      if (value != null) {
+        target.setTimestampSample(slot, value);
+      }
+      slot++;
+    }
+  }
+
+  /**
+   * Find the first target slot which the given transform, from target slots down to source slots, maps onto the
+   * given source slot or a later one.  Used by up-sampling to find the target slots covered by each source sample.
+   * Searches outward from the hint in growing steps, then narrows with a binary search, since source slots never
+   * decrease as target slots increase.
+   *
+   * @param timeTransform       transformer of timestamps from the target slots to the source slots.
+   * @param misalignedTimestamp reusable holder for the transform results.
+   * @param sourceSlot          source slot to find.
+   * @param hint                target slot at which to start searching, such as the result for the previous sample.
+   * @return first target slot mapping onto the source slot or later.
+   */
+  static long firstTargetSlot(ReusableTimeTransform timeTransform, MisalignedTimestamp misalignedTimestamp,
+                              long sourceSlot, long hint) {
+
+    //
+    // Bracket the answer so that low maps before the source slot and high maps onto it or later.
+    //
+    long low;
+    long high;
+    long step = 1;
+
+    timeTransform.transformTime(hint, misalignedTimestamp);
+    if (misalignedTimestamp.timestamp >= sourceSlot) {
+      high = hint;
+      while (true) {
+        if (high == Long.MIN_VALUE) {
+          return  high;
+        }
+
+        low = (high < Long.MIN_VALUE + step) ? Long.MIN_VALUE : high - step;
+        timeTransform.transformTime(low, misalignedTimestamp);
+        if (misalignedTimestamp.timestamp < sourceSlot) {
+          break;
+        }
+
+        high = low;
+        step = Math.min(step << 1, Long.MAX_VALUE >> 1);
+      }
+    } else {
+      low = hint;
+      while (true) {
+        if (low == Long.MAX_VALUE) {
+          return  low;
+        }
+
+        high = (low > Long.MAX_VALUE - step) ? Long.MAX_VALUE : low + step;
+        timeTransform.transformTime(high, misalignedTimestamp);
+        if (misalignedTimestamp.timestamp >= sourceSlot) {
+          break;
+        }
+
+        low = high;
+        step = Math.min(step << 1, Long.MAX_VALUE >> 1);
+      }
+    }
+
+    while (low + 1 < high) {
+      long mid = (low & high) + ((low ^ high) >> 1);
+      timeTransform.transformTime(mid, misalignedTimestamp);
+      if (misalignedTimestamp.timestamp >= sourceSlot) {
+        high = mid;
+      } else {
+        low = mid;
+      }
+    }
+
+    return  high;
+  }
+
+  private void resampleSource(TimeSeries<T> rangeSource, TimeSeries<T> initTargetTimeseries,
+                              TimeTransform timeTransform, ResampleValueCalculator<T> initResampleValueCalculator) {
+
     this.targetTimeseries = initTargetTimeseries;
     this.resampleValueCalculator = initResampleValueCalculator;
-    Long currentSlotTimestamp = null;
+    long currentSlotTimestamp = 0;
+    boolean slotOpen = false;
     valueList = new ArrayList<>();
     overlapFirst = 1.0;
     overlapLast = 1.0;
-    MisalignedTimestamp misalignedTimestamp = null;
+    ReusableTimeTransform reusableTimeTransform = TimeTransformAdapter.reusable(timeTransform);
+    MisalignedTimestamp misalignedTimestamp = new MisalignedTimestamp();
+
+    long startNanos = 0;
+    if (listener != null) {
+      metrics = new ResampleMetrics();
+      metrics.recordBufferAllocation();
+      timed = listener.isTimed();
+      startNanos = System.nanoTime();
+    } else {
+      metrics = null;
+      timed = false;
+    }
 
     //
     // Loop through all of the values from the source.
     //
-    for (Long timestamp : this.source.getTimestamps()) {
+    TimeSeriesCursor<T> cursor = rangeSource.cursor();
+    while (cursor.next()) {
       //
       // Map the timestamp to the new timestamp.
       //
-      misalignedTimestamp = timeTransform.transformTime(timestamp);
+      if (timed) {
+        long transformStart = System.nanoTime();
+        reusableTimeTransform.transformTime(cursor.getTimestamp(), misalignedTimestamp);
+        metrics.addTransformNanos(System.nanoTime() - transformStart);
+      } else {
+        reusableTimeTransform.transformTime(cursor.getTimestamp(), misalignedTimestamp);
+      }
+
+      if (metrics != null) {
+        metrics.recordSample();
+      }
 
-      if (currentSlotTimestamp == null) {
+      if (!slotOpen) {
         //
         // First sample in the next output.
         //
@@ -81,8 +313,7 @@ public class ResampleUtil<T> {
         //
         // New target timestamp; process the prior set now and store in the result time series.
         //
-        T outputSampleValue = resampleValueCalculator.calculateTransformedSample(valueList, overlapFirst, overlapLast);
-        targetTimeseries.setTimestampSample(currentSlotTimestamp, outputSampleValue);
+        storeSlot(currentSlotTimestamp, overlapFirst, overlapLast);
 
         //
         // Start a new value list with the last value from the previous list as the start value, using the remainder
@@ -95,21 +326,130 @@ public class ResampleUtil<T> {
       // In all cases above, the latest sample goes into the sample list now.
       //
       currentSlotTimestamp = misalignedTimestamp.timestamp;
+      slotOpen = true;
       overlapLast = misalignedTimestamp.overlap;
       if (valueList.isEmpty()) {
         overlapFirst = overlapLast;
       }
-      valueList.add(this.source.getTimestampSample(timestamp));
+      valueList.add(cursor.getValue());
     }
 
     //
     // Process the last set of samples, if any.
     //
     if (valueList.size() > 0) {
-      T outputSampleValue = resampleValueCalculator.calculateTransformedSample(valueList, overlapFirst, overlapLast);
-      targetTimeseries.setTimestampSample(currentSlotTimestamp, outputSampleValue);
+      storeSlot(currentSlotTimestamp, overlapFirst, overlapLast);
       this.processSampleRemainder(currentSlotTimestamp, misalignedTimestamp);
     }
+
+    if (metrics != null) {
+      metrics.complete(System.nanoTime() - startNanos);
+      listener.resampleCompleted(metrics);
+      metrics = null;
+      timed = false;
+    }
+  }
+
+  /**
+   * Re-sample the time series for this utility instance using an accumulator, storing the results in the given target
+   * time series.  Follows the same rules as the calculator-based re-sample, but only the last source value is retained
+   * between samples, so memory use does not grow with the ratio of source slots to target slots.
+   *
+   * @param initTargetTimeseries series into which the results will be stored.
+   * @param timeTransform        transformer of timestamps from the original time series to the new time series.
+   *                             Note the times returned MUST be rounded-down to the lower of two time slots anytime
+   *                             there is overlap; otherwise, the lower timeslot value will be dropped.
+   * @param accumulator          accumulator of the value of the target timeslot from the values of the original series
+   *                             that map down onto the target timeslot.
+   */
+  public void resampleDown(TimeSeries<T> initTargetTimeseries, TimeTransform timeTransform,
+                           ResampleAccumulator<T> accumulator) {
+
+    this.resampleSource(this.source, initTargetTimeseries, timeTransform, accumulator);
+  }
+
+  /**
+   * Re-sample only the samples of the time series in the time range [from, to) using an accumulator; see
+   * resampleDown(TimeSeries, TimeTransform, ResampleValueCalculator, long, long) for the handling of the range.
+   *
+   * @param initTargetTimeseries series into which the results will be stored.
+   * @param timeTransform        transformer of timestamps from the original time series to the new time series.
+   * @param accumulator          accumulator of the value of the target timeslot.
+   * @param from                 first source timestamp to re-sample, inclusive.
+   * @param to                   end of the source timestamps to re-sample, exclusive.
+   */
+  public void resampleDown(TimeSeries<T> initTargetTimeseries, TimeTransform timeTransform,
+                           ResampleAccumulator<T> accumulator, long from, long to) {
+
+    this.resampleSource(this.source.subSeries(from, to), initTargetTimeseries, timeTransform, accumulator);
+  }
+
+  private void resampleSource(TimeSeries<T> rangeSource, TimeSeries<T> initTargetTimeseries,
+                              TimeTransform timeTransform, ResampleAccumulator<T> accumulator) {
+
+    long currentSlotTimestamp = 0;
+    boolean slotOpen = false;
+    T lastValue = null;
+    double lastOverlap = 1.0;
+    ReusableTimeTransform reusableTimeTransform = TimeTransformAdapter.reusable(timeTransform);
+    MisalignedTimestamp misalignedTimestamp = new MisalignedTimestamp();
+    TimeSeriesCursor<T> cursor = rangeSource.cursor();
+
+    //
+    // Loop through all of the values from the source.
+    //
+    while (cursor.next()) {
+      reusableTimeTransform.transformTime(cursor.getTimestamp(), misalignedTimestamp);
+
+      if ((slotOpen) && (currentSlotTimestamp != misalignedTimestamp.timestamp)) {
+        //
+        // New target timestamp; store the prior slot and carry the remainder of its last value, if any, into the
+        //  next slot.
+        //
+        initTargetTimeseries.setTimestampSample(currentSlotTimestamp, accumulator.finishSlot());
+        slotOpen = false;
+
+        double remainder = 1.0 - lastOverlap;
+        if (remainder > 0.0001) {
+          currentSlotTimestamp = currentSlotTimestamp + 1;
+          accumulator.beginSlot(currentSlotTimestamp);
+          accumulator.accept(lastValue, remainder);
+          slotOpen = true;
+
+          //
+          // If the remainder does not share its slot with the current sample, it creates a full output sample.
+          //
+          if (currentSlotTimestamp != misalignedTimestamp.timestamp) {
+            initTargetTimeseries.setTimestampSample(currentSlotTimestamp, accumulator.finishSlot());
+            slotOpen = false;
+          }
+        }
+      }
+
+      if (!slotOpen) {
+        currentSlotTimestamp = misalignedTimestamp.timestamp;
+        accumulator.beginSlot(currentSlotTimestamp);
+        slotOpen = true;
+      }
+
+      lastValue = cursor.getValue();
+      lastOverlap = misalignedTimestamp.overlap;
+      accumulator.accept(lastValue, lastOverlap);
+    }
+
+    //
+    // Process the last slot, if any, and the remainder of its last value.
+    //
+    if (slotOpen) {
+      initTargetTimeseries.setTimestampSample(currentSlotTimestamp, accumulator.finishSlot());
+
+      double remainder = 1.0 - lastOverlap;
+      if (remainder > 0.0001) {
+        accumulator.beginSlot(currentSlotTimestamp + 1);
+        accumulator.accept(lastValue, remainder);
+        initTargetTimeseries.setTimestampSample(currentSlotTimestamp + 1, accumulator.finishSlot());
+      }
+    }
   }
 
   /**
@@ -121,7 +461,6 @@ public class ResampleUtil<T> {
    */
   protected void processSampleRemainder(Long completedTimeSlot, MisalignedTimestamp misalignedTimestamp) {
 
-    T outputSampleValue;
     overlapFirst = 1.0 - overlapLast;
     if (overlapFirst > 0.0001) {
       T last = valueList.get(valueList.size() - 1);
@@ -133,11 +472,12 @@ public class ResampleUtil<T> {
       //  it creates a full output sample.
       //
       completedTimeSlot = completedTimeSlot + 1;
-      if (completedTimeSlot != misalignedTimestamp.timestamp) {
-        outputSampleValue = resampleValueCalculator.calculateTransformedSample(valueList, overlapFirst,
-                overlapFirst);
+      if (metrics != null) {
+        metrics.recordRemainder(completedTimeSlot != misalignedTimestamp.timestamp);
+      }
 
-        targetTimeseries.setTimestampSample(completedTimeSlot, outputSampleValue);
+      if (completedTimeSlot != misalignedTimestamp.timestamp) {
+        storeSlot(completedTimeSlot, overlapFirst, overlapFirst);
 
         valueList.clear();
       }
@@ -145,4 +485,25 @@ public class ResampleUtil<T> {
       valueList.clear();
     }
   }
+
+  /**
+   * Calculate the value of the target slot from the values in the list and store it in the target.
+   */
+  private void storeSlot(long slotTimestamp, double slotOverlapFirst, double slotOverlapLast) {
+    long calculatorStart = 0;
+    if (timed) {
+      calculatorStart = System.nanoTime();
+    }
+
+    T outputSampleValue = resampleValueCalculator.calculateTransformedSample(valueList, slotOverlapFirst,
+            slotOverlapLast);
+    targetTimeseries.setTimestampSample(slotTimestamp, outputSampleValue);
+
+    if (metrics != null) {
+      metrics.recordSlot(valueList.size());
+      if (timed) {
+        metrics.addCalculatorNanos(System.nanoTime() - calculatorStart);
+      }
+    }
+  }
 }
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+/**
+ * Snapshot of the counters kept by the primitive storage of LongTimeSeries and DoubleTimeSeries, for seeing where
+ * ingestion spends its effort: samples appended at the end, samples inserted before existing ones, existing samples
+ * shifted to make room for (or close up after) others, and the arrays allocated as the storage grows.  The storage
+ * is shared by a series and all of its range views, so the counters cover all of them.
+ * <p/>
+ * The counters only grow; to see the effect of a single call, take a snapshot before and after it and use since().
+ */
+public class SampleStoreStats {
+  /**
+   * Bytes of storage per sample: one long timestamp and one 8-byte value.
+   */
+  public static final int BYTES_PER_SAMPLE = 16;
+
+  private final int size;
+  private final int capacity;
+  private final long appendCount;
+  private final long insertCount;
+  private final long movedCount;
+  private final long allocationCount;
+  private final long allocatedBytes;
+
+  SampleStoreStats(int size, int capacity, long appendCount, long insertCount, long movedCount, long allocationCount,
+                   long allocatedBytes) {
+    this.size = size;
+    this.capacity = capacity;
+    this.appendCount = appendCount;
+    this.insertCount = insertCount;
+    this.movedCount = movedCount;
+    this.allocationCount = allocationCount;
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  /**
+   * Number of samples held by the storage.
+   */
+  public int getSize() {
+    return  size;
+  }
+
+  /**
+   * Number of samples the storage can hold before it must grow.
+   */
+  public int getCapacity() {
+    return  capacity;
+  }
+
+  /**
+   * Number of new samples which landed after all existing samples, the fast path.
+   */
+  public long getAppendCount() {
+    return  appendCount;
+  }
+
+  /**
+   * Number of new samples which landed before existing samples, singly or as part of a merged batch.
+   */
+  public long getInsertCount() {
+    return  insertCount;
+  }
+
+  /**
+   * Number of existing samples copied to a new position by inserts, merges and removals.
+   */
+  public long getMovedCount() {
+    return  movedCount;
+  }
+
+  /**
+   * Number of storage arrays allocated, counting each timestamp and value array pair once.
+   */
+  public long getAllocationCount() {
+    return  allocationCount;
+  }
+
+  public long getAllocatedBytes() {
+    return  allocatedBytes;
+  }
+
+  /**
+   * Compute the change in the counters since an earlier snapshot of the same storage.  The size and capacity are
+   * those of this snapshot.
+   *
+   * @param earlier snapshot taken before this one.
+   * @return counters accumulated between the two snapshots.
+   */
+  public SampleStoreStats since(SampleStoreStats earlier) {
+    return  new SampleStoreStats(this.size, this.capacity, this.appendCount - earlier.appendCount,
+            this.insertCount - earlier.insertCount, this.movedCount - earlier.movedCount,
+            this.allocationCount - earlier.allocationCount, this.allocatedBytes - earlier.allocatedBytes);
+  }
+
+  @Override
+  public String toString() {
+    return  "SampleStoreStats{size=" + size + ", capacity=" + capacity + ", appends=" + appendCount + ", inserts=" +
+            insertCount + ", moved=" + movedCount + ", allocations=" + allocationCount + ", allocatedBytes=" +
+            allocatedBytes + "}";
+  }
+}
@@ -14,7 +14,9 @@
 
 package com.artnaseef.timeseries;
 
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
 
@@ -22,9 +24,28 @@ import java.util.TreeSet;
  * Created by art on 4/30/15.
  */
 public class TimeSeries<T> {
-  private Map<Long, T> values = new TreeMap<>();
+  private final NavigableMap<Long, T> values;
+  private final long lowest;
+  private final long highest;
 
   public TimeSeries() {
+    this(new TreeMap<Long, T>(), Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Initialize a series for a sub-class which stores its samples separately, overriding every method which reads or
+   * writes them as well as createRangeView().
+   *
+   * @param storesSamples false to skip creating the map of samples, which such sub-classes never use.
+   */
+  protected TimeSeries(boolean storesSamples) {
+    this(storesSamples ? new TreeMap<Long, T>() : null, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  private TimeSeries(NavigableMap<Long, T> values, long lowest, long highest) {
+    this.values = values;
+    this.lowest = lowest;
+    this.highest = highest;
   }
 
   public T getTimestampSample (long time) {
@@ -38,4 +59,182 @@ public class TimeSeries<T> {
   public TreeSet<Long> getTimestamps () {
     return  new TreeSet<Long>(this.values.keySet());
   }
+
+  /**
+   * Retrieve the number of samples in the series.
+   *
+   * @return number of timestamps which hold a sample.
+   */
+  public int size () {
+    return  this.values.size();
+  }
+
+  /**
+   * Create a cursor which walks the samples of the series in timestamp order without copying them.  The series must
+   * not be modified while the cursor is in use.
+   *
+   * @return new cursor positioned before the first sample.
+   */
+  public TimeSeriesCursor<T> cursor () {
+    return  new MapCursor<>(this.values.entrySet().iterator());
+  }
+
+  /**
+   * Visit every sample of the series in timestamp order without copying them.
+   *
+   * @param visitor visitor called once for each sample.
+   */
+  public void forEach (TimeSeriesVisitor<? super T> visitor) {
+    for (Map.Entry<Long, T> oneEntry : this.values.entrySet()) {
+      visitor.visit(oneEntry.getKey(), oneEntry.getValue());
+    }
+  }
+
+  /**
+   * Retrieve the earliest timestamp in the series.
+   *
+   * @return the first timestamp, or null if the series is empty.
+   */
+  public Long getFirstTimestamp () {
+    if ( this.values.isEmpty() ) {
+      return  null;
+    }
+
+    return  this.values.firstKey();
+  }
+
+  /**
+   * Retrieve the latest timestamp in the series.
+   *
+   * @return the last timestamp, or null if the series is empty.
+   */
+  public Long getLastTimestamp () {
+    if ( this.values.isEmpty() ) {
+      return  null;
+    }
+
+    return  this.values.lastKey();
+  }
+
+  /**
+   * Retrieve the latest timestamp in the series at or before the given time.
+   *
+   * @param time time to search from.
+   * @return the timestamp, or null if there is none.
+   */
+  public Long getFloorTimestamp (long time) {
+    if ( time < this.lowest ) {
+      return  null;
+    }
+
+    return  this.values.floorKey(Math.min(time, this.highest));
+  }
+
+  /**
+   * Retrieve the earliest timestamp in the series at or after the given time.
+   *
+   * @param time time to search from.
+   * @return the timestamp, or null if there is none.
+   */
+  public Long getCeilingTimestamp (long time) {
+    if ( time > this.highest ) {
+      return  null;
+    }
+
+    return  this.values.ceilingKey(Math.max(time, this.lowest));
+  }
+
+  /**
+   * Create a view of the samples in the time range [from, to).  The view is backed by this series, so no samples are
+   * copied and changes to either are visible in both; setting a sample outside of the range through the view throws
+   * an IllegalArgumentException.  Views of views are limited to the range of both.
+   *
+   * @param from first timestamp of the range, inclusive.
+   * @param to end of the range, exclusive.
+   * @return view of the samples in the range.
+   */
+  public TimeSeries<T> subSeries (long from, long to) {
+    if ( to <= from ) {
+      return  this.createRangeView(1, 0);
+    }
+
+    return  this.createRangeView(from, to - 1);
+  }
+
+  /**
+   * Create a view of the samples before the given time; see subSeries().
+   *
+   * @param to end of the range, exclusive.
+   * @return view of the samples in the range.
+   */
+  public TimeSeries<T> headSeries (long to) {
+    if ( to == Long.MIN_VALUE ) {
+      return  this.createRangeView(1, 0);
+    }
+
+    return  this.createRangeView(Long.MIN_VALUE, to - 1);
+  }
+
+  /**
+   * Create a view of the samples at or after the given time; see subSeries().
+   *
+   * @param from first timestamp of the range, inclusive.
+   * @return view of the samples in the range.
+   */
+  public TimeSeries<T> tailSeries (long from) {
+    return  this.createRangeView(from, Long.MAX_VALUE);
+  }
+
+  /**
+   * Create a view of the samples of this series in the given range, intersected with the range of this series.
+   * Sub-classes which store their samples separately must override this method, returning their own type.
+   *
+   * @param rangeLowest lowest timestamp of the range, inclusive.
+   * @param rangeHighest highest timestamp of the range, inclusive; lower than rangeLowest for an empty range.
+   * @return view of the samples in the range.
+   */
+  protected TimeSeries<T> createRangeView (long rangeLowest, long rangeHighest) {
+    long viewLowest = Math.max(rangeLowest, this.lowest);
+    long viewHighest = Math.min(rangeHighest, this.highest);
+
+    if ( viewLowest > viewHighest ) {
+      if ( this.lowest > this.highest ) {
+        return  this;
+      }
+
+      return  new TimeSeries<>(this.values.subMap(this.lowest, true, this.lowest, false), 1, 0);
+    }
+
+    return  new TimeSeries<>(this.values.subMap(viewLowest, true, viewHighest, true), viewLowest, viewHighest);
+  }
+
+  private static class MapCursor<T> implements TimeSeriesCursor<T> {
+    private final Iterator<Map.Entry<Long, T>> iterator;
+    private Map.Entry<Long, T> current;
+
+    public MapCursor(Iterator<Map.Entry<Long, T>> iterator) {
+      this.iterator = iterator;
+    }
+
+    @Override
+    public boolean next() {
+      if ( this.iterator.hasNext() ) {
+        this.current = this.iterator.next();
+        return  true;
+      }
+
+      this.current = null;
+      return  false;
+    }
+
+    @Override
+    public long getTimestamp() {
+      return  this.current.getKey();
+    }
+
+    @Override
+    public T getValue() {
+      return  this.current.getValue();
+    }
+  }
 }
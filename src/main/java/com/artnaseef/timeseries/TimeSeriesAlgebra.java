@@ -0,0 +1,366 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * Element-wise arithmetic between two time series, such as dividing a series of error counts by a series of request
+ * counts to get an error rate.  The samples of the two series are paired by timestamp in a single merge walk over
+ * their sorted, primitive storage, and the arithmetic then runs as a tight loop over the paired values, so the cost
+ * is linear in the number of samples and nothing is boxed.  Results are always a new DoubleTimeSeries, which takes
+ * over the arrays of the computation without copying them, unless the join left them partly unused; those are
+ * trimmed to the samples first.
+ * <p/>
+ * With an inner join, only timestamps present in both series produce a result.  With an outer join, every timestamp
+ * of either series produces a result, with the missing value standing in for the side which has no sample.  Division
+ * follows floating-point rules, so dividing by zero yields an infinity or NaN.
+ * <p/>
+ * LongTimeSeries and DoubleTimeSeries operands, including their range views, are read directly from their storage;
+ * other series are copied through their cursor first.
+ */
+public class TimeSeriesAlgebra {
+  /**
+   * Rule for pairing the samples of the two series.
+   */
+  public enum Join {
+    /**
+     * Only timestamps present in both series.
+     */
+    INNER,
+
+    /**
+     * Timestamps present in either series.
+     */
+    OUTER
+  }
+
+  private final Join join;
+  private final double missingValue;
+
+  /**
+   * Initialize for an inner join.
+   */
+  public TimeSeriesAlgebra() {
+    this(Join.INNER, 0.0);
+  }
+
+  /**
+   * Initialize the algebra.
+   *
+   * @param join         rule for pairing the samples of the two series.
+   * @param missingValue value used in place of a missing sample with an outer join.
+   */
+  public TimeSeriesAlgebra(Join join, double missingValue) {
+    if ( join == null ) {
+      throw new IllegalArgumentException("join must not be null");
+    }
+
+    this.join = join;
+    this.missingValue = missingValue;
+  }
+
+  public Join getJoin() {
+    return  join;
+  }
+
+  public double getMissingValue() {
+    return  missingValue;
+  }
+
+  /**
+   * Add the samples of the two series.
+   *
+   * @return new series holding left + right for each joined timestamp.
+   */
+  public DoubleTimeSeries add(TimeSeries<? extends Number> left, TimeSeries<? extends Number> right) {
+    Pairs pairs = this.pair(left, right);
+
+    double[] leftValues = pairs.leftValues;
+    double[] rightValues = pairs.rightValues;
+    int cur = 0;
+    while ( cur < pairs.count ) {
+      leftValues[cur] = leftValues[cur] + rightValues[cur];
+      cur++;
+    }
+
+    return  pairs.toSeries(leftValues);
+  }
+
+  /**
+   * Subtract the samples of the right series from those of the left.
+   *
+   * @return new series holding left - right for each joined timestamp.
+   */
+  public DoubleTimeSeries subtract(TimeSeries<? extends Number> left, TimeSeries<? extends Number> right) {
+    Pairs pairs = this.pair(left, right);
+
+    double[] leftValues = pairs.leftValues;
+    double[] rightValues = pairs.rightValues;
+    int cur = 0;
+    while ( cur < pairs.count ) {
+      leftValues[cur] = leftValues[cur] - rightValues[cur];
+      cur++;
+    }
+
+    return  pairs.toSeries(leftValues);
+  }
+
+  /**
+   * Multiply the samples of the two series.
+   *
+   * @return new series holding left * right for each joined timestamp.
+   */
+  public DoubleTimeSeries multiply(TimeSeries<? extends Number> left, TimeSeries<? extends Number> right) {
+    Pairs pairs = this.pair(left, right);
+
+    double[] leftValues = pairs.leftValues;
+    double[] rightValues = pairs.rightValues;
+    int cur = 0;
+    while ( cur < pairs.count ) {
+      leftValues[cur] = leftValues[cur] * rightValues[cur];
+      cur++;
+    }
+
+    return  pairs.toSeries(leftValues);
+  }
+
+  /**
+   * Divide the samples of the left series by those of the right.
+   *
+   * @return new series holding left / right for each joined timestamp.
+   */
+  public DoubleTimeSeries divide(TimeSeries<? extends Number> left, TimeSeries<? extends Number> right) {
+    Pairs pairs = this.pair(left, right);
+
+    double[] leftValues = pairs.leftValues;
+    double[] rightValues = pairs.rightValues;
+    int cur = 0;
+    while ( cur < pairs.count ) {
+      leftValues[cur] = leftValues[cur] / rightValues[cur];
+      cur++;
+    }
+
+    return  pairs.toSeries(leftValues);
+  }
+
+  /**
+   * Multiply every sample of the series by a constant.  The join does not apply.
+   *
+   * @param series series to scale.
+   * @param factor constant by which to multiply each sample.
+   * @return new series holding the scaled samples.
+   */
+  public DoubleTimeSeries scale(TimeSeries<? extends Number> series, double factor) {
+    Operand operand = new Operand(series);
+    int count = operand.end - operand.start;
+
+    long[] times = new long[count];
+    double[] values = new double[count];
+    System.arraycopy(operand.times, operand.start, times, 0, count);
+
+    int cur = 0;
+    while ( cur < count ) {
+      values[cur] = operand.value(operand.start + cur) * factor;
+      cur++;
+    }
+
+    return  new DoubleTimeSeries(new DoubleSampleArray(times, values, count));
+  }
+
+  /**
+   * Pair the samples of the two series by timestamp, in a single walk over both.
+   */
+  private Pairs pair(TimeSeries<? extends Number> left, TimeSeries<? extends Number> right) {
+    Operand leftOperand = new Operand(left);
+    Operand rightOperand = new Operand(right);
+    boolean outer = ( this.join == Join.OUTER );
+
+    int leftCount = leftOperand.end - leftOperand.start;
+    int rightCount = rightOperand.end - rightOperand.start;
+    Pairs pairs;
+    if ( outer ) {
+      pairs = new Pairs(leftCount + rightCount);
+    } else {
+      pairs = new Pairs(Math.min(leftCount, rightCount));
+    }
+
+    long[] leftTimes = leftOperand.times;
+    long[] rightTimes = rightOperand.times;
+    int leftCur = leftOperand.start;
+    int rightCur = rightOperand.start;
+    while ( ( leftCur < leftOperand.end ) && ( rightCur < rightOperand.end ) ) {
+      long leftTime = leftTimes[leftCur];
+      long rightTime = rightTimes[rightCur];
+
+      if ( leftTime == rightTime ) {
+        pairs.append(leftTime, leftOperand.value(leftCur), rightOperand.value(rightCur));
+        leftCur++;
+        rightCur++;
+      } else if ( leftTime < rightTime ) {
+        if ( outer ) {
+          pairs.append(leftTime, leftOperand.value(leftCur), this.missingValue);
+        }
+        leftCur++;
+      } else {
+        if ( outer ) {
+          pairs.append(rightTime, this.missingValue, rightOperand.value(rightCur));
+        }
+        rightCur++;
+      }
+    }
+
+    //
+    // With an outer join, the rest of whichever series is longer pairs with the missing value.
+    //
+    if ( outer ) {
+      while ( leftCur < leftOperand.end ) {
+        pairs.append(leftTimes[leftCur], leftOperand.value(leftCur), this.missingValue);
+        leftCur++;
+      }
+
+      while ( rightCur < rightOperand.end ) {
+        pairs.append(rightTimes[rightCur], this.missingValue, rightOperand.value(rightCur));
+        rightCur++;
+      }
+    }
+
+    return  pairs;
+  }
+
+  /**
+   * Sorted samples of one operand, as a slice [start, end) of primitive arrays holding either long or double values.
+   */
+  private static class Operand {
+    private long[] times;
+    private long[] longValues;
+    private double[] doubleValues;
+    private int start;
+    private int end;
+
+    public Operand(TimeSeries<? extends Number> series) {
+      if ( series instanceof LongTimeSeries ) {
+        LongTimeSeries longSeries = (LongTimeSeries) series;
+        LongSampleArray samples = longSeries.getSamples();
+
+        this.times = samples.getTimestampArray();
+        this.longValues = samples.getValueArray();
+        this.start = longSeries.getRangeStart();
+        this.end = longSeries.getRangeEnd();
+      } else if ( series instanceof DoubleTimeSeries ) {
+        DoubleTimeSeries doubleSeries = (DoubleTimeSeries) series;
+        DoubleSampleArray samples = doubleSeries.getSamples();
+
+        this.times = samples.getTimestampArray();
+        this.doubleValues = samples.getValueArray();
+        this.start = doubleSeries.getRangeStart();
+        this.end = doubleSeries.getRangeEnd();
+      } else {
+        this.copy(series);
+      }
+    }
+
+    public double value(int index) {
+      if ( this.longValues != null ) {
+        return  this.longValues[index];
+      }
+
+      return  this.doubleValues[index];
+    }
+
+    /**
+     * Copy the samples of any other kind of series through its cursor, without boxing when the cursor allows.
+     */
+    private void copy(TimeSeries<? extends Number> series) {
+      TimeSeriesCursor<? extends Number> cursor = series.cursor();
+      LongTimeSeriesCursor longCursor = null;
+      DoubleTimeSeriesCursor doubleCursor = null;
+      if ( cursor instanceof LongTimeSeriesCursor ) {
+        longCursor = (LongTimeSeriesCursor) cursor;
+      } else if ( cursor instanceof DoubleTimeSeriesCursor ) {
+        doubleCursor = (DoubleTimeSeriesCursor) cursor;
+      }
+
+      int capacity = Math.max(series.size(), DoubleSampleArray.DEFAULT_CAPACITY);
+
+      this.times = new long[capacity];
+      this.doubleValues = new double[capacity];
+
+      int count = 0;
+      while ( cursor.next() ) {
+        if ( count == this.times.length ) {
+          this.times = Arrays.copyOf(this.times, count + ( count >> 1 ));
+          this.doubleValues = Arrays.copyOf(this.doubleValues, this.times.length);
+        }
+
+        this.times[count] = cursor.getTimestamp();
+        if ( longCursor != null ) {
+          this.doubleValues[count] = longCursor.getLongValue();
+        } else if ( doubleCursor != null ) {
+          this.doubleValues[count] = doubleCursor.getDoubleValue();
+        } else {
+          this.doubleValues[count] = cursor.getValue().doubleValue();
+        }
+        count++;
+      }
+
+      this.start = 0;
+      this.end = count;
+    }
+  }
+
+  /**
+   * Joined timestamps with the left and right values paired up at the same index.
+   */
+  private static class Pairs {
+    private final long[] times;
+    private final double[] leftValues;
+    private final double[] rightValues;
+    private int count;
+
+    public Pairs(int capacity) {
+      this.times = new long[capacity];
+      this.leftValues = new double[capacity];
+      this.rightValues = new double[capacity];
+    }
+
+    public void append(long time, double leftValue, double rightValue) {
+      this.times[this.count] = time;
+      this.leftValues[this.count] = leftValue;
+      this.rightValues[this.count] = rightValue;
+      this.count++;
+    }
+
+    /**
+     * Hand the joined timestamps and the given result values over to a new series, without copying them if they are
+     * full.
+     */
+    public DoubleTimeSeries toSeries(double[] values) {
+      long[] resultTimes = this.times;
+      double[] resultValues = values;
+
+      //
+      // The capacity covers every sample of both series for an outer join, and the smaller one for an inner join, so
+      // any timestamps which did not pair up leave a tail unused.
+      //
+      if ( this.count < resultTimes.length ) {
+        resultTimes = Arrays.copyOf(resultTimes, this.count);
+        resultValues = Arrays.copyOf(resultValues, this.count);
+      }
+
+      return  new DoubleTimeSeries(new DoubleSampleArray(resultTimes, resultValues, this.count));
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+/**
+ * Forward-only cursor over the samples of a time series, in timestamp order.  Cursors walk the underlying storage
+ * directly without copying it, so the series must not be modified while a cursor is in use.
+ * <p/>
+ * Usage:
+ * <pre>
+ *   TimeSeriesCursor&lt;T&gt; cursor = series.cursor();
+ *   while ( cursor.next() ) {
+ *     process(cursor.getTimestamp(), cursor.getValue());
+ *   }
+ * </pre>
+ */
+public interface TimeSeriesCursor<T> {
+  /**
+   * Advance to the next sample.  Must be called before reading the first sample.
+   *
+   * @return true if the cursor now points to a sample; false if the end of the series was reached.
+   */
+  boolean next();
+
+  /**
+   * Timestamp of the current sample.
+   *
+   * @return timestamp of the sample at the current position.
+   */
+  long getTimestamp();
+
+  /**
+   * Value of the current sample.
+   *
+   * @return value of the sample at the current position.
+   */
+  T getValue();
+}
@@ -0,0 +1,475 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.DoubleResampleValueCalculator;
+import com.artnaseef.timeseries.resample.LongResampleValueCalculator;
+import com.artnaseef.timeseries.resample.TimeTransform;
+
+import java.util.Arrays;
+
+/**
+ * Table of many metrics sampled at the same timestamps, such as every metric of one host: a single sorted column of
+ * timestamps and any number of named value columns, each holding either long or double values in a primitive array.
+ * The timestamps are stored once for all of the columns instead of once per series, and a row holds one value for
+ * every column.
+ * <p/>
+ * Rows are appended in increasing timestamp order.  A column added after rows exist starts out with 0 in every
+ * existing row for a long column, and NaN for a double column.  Re-sampling lays out the target slots once from the
+ * timestamps, following the same rules as LongResampleUtil and DoubleResampleUtil, and then computes every column of
+ * each slot in a single pass over the rows.  Not safe under concurrency.
+ */
+public class TimeSeriesFrame {
+  public static final int DEFAULT_CAPACITY = 16;
+
+  private long[] timestamps;
+  private int rowCount;
+
+  private String[] columnNames = new String[0];
+  private long[][] longColumns = new long[0][];
+  private double[][] doubleColumns = new double[0][];
+  private int columnCount;
+
+  public TimeSeriesFrame() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Initialize an empty frame with room for the given number of rows before the columns need to grow.
+   *
+   * @param initialCapacity number of rows to pre-allocate.
+   */
+  public TimeSeriesFrame(int initialCapacity) {
+    if ( initialCapacity < 0 ) {
+      throw new IllegalArgumentException("initial capacity must not be negative: " + initialCapacity);
+    }
+
+    this.timestamps = new long[initialCapacity];
+  }
+
+  /**
+   * Add a column of long values.
+   *
+   * @param name name of the column; must not already be used by another column.
+   * @return index of the new column.
+   */
+  public int addLongColumn (String name) {
+    int column = this.addColumn(name);
+    this.longColumns[column] = new long[this.timestamps.length];
+
+    return  column;
+  }
+
+  /**
+   * Add a column of double values.
+   *
+   * @param name name of the column; must not already be used by another column.
+   * @return index of the new column.
+   */
+  public int addDoubleColumn (String name) {
+    int column = this.addColumn(name);
+    this.doubleColumns[column] = new double[this.timestamps.length];
+    Arrays.fill(this.doubleColumns[column], Double.NaN);
+
+    return  column;
+  }
+
+  public int getColumnCount () {
+    return  columnCount;
+  }
+
+  public int getRowCount () {
+    return  rowCount;
+  }
+
+  public String getColumnName (int column) {
+    this.checkColumn(column);
+    return  this.columnNames[column];
+  }
+
+  /**
+   * Find the column with the given name.
+   *
+   * @param name name of the column.
+   * @return index of the column, or -1 if there is none with the name.
+   */
+  public int getColumnIndex (String name) {
+    int cur = 0;
+    while ( cur < this.columnCount ) {
+      if ( this.columnNames[cur].equals(name) ) {
+        return  cur;
+      }
+      cur++;
+    }
+
+    return  -1;
+  }
+
+  public boolean isLongColumn (int column) {
+    this.checkColumn(column);
+    return  this.longColumns[column] != null;
+  }
+
+  /**
+   * Append a row for the given timestamp, with 0 in every long column and NaN in every double column.
+   *
+   * @param time timestamp of the row; must be later than the timestamps of all existing rows.
+   * @return index of the new row.
+   */
+  public int appendRow (long time) {
+    if ( ( this.rowCount > 0 ) && ( time <= this.timestamps[this.rowCount - 1] ) ) {
+      throw new IllegalArgumentException("rows must be appended in increasing timestamp order: " + time +
+              " is not later than " + this.timestamps[this.rowCount - 1]);
+    }
+
+    if ( this.rowCount == this.timestamps.length ) {
+      this.grow();
+    }
+
+    int row = this.rowCount;
+    this.timestamps[row] = time;
+    int column = 0;
+    while ( column < this.columnCount ) {
+      if ( this.doubleColumns[column] != null ) {
+        this.doubleColumns[column][row] = Double.NaN;
+      }
+      column++;
+    }
+
+    this.rowCount++;
+    return  row;
+  }
+
+  /**
+   * Find the row with the given timestamp.
+   *
+   * @param time timestamp of the row.
+   * @return index of the row, if present; otherwise, (-(insertion point) - 1).
+   */
+  public int getRowIndex (long time) {
+    if ( ( this.rowCount > 0 ) && ( this.timestamps[this.rowCount - 1] == time ) ) {
+      return  this.rowCount - 1;
+    }
+
+    return  Arrays.binarySearch(this.timestamps, 0, this.rowCount, time);
+  }
+
+  public long getTimestamp (int row) {
+    this.checkRow(row);
+    return  this.timestamps[row];
+  }
+
+  /**
+   * Retrieve a value of a long column.
+   */
+  public long getLong (int row, int column) {
+    this.checkRow(row);
+    return  this.longColumn(column)[row];
+  }
+
+  /**
+   * Retrieve a value of any column as a double.
+   */
+  public double getDouble (int row, int column) {
+    this.checkRow(row);
+    this.checkColumn(column);
+
+    if ( this.longColumns[column] != null ) {
+      return  this.longColumns[column][row];
+    }
+
+    return  this.doubleColumns[column][row];
+  }
+
+  public void setLong (int row, int column, long value) {
+    this.checkRow(row);
+    this.longColumn(column)[row] = value;
+  }
+
+  public void setDouble (int row, int column, double value) {
+    this.checkRow(row);
+    this.doubleColumn(column)[row] = value;
+  }
+
+  /**
+   * Copy a long column into a series of its own.
+   *
+   * @param column index of the long column.
+   * @return new series holding the timestamp and value of each row.
+   */
+  public LongTimeSeries toLongTimeSeries (int column) {
+    LongTimeSeries result = new LongTimeSeries(this.rowCount);
+    result.setAll(this.timestamps, this.longColumn(column), 0, this.rowCount);
+
+    return  result;
+  }
+
+  /**
+   * Copy a double column into a series of its own.
+   *
+   * @param column index of the double column.
+   * @return new series holding the timestamp and value of each row.
+   */
+  public DoubleTimeSeries toDoubleTimeSeries (int column) {
+    DoubleTimeSeries result = new DoubleTimeSeries(this.rowCount);
+    result.setAll(this.timestamps, this.doubleColumn(column), 0, this.rowCount);
+
+    return  result;
+  }
+
+  /**
+   * Walk a long column in timestamp order without copying it.  The frame must not be modified during the walk.
+   *
+   * @param column index of the long column.
+   * @return cursor positioned before the first row.
+   */
+  public LongTimeSeriesCursor longColumnCursor (int column) {
+    return  new LongColumnCursor(this.timestamps, this.longColumn(column), this.rowCount);
+  }
+
+  /**
+   * Walk a double column in timestamp order without copying it.  The frame must not be modified during the walk.
+   *
+   * @param column index of the double column.
+   * @return cursor positioned before the first row.
+   */
+  public DoubleTimeSeriesCursor doubleColumnCursor (int column) {
+    return  new DoubleColumnCursor(this.timestamps, this.doubleColumn(column), this.rowCount);
+  }
+
+  /**
+   * Re-sample every column, using one calculator for all long columns and another for all double columns.
+   *
+   * @see #resampleDown(TimeTransform, LongResampleValueCalculator[], DoubleResampleValueCalculator[])
+   */
+  public TimeSeriesFrame resampleDown (TimeTransform timeTransform, LongResampleValueCalculator longCalculator,
+                                       DoubleResampleValueCalculator doubleCalculator) {
+
+    LongResampleValueCalculator[] longCalculators = new LongResampleValueCalculator[this.columnCount];
+    DoubleResampleValueCalculator[] doubleCalculators = new DoubleResampleValueCalculator[this.columnCount];
+    Arrays.fill(longCalculators, longCalculator);
+    Arrays.fill(doubleCalculators, doubleCalculator);
+
+    return  this.resampleDown(timeTransform, longCalculators, doubleCalculators);
+  }
+
+  /**
+   * Re-sample every column into a new frame with the same columns.  The target slots are laid out once from the
+   * timestamps, with the same rules as ResampleUtil.resampleDown(), and then each slot is computed for every column
+   * in turn, calling the calculator on a slice of the column array, so nothing is copied or boxed.
+   *
+   * @param timeTransform     transformer of timestamps from this frame to the new frame.
+   * @param longCalculators   calculator for each long column, by column index; entries for double columns are
+   *                          ignored.
+   * @param doubleCalculators calculator for each double column, by column index; entries for long columns are
+   *                          ignored.
+   * @return new frame holding one row for each target slot.
+   */
+  public TimeSeriesFrame resampleDown (TimeTransform timeTransform, LongResampleValueCalculator[] longCalculators,
+                                       DoubleResampleValueCalculator[] doubleCalculators) {
+
+    ResamplePlan plan = new ResamplePlan(this.timestamps, this.rowCount, timeTransform);
+    int slotCount = plan.getSlotCount();
+
+    TimeSeriesFrame result = new TimeSeriesFrame(slotCount);
+    int column = 0;
+    while ( column < this.columnCount ) {
+      if ( this.longColumns[column] != null ) {
+        if ( longCalculators[column] == null ) {
+          throw new IllegalArgumentException("no calculator for long column " + this.columnNames[column]);
+        }
+        result.addLongColumn(this.columnNames[column]);
+      } else {
+        if ( doubleCalculators[column] == null ) {
+          throw new IllegalArgumentException("no calculator for double column " + this.columnNames[column]);
+        }
+        result.addDoubleColumn(this.columnNames[column]);
+      }
+      column++;
+    }
+
+    int slot = 0;
+    while ( slot < slotCount ) {
+      result.timestamps[slot] = plan.getSlotTime(slot);
+
+      int start = plan.getSlotStart(slot);
+      int length = plan.getSlotLength(slot);
+      double overlapFirst = plan.getSlotOverlapFirst(slot);
+      double overlapLast = plan.getSlotOverlapLast(slot);
+
+      column = 0;
+      while ( column < this.columnCount ) {
+        if ( this.longColumns[column] != null ) {
+          result.longColumns[column][slot] = longCalculators[column].calculateTransformedSample(
+                  this.longColumns[column], start, length, overlapFirst, overlapLast);
+        } else {
+          result.doubleColumns[column][slot] = doubleCalculators[column].calculateTransformedSample(
+                  this.doubleColumns[column], start, length, overlapFirst, overlapLast);
+        }
+        column++;
+      }
+
+      slot++;
+    }
+
+    result.rowCount = slotCount;
+    return  result;
+  }
+
+  private int addColumn (String name) {
+    if ( name == null ) {
+      throw new IllegalArgumentException("column name must not be null");
+    } else if ( this.getColumnIndex(name) >= 0 ) {
+      throw new IllegalArgumentException("duplicate column name: " + name);
+    }
+
+    if ( this.columnCount == this.columnNames.length ) {
+      int newCount = Math.max(4, this.columnCount * 2);
+      this.columnNames = Arrays.copyOf(this.columnNames, newCount);
+      this.longColumns = Arrays.copyOf(this.longColumns, newCount);
+      this.doubleColumns = Arrays.copyOf(this.doubleColumns, newCount);
+    }
+
+    int column = this.columnCount;
+    this.columnNames[column] = name;
+    this.columnCount++;
+
+    return  column;
+  }
+
+  private void grow () {
+    int capacity = this.timestamps.length;
+    int newCapacity = Math.max(DEFAULT_CAPACITY, capacity + ( capacity >> 1 ));
+
+    this.timestamps = Arrays.copyOf(this.timestamps, newCapacity);
+    int column = 0;
+    while ( column < this.columnCount ) {
+      if ( this.longColumns[column] != null ) {
+        this.longColumns[column] = Arrays.copyOf(this.longColumns[column], newCapacity);
+      } else {
+        this.doubleColumns[column] = Arrays.copyOf(this.doubleColumns[column], newCapacity);
+      }
+      column++;
+    }
+  }
+
+  private long[] longColumn (int column) {
+    this.checkColumn(column);
+    if ( this.longColumns[column] == null ) {
+      throw new IllegalArgumentException("column " + this.columnNames[column] + " does not hold long values");
+    }
+
+    return  this.longColumns[column];
+  }
+
+  private double[] doubleColumn (int column) {
+    this.checkColumn(column);
+    if ( this.doubleColumns[column] == null ) {
+      throw new IllegalArgumentException("column " + this.columnNames[column] + " does not hold double values");
+    }
+
+    return  this.doubleColumns[column];
+  }
+
+  private void checkColumn (int column) {
+    if ( ( column < 0 ) || ( column >= this.columnCount ) ) {
+      throw new IndexOutOfBoundsException("column " + column + " of " + this.columnCount);
+    }
+  }
+
+  private void checkRow (int row) {
+    if ( ( row < 0 ) || ( row >= this.rowCount ) ) {
+      throw new IndexOutOfBoundsException("row " + row + " of " + this.rowCount);
+    }
+  }
+
+  private static class LongColumnCursor implements LongTimeSeriesCursor {
+    private final long[] timestamps;
+    private final long[] values;
+    private final int count;
+    private int index = -1;
+
+    public LongColumnCursor(long[] timestamps, long[] values, int count) {
+      this.timestamps = timestamps;
+      this.values = values;
+      this.count = count;
+    }
+
+    @Override
+    public boolean next() {
+      if ( this.index + 1 >= this.count ) {
+        this.index = this.count;
+        return  false;
+      }
+
+      this.index++;
+      return  true;
+    }
+
+    @Override
+    public long getTimestamp() {
+      return  this.timestamps[this.index];
+    }
+
+    @Override
+    public long getLongValue() {
+      return  this.values[this.index];
+    }
+
+    @Override
+    public Long getValue() {
+      return  this.values[this.index];
+    }
+  }
+
+  private static class DoubleColumnCursor implements DoubleTimeSeriesCursor {
+    private final long[] timestamps;
+    private final double[] values;
+    private final int count;
+    private int index = -1;
+
+    public DoubleColumnCursor(long[] timestamps, double[] values, int count) {
+      this.timestamps = timestamps;
+      this.values = values;
+      this.count = count;
+    }
+
+    @Override
+    public boolean next() {
+      if ( this.index + 1 >= this.count ) {
+        this.index = this.count;
+        return  false;
+      }
+
+      this.index++;
+      return  true;
+    }
+
+    @Override
+    public long getTimestamp() {
+      return  this.timestamps[this.index];
+    }
+
+    @Override
+    public double getDoubleValue() {
+      return  this.values[this.index];
+    }
+
+    @Override
+    public Double getValue() {
+      return  this.values[this.index];
+    }
+  }
+}
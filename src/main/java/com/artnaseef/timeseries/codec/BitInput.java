@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads values of arbitrary bit width, most significant bit first, from an input stream.  The stream is read in blocks,
+ * so bytes beyond the end of the encoded data may be consumed from it.
+ */
+class BitInput {
+  private static final int BUFFER_SIZE = 8192;
+
+  private final InputStream in;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int bufferUsed;
+  private int bufferPos;
+
+  private int current;
+  private int currentBits;
+
+  BitInput(InputStream in) {
+    this.in = in;
+  }
+
+  boolean readBit() throws IOException {
+    return  this.readBits(1) != 0;
+  }
+
+  /**
+   * Read a value of the given width.
+   *
+   * @param count number of bits to read, from 1 to 64.
+   * @return the bits read, in the low-order bits of the result.
+   */
+  long readBits(int count) throws IOException {
+    long result = 0;
+
+    while ( count > 0 ) {
+      if ( this.currentBits == 0 ) {
+        this.current = this.readByte();
+        this.currentBits = 8;
+      }
+
+      int take = Math.min(this.currentBits, count);
+      this.currentBits -= take;
+      count -= take;
+
+      long chunk = ( this.current >>> this.currentBits ) & ( ( 1 << take ) - 1 );
+      result = ( result << take ) | chunk;
+    }
+
+    return  result;
+  }
+
+  private int readByte() throws IOException {
+    if ( this.bufferPos == this.bufferUsed ) {
+      int count = this.in.read(this.buffer, 0, this.buffer.length);
+      if ( count <= 0 ) {
+        throw new EOFException("unexpected end of encoded time series");
+      }
+
+      this.bufferUsed = count;
+      this.bufferPos = 0;
+    }
+
+    int result = this.buffer[this.bufferPos] & 0xFF;
+    this.bufferPos++;
+
+    return  result;
+  }
+}
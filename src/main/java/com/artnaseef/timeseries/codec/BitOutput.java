@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes values of arbitrary bit width, most significant bit first, to an output stream.  Bytes are collected in an
+ * internal buffer and only written to the stream when the buffer fills or on flush().
+ */
+class BitOutput {
+  private static final int BUFFER_SIZE = 8192;
+
+  private final OutputStream out;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int bufferUsed;
+
+  private int current;
+  private int currentBits;
+
+  BitOutput(OutputStream out) {
+    this.out = out;
+  }
+
+  void writeBit(boolean bit) throws IOException {
+    this.writeBits(bit ? 1 : 0, 1);
+  }
+
+  /**
+   * Write the low-order bits of the given value.
+   *
+   * @param value value to write.
+   * @param count number of low-order bits of the value to write, from 1 to 64.
+   */
+  void writeBits(long value, int count) throws IOException {
+    while ( count > 0 ) {
+      int take = Math.min(8 - this.currentBits, count);
+      count -= take;
+
+      int chunk = (int) ( value >>> count ) & ( ( 1 << take ) - 1 );
+      this.current = ( this.current << take ) | chunk;
+      this.currentBits += take;
+
+      if ( this.currentBits == 8 ) {
+        this.writeByte(this.current);
+        this.current = 0;
+        this.currentBits = 0;
+      }
+    }
+  }
+
+  /**
+   * Pad the final partial byte with zero bits and write everything buffered to the stream.
+   */
+  void flush() throws IOException {
+    if ( this.currentBits > 0 ) {
+      this.writeByte(this.current << ( 8 - this.currentBits ));
+      this.current = 0;
+      this.currentBits = 0;
+    }
+
+    this.out.write(this.buffer, 0, this.bufferUsed);
+    this.bufferUsed = 0;
+    this.out.flush();
+  }
+
+  private void writeByte(int value) throws IOException {
+    if ( this.bufferUsed == this.buffer.length ) {
+      this.out.write(this.buffer, 0, this.bufferUsed);
+      this.bufferUsed = 0;
+    }
+
+    this.buffer[this.bufferUsed] = (byte) value;
+    this.bufferUsed++;
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.codec;
+
+import java.io.IOException;
+
+/**
+ * Constants and primitive encodings shared by the encoders and decoders.
+ */
+class CodecUtil {
+  static final int FORMAT_VERSION = 1;
+  static final int LONG_SERIES_TYPE = 'L';
+  static final int DOUBLE_SERIES_TYPE = 'D';
+
+  private CodecUtil() {
+  }
+
+  static void writeHeader(BitOutput out, int seriesType) throws IOException {
+    out.writeBits(seriesType, 8);
+    out.writeBits(FORMAT_VERSION, 8);
+  }
+
+  static void readHeader(BitInput in, int seriesType) throws IOException {
+    int actualType = (int) in.readBits(8);
+    int actualVersion = (int) in.readBits(8);
+
+    if ( actualType != seriesType ) {
+      throw new IOException("encoded series type " + actualType + " does not match expected type " + seriesType);
+    }
+    if ( actualVersion != FORMAT_VERSION ) {
+      throw new IOException("unsupported encoding version " + actualVersion);
+    }
+  }
+
+  /**
+   * Map signed values to unsigned so small magnitudes of either sign have few significant bits: 0, -1, 1, -2, 2, ...
+   * become 0, 1, 2, 3, 4, ...
+   */
+  static long zigZagEncode(long value) {
+    return  ( value << 1 ) ^ ( value >> 63 );
+  }
+
+  static long zigZagDecode(long value) {
+    return  ( value >>> 1 ) ^ -( value & 1 );
+  }
+
+  /**
+   * Write an unsigned value in groups of 7 bits, least significant group first, with the high bit of each 8-bit group
+   * set when more groups follow.
+   */
+  static void writeVarLong(BitOutput out, long value) throws IOException {
+    while ( ( value & ~0x7FL ) != 0 ) {
+      out.writeBits(( value & 0x7F ) | 0x80, 8);
+      value >>>= 7;
+    }
+
+    out.writeBits(value, 8);
+  }
+
+  static long readVarLong(BitInput in) throws IOException {
+    long result = 0;
+    int shift = 0;
+
+    while ( shift < 64 ) {
+      long group = in.readBits(8);
+      result |= ( group & 0x7F ) << shift;
+
+      if ( ( group & 0x80 ) == 0 ) {
+        return  result;
+      }
+
+      shift += 7;
+    }
+
+    throw new IOException("malformed variable-length value");
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.codec;
+
+import com.artnaseef.timeseries.DoubleTimeSeries;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming decoder of double time series written by DoubleTimeSeriesEncoder.  Samples are read one at a time with
+ * next(), or all at once into a series.  The stream is read in blocks, so data following the encoded series in the
+ * same stream may be consumed.
+ */
+public class DoubleTimeSeriesDecoder implements Closeable {
+  private final InputStream stream;
+  private final BitInput in;
+  private final TimestampDecoder timestampDecoder = new TimestampDecoder();
+
+  private long valueBits;
+  private int previousLeading;
+  private int previousTrailing;
+  private boolean started;
+  private boolean ended;
+
+  /**
+   * Initialize the decoder, reading and validating the header of the encoded series.
+   *
+   * @param stream stream from which to read the encoded series.
+   * @throws IOException if the stream can not be read, or does not hold an encoded double series.
+   */
+  public DoubleTimeSeriesDecoder(InputStream stream) throws IOException {
+    this.stream = stream;
+    this.in = new BitInput(stream);
+
+    CodecUtil.readHeader(this.in, CodecUtil.DOUBLE_SERIES_TYPE);
+  }
+
+  /**
+   * Advance to the next sample.
+   *
+   * @return true if a sample was read, available from getTimestamp() and getDoubleValue(); false at the end of the
+   * series.
+   */
+  public boolean next() throws IOException {
+    if ( this.ended ) {
+      return  false;
+    }
+
+    if ( ! this.timestampDecoder.read(this.in) ) {
+      this.ended = true;
+      return  false;
+    }
+
+    if ( ! this.started ) {
+      this.valueBits = this.in.readBits(64);
+      this.started = true;
+    } else if ( this.in.readBit() ) {
+      int length;
+
+      if ( this.in.readBit() ) {
+        this.previousLeading = (int) this.in.readBits(5);
+        length = (int) this.in.readBits(6) + 1;
+        this.previousTrailing = 64 - this.previousLeading - length;
+      } else {
+        length = 64 - this.previousLeading - this.previousTrailing;
+      }
+
+      if ( this.previousTrailing < 0 ) {
+        throw new IOException("malformed encoded double value");
+      }
+
+      this.valueBits ^= this.in.readBits(length) << this.previousTrailing;
+    }
+
+    return  true;
+  }
+
+  public long getTimestamp() {
+    return  this.timestampDecoder.getTime();
+  }
+
+  public double getDoubleValue() {
+    return  Double.longBitsToDouble(this.valueBits);
+  }
+
+  /**
+   * Read all of the remaining samples into a new series.
+   *
+   * @return new series holding the decoded samples.
+   */
+  public DoubleTimeSeries readSeries() throws IOException {
+    DoubleTimeSeries result = new DoubleTimeSeries();
+    this.readInto(result);
+
+    return  result;
+  }
+
+  /**
+   * Read all of the remaining samples into the given series, replacing any samples already at the same timestamps.
+   *
+   * @param target series into which the samples are stored.
+   */
+  public void readInto(DoubleTimeSeries target) throws IOException {
+    while ( this.next() ) {
+      target.setTimestampSample(this.getTimestamp(), this.getDoubleValue());
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.stream.close();
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.codec;
+
+import com.artnaseef.timeseries.DoubleTimeSeriesCursor;
+import com.artnaseef.timeseries.TimeSeries;
+import com.artnaseef.timeseries.TimeSeriesCursor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streaming, compressed encoder of double time series.  Timestamps use delta-of-delta encoding (see
+ * TimestampEncoder), and values are XOR-ed with the previous value so that only the bits which changed are written:
+ *
+ * <pre>
+ *   0                                         value unchanged
+ *   10 + changed bits                         changed bits fall within the previous leading/trailing zero window
+ *   11 + 5 bits leading zeros + 6 bits (length - 1) + changed bits
+ * </pre>
+ *
+ * Samples may be written one at a time as they are produced, or a whole series at once; finish() marks the end of the
+ * series.  DoubleTimeSeriesDecoder reads the result.
+ */
+public class DoubleTimeSeriesEncoder implements Closeable {
+  private static final int MAX_LEADING_ZEROS = 31;
+
+  private final OutputStream stream;
+  private final BitOutput out;
+  private final TimestampEncoder timestampEncoder = new TimestampEncoder();
+
+  private long previousBits;
+  private int previousLeading = -1;
+  private int previousTrailing;
+  private boolean started;
+  private boolean finished;
+
+  public DoubleTimeSeriesEncoder(OutputStream stream) throws IOException {
+    this.stream = stream;
+    this.out = new BitOutput(stream);
+
+    CodecUtil.writeHeader(this.out, CodecUtil.DOUBLE_SERIES_TYPE);
+  }
+
+  public void writeSample(long time, double value) throws IOException {
+    if ( this.finished ) {
+      throw new IllegalStateException("encoder already finished");
+    }
+
+    this.timestampEncoder.write(this.out, time);
+
+    long bits = Double.doubleToRawLongBits(value);
+    if ( ! this.started ) {
+      this.out.writeBits(bits, 64);
+      this.started = true;
+    } else {
+      this.writeXor(bits ^ this.previousBits);
+    }
+
+    this.previousBits = bits;
+  }
+
+  /**
+   * Write every sample of the given series, in timestamp order.
+   *
+   * @param series series to write.
+   */
+  public void writeSeries(TimeSeries<Double> series) throws IOException {
+    TimeSeriesCursor<Double> cursor = series.cursor();
+
+    if ( cursor instanceof DoubleTimeSeriesCursor ) {
+      DoubleTimeSeriesCursor doubleCursor = (DoubleTimeSeriesCursor) cursor;
+      while ( doubleCursor.next() ) {
+        this.writeSample(doubleCursor.getTimestamp(), doubleCursor.getDoubleValue());
+      }
+    } else {
+      while ( cursor.next() ) {
+        this.writeSample(cursor.getTimestamp(), cursor.getValue());
+      }
+    }
+  }
+
+  /**
+   * Mark the end of the series and flush all of the encoded data to the stream.  The stream is left open.
+   */
+  public void finish() throws IOException {
+    if ( ! this.finished ) {
+      this.timestampEncoder.writeEnd(this.out);
+      this.out.flush();
+      this.finished = true;
+    }
+  }
+
+  /**
+   * Finish the series, if not already finished, and close the stream.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      this.finish();
+    } finally {
+      this.stream.close();
+    }
+  }
+
+  private void writeXor(long xor) throws IOException {
+    if ( xor == 0 ) {
+      this.out.writeBits(0, 1);
+      return;
+    }
+
+    int leading = Math.min(Long.numberOfLeadingZeros(xor), MAX_LEADING_ZEROS);
+    int trailing = Long.numberOfTrailingZeros(xor);
+
+    if ( ( this.previousLeading >= 0 ) && ( leading >= this.previousLeading ) &&
+            ( trailing >= this.previousTrailing ) ) {
+      //
+      // Reuse the previous window; only the bits within it are written.
+      //
+      this.out.writeBits(0x2, 2);
+      this.out.writeBits(xor >>> this.previousTrailing, 64 - this.previousLeading - this.previousTrailing);
+    } else {
+      int length = 64 - leading - trailing;
+
+      this.out.writeBits(0x3, 2);
+      this.out.writeBits(leading, 5);
+      this.out.writeBits(length - 1, 6);
+      this.out.writeBits(xor >>> trailing, length);
+
+      this.previousLeading = leading;
+      this.previousTrailing = trailing;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.codec;
+
+import com.artnaseef.timeseries.LongTimeSeries;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming decoder of long time series written by LongTimeSeriesEncoder.  Samples are read one at a time with next(),
+ * or all at once into a series.  The stream is read in blocks, so data following the encoded series in the same stream
+ * may be consumed.
+ */
+public class LongTimeSeriesDecoder implements Closeable {
+  private final InputStream stream;
+  private final BitInput in;
+  private final TimestampDecoder timestampDecoder = new TimestampDecoder();
+
+  private long value;
+  private boolean ended;
+
+  /**
+   * Initialize the decoder, reading and validating the header of the encoded series.
+   *
+   * @param stream stream from which to read the encoded series.
+   * @throws IOException if the stream can not be read, or does not hold an encoded long series.
+   */
+  public LongTimeSeriesDecoder(InputStream stream) throws IOException {
+    this.stream = stream;
+    this.in = new BitInput(stream);
+
+    CodecUtil.readHeader(this.in, CodecUtil.LONG_SERIES_TYPE);
+  }
+
+  /**
+   * Advance to the next sample.
+   *
+   * @return true if a sample was read, available from getTimestamp() and getLongValue(); false at the end of the
+   * series.
+   */
+  public boolean next() throws IOException {
+    if ( this.ended ) {
+      return  false;
+    }
+
+    if ( ! this.timestampDecoder.read(this.in) ) {
+      this.ended = true;
+      return  false;
+    }
+
+    this.value += CodecUtil.zigZagDecode(CodecUtil.readVarLong(this.in));
+    return  true;
+  }
+
+  public long getTimestamp() {
+    return  this.timestampDecoder.getTime();
+  }
+
+  public long getLongValue() {
+    return  this.value;
+  }
+
+  /**
+   * Read all of the remaining samples into a new series.
+   *
+   * @return new series holding the decoded samples.
+   */
+  public LongTimeSeries readSeries() throws IOException {
+    LongTimeSeries result = new LongTimeSeries();
+    this.readInto(result);
+
+    return  result;
+  }
+
+  /**
+   * Read all of the remaining samples into the given series, replacing any samples already at the same timestamps.
+   *
+   * @param target series into which the samples are stored.
+   */
+  public void readInto(LongTimeSeries target) throws IOException {
+    while ( this.next() ) {
+      target.setTimestampSample(this.getTimestamp(), this.getLongValue());
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.stream.close();
+  }
+}
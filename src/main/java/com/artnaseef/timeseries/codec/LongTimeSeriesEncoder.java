@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.codec;
+
+import com.artnaseef.timeseries.LongTimeSeriesCursor;
+import com.artnaseef.timeseries.TimeSeries;
+import com.artnaseef.timeseries.TimeSeriesCursor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streaming, compressed encoder of long time series.  Timestamps use delta-of-delta encoding (see TimestampEncoder),
+ * so regularly spaced samples cost one bit per timestamp; values are written as the zig-zag, variable-length encoded
+ * change from the previous value, so slowly changing values cost a single byte.
+ * <p>
+ * Samples may be written one at a time as they are produced, or a whole series at once; finish() marks the end of the
+ * series.  LongTimeSeriesDecoder reads the result.
+ */
+public class LongTimeSeriesEncoder implements Closeable {
+  private final OutputStream stream;
+  private final BitOutput out;
+  private final TimestampEncoder timestampEncoder = new TimestampEncoder();
+
+  private long previousValue;
+  private boolean finished;
+
+  public LongTimeSeriesEncoder(OutputStream stream) throws IOException {
+    this.stream = stream;
+    this.out = new BitOutput(stream);
+
+    CodecUtil.writeHeader(this.out, CodecUtil.LONG_SERIES_TYPE);
+  }
+
+  public void writeSample(long time, long value) throws IOException {
+    if ( this.finished ) {
+      throw new IllegalStateException("encoder already finished");
+    }
+
+    this.timestampEncoder.write(this.out, time);
+    CodecUtil.writeVarLong(this.out, CodecUtil.zigZagEncode(value - this.previousValue));
+
+    this.previousValue = value;
+  }
+
+  /**
+   * Write every sample of the given series, in timestamp order.
+   *
+   * @param series series to write.
+   */
+  public void writeSeries(TimeSeries<Long> series) throws IOException {
+    TimeSeriesCursor<Long> cursor = series.cursor();
+
+    if ( cursor instanceof LongTimeSeriesCursor ) {
+      LongTimeSeriesCursor longCursor = (LongTimeSeriesCursor) cursor;
+      while ( longCursor.next() ) {
+        this.writeSample(longCursor.getTimestamp(), longCursor.getLongValue());
+      }
+    } else {
+      while ( cursor.next() ) {
+        this.writeSample(cursor.getTimestamp(), cursor.getValue());
+      }
+    }
+  }
+
+  /**
+   * Mark the end of the series and flush all of the encoded data to the stream.  The stream is left open.
+   */
+  public void finish() throws IOException {
+    if ( ! this.finished ) {
+      this.timestampEncoder.writeEnd(this.out);
+      this.out.flush();
+      this.finished = true;
+    }
+  }
+
+  /**
+   * Finish the series, if not already finished, and close the stream.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      this.finish();
+    } finally {
+      this.stream.close();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.codec;
+
+import java.io.IOException;
+
+/**
+ * Reads timestamps written by TimestampEncoder.
+ */
+class TimestampDecoder {
+  private long previousTime;
+  private long previousDelta;
+  private boolean started;
+
+  /**
+   * Read the next timestamp.
+   *
+   * @return true if a timestamp was read, available from getTime(); false at the end of the series.
+   */
+  boolean read(BitInput in) throws IOException {
+    int ones = 0;
+    while ( ( ones < TimestampEncoder.END_MARKER_ONES ) && ( in.readBit() ) ) {
+      ones++;
+    }
+
+    if ( ones == TimestampEncoder.END_MARKER_ONES ) {
+      return  false;
+    }
+
+    long deltaOfDelta = 0;
+    if ( ones > 0 ) {
+      deltaOfDelta = CodecUtil.zigZagDecode(in.readBits(TimestampEncoder.BUCKET_BITS[ones]));
+    }
+
+    long delta = this.previousDelta + deltaOfDelta;
+    this.previousTime += delta;
+    if ( this.started ) {
+      this.previousDelta = delta;
+    }
+    this.started = true;
+
+    return  true;
+  }
+
+  long getTime() {
+    return  this.previousTime;
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.codec;
+
+import java.io.IOException;
+
+/**
+ * Delta-of-delta encoding of timestamps.  Each timestamp is written as the change in the gap from the previous
+ * timestamp, zig-zag encoded, with a prefix code selecting the width:
+ *
+ * <pre>
+ *   0                    same gap as before
+ *   10      + 7 bits
+ *   110     + 9 bits
+ *   1110    + 12 bits
+ *   11110   + 32 bits
+ *   111110  + 64 bits
+ *   111111               end of the series
+ * </pre>
+ *
+ * Regularly spaced timestamps therefore cost a single bit each.  The first timestamp is written relative to 0, and
+ * its gap is taken as 0.
+ */
+class TimestampEncoder {
+  static final int END_MARKER_ONES = 6;
+  static final int[] BUCKET_BITS = { 0, 7, 9, 12, 32, 64 };
+
+  private long previousTime;
+  private long previousDelta;
+  private boolean started;
+
+  void write(BitOutput out, long time) throws IOException {
+    long delta = time - this.previousTime;
+    long encoded = CodecUtil.zigZagEncode(delta - this.previousDelta);
+
+    if ( encoded == 0 ) {
+      out.writeBits(0, 1);
+    } else if ( ( encoded >>> 7 ) == 0 ) {
+      out.writeBits(0x2, 2);
+      out.writeBits(encoded, 7);
+    } else if ( ( encoded >>> 9 ) == 0 ) {
+      out.writeBits(0x6, 3);
+      out.writeBits(encoded, 9);
+    } else if ( ( encoded >>> 12 ) == 0 ) {
+      out.writeBits(0xE, 4);
+      out.writeBits(encoded, 12);
+    } else if ( ( encoded >>> 32 ) == 0 ) {
+      out.writeBits(0x1E, 5);
+      out.writeBits(encoded, 32);
+    } else {
+      out.writeBits(0x3E, 6);
+      out.writeBits(encoded, 64);
+    }
+
+    this.previousTime = time;
+    if ( this.started ) {
+      this.previousDelta = delta;
+    }
+    this.started = true;
+  }
+
+  void writeEnd(BitOutput out) throws IOException {
+    out.writeBits(0x3F, END_MARKER_ONES);
+  }
+}
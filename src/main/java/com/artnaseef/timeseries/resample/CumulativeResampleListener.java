@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample;
+
+import java.util.Arrays;
+
+/**
+ * Listener which totals the metrics of all re-samples it receives and keeps a histogram of their durations.  Safe
+ * under concurrency, so one listener can be shared by the re-sample utilities of many threads.
+ * <p>
+ * Bucket i of the duration histogram counts the re-samples which took less than 2^i microseconds, but at least
+ * 2^(i-1); the last bucket also counts everything longer.
+ */
+public class CumulativeResampleListener implements ResampleListener {
+  public static final int HISTOGRAM_BUCKETS = 32;
+
+  private final boolean timed;
+  private ResampleMetrics totals = new ResampleMetrics();
+  private final long[] durationHistogram = new long[HISTOGRAM_BUCKETS];
+  private ResampleMetrics last;
+
+  /**
+   * Initialize the listener with counters only.
+   */
+  public CumulativeResampleListener() {
+    this(false);
+  }
+
+  /**
+   * Initialize the listener.
+   *
+   * @param timed true to also time the time transform and the calculator.
+   */
+  public CumulativeResampleListener(boolean timed) {
+    this.timed = timed;
+  }
+
+  @Override
+  public boolean isTimed() {
+    return  timed;
+  }
+
+  @Override
+  public synchronized void resampleCompleted(ResampleMetrics metrics) {
+    this.totals.merge(metrics);
+    this.last = metrics;
+
+    long micros = metrics.getElapsedNanos() / 1000;
+    int bucket = 64 - Long.numberOfLeadingZeros(micros);
+    this.durationHistogram[Math.min(bucket, HISTOGRAM_BUCKETS - 1)]++;
+  }
+
+  /**
+   * Retrieve the totals of all re-samples so far.
+   *
+   * @return copy of the totals.
+   */
+  public synchronized ResampleMetrics getTotals() {
+    return  new ResampleMetrics(this.totals);
+  }
+
+  /**
+   * Retrieve the metrics of the most recent re-sample.
+   *
+   * @return copy of the metrics, or null if no re-sample has completed.
+   */
+  public synchronized ResampleMetrics getLast() {
+    if ( this.last == null ) {
+      return  null;
+    }
+
+    return  new ResampleMetrics(this.last);
+  }
+
+  /**
+   * Retrieve the histogram of re-sample durations.
+   *
+   * @return copy of the histogram, with HISTOGRAM_BUCKETS buckets.
+   */
+  public synchronized long[] getDurationHistogram() {
+    return  this.durationHistogram.clone();
+  }
+
+  /**
+   * Clear the totals and the histogram.
+   */
+  public synchronized void reset() {
+    this.totals = new ResampleMetrics();
+    this.last = null;
+    Arrays.fill(this.durationHistogram, 0);
+  }
+}
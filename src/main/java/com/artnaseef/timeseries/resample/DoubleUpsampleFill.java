@@ -0,0 +1,39 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample;
+
+import com.artnaseef.timeseries.DoubleTimeSeriesVisitor;
+
+/**
+ * Strategy for filling the target slots when up-sampling a time series of double values, such as spreading 1-minute
+ * samples over 1-second slots.  The strategy is called once for each source sample, in time order, together with the
+ * next sample, and emits the target slots directly, so nothing is collected in between.
+ */
+public interface DoubleUpsampleFill {
+  /**
+   * Fill the target slots covered by one source sample, and the gap after it, if any.
+   *
+   * @param slotStart     first target slot covered by the source sample.
+   * @param slotEnd       end of the target slots covered by the source sample, exclusive.
+   * @param value         value of the source sample.
+   * @param hasNext       true if another source sample follows.
+   * @param nextSlotStart first target slot covered by the next source sample; the slots from slotEnd up to it form a
+   *                      gap with no source sample.  Equal to slotEnd if there is no next sample.
+   * @param nextValue     value of the next source sample, if any.
+   * @param output        receiver of the target slots, in slot order.
+   */
+  void fill(long slotStart, long slotEnd, double value, boolean hasNext, long nextSlotStart, double nextValue,
+            DoubleTimeSeriesVisitor output);
+}
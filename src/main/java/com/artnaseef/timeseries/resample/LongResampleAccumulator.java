@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample;
+
+/**
+ * Incremental calculator of re-sampled values for series of long values, so no values are boxed.
+ *
+ * @see ResampleAccumulator
+ */
+public interface LongResampleAccumulator {
+  /**
+   * Start accumulating a new target slot, discarding any state from the prior slot.
+   *
+   * @param slotTimestamp timestamp of the target slot.
+   */
+  void beginSlot(long slotTimestamp);
+
+  /**
+   * Add a source value to the current target slot.  Values are presented in time order from the original series.
+   *
+   * @param value source sample.
+   * @param overlap ratio (0.0 to 1.0) of overlap of the value to the target sample slot.
+   */
+  void accept(long value, double overlap);
+
+  /**
+   * Complete the current target slot.
+   *
+   * @return re-sampled value for the target sample slot.
+   */
+  long finishSlot();
+}
@@ -0,0 +1,35 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample;
+
+/**
+ * Calculator of re-sampled values for series of long values which operates on primitive slices of the source values,
+ * so no values are boxed.
+ */
+public interface LongResampleValueCalculator {
+  /**
+   * Calculate the re-sampled value from a slice of source samples and the overlap ratios of the first and last values.
+   * Implementations must not modify or retain the array.
+   *
+   * @param sourceValues array holding the source samples, in time order from the original series.
+   * @param offset index of the first source sample in the array.
+   * @param length number of source samples in the slice.
+   * @param overlapFirst ratio (0.0 to 1.0) of overlap of the first value to the target sample slot.
+   * @param overlapLast ratio (0.0 to 1.0) of overlap of the last value to the target sample slot.
+   * @return re-sampled value for the target sample slot.
+   */
+  long calculateTransformedSample(long[] sourceValues, int offset, int length, double overlapFirst,
+                                  double overlapLast);
+}
@@ -0,0 +1,393 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch with relative-error guarantees, in the style of DDSketch.  Values are counted in
+ * logarithmically sized buckets, so any quantile is returned within the configured relative accuracy of the true
+ * value; for example, with an accuracy of 0.01 a true p99 of 250ms is reported between 247.5ms and 252.5ms.  Bucket
+ * counts are held in primitive arrays, and two sketches with the same accuracy merge exactly by adding their counts, so
+ * per-second sketches can be rolled up into per-minute sketches without the raw samples.
+ * <p>
+ * The number of buckets per sign is limited; when a sketch would exceed the limit, the buckets nearest to zero are
+ * collapsed together, which only affects the accuracy of the lowest quantiles.  With the defaults, positive values
+ * spanning more than 17 orders of magnitude fit before collapsing.
+ * <p>
+ * Counts are weights, so values and whole sketches may be added with a partial overlap, as the re-sample calculators
+ * do.
+ */
+public class QuantileSketch {
+  public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+  public static final int DEFAULT_MAX_BUCKETS = 2048;
+
+  private static final int INITIAL_BUCKETS = 64;
+
+  private final double relativeAccuracy;
+  private final int maxBuckets;
+  private final double gamma;
+  private final double logGamma;
+
+  private final Store positive;
+  private final Store negative;
+  private double zeroCount;
+  private double min = Double.NaN;
+  private double max = Double.NaN;
+
+  public QuantileSketch() {
+    this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_BUCKETS);
+  }
+
+  public QuantileSketch(double relativeAccuracy) {
+    this(relativeAccuracy, DEFAULT_MAX_BUCKETS);
+  }
+
+  /**
+   * Initialize an empty sketch.
+   *
+   * @param relativeAccuracy largest relative error of a reported quantile; between 0 and 1, exclusive.
+   * @param maxBuckets limit on the number of buckets for each of positive and negative values.
+   */
+  public QuantileSketch(double relativeAccuracy, int maxBuckets) {
+    if ( ( relativeAccuracy <= 0.0 ) || ( relativeAccuracy >= 1.0 ) ) {
+      throw new IllegalArgumentException("relative accuracy must be between 0 and 1: " + relativeAccuracy);
+    }
+    if ( maxBuckets < 1 ) {
+      throw new IllegalArgumentException("maximum bucket count must be positive: " + maxBuckets);
+    }
+
+    this.relativeAccuracy = relativeAccuracy;
+    this.maxBuckets = maxBuckets;
+    this.gamma = ( 1.0 + relativeAccuracy ) / ( 1.0 - relativeAccuracy );
+    this.logGamma = Math.log(this.gamma);
+    this.positive = new Store();
+    this.negative = new Store();
+  }
+
+  public QuantileSketch(QuantileSketch other) {
+    this.relativeAccuracy = other.relativeAccuracy;
+    this.maxBuckets = other.maxBuckets;
+    this.gamma = other.gamma;
+    this.logGamma = other.logGamma;
+    this.positive = new Store(other.positive);
+    this.negative = new Store(other.negative);
+    this.zeroCount = other.zeroCount;
+    this.min = other.min;
+    this.max = other.max;
+  }
+
+  public double getRelativeAccuracy() {
+    return  relativeAccuracy;
+  }
+
+  public int getMaxBuckets() {
+    return  maxBuckets;
+  }
+
+  /**
+   * Add one value.
+   *
+   * @param value value to add; must be finite.
+   */
+  public void accept(double value) {
+    this.accept(value, 1.0);
+  }
+
+  /**
+   * Add one value with the given weight.
+   *
+   * @param value value to add; must be finite.
+   * @param weight weight of the value, such as its overlap with the target slot.
+   */
+  public void accept(double value, double weight) {
+    if ( ( Double.isNaN(value) ) || ( Double.isInfinite(value) ) ) {
+      throw new IllegalArgumentException("sketch values must be finite: " + value);
+    }
+    if ( weight <= 0.0 ) {
+      return;
+    }
+
+    if ( value > 0.0 ) {
+      this.positive.add(this.bucketIndex(value), weight, this.maxBuckets);
+    } else if ( value < 0.0 ) {
+      this.negative.add(this.bucketIndex(-value), weight, this.maxBuckets);
+    } else {
+      this.zeroCount += weight;
+    }
+
+    this.updateRange(value, value);
+  }
+
+  /**
+   * Merge the given sketch into this one.
+   *
+   * @param other sketch to merge; not modified.
+   */
+  public void merge(QuantileSketch other) {
+    this.merge(other, 1.0);
+  }
+
+  /**
+   * Merge the given sketch into this one, scaling its counts by the given weight.
+   *
+   * @param other sketch to merge; not modified.  Must have the same relative accuracy as this sketch.
+   * @param weight scale of the other sketch's counts, such as its overlap with the target slot.
+   */
+  public void merge(QuantileSketch other, double weight) {
+    if ( other.relativeAccuracy != this.relativeAccuracy ) {
+      throw new IllegalArgumentException("can not merge sketches with different relative accuracy: " +
+              this.relativeAccuracy + ", " + other.relativeAccuracy);
+    }
+    if ( ( weight <= 0.0 ) || ( other.getCount() <= 0.0 ) ) {
+      return;
+    }
+
+    this.positive.merge(other.positive, weight, this.maxBuckets);
+    this.negative.merge(other.negative, weight, this.maxBuckets);
+    this.zeroCount += other.zeroCount * weight;
+
+    this.updateRange(other.min, other.max);
+  }
+
+  /**
+   * Total weight of the values in the sketch; the number of values when all were added with a weight of 1.
+   */
+  public double getCount() {
+    return  this.zeroCount + this.positive.total + this.negative.total;
+  }
+
+  /**
+   * Smallest value added, or NaN if the sketch is empty.
+   */
+  public double getMin() {
+    return  min;
+  }
+
+  /**
+   * Largest value added, or NaN if the sketch is empty.
+   */
+  public double getMax() {
+    return  max;
+  }
+
+  /**
+   * Retrieve the value at the given quantile, within the relative accuracy of the sketch.
+   *
+   * @param quantile quantile to retrieve, from 0.0 to 1.0; for example 0.99 for p99.
+   * @return value at the quantile, or NaN if the sketch is empty.
+   */
+  public double getQuantile(double quantile) {
+    if ( ( quantile < 0.0 ) || ( quantile > 1.0 ) ) {
+      throw new IllegalArgumentException("quantile must be between 0 and 1: " + quantile);
+    }
+
+    double count = this.getCount();
+    if ( count <= 0.0 ) {
+      return  Double.NaN;
+    }
+
+    double rank = Math.max(0.0, quantile * ( count - 1.0 ));
+    double result;
+
+    //
+    // Walk from the most negative value upwards: negative buckets in decreasing magnitude, then zero, then positive
+    //  buckets in increasing magnitude.
+    //
+    if ( rank < this.negative.total ) {
+      result = - this.bucketValue(this.negative.findDescending(rank));
+    } else if ( rank < this.negative.total + this.zeroCount ) {
+      result = 0.0;
+    } else if ( this.positive.total > 0.0 ) {
+      result = this.bucketValue(this.positive.findAscending(rank - this.negative.total - this.zeroCount));
+    } else {
+      result = this.max;
+    }
+
+    return  Math.max(this.min, Math.min(this.max, result));
+  }
+
+  private int bucketIndex(double magnitude) {
+    return  (int) Math.ceil(Math.log(magnitude) / this.logGamma);
+  }
+
+  /**
+   * Representative value of a bucket; the point of least relative error between its bounds.
+   */
+  private double bucketValue(int index) {
+    return  2.0 * Math.pow(this.gamma, index) / ( this.gamma + 1.0 );
+  }
+
+  private void updateRange(double low, double high) {
+    if ( Double.isNaN(this.min) ) {
+      this.min = low;
+      this.max = high;
+    } else {
+      this.min = Math.min(this.min, low);
+      this.max = Math.max(this.max, high);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return  "QuantileSketch{count=" + this.getCount() + ", min=" + min + ", max=" + max + ", p50=" +
+            this.getQuantile(0.5) + ", p99=" + this.getQuantile(0.99) + "}";
+  }
+
+  /**
+   * Counts for a contiguous range of bucket indexes, [offset, offset + counts.length).  Indexes below the range
+   * which do not fit within the bucket limit are counted in the lowest bucket.
+   */
+  private static class Store {
+    private double[] counts;
+    private int offset;
+    private double total;
+
+    public Store() {
+      this.counts = new double[0];
+    }
+
+    public Store(Store other) {
+      this.counts = Arrays.copyOf(other.counts, other.counts.length);
+      this.offset = other.offset;
+      this.total = other.total;
+    }
+
+    public void add(int index, double weight, int maxBuckets) {
+      int slot = this.reserve(index, maxBuckets);
+      this.counts[slot] += weight;
+      this.total += weight;
+    }
+
+    public void merge(Store other, double weight, int maxBuckets) {
+      int cur = 0;
+      while ( cur < other.counts.length ) {
+        if ( other.counts[cur] > 0.0 ) {
+          this.add(other.offset + cur, other.counts[cur] * weight, maxBuckets);
+        }
+        cur++;
+      }
+    }
+
+    /**
+     * Find the bucket at which the cumulative count, from the lowest index up, exceeds the given rank.
+     */
+    public int findAscending(double rank) {
+      double cumulative = 0.0;
+      int cur = 0;
+      while ( cur < this.counts.length ) {
+        cumulative += this.counts[cur];
+        if ( cumulative > rank ) {
+          return  this.offset + cur;
+        }
+        cur++;
+      }
+
+      return  this.lastNonEmpty();
+    }
+
+    /**
+     * Find the bucket at which the cumulative count, from the highest index down, exceeds the given rank.
+     */
+    public int findDescending(double rank) {
+      double cumulative = 0.0;
+      int cur = this.counts.length - 1;
+      while ( cur >= 0 ) {
+        cumulative += this.counts[cur];
+        if ( cumulative > rank ) {
+          return  this.offset + cur;
+        }
+        cur--;
+      }
+
+      return  this.offset;
+    }
+
+    private int lastNonEmpty() {
+      int cur = this.counts.length - 1;
+      while ( ( cur > 0 ) && ( this.counts[cur] <= 0.0 ) ) {
+        cur--;
+      }
+
+      return  this.offset + cur;
+    }
+
+    /**
+     * Make room for the given bucket index, growing or shifting the range as needed.
+     *
+     * @return position in the counts array at which to count the index.
+     */
+    private int reserve(int index, int maxBuckets) {
+      int length = this.counts.length;
+      if ( length == 0 ) {
+        int initial = Math.min(INITIAL_BUCKETS, maxBuckets);
+        this.counts = new double[initial];
+        this.offset = index - ( initial / 2 );
+        return  index - this.offset;
+      }
+
+      long high = (long) this.offset + length - 1;
+      if ( index < this.offset ) {
+        long needed = high - index + 1;
+        if ( needed <= maxBuckets ) {
+          int newLength = (int) Math.min(maxBuckets, Math.max(needed, length * 2L));
+          this.reshape((int) ( high - newLength + 1 ), newLength);
+        } else if ( length < maxBuckets ) {
+          this.reshape((int) ( high - maxBuckets + 1 ), maxBuckets);
+        }
+
+        //
+        // Anything still below the range is collapsed into the lowest bucket.
+        //
+        return  Math.max(index - this.offset, 0);
+      } else if ( index > high ) {
+        long needed = (long) index - this.offset + 1;
+        if ( needed <= maxBuckets ) {
+          int newLength = (int) Math.min(maxBuckets, Math.max(needed, length * 2L));
+          this.reshape(this.offset, newLength);
+        } else {
+          //
+          // Shift the range up to the new index, collapsing the lowest buckets.
+          //
+          this.reshape(index - maxBuckets + 1, maxBuckets);
+        }
+      }
+
+      return  index - this.offset;
+    }
+
+    /**
+     * Move the counts into a new array for the range [newOffset, newOffset + newLength), which must reach at least as
+     * high as the current range.  Counts below the new range are added to its lowest bucket.
+     */
+    private void reshape(int newOffset, int newLength) {
+      double[] newCounts = new double[newLength];
+
+      int cur = 0;
+      while ( cur < this.counts.length ) {
+        int target = this.offset + cur - newOffset;
+        if ( target < 0 ) {
+          target = 0;
+        }
+
+        newCounts[target] += this.counts[cur];
+        cur++;
+      }
+
+      this.counts = newCounts;
+      this.offset = newOffset;
+    }
+  }
+}
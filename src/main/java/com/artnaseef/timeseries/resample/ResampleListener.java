@@ -0,0 +1,38 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample;
+
+/**
+ * Receiver of the metrics of each re-sample, for profiling re-samples in production.  Re-samples collect no metrics
+ * unless a listener is set on the re-sample utility, so there is no cost by default.
+ *
+ * @see CumulativeResampleListener
+ */
+public interface ResampleListener {
+  /**
+   * Whether to time the time transform and the calculator.  Timing reads the clock around every transform and
+   * calculator call, which adds noticeably to re-samples of small slots; the counters alone are close to free.
+   *
+   * @return true to collect the transform and calculator times.
+   */
+  boolean isTimed();
+
+  /**
+   * Called once at the end of each re-sample, on the thread which ran it.
+   *
+   * @param metrics metrics of the re-sample; owned by the listener from here on.
+   */
+  void resampleCompleted(ResampleMetrics metrics);
+}
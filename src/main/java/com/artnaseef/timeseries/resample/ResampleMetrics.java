@@ -0,0 +1,190 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample;
+
+/**
+ * Counters describing one re-sample, or the total of many: source samples scanned, target slots emitted, remainders
+ * carried from one slot into the next, and the value buffer allocations which the re-sample needed.  When timing is
+ * enabled, the time spent in the time transform and in the calculator is recorded as well.  Not safe under
+ * concurrency; each re-sample fills in its own instance and hands it to the ResampleListener when done.
+ */
+public class ResampleMetrics {
+  private long callCount;
+  private long sampleCount;
+  private long slotCount;
+  private long remainderCount;
+  private long remainderSlotCount;
+  private long bufferAllocationCount;
+  private int maxSlotSize;
+  private long transformNanos;
+  private long calculatorNanos;
+  private long elapsedNanos;
+
+  public ResampleMetrics() {
+  }
+
+  public ResampleMetrics(ResampleMetrics other) {
+    this.callCount = other.callCount;
+    this.sampleCount = other.sampleCount;
+    this.slotCount = other.slotCount;
+    this.remainderCount = other.remainderCount;
+    this.remainderSlotCount = other.remainderSlotCount;
+    this.bufferAllocationCount = other.bufferAllocationCount;
+    this.maxSlotSize = other.maxSlotSize;
+    this.transformNanos = other.transformNanos;
+    this.calculatorNanos = other.calculatorNanos;
+    this.elapsedNanos = other.elapsedNanos;
+  }
+
+  /**
+   * Record one source sample read from the source.
+   */
+  public void recordSample() {
+    this.sampleCount++;
+  }
+
+  /**
+   * Record one target slot handed to the calculator.
+   *
+   * @param slotSize number of source values making up the slot.
+   */
+  public void recordSlot(int slotSize) {
+    this.slotCount++;
+    if ( slotSize > this.maxSlotSize ) {
+      this.maxSlotSize = slotSize;
+    }
+  }
+
+  /**
+   * Record the remainder of a sample which carries over into the next target slot.
+   *
+   * @param standalone true if the remainder makes up a slot on its own because the next sample maps to a later slot.
+   */
+  public void recordRemainder(boolean standalone) {
+    this.remainderCount++;
+    if ( standalone ) {
+      this.remainderSlotCount++;
+    }
+  }
+
+  /**
+   * Record the allocation, or growth, of a buffer holding the values of a slot.
+   */
+  public void recordBufferAllocation() {
+    this.bufferAllocationCount++;
+  }
+
+  public void addTransformNanos(long nanos) {
+    this.transformNanos += nanos;
+  }
+
+  public void addCalculatorNanos(long nanos) {
+    this.calculatorNanos += nanos;
+  }
+
+  /**
+   * Record the completion of the re-sample.
+   *
+   * @param nanos total time taken by the re-sample.
+   */
+  public void complete(long nanos) {
+    this.callCount++;
+    this.elapsedNanos += nanos;
+  }
+
+  /**
+   * Add the given metrics into these.  Counts and times are summed; the largest slot is the larger of the two.
+   *
+   * @param other metrics to add; not modified.
+   */
+  public void merge(ResampleMetrics other) {
+    this.callCount += other.callCount;
+    this.sampleCount += other.sampleCount;
+    this.slotCount += other.slotCount;
+    this.remainderCount += other.remainderCount;
+    this.remainderSlotCount += other.remainderSlotCount;
+    this.bufferAllocationCount += other.bufferAllocationCount;
+    this.maxSlotSize = Math.max(this.maxSlotSize, other.maxSlotSize);
+    this.transformNanos += other.transformNanos;
+    this.calculatorNanos += other.calculatorNanos;
+    this.elapsedNanos += other.elapsedNanos;
+  }
+
+  /**
+   * Number of re-samples included in these metrics.
+   */
+  public long getCallCount() {
+    return  callCount;
+  }
+
+  public long getSampleCount() {
+    return  sampleCount;
+  }
+
+  public long getSlotCount() {
+    return  slotCount;
+  }
+
+  /**
+   * Number of samples whose remainder carried over into the following target slot.
+   */
+  public long getRemainderCount() {
+    return  remainderCount;
+  }
+
+  /**
+   * Number of target slots made up of nothing but the remainder of the sample before them.
+   */
+  public long getRemainderSlotCount() {
+    return  remainderSlotCount;
+  }
+
+  public long getBufferAllocationCount() {
+    return  bufferAllocationCount;
+  }
+
+  /**
+   * Largest number of source values handed to the calculator for a single slot.
+   */
+  public int getMaxSlotSize() {
+    return  maxSlotSize;
+  }
+
+  /**
+   * Time spent in the time transform; 0 unless timing was enabled.
+   */
+  public long getTransformNanos() {
+    return  transformNanos;
+  }
+
+  /**
+   * Time spent in the calculator, including storing the slot in the target; 0 unless timing was enabled.
+   */
+  public long getCalculatorNanos() {
+    return  calculatorNanos;
+  }
+
+  public long getElapsedNanos() {
+    return  elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return  "ResampleMetrics{calls=" + callCount + ", samples=" + sampleCount + ", slots=" + slotCount +
+            ", remainders=" + remainderCount + ", remainderSlots=" + remainderSlotCount + ", bufferAllocations=" +
+            bufferAllocationCount + ", maxSlotSize=" + maxSlotSize + ", transformNanos=" + transformNanos +
+            ", calculatorNanos=" + calculatorNanos + ", elapsedNanos=" + elapsedNanos + "}";
+  }
+}
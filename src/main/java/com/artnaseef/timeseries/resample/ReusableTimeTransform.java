@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample;
+
+/**
+ * Time transform which can write its result into a caller-supplied MisalignedTimestamp, so re-sampling does not
+ * allocate a new result object for every source sample.
+ */
+public interface ReusableTimeTransform extends TimeTransform {
+  /**
+   * Given the source timestamp of a transform, store the target timestamp and overlap into the given result.
+   *
+   * @param sourceTime timestamp of the original time series.
+   * @param result object to receive the timestamp and overlap in the transformed series; all fields are overwritten.
+   */
+  void transformTime (long sourceTime, MisalignedTimestamp result);
+}
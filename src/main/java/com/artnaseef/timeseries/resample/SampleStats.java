@@ -0,0 +1,195 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample;
+
+/**
+ * Summary statistics of the values mapped onto one target slot: minimum, maximum, overlap-weighted sum, count, mean and
+ * the sum of squared deviations (M2) from which the variance follows.  Values are added one at a time using Welford's
+ * method, and two sets of statistics merge exactly, so statistics for fine slots can be rolled up into coarser ones
+ * without revisiting the source.
+ * <p>
+ * Each value carries a weight, which is its overlap with the target slot.  The sum is therefore the same as
+ * DoubleSumResampleCalculator produces, and getSlotAverage() the same as DoubleAverageResampleCalculator, while
+ * getMean() is the weighted mean of the values which are present.
+ */
+public class SampleStats {
+  private long count;
+  private double weight;
+  private double min = Double.NaN;
+  private double max = Double.NaN;
+  private double sum;
+  private double mean;
+  private double m2;
+
+  public SampleStats() {
+  }
+
+  public SampleStats(SampleStats other) {
+    this.count = other.count;
+    this.weight = other.weight;
+    this.min = other.min;
+    this.max = other.max;
+    this.sum = other.sum;
+    this.mean = other.mean;
+    this.m2 = other.m2;
+  }
+
+  /**
+   * Add one value.
+   *
+   * @param value source value.
+   * @param overlap ratio (0.0 to 1.0) of overlap of the value to the target sample slot.
+   */
+  public void accept(double value, double overlap) {
+    if ( this.count == 0 ) {
+      this.min = value;
+      this.max = value;
+    } else {
+      this.min = Math.min(this.min, value);
+      this.max = Math.max(this.max, value);
+    }
+
+    this.count++;
+    this.sum += value * overlap;
+
+    double newWeight = this.weight + overlap;
+    if ( newWeight > 0.0 ) {
+      double delta = value - this.mean;
+      this.mean += delta * overlap / newWeight;
+      this.m2 += overlap * delta * ( value - this.mean );
+    }
+    this.weight = newWeight;
+  }
+
+  /**
+   * Merge the given statistics into these.
+   *
+   * @param other statistics to merge; not modified.
+   */
+  public void merge(SampleStats other) {
+    this.merge(other, 1.0);
+  }
+
+  /**
+   * Merge the given statistics into these, scaling the weight of every value in them by the given overlap.
+   *
+   * @param other statistics to merge; not modified.
+   * @param overlap ratio (0.0 to 1.0) of overlap of the other statistics' slot to the target sample slot.
+   */
+  public void merge(SampleStats other, double overlap) {
+    if ( other.count == 0 ) {
+      return;
+    }
+
+    if ( this.count == 0 ) {
+      this.min = other.min;
+      this.max = other.max;
+    } else {
+      this.min = Math.min(this.min, other.min);
+      this.max = Math.max(this.max, other.max);
+    }
+
+    double otherWeight = other.weight * overlap;
+    double newWeight = this.weight + otherWeight;
+    if ( newWeight > 0.0 ) {
+      double delta = other.mean - this.mean;
+      this.m2 += ( other.m2 * overlap ) + ( delta * delta * this.weight * otherWeight / newWeight );
+      this.mean += delta * otherWeight / newWeight;
+    }
+
+    this.count += other.count;
+    this.weight = newWeight;
+    this.sum += other.sum * overlap;
+  }
+
+  /**
+   * Number of values added, regardless of their overlap.
+   */
+  public long getCount() {
+    return  count;
+  }
+
+  /**
+   * Total overlap of the values added; equal to the count when every value fully overlaps the slot.
+   */
+  public double getWeight() {
+    return  weight;
+  }
+
+  /**
+   * Smallest value added, or NaN if there are none.
+   */
+  public double getMin() {
+    return  min;
+  }
+
+  /**
+   * Largest value added, or NaN if there are none.
+   */
+  public double getMax() {
+    return  max;
+  }
+
+  public double getSum() {
+    return  sum;
+  }
+
+  /**
+   * Weighted mean of the values added, or NaN if there are none.
+   */
+  public double getMean() {
+    if ( this.weight <= 0.0 ) {
+      return  Double.NaN;
+    }
+
+    return  mean;
+  }
+
+  public double getM2() {
+    return  m2;
+  }
+
+  /**
+   * Weighted population variance of the values added, or NaN if there are none.
+   */
+  public double getVariance() {
+    if ( this.weight <= 0.0 ) {
+      return  Double.NaN;
+    }
+
+    return  this.m2 / this.weight;
+  }
+
+  public double getStandardDeviation() {
+    return  Math.sqrt(this.getVariance());
+  }
+
+  /**
+   * Average across the whole target slot, counting missing source slots as 0; the same result as
+   * DoubleAverageResampleCalculator with the same slot size ratio.
+   *
+   * @param slotSizeRatio ratio of the original slot size to the new slot size.
+   * @return sum scaled by the slot size ratio.
+   */
+  public double getSlotAverage(double slotSizeRatio) {
+    return  this.sum * slotSizeRatio;
+  }
+
+  @Override
+  public String toString() {
+    return  "SampleStats{count=" + count + ", weight=" + weight + ", min=" + min + ", max=" + max + ", sum=" + sum +
+            ", mean=" + this.getMean() + ", variance=" + this.getVariance() + "}";
+  }
+}
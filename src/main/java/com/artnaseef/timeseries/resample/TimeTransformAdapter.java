@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample;
+
+/**
+ * Adapter which presents any time transform as a ReusableTimeTransform, so re-sampling code only needs to deal with
+ * one form.  Transforms which are already reusable are used as-is.
+ */
+public class TimeTransformAdapter implements ReusableTimeTransform {
+  private final TimeTransform delegate;
+
+  public TimeTransformAdapter(TimeTransform delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Obtain a reusable form of the given transform.
+   *
+   * @param timeTransform transform to adapt.
+   * @return the given transform if it is already reusable; otherwise, an adapter wrapping it.
+   */
+  public static ReusableTimeTransform reusable (TimeTransform timeTransform) {
+    if ( timeTransform instanceof ReusableTimeTransform ) {
+      return  (ReusableTimeTransform) timeTransform;
+    }
+
+    return  new TimeTransformAdapter(timeTransform);
+  }
+
+  @Override
+  public void transformTime(long sourceTime, MisalignedTimestamp result) {
+    MisalignedTimestamp transformed = this.delegate.transformTime(sourceTime);
+    result.timestamp = transformed.timestamp;
+    result.overlap = transformed.overlap;
+  }
+
+  @Override
+  public MisalignedTimestamp transformTime(long sourceTime) {
+    return  this.delegate.transformTime(sourceTime);
+  }
+}
@@ -14,6 +14,7 @@
 
 package com.artnaseef.timeseries.resample.calc;
 
+import com.artnaseef.timeseries.resample.DoubleResampleValueCalculator;
 import com.artnaseef.timeseries.resample.ResampleValueCalculator;
 
 import java.util.ArrayList;
@@ -32,7 +33,8 @@ import java.util.ArrayList;
  *
  * Created by art on 5/1/15.
  */
-public class DoubleAverageResampleCalculator implements ResampleValueCalculator<Double> {
+public class DoubleAverageResampleCalculator
+        implements ResampleValueCalculator<Double>, DoubleResampleValueCalculator {
   private final double slotSizeRatio;
 
   /**
@@ -67,4 +69,27 @@ public class DoubleAverageResampleCalculator implements ResampleValueCalculator<
 
     return  result;
   }
+
+  @Override
+  public double calculateTransformedSample(double[] sourceValues, int offset, int length, double overlapFirst,
+                                           double overlapLast) {
+    double result = 0.0;
+
+    int cur = 0;
+    while ( cur < length ) {
+      double adjustment;
+      if ( cur == 0 ) {
+        adjustment = overlapFirst;
+      } else if ( cur == ( length - 1 ) ) {
+        adjustment = overlapLast;
+      } else {
+        adjustment = 1.0;
+      }
+
+      result += sourceValues[offset + cur] * this.slotSizeRatio * adjustment;
+      cur++;
+    }
+
+    return  result;
+  }
 }
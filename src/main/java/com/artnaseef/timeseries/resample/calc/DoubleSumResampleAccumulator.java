@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.calc;
+
+import com.artnaseef.timeseries.resample.DoubleResampleAccumulator;
+
+/**
+ * Re-sample accumulator that operates on time series of double values producing the sum across all the samples
+ * aggregated, one sample at a time.  Produces the same results as DoubleSumResampleCalculator when fed the same
+ * weights, as the streaming re-samplers do: the overlap for the first and last samples of a slot, and 1.0 for the rest.
+ */
+public class DoubleSumResampleAccumulator implements DoubleResampleAccumulator {
+  private double accum;
+
+  @Override
+  public void beginSlot(long slotTimestamp) {
+    this.accum = 0.0;
+  }
+
+  @Override
+  public void accept(double value, double overlap) {
+    this.accum += value * overlap;
+  }
+
+  @Override
+  public double finishSlot() {
+    return  this.accum;
+  }
+}
@@ -14,6 +14,7 @@
 
 package com.artnaseef.timeseries.resample.calc;
 
+import com.artnaseef.timeseries.resample.DoubleResampleValueCalculator;
 import com.artnaseef.timeseries.resample.ResampleValueCalculator;
 
 import java.util.ArrayList;
@@ -25,7 +26,7 @@ import java.util.ArrayList;
  *
  * Created by art on 5/1/15.
  */
-public class DoubleSumResampleCalculator implements ResampleValueCalculator<Double> {
+public class DoubleSumResampleCalculator implements ResampleValueCalculator<Double>, DoubleResampleValueCalculator {
   @Override
   public Double calculateTransformedSample(ArrayList<Double> sourceValues, double overlapFirst, double overlapLast) {
     double accum = 0.0;
@@ -50,4 +51,28 @@ public class DoubleSumResampleCalculator implements ResampleValueCalculator<Doub
 
     return  accum;
   }
+
+  @Override
+  public double calculateTransformedSample(double[] sourceValues, int offset, int length, double overlapFirst,
+                                           double overlapLast) {
+    double accum = 0.0;
+
+    int cur = 0;
+    while ( cur < length ) {
+      double adjustment;
+      if ( cur == 0 ) {
+        adjustment = overlapFirst;
+      } else if ( cur == ( length - 1 ) ) {
+        adjustment = overlapLast;
+      } else {
+        adjustment = 1.0;
+      }
+
+      accum += sourceValues[offset + cur] * adjustment;
+
+      cur++;
+    }
+
+    return  accum;
+  }
 }
@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.calc;
+
+import com.artnaseef.timeseries.resample.LongResampleAccumulator;
+
+/**
+ * Resample accumulator that operates on time series of long values producing the sum across all the samples
+ * aggregated, one sample at a time.  Produces the same results as LongSumResampleCalculator when fed the same weights,
+ * as the streaming re-samplers do: the overlap for the first and last samples of a slot, and 1.0 for the rest.
+ */
+public class LongSumResampleAccumulator implements LongResampleAccumulator {
+  private long accum;
+  private double remainder;
+
+  @Override
+  public void beginSlot(long slotTimestamp) {
+    this.accum = 0;
+    this.remainder = 0.0;
+  }
+
+  @Override
+  public void accept(long value, double overlap) {
+    if ( Math.abs(1.0 - overlap) < 0.0000000001 ) {
+      this.accum += value;
+    } else {
+      double doubleValue = ( value * overlap );
+      long longValue = (long) doubleValue;
+      this.accum += longValue;
+      this.remainder += ( doubleValue - longValue );
+    }
+  }
+
+  @Override
+  public long finishSlot() {
+    return  this.accum + ( (long) this.remainder );
+  }
+}
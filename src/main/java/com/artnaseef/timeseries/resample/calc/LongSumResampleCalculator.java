@@ -14,6 +14,7 @@
 
 package com.artnaseef.timeseries.resample.calc;
 
+import com.artnaseef.timeseries.resample.LongResampleValueCalculator;
 import com.artnaseef.timeseries.resample.ResampleValueCalculator;
 
 import java.util.ArrayList;
@@ -25,7 +26,7 @@ import java.util.ArrayList;
  *
  * Created by art on 5/1/15.
  */
-public class LongSumResampleCalculator implements ResampleValueCalculator<Long> {
+public class LongSumResampleCalculator implements ResampleValueCalculator<Long>, LongResampleValueCalculator {
   @Override
   public Long calculateTransformedSample(ArrayList<Long> sourceValues, double overlapFirst, double overlapLast) {
     long accum = 0;
@@ -58,4 +59,37 @@ public class LongSumResampleCalculator implements ResampleValueCalculator<Long>
 
     return  accum + ( (long) remainder );
   }
+
+  @Override
+  public long calculateTransformedSample(long[] sourceValues, int offset, int length, double overlapFirst,
+                                         double overlapLast) {
+    long accum = 0;
+    double remainder = 0.0;
+
+    int cur = 0;
+    while ( cur < length ) {
+      double adjustment;
+      if ( cur == 0 ) {
+        adjustment = overlapFirst;
+      } else if ( cur == ( length - 1 ) ) {
+        adjustment = overlapLast;
+      } else {
+        adjustment = 1.0;
+      }
+
+      long value = sourceValues[offset + cur];
+      if ( Math.abs(1.0 - adjustment) < 0.0000000001 ) {
+        accum += value;
+      } else {
+        double doubleValue = ( value * adjustment );
+        long longValue = (long) doubleValue;
+        accum += longValue;
+        remainder += ( doubleValue - longValue );
+      }
+
+      cur++;
+    }
+
+    return  accum + ( (long) remainder );
+  }
 }
@@ -0,0 +1,52 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.calc;
+
+import com.artnaseef.timeseries.resample.QuantileSketch;
+import com.artnaseef.timeseries.resample.ResampleValueCalculator;
+
+import java.util.ArrayList;
+
+/**
+ * Re-sample calculator that rolls quantile sketches up into coarser slots by merging them, weighting the first and
+ * last by their overlap.  For example, re-sampling per-second latency sketches sixty-to-one yields per-minute
+ * sketches from which p50 and p99 can be read.  The source sketches are not modified.
+ */
+public class QuantileSketchMergeCalculator implements ResampleValueCalculator<QuantileSketch> {
+  @Override
+  public QuantileSketch calculateTransformedSample(ArrayList<QuantileSketch> sourceValues, double overlapFirst,
+                                                   double overlapLast) {
+    QuantileSketch first = sourceValues.get(0);
+    QuantileSketch result = new QuantileSketch(first.getRelativeAccuracy(), first.getMaxBuckets());
+
+    int cur = 0;
+    int count = sourceValues.size();
+    while ( cur < count ) {
+      double adjustment;
+      if ( cur == 0 ) {
+        adjustment = overlapFirst;
+      } else if ( cur == ( count - 1 ) ) {
+        adjustment = overlapLast;
+      } else {
+        adjustment = 1.0;
+      }
+
+      result.merge(sourceValues.get(cur), adjustment);
+      cur++;
+    }
+
+    return  result;
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.calc;
+
+import com.artnaseef.timeseries.resample.ResampleValueCalculator;
+import com.artnaseef.timeseries.resample.SampleStats;
+
+import java.util.ArrayList;
+
+/**
+ * Re-sample calculator that rolls statistics up into coarser slots by merging them, weighting the first and last by
+ * their overlap.  Used to re-sample the output of LongResampleUtil.resampleDownStats() or
+ * DoubleResampleUtil.resampleDownStats() further without revisiting the raw samples.
+ */
+public class SampleStatsMergeCalculator implements ResampleValueCalculator<SampleStats> {
+  @Override
+  public SampleStats calculateTransformedSample(ArrayList<SampleStats> sourceValues, double overlapFirst,
+                                                double overlapLast) {
+    SampleStats result = new SampleStats();
+
+    int cur = 0;
+    int count = sourceValues.size();
+    while ( cur < count ) {
+      double adjustment;
+      if ( cur == 0 ) {
+        adjustment = overlapFirst;
+      } else if ( cur == ( count - 1 ) ) {
+        adjustment = overlapLast;
+      } else {
+        adjustment = 1.0;
+      }
+
+      result.merge(sourceValues.get(cur), adjustment);
+      cur++;
+    }
+
+    return  result;
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.fill;
+
+import com.artnaseef.timeseries.DoubleTimeSeriesVisitor;
+import com.artnaseef.timeseries.resample.DoubleUpsampleFill;
+
+/**
+ * Up-sample fill which interpolates linearly from each source value to the next, through the slots of the sample and
+ * any gap after it.  Each source value is anchored at its first target slot.  The slots of the last source sample
+ * hold its value.
+ */
+public class DoubleLinearFill implements DoubleUpsampleFill {
+  @Override
+  public void fill(long slotStart, long slotEnd, double value, boolean hasNext, long nextSlotStart, double nextValue,
+                   DoubleTimeSeriesVisitor output) {
+
+    if ( ! hasNext ) {
+      long slot = slotStart;
+      while ( slot < slotEnd ) {
+        output.visit(slot, value);
+        slot++;
+      }
+
+      return;
+    }
+
+    double span = nextSlotStart - slotStart;
+    long slot = slotStart;
+    while ( slot < nextSlotStart ) {
+      double fraction = ( (double) ( slot - slotStart ) ) / span;
+      output.visit(slot, value + ( ( nextValue - value ) * fraction ));
+      slot++;
+    }
+  }
+}
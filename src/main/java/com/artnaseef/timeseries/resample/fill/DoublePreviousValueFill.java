@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.fill;
+
+import com.artnaseef.timeseries.DoubleTimeSeriesVisitor;
+import com.artnaseef.timeseries.resample.DoubleUpsampleFill;
+
+/**
+ * Up-sample fill which repeats each source value in every target slot it covers, and optionally carries it forward
+ * through gaps until the next source sample.  Suited to gauges, such as a queue depth sampled once a minute.
+ */
+public class DoublePreviousValueFill implements DoubleUpsampleFill {
+  private final boolean fillGaps;
+
+  /**
+   * Initialize the fill to carry values through gaps.
+   */
+  public DoublePreviousValueFill() {
+    this(true);
+  }
+
+  /**
+   * Initialize the fill.
+   *
+   * @param fillGaps true to carry each value forward through any gap after it; false to leave gaps empty.
+   */
+  public DoublePreviousValueFill(boolean fillGaps) {
+    this.fillGaps = fillGaps;
+  }
+
+  @Override
+  public void fill(long slotStart, long slotEnd, double value, boolean hasNext, long nextSlotStart, double nextValue,
+                   DoubleTimeSeriesVisitor output) {
+
+    long end = slotEnd;
+    if ( ( this.fillGaps ) && ( hasNext ) ) {
+      end = nextSlotStart;
+    }
+
+    long slot = slotStart;
+    while ( slot < end ) {
+      output.visit(slot, value);
+      slot++;
+    }
+  }
+}
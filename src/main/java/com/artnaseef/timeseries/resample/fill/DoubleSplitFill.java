@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.fill;
+
+import com.artnaseef.timeseries.DoubleTimeSeriesVisitor;
+import com.artnaseef.timeseries.resample.DoubleUpsampleFill;
+
+/**
+ * Up-sample fill for sum-type series, such as bytes transferred, which splits each source value evenly across the
+ * target slots it covers, so re-sampling the result back down with DoubleSumResampleCalculator restores the source.
+ * Gaps are left empty.
+ */
+public class DoubleSplitFill implements DoubleUpsampleFill {
+  @Override
+  public void fill(long slotStart, long slotEnd, double value, boolean hasNext, long nextSlotStart, double nextValue,
+                   DoubleTimeSeriesVisitor output) {
+
+    long count = slotEnd - slotStart;
+    if ( count <= 0 ) {
+      return;
+    }
+
+    double share = value / count;
+    long slot = slotStart;
+    while ( slot < slotEnd ) {
+      output.visit(slot, share);
+      slot++;
+    }
+  }
+}
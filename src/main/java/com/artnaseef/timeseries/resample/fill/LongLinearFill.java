@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.fill;
+
+import com.artnaseef.timeseries.LongTimeSeriesVisitor;
+import com.artnaseef.timeseries.resample.LongUpsampleFill;
+
+/**
+ * Up-sample fill which interpolates linearly from each source value to the next, through the slots of the sample and
+ * any gap after it.  Each source value is anchored at its first target slot, and interpolated values are rounded to
+ * the nearest whole number.  The slots of the last source sample hold its value.
+ */
+public class LongLinearFill implements LongUpsampleFill {
+  @Override
+  public void fill(long slotStart, long slotEnd, long value, boolean hasNext, long nextSlotStart, long nextValue,
+                   LongTimeSeriesVisitor output) {
+
+    if ( ! hasNext ) {
+      long slot = slotStart;
+      while ( slot < slotEnd ) {
+        output.visit(slot, value);
+        slot++;
+      }
+
+      return;
+    }
+
+    //
+    // Values far enough apart overflow the difference; interpolate those in double instead, from whichever value is
+    // nearer, so the offset always fits and both ends stay exact.  The check is the one Math.subtractExact() makes.
+    //
+    long difference = nextValue - value;
+    boolean overflow = ( ( ( nextValue ^ value ) & ( nextValue ^ difference ) ) < 0 );
+    double wideDifference = ( (double) nextValue ) - ( (double) value );
+
+    double span = nextSlotStart - slotStart;
+    long slot = slotStart;
+    while ( slot < nextSlotStart ) {
+      double fraction = ( (double) ( slot - slotStart ) ) / span;
+      if ( ! overflow ) {
+        output.visit(slot, value + Math.round(difference * fraction));
+      } else if ( fraction < 0.5 ) {
+        output.visit(slot, value + Math.round(wideDifference * fraction));
+      } else {
+        output.visit(slot, nextValue - Math.round(wideDifference * ( 1.0 - fraction )));
+      }
+      slot++;
+    }
+  }
+}
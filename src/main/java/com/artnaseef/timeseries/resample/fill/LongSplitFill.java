@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.fill;
+
+import com.artnaseef.timeseries.LongTimeSeriesVisitor;
+import com.artnaseef.timeseries.resample.LongUpsampleFill;
+
+/**
+ * Up-sample fill for sum-type series, such as request counts, which splits each source value evenly across the target
+ * slots it covers, so the target slots add up to exactly the source value.  Where the value does not divide evenly,
+ * the first slots receive one extra.  Gaps are left empty.
+ */
+public class LongSplitFill implements LongUpsampleFill {
+  @Override
+  public void fill(long slotStart, long slotEnd, long value, boolean hasNext, long nextSlotStart, long nextValue,
+                   LongTimeSeriesVisitor output) {
+
+    long count = slotEnd - slotStart;
+    if ( count <= 0 ) {
+      return;
+    }
+
+    long share = value / count;
+    long remainder = value - ( share * count );
+    long extra = Long.signum(remainder);
+
+    long slot = slotStart;
+    while ( slot < slotEnd ) {
+      if ( remainder != 0 ) {
+        output.visit(slot, share + extra);
+        remainder -= extra;
+      } else {
+        output.visit(slot, share);
+      }
+      slot++;
+    }
+  }
+}
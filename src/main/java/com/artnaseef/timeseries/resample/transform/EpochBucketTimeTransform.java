@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.transform;
+
+/**
+ * Time transform which maps epoch-millisecond timestamps onto fixed-size buckets, such as one bucket per minute.  The
+ * target slot is the bucket number, counted from the offset, so consecutive buckets have consecutive slots as the
+ * re-sample requires.  Use getSourceStart() to convert a bucket number back into epoch milliseconds.
+ * <p>
+ * Example: EpochBucketTimeTransform.days(-5 * HOUR_MILLIS) buckets timestamps into days which start at midnight in
+ * UTC+5.
+ */
+public class EpochBucketTimeTransform extends IntegerRatioTimeTransform {
+  public static final long SECOND_MILLIS = 1000L;
+  public static final long MINUTE_MILLIS = 60L * SECOND_MILLIS;
+  public static final long HOUR_MILLIS = 60L * MINUTE_MILLIS;
+  public static final long DAY_MILLIS = 24L * HOUR_MILLIS;
+
+  /**
+   * Initialize the transform with the given bucket size and offset.
+   *
+   * @param bucketMillis size of each bucket, in milliseconds.
+   * @param offsetMillis epoch millisecond timestamp at which a bucket starts; only its position within a bucket is
+   *                     significant.
+   */
+  public EpochBucketTimeTransform(long bucketMillis, long offsetMillis) {
+    super(bucketMillis, offsetMillis);
+  }
+
+  public static EpochBucketTimeTransform seconds() {
+    return  new EpochBucketTimeTransform(SECOND_MILLIS, 0);
+  }
+
+  public static EpochBucketTimeTransform seconds(long offsetMillis) {
+    return  new EpochBucketTimeTransform(SECOND_MILLIS, offsetMillis);
+  }
+
+  public static EpochBucketTimeTransform minutes() {
+    return  new EpochBucketTimeTransform(MINUTE_MILLIS, 0);
+  }
+
+  public static EpochBucketTimeTransform minutes(long offsetMillis) {
+    return  new EpochBucketTimeTransform(MINUTE_MILLIS, offsetMillis);
+  }
+
+  public static EpochBucketTimeTransform hours() {
+    return  new EpochBucketTimeTransform(HOUR_MILLIS, 0);
+  }
+
+  public static EpochBucketTimeTransform hours(long offsetMillis) {
+    return  new EpochBucketTimeTransform(HOUR_MILLIS, offsetMillis);
+  }
+
+  public static EpochBucketTimeTransform days() {
+    return  new EpochBucketTimeTransform(DAY_MILLIS, 0);
+  }
+
+  public static EpochBucketTimeTransform days(long offsetMillis) {
+    return  new EpochBucketTimeTransform(DAY_MILLIS, offsetMillis);
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.transform;
+
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.ReusableTimeTransform;
+
+/**
+ * Time transform which maps every N consecutive source slots onto one target slot (N-to-1), optionally shifted by an
+ * offset.  Source slots always align with exactly one target slot, so the overlap is always 1.0.
+ * <p>
+ * Example: with a ratio of 60 and an offset of 0, source slots 0 through 59 map to target slot 0, 60 through 119 map
+ * to target slot 1, and -60 through -1 map to target slot -1.
+ */
+public class IntegerRatioTimeTransform implements ReusableTimeTransform {
+  private final long ratio;
+  private final long offset;
+
+  /**
+   * Initialize the transform with the given ratio and no offset.
+   *
+   * @param ratio number of source slots per target slot.
+   */
+  public IntegerRatioTimeTransform(long ratio) {
+    this(ratio, 0);
+  }
+
+  /**
+   * Initialize the transform with the given ratio and offset.
+   *
+   * @param ratio number of source slots per target slot.
+   * @param offset source timestamp at which target slot 0 starts.
+   */
+  public IntegerRatioTimeTransform(long ratio, long offset) {
+    if ( ratio < 1 ) {
+      throw new IllegalArgumentException("ratio must be positive: " + ratio);
+    }
+
+    this.ratio = ratio;
+    this.offset = offset;
+  }
+
+  public long getRatio() {
+    return  ratio;
+  }
+
+  public long getOffset() {
+    return  offset;
+  }
+
+  /**
+   * Determine the first source timestamp which maps onto the given target slot.
+   *
+   * @param targetTime timestamp of the target slot.
+   * @return first source timestamp of the slot.
+   */
+  public long getSourceStart(long targetTime) {
+    return  ( targetTime * this.ratio ) + this.offset;
+  }
+
+  @Override
+  public void transformTime(long sourceTime, MisalignedTimestamp result) {
+    result.timestamp = floorDiv(sourceTime - this.offset, this.ratio);
+    result.overlap = 1.0;
+  }
+
+  @Override
+  public MisalignedTimestamp transformTime(long sourceTime) {
+    return  new MisalignedTimestamp(floorDiv(sourceTime - this.offset, this.ratio), 1.0);
+  }
+
+  /**
+   * Integer division which rounds towards negative infinity, so timestamps before the offset map to the slot which
+   * contains them rather than being rounded up towards 0.
+   */
+  static long floorDiv(long dividend, long divisor) {
+    long result = dividend / divisor;
+    if ( ( ( dividend % divisor ) != 0 ) && ( ( dividend < 0 ) != ( divisor < 0 ) ) ) {
+      result--;
+    }
+
+    return  result;
+  }
+}
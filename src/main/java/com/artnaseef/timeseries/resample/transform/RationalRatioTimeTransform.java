@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.transform;
+
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.ReusableTimeTransform;
+
+/**
+ * Time transform which maps a number of source slots onto a smaller number of target slots, such as 3-to-2, where
+ * some source slots straddle two target slots.  The transform is computed with exact integer arithmetic, so there is
+ * no floating-point drift for large timestamps.
+ * <p>
+ * Example: mapping 3-to-2, source slot 4 corresponds to target time 2.666..., so it maps onto target slot 2 with an
+ * overlap of 1/3; the re-sample carries the remaining 2/3 into target slot 3.
+ * <p>
+ * Note the source timestamp multiplied by the number of target slots must fit in a long.
+ */
+public class RationalRatioTimeTransform implements ReusableTimeTransform {
+  private final long sourceSlots;
+  private final long targetSlots;
+
+  /**
+   * Initialize the transform with the given ratio of source slots to target slots.
+   *
+   * @param sourceSlots number of source slots which map onto targetSlots target slots.
+   * @param targetSlots number of target slots; must not be larger than sourceSlots, as only down-sampling is
+   *                    supported.
+   */
+  public RationalRatioTimeTransform(long sourceSlots, long targetSlots) {
+    if ( ( sourceSlots < 1 ) || ( targetSlots < 1 ) ) {
+      throw new IllegalArgumentException("slot counts must be positive: " + sourceSlots + ":" + targetSlots);
+    }
+    if ( targetSlots > sourceSlots ) {
+      throw new IllegalArgumentException("only down-sampling is supported: " + sourceSlots + ":" + targetSlots);
+    }
+
+    this.sourceSlots = sourceSlots;
+    this.targetSlots = targetSlots;
+  }
+
+  public long getSourceSlots() {
+    return  sourceSlots;
+  }
+
+  public long getTargetSlots() {
+    return  targetSlots;
+  }
+
+  @Override
+  public void transformTime(long sourceTime, MisalignedTimestamp result) {
+    long scaled = sourceTime * this.targetSlots;
+    long timestamp = IntegerRatioTimeTransform.floorDiv(scaled, this.sourceSlots);
+    long fraction = scaled - ( timestamp * this.sourceSlots );
+
+    result.timestamp = timestamp;
+    result.overlap = 1.0 - ( ( (double) fraction ) / this.sourceSlots );
+  }
+
+  @Override
+  public MisalignedTimestamp transformTime(long sourceTime) {
+    MisalignedTimestamp result = new MisalignedTimestamp();
+    this.transformTime(sourceTime, result);
+
+    return  result;
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentDoubleTimeSeriesTest {
+
+  @Test
+  public void testAddAndSnapshot() throws Exception {
+    final ConcurrentDoubleTimeSeries series = new ConcurrentDoubleTimeSeries(2, 2);
+
+    Thread other = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        for ( int cur = 0; cur < 1000; cur++ ) {
+          series.add(cur % 10, 0.5);
+        }
+      }
+    });
+    other.start();
+
+    for ( int cur = 0; cur < 1000; cur++ ) {
+      series.add(cur % 10, 0.25);
+    }
+    other.join();
+
+    assertEquals(75.0, series.getTimestampSample(3, Double.NaN), 0.0000000001);
+    assertTrue(Double.isNaN(series.getTimestampSample(10, Double.NaN)));
+
+    DoubleTimeSeries snapshot = series.snapshot();
+    assertEquals(10, snapshot.size());
+    assertEquals(75.0, snapshot.getTimestampSample(9, Double.NaN), 0.0000000001);
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentLongTimeSeriesTest {
+
+  @Test
+  public void testAddAndGet() throws Exception {
+    ConcurrentLongTimeSeries series = new ConcurrentLongTimeSeries(2, 4);
+
+    assertEquals(-1, series.getTimestampSample(10, -1));
+
+    series.add(10, 1);
+    series.add(10, 2);
+    series.add(11, 5);
+    assertEquals(3, series.getTimestampSample(10, -1));
+    assertEquals(5, series.getTimestampSample(11, -1));
+  }
+
+  @Test
+  public void testRingEvictionAndLateAdds() throws Exception {
+    ConcurrentLongTimeSeries series = new ConcurrentLongTimeSeries(1, 4);
+
+    series.add(1, 1);
+    series.add(5, 5);   // Same ring position as 1; moves 1 out of the ring.
+    series.add(1, 10);  // Late addition to a slot which left the ring.
+    series.add(-3, 7);  // Older than anything in the ring position.
+    series.add(2, 2);
+
+    assertEquals(11, series.getTimestampSample(1, -1));
+    assertEquals(5, series.getTimestampSample(5, -1));
+    assertEquals(7, series.getTimestampSample(-3, -1));
+
+    LongTimeSeries snapshot = series.snapshot();
+    assertEquals(4, snapshot.size());
+    assertEquals(7, snapshot.getTimestampSample(-3, -1));
+    assertEquals(11, snapshot.getTimestampSample(1, -1));
+    assertEquals(2, snapshot.getTimestampSample(2, -1));
+    assertEquals(5, snapshot.getTimestampSample(5, -1));
+  }
+
+  @Test
+  public void testConcurrentAdds() throws Exception {
+    final ConcurrentLongTimeSeries series = new ConcurrentLongTimeSeries(4, 8);
+    final int threadCount = 8;
+    final int addsPerThread = 20000;
+    final CountDownLatch startLatch = new CountDownLatch(1);
+
+    List<Thread> threads = new ArrayList<>();
+    for ( int cur = 0; cur < threadCount; cur++ ) {
+      Thread oneThread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            startLatch.await();
+          } catch (InterruptedException intExc) {
+            return;
+          }
+
+          for ( int add = 0; add < addsPerThread; add++ ) {
+            // Advance through 100 slots, so slots move through the ring while other threads still add to them.
+            series.add(add / 200, 1);
+          }
+        }
+      });
+      oneThread.start();
+      threads.add(oneThread);
+    }
+
+    startLatch.countDown();
+    for ( Thread oneThread : threads ) {
+      oneThread.join();
+    }
+
+    LongTimeSeries snapshot = series.snapshot();
+    assertEquals(100, snapshot.size());
+
+    LongTimeSeriesCursor cursor = snapshot.cursor();
+    while ( cursor.next() ) {
+      assertEquals(200L * threadCount, cursor.getLongValue());
+    }
+  }
+
+  @Test
+  public void testPointReadsDuringRetirement() throws Exception {
+    final ConcurrentLongTimeSeries series = new ConcurrentLongTimeSeries(4, 2);
+    final int threadCount = 4;
+    final CountDownLatch startLatch = new CountDownLatch(1);
+
+    List<Thread> threads = new ArrayList<>();
+    for ( int cur = 0; cur < threadCount; cur++ ) {
+      Thread oneThread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            startLatch.await();
+          } catch (InterruptedException intExc) {
+            return;
+          }
+
+          for ( int add = 0; add < 20000; add++ ) {
+            series.add(add / 10, 1);
+          }
+        }
+      });
+      oneThread.start();
+      threads.add(oneThread);
+    }
+
+    startLatch.countDown();
+
+    // Slots constantly move from the rings into the history; a read must never count a slot twice.
+    long maximum = 10L * threadCount;
+    for ( int read = 0; read < 20000; read++ ) {
+      assertTrue(series.getTimestampSample(read % 2000, 0) <= maximum);
+    }
+
+    for ( Thread oneThread : threads ) {
+      oneThread.join();
+    }
+
+    assertEquals(maximum, series.getTimestampSample(0, -1));
+    assertEquals(maximum, series.getTimestampSample(1999, -1));
+    assertEquals(-1, series.getTimestampSample(2000, -1));
+    assertEquals(2000, series.snapshot().size());
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.calc.DoubleAverageResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DoubleBatchResamplerTest {
+  @Test
+  public void testMatchesResampleUtil() throws Exception {
+    Random random = new Random(42);
+    long[] grid = new long[500];
+    for ( int cur = 0; cur < grid.length; cur++ ) {
+      grid[cur] = cur * 2 + random.nextInt(2);
+    }
+
+    List<DoubleTimeSeries> sources = new ArrayList<>();
+    List<DoubleTimeSeries> targets = new ArrayList<>();
+    for ( int series = 0; series < 20; series++ ) {
+      DoubleTimeSeries source = new DoubleTimeSeries();
+      for ( long oneTime : grid ) {
+        if ( ( series != 3 ) || ( oneTime != grid[10] ) ) {
+          source.add(oneTime, random.nextDouble() * 100.0);
+        }
+      }
+      sources.add(source);
+      targets.add(new DoubleTimeSeries());
+    }
+
+    TimeTransform transform = new RationalRatioTimeTransform(5, 3);
+    DoubleAverageResampleCalculator calculator = new DoubleAverageResampleCalculator(3.0 / 5.0);
+    new DoubleBatchResampler(new ResamplePlan(grid, transform)).resampleDown(sources, targets, calculator);
+
+    for ( int cur = 0; cur < sources.size(); cur++ ) {
+      DoubleTimeSeries expected = new DoubleTimeSeries();
+      new DoubleResampleUtil(sources.get(cur)).resampleDown(expected, transform, calculator);
+
+      DoubleTimeSeries actual = targets.get(cur);
+      assertEquals(expected.size(), actual.size());
+      DoubleTimeSeriesCursor cursor = expected.cursor();
+      while ( cursor.next() ) {
+        assertEquals(cursor.getDoubleValue(), actual.getTimestampSample(cursor.getTimestamp(), Double.NaN), 0.0);
+      }
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.DoubleResampleValueCalculator;
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.calc.DoubleAverageResampleCalculator;
+import com.artnaseef.timeseries.resample.calc.DoubleSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class DoubleParallelResampleUtilTest {
+  private ForkJoinPool pool;
+  private DoubleTimeSeries source;
+
+  @Before
+  public void setupTest() throws Exception {
+    this.pool = new ForkJoinPool(4);
+    this.source = new DoubleTimeSeries();
+
+    Random random = new Random(42);
+    long time = 0;
+    for ( int cur = 0; cur < 20000; cur++ ) {
+      // Mostly dense, with occasional gaps.
+      time += ( random.nextInt(10) == 0 ) ? 1 + random.nextInt(20) : 1;
+      this.source.add(time, random.nextDouble() * 100.0);
+    }
+  }
+
+  @After
+  public void cleanupTest() throws Exception {
+    this.pool.shutdown();
+  }
+
+  @Test
+  public void testMatchesSequentialThreeToTwo() throws Exception {
+    this.verifyMatchesSequential(new RationalRatioTimeTransform(3, 2), new DoubleSumResampleCalculator(), 100);
+  }
+
+  @Test
+  public void testMatchesSequentialSevenToFive() throws Exception {
+    this.verifyMatchesSequential(new RationalRatioTimeTransform(7, 5), new DoubleSumResampleCalculator(), 37);
+  }
+
+  @Test
+  public void testMatchesSequentialSixtyToOne() throws Exception {
+    this.verifyMatchesSequential(new IntegerRatioTimeTransform(60), new DoubleSumResampleCalculator(), 50);
+  }
+
+  @Test
+  public void testMatchesSequentialAverage() throws Exception {
+    this.verifyMatchesSequential(new RationalRatioTimeTransform(5, 3), new DoubleAverageResampleCalculator(3.0 / 5.0),
+            64);
+  }
+
+  @Test
+  public void testSingleChunk() throws Exception {
+    this.verifyMatchesSequential(new RationalRatioTimeTransform(3, 2), new DoubleSumResampleCalculator(),
+            DoubleParallelResampleUtil.DEFAULT_MIN_CHUNK_SIZE);
+  }
+
+  @Test
+  public void testRangeViewSource() throws Exception {
+    DoubleSumResampleCalculator calculator = new DoubleSumResampleCalculator();
+    TimeTransform transform = new RationalRatioTimeTransform(3, 2);
+    DoubleTimeSeries view = this.source.subSeries(5000, 15000);
+
+    DoubleTimeSeries expected = new DoubleTimeSeries();
+    new DoubleResampleUtil(view).resampleDown(expected, transform, calculator);
+
+    DoubleTimeSeries actual = new DoubleTimeSeries();
+    new DoubleParallelResampleUtil(view, this.pool, 100).resampleDown(actual, transform, calculator);
+
+    assertTrue(expected.size() > 0);
+    assertEquals(expected.getTimestamps(), actual.getTimestamps());
+    for ( Long oneTimestamp : expected.getTimestamps() ) {
+      assertEquals(expected.getTimestampSample(oneTimestamp), actual.getTimestampSample(oneTimestamp));
+    }
+  }
+
+  @Test
+  public void testEmptySource() throws Exception {
+    DoubleTimeSeries target = new DoubleTimeSeries();
+    new DoubleParallelResampleUtil(new DoubleTimeSeries(), this.pool).resampleDown(target,
+            new IntegerRatioTimeTransform(2), new DoubleSumResampleCalculator());
+
+    assertEquals(0, target.size());
+  }
+
+  private void verifyMatchesSequential(TimeTransform transform, DoubleResampleValueCalculator calculator,
+                                       int minChunkSize) {
+    DoubleTimeSeries expected = new DoubleTimeSeries();
+    new DoubleResampleUtil(this.source).resampleDown(expected, transform, calculator);
+
+    DoubleTimeSeries actual = new DoubleTimeSeries();
+    new DoubleParallelResampleUtil(this.source, this.pool, minChunkSize).resampleDown(actual, transform, calculator);
+
+    assertEquals(expected.size(), actual.size());
+    DoubleTimeSeriesCursor expectedCursor = expected.cursor();
+    DoubleTimeSeriesCursor actualCursor = actual.cursor();
+    while ( expectedCursor.next() ) {
+      assertTrue(actualCursor.next());
+      assertEquals(expectedCursor.getTimestamp(), actualCursor.getTimestamp());
+      assertEquals(expectedCursor.getDoubleValue(), actualCursor.getDoubleValue(), 0.0);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DoubleReorderBufferTest {
+
+  @Test
+  public void testReleaseInOrder() throws Exception {
+    final DoubleTimeSeries released = new DoubleTimeSeries();
+    DoubleReorderBuffer buffer = new DoubleReorderBuffer(2, new DoubleTimeSeriesVisitor() {
+      @Override
+      public void visit(long timestamp, double value) {
+        assertTrue(( released.size() == 0 ) || ( timestamp > released.getLastTimestamp() ));
+        released.add(timestamp, value);
+      }
+    });
+
+    buffer.add(5, 0.5);
+    buffer.add(4, 0.25);
+    buffer.add(6, 1.0);
+    buffer.add(4, 0.25);
+    assertEquals(0, released.size());
+
+    buffer.add(7, 2.0);
+    assertEquals(1, released.size());
+    assertEquals(0.5, released.getTimestampSample(4, Double.NaN), 0.0);
+
+    assertFalse(buffer.add(3, 1.0));
+    assertEquals(1, buffer.getLateSampleCount());
+
+    buffer.flush();
+    assertEquals(4, released.size());
+    assertEquals(0, buffer.getPendingCount());
+  }
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.SampleStats;
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.calc.DoubleAverageResampleAccumulator;
+import com.artnaseef.timeseries.resample.calc.DoubleAverageResampleCalculator;
+import com.artnaseef.timeseries.resample.calc.DoubleSumResampleCalculator;
+import com.artnaseef.timeseries.resample.calc.SampleStatsMergeCalculator;
+import com.artnaseef.timeseries.resample.fill.DoubleLinearFill;
+import com.artnaseef.timeseries.resample.fill.DoubleSplitFill;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DoubleResampleUtilTest {
+  private DoubleTimeSeries source;
+  private DoubleResampleUtil resampleUtil;
+
+  @Before
+  public void setupTest() throws Exception {
+    this.source = new DoubleTimeSeries();
+    this.resampleUtil = new DoubleResampleUtil(this.source);
+  }
+
+  /**
+   * Same scenario as ResampleUtilTest.testResampleDownThreeToTwo(), using the primitive path.
+   */
+  @Test
+  public void testResampleDownThreeToTwo () {
+    source.add(3, 1.0);
+    source.add(4, 1.0);
+    source.add(5, 1.0);
+    source.add(6, 1.0);
+    source.add(7, 1.0);
+
+    source.add(9, 1.0);
+    source.add(30, 1.0);
+    source.add(61, 1.0);
+    source.add(92, 1.0);
+
+    DoubleTimeSeries target = new DoubleTimeSeries();
+    this.resampleUtil.resampleDown(target, new RatioTransform(2.0 / 3.0), new DoubleSumResampleCalculator());
+
+    assertEquals(( 4.0 / 3.0 ), target.getTimestampSample(2, Double.NaN), 0.0000000001);
+    assertEquals(( 4.0 / 3.0 ), target.getTimestampSample(3, Double.NaN), 0.0000000001);
+    assertEquals(( 5.0 / 3.0 ), target.getTimestampSample(4, Double.NaN), 0.0000000001);
+    assertEquals(( 2.0 / 3.0 ), target.getTimestampSample(5, Double.NaN), 0.0000000001);
+    assertEquals(1.0, target.getTimestampSample(6, Double.NaN), 0.0000000001);
+
+    assertEquals(1.0, target.getTimestampSample(20, Double.NaN), 0.0000000001);
+    assertEquals(( 1.0 / 3.0), target.getTimestampSample(40, Double.NaN), 0.0000000001);
+    assertEquals(( 2.0 / 3.0), target.getTimestampSample(41, Double.NaN), 0.0000000001);
+    assertEquals(( 2.0 / 3.0), target.getTimestampSample(61, Double.NaN), 0.0000000001);
+    assertEquals(( 1.0 / 3.0), target.getTimestampSample(62, Double.NaN), 0.0000000001);
+
+    assertEquals(10, target.size());
+  }
+
+  @Test
+  public void testMatchesGenericResample () {
+    for ( int cur = 0; cur < 500; cur++ ) {
+      source.add(cur * 7 % 1000, cur * 1.5);
+    }
+
+    DoubleAverageResampleCalculator calculator = new DoubleAverageResampleCalculator(0.25);
+    RatioTransform transform = new RatioTransform(0.25);
+
+    DoubleTimeSeries expected = new DoubleTimeSeries();
+    new ResampleUtil<>(source).resampleDown(expected, transform, calculator);
+
+    DoubleTimeSeries actual = new DoubleTimeSeries();
+    this.resampleUtil.resampleDown(actual, transform, calculator);
+
+    assertEquals(expected.size(), actual.size());
+    DoubleTimeSeriesCursor cursor = expected.cursor();
+    while ( cursor.next() ) {
+      assertEquals(cursor.getDoubleValue(), actual.getTimestampSample(cursor.getTimestamp(), Double.NaN), 0.0000000001);
+    }
+  }
+
+  @Test
+  public void testBoxedSource () {
+    TimeSeries<Double> boxedSource = new TimeSeries<>();
+    boxedSource.setTimestampSample(10, 1.0);
+    boxedSource.setTimestampSample(11, 2.0);
+    boxedSource.setTimestampSample(12, 4.0);
+
+    DoubleTimeSeries target = new DoubleTimeSeries();
+    new DoubleResampleUtil(boxedSource).resampleDown(target, new RatioTransform(0.5),
+            new DoubleSumResampleCalculator());
+
+    // 11 => (5.5) => 5 (1/2), 6 (1/2)
+    assertEquals(2.0, target.getTimestampSample(5, Double.NaN), 0.0000000001);
+    assertEquals(5.0, target.getTimestampSample(6, Double.NaN), 0.0000000001);
+    assertEquals(2, target.size());
+  }
+
+  @Test
+  public void testAccumulatorMatchesCalculator () {
+    for ( int cur = 0; cur < 500; cur++ ) {
+      source.add(cur * 7 % 1000, cur * 1.5);
+    }
+    source.add(1999, 3.0);
+
+    RatioTransform transform = new RatioTransform(2.0 / 3.0);
+
+    DoubleTimeSeries expected = new DoubleTimeSeries();
+    this.resampleUtil.resampleDown(expected, transform, new DoubleAverageResampleCalculator(2.0 / 3.0));
+
+    DoubleTimeSeries actual = new DoubleTimeSeries();
+    this.resampleUtil.resampleDown(actual, transform, new DoubleAverageResampleAccumulator(2.0 / 3.0));
+
+    assertEquals(expected.size(), actual.size());
+    DoubleTimeSeriesCursor cursor = expected.cursor();
+    while ( cursor.next() ) {
+      assertEquals(cursor.getDoubleValue(), actual.getTimestampSample(cursor.getTimestamp(), Double.NaN), 0.0000000001);
+    }
+  }
+
+  @Test
+  public void testStatsMatchCalculators () {
+    for ( int cur = 0; cur < 500; cur++ ) {
+      source.add(cur * 7 % 1000, ( cur % 17 ) * 1.5);
+    }
+
+    RatioTransform transform = new RatioTransform(2.0 / 3.0);
+
+    DoubleTimeSeries sums = new DoubleTimeSeries();
+    this.resampleUtil.resampleDown(sums, transform, new DoubleSumResampleCalculator());
+
+    DoubleTimeSeries averages = new DoubleTimeSeries();
+    this.resampleUtil.resampleDown(averages, transform, new DoubleAverageResampleCalculator(2.0 / 3.0));
+
+    TimeSeries<SampleStats> stats = new TimeSeries<>();
+    this.resampleUtil.resampleDownStats(stats, transform);
+
+    assertEquals(sums.getTimestamps(), stats.getTimestamps());
+    DoubleTimeSeriesCursor cursor = sums.cursor();
+    while ( cursor.next() ) {
+      SampleStats slotStats = stats.getTimestampSample(cursor.getTimestamp());
+      assertEquals(cursor.getDoubleValue(), slotStats.getSum(), 0.0000000001);
+      assertEquals(averages.getTimestampSample(cursor.getTimestamp(), Double.NaN),
+              slotStats.getSlotAverage(2.0 / 3.0), 0.0000000001);
+    }
+  }
+
+  @Test
+  public void testStatsSlot () {
+    source.add(0, 2.0);
+    source.add(1, 4.0);
+    source.add(2, 9.0);
+    source.add(4, 5.0);
+
+    TimeSeries<SampleStats> stats = new TimeSeries<>();
+    this.resampleUtil.resampleDownStats(stats, new IntegerRatioTimeTransform(4));
+
+    SampleStats slotStats = stats.getTimestampSample(0);
+    assertEquals(3, slotStats.getCount());
+    assertEquals(2.0, slotStats.getMin(), 0.0);
+    assertEquals(9.0, slotStats.getMax(), 0.0);
+    assertEquals(15.0, slotStats.getSum(), 0.0000000001);
+    assertEquals(5.0, slotStats.getMean(), 0.0000000001);
+    assertEquals(26.0 / 3.0, slotStats.getVariance(), 0.0000000001);
+    assertEquals(1, stats.getTimestampSample(1).getCount());
+
+    // Roll the slots up again by merging.
+    TimeSeries<SampleStats> rolled = new TimeSeries<>();
+    new ResampleUtil<>(stats).resampleDown(rolled, new IntegerRatioTimeTransform(2),
+            new SampleStatsMergeCalculator());
+
+    SampleStats all = rolled.getTimestampSample(0);
+    assertEquals(4, all.getCount());
+    assertEquals(2.0, all.getMin(), 0.0);
+    assertEquals(9.0, all.getMax(), 0.0);
+    assertEquals(5.0, all.getMean(), 0.0000000001);
+    assertEquals(6.5, all.getVariance(), 0.0000000001);
+  }
+
+  @Test
+  public void testResampleUpSplit () {
+    source.add(0, 3.0);
+    source.add(1, 6.0);
+    source.add(2, 1.5);
+
+    DoubleTimeSeries target = new DoubleTimeSeries();
+    this.resampleUtil.resampleUp(target, new IntegerRatioTimeTransform(3), new DoubleSplitFill());
+
+    assertEquals(9, target.size());
+    assertEquals(1.0, target.getTimestampSample(2, Double.NaN), 0.0);
+    assertEquals(2.0, target.getTimestampSample(3, Double.NaN), 0.0);
+    assertEquals(0.5, target.getTimestampSample(8, Double.NaN), 0.0);
+
+    DoubleTimeSeries restored = new DoubleTimeSeries();
+    new DoubleResampleUtil(target).resampleDown(restored, new IntegerRatioTimeTransform(3),
+            new DoubleSumResampleCalculator());
+
+    assertEquals(3.0, restored.getTimestampSample(0, Double.NaN), 0.0000000001);
+    assertEquals(6.0, restored.getTimestampSample(1, Double.NaN), 0.0000000001);
+    assertEquals(1.5, restored.getTimestampSample(2, Double.NaN), 0.0000000001);
+  }
+
+  @Test
+  public void testResampleUpLinearUneven () {
+    source.add(0, 0.0);
+    source.add(2, 3.0);
+
+    // Source slots cover 1.5 target slots on average; the gap at source slot 1 is interpolated.
+    DoubleTimeSeries target = new DoubleTimeSeries();
+    this.resampleUtil.resampleUp(target, new RationalRatioTimeTransform(3, 2), new DoubleLinearFill());
+
+    assertEquals(5, target.size());
+    assertEquals(0.0, target.getTimestampSample(0, Double.NaN), 0.0);
+    assertEquals(1.0, target.getTimestampSample(1, Double.NaN), 0.0000000001);
+    assertEquals(2.0, target.getTimestampSample(2, Double.NaN), 0.0000000001);
+    assertEquals(3.0, target.getTimestampSample(3, Double.NaN), 0.0);
+    assertEquals(3.0, target.getTimestampSample(4, Double.NaN), 0.0);
+  }
+
+  @Test
+  public void testResampleUpAtLastTimestamp () {
+    source.add(Long.MAX_VALUE - 1, 3.0);
+    source.add(Long.MAX_VALUE, 4.0);
+
+    DoubleTimeSeries target = new DoubleTimeSeries();
+    this.resampleUtil.resampleUp(target, new IntegerRatioTimeTransform(1), new DoubleLinearFill());
+
+    // Target slots end before Long.MAX_VALUE, so only the first sample has one.
+    assertEquals(1, target.size());
+    assertEquals(3.0, target.getTimestampSample(Long.MAX_VALUE - 1, Double.NaN), 0.0);
+  }
+
+  protected class RatioTransform implements TimeTransform {
+    private final double ratio;
+
+    public RatioTransform(double ratio) {
+      this.ratio = ratio;
+    }
+
+    @Override
+    public MisalignedTimestamp transformTime(long sourceTime) {
+      MisalignedTimestamp result = new MisalignedTimestamp();
+
+      double preciseTarget = ((double) sourceTime) * ratio;
+      result.timestamp = (long) preciseTarget;
+      result.overlap = 1.0 - ( preciseTarget - result.timestamp );
+
+      return result;
+    }
+  }
+}
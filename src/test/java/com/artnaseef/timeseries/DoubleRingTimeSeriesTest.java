@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.calc.DoubleSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class DoubleRingTimeSeriesTest {
+
+  @Test
+  public void testAddAndEviction() throws Exception {
+    DoubleRingTimeSeries series = new DoubleRingTimeSeries(4);
+
+    assertEquals(1.5, series.add(1, 1.5), 0.0);
+    assertEquals(2.0, series.add(1, 0.5), 0.0);
+    series.setTimestampSample(2, 2.5);
+    series.add(4, 4.0);
+
+    assertEquals(3, series.size());
+    assertEquals(Double.valueOf(2.0), series.getTimestampSample(1));
+    assertEquals(2.5, series.getTimestampSample(2, -1.0), 0.0);
+
+    series.add(6, 6.0);   // Window is now 3..6; evicts 1 and 2.
+
+    assertEquals(2, series.size());
+    assertNull(series.getTimestampSample(1));
+    assertEquals(-1.0, series.getTimestampSample(2, -1.0), 0.0);
+    assertEquals(new TreeSet<>(Arrays.asList(4L, 6L)), series.getTimestamps());
+
+    // Older than the window; ignored.
+    assertEquals(0.0, series.add(2, 20.0), 0.0);
+    assertEquals(2, series.size());
+  }
+
+  @Test
+  public void testCursorOrder() throws Exception {
+    DoubleRingTimeSeries series = new DoubleRingTimeSeries(5);
+
+    series.add(-3, 3.0);
+    series.add(-5, 5.0);
+    series.add(-1, 1.0);
+
+    DoubleTimeSeriesCursor cursor = series.cursor();
+    assertTrue(cursor.next());
+    assertEquals(-5, cursor.getTimestamp());
+    assertEquals(5.0, cursor.getDoubleValue(), 0.0);
+    assertTrue(cursor.next());
+    assertEquals(-3, cursor.getTimestamp());
+    assertTrue(cursor.next());
+    assertEquals(-1, cursor.getTimestamp());
+    assertEquals(Double.valueOf(1.0), cursor.getValue());
+    assertFalse(cursor.next());
+  }
+
+  @Test
+  public void testResampleSource() throws Exception {
+    DoubleRingTimeSeries ring = new DoubleRingTimeSeries(6);
+    DoubleTimeSeries plain = new DoubleTimeSeries();
+
+    long time = 0;
+    while ( time < 20 ) {
+      ring.add(time, time * 0.5);
+      if ( time >= 14 ) {
+        plain.add(time, time * 0.5);
+      }
+      time++;
+    }
+
+    IntegerRatioTimeTransform transform = new IntegerRatioTimeTransform(2);
+    DoubleSumResampleCalculator calculator = new DoubleSumResampleCalculator();
+
+    DoubleTimeSeries expected = new DoubleTimeSeries();
+    new DoubleResampleUtil(plain).resampleDown(expected, transform, calculator);
+
+    DoubleTimeSeries fromRing = new DoubleTimeSeries();
+    new DoubleResampleUtil(ring).resampleDown(fromRing, transform, calculator);
+
+    assertEquals(3, expected.size());
+    assertEquals(expected.getTimestamps(), fromRing.getTimestamps());
+    for ( Long oneTimestamp : expected.getTimestamps() ) {
+      assertEquals(expected.getTimestampSample(oneTimestamp, 0.0), fromRing.getTimestampSample(oneTimestamp, -1.0),
+              0.0);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCapacity() throws Exception {
+    new DoubleRingTimeSeries(-1);
+  }
+}
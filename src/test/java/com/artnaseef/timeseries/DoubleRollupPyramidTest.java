@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.calc.DoubleAverageResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DoubleRollupPyramidTest {
+
+  @Test
+  public void testAverageMatchesResampleFromRaw() throws Exception {
+    DoubleRollupPyramid pyramid = new DoubleRollupPyramid();
+    pyramid.addLevel(60, new DoubleAverageResampleCalculator(1.0 / 60));
+    pyramid.addLevel(3600, new DoubleAverageResampleCalculator(1.0 / 60));
+
+    Random random = new Random(11);
+    long time = 0;
+    while ( time < 20000 ) {
+      pyramid.add(time, random.nextDouble());
+      time++;
+    }
+
+    DoubleTimeSeries expected = new DoubleTimeSeries();
+    new DoubleResampleUtil(pyramid.getRawSeries()).resampleDown(expected, new IntegerRatioTimeTransform(3600),
+            new DoubleAverageResampleCalculator(1.0 / 3600));
+
+    DoubleTimeSeries actual = pyramid.query(3600, 0, 20000);
+    assertEquals(expected.getTimestamps(), actual.getTimestamps());
+    for ( Long oneTimestamp : actual.getTimestamps() ) {
+      assertEquals(expected.getTimestampSample(oneTimestamp, Double.NaN),
+              actual.getTimestampSample(oneTimestamp, Double.NaN), 0.0000001);
+    }
+
+    // Two-hour averages from the hourly level.
+    DoubleTimeSeries twoHours = pyramid.query(7200, 0, 7200, new DoubleAverageResampleCalculator(0.5));
+    assertEquals(1, twoHours.size());
+    assertEquals(( actual.getTimestampSample(0, Double.NaN) + actual.getTimestampSample(1, Double.NaN) ) / 2,
+            twoHours.getTimestampSample(0, Double.NaN), 0.0000001);
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.calc.DoubleSumResampleAccumulator;
+import com.artnaseef.timeseries.resample.calc.DoubleSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DoubleStreamingResamplerTest {
+
+  /**
+   * Same scenario as ResampleUtilTest.testResampleDownThreeToTwo(), pushing one sample at a time.
+   */
+  @Test
+  public void testThreeToTwo() throws Exception {
+    DoubleTimeSeries target = new DoubleTimeSeries();
+    DoubleStreamingResampler resampler = new DoubleStreamingResampler(new RatioTransform(2.0 / 3.0),
+            new DoubleSumResampleAccumulator(), target);
+
+    resampler.add(3, 1.0);
+    resampler.add(4, 1.0);
+    resampler.add(5, 1.0);
+    assertEquals(( 4.0 / 3.0 ), target.getTimestampSample(2, Double.NaN), 0.0000000001);
+    assertEquals(1, target.size());
+
+    resampler.add(6, 1.0);
+    resampler.add(7, 1.0);
+    resampler.add(9, 1.0);
+    resampler.add(30, 1.0);
+    resampler.add(61, 1.0);
+    resampler.add(92, 1.0);
+    assertEquals(8, target.size());
+
+    resampler.flush();
+
+    assertEquals(( 4.0 / 3.0 ), target.getTimestampSample(3, Double.NaN), 0.0000000001);
+    assertEquals(( 5.0 / 3.0 ), target.getTimestampSample(4, Double.NaN), 0.0000000001);
+    assertEquals(( 2.0 / 3.0 ), target.getTimestampSample(5, Double.NaN), 0.0000000001);
+    assertEquals(1.0, target.getTimestampSample(6, Double.NaN), 0.0000000001);
+
+    assertEquals(1.0, target.getTimestampSample(20, Double.NaN), 0.0000000001);
+    assertEquals(( 1.0 / 3.0), target.getTimestampSample(40, Double.NaN), 0.0000000001);
+    assertEquals(( 2.0 / 3.0), target.getTimestampSample(41, Double.NaN), 0.0000000001);
+    assertEquals(( 2.0 / 3.0), target.getTimestampSample(61, Double.NaN), 0.0000000001);
+    assertEquals(( 1.0 / 3.0), target.getTimestampSample(62, Double.NaN), 0.0000000001);
+
+    assertEquals(10, target.size());
+  }
+
+  @Test
+  public void testMatchesCalculatorSevenToFive() throws Exception {
+    DoubleTimeSeries source = new DoubleTimeSeries();
+    for ( long time = 0; time < 70; time++ ) {
+      source.add(time, 1.0);
+    }
+
+    // Some samples in the middle of a slot overlap it only partially; the calculator still counts them whole.
+    TimeTransform transform = new RationalRatioTimeTransform(7, 5);
+
+    DoubleTimeSeries expected = new DoubleTimeSeries();
+    new DoubleResampleUtil(source).resampleDown(expected, transform, new DoubleSumResampleCalculator());
+
+    DoubleTimeSeries actual = new DoubleTimeSeries();
+    DoubleStreamingResampler resampler = new DoubleStreamingResampler(transform, new DoubleSumResampleAccumulator(),
+            actual);
+    DoubleTimeSeriesCursor cursor = source.cursor();
+    while ( cursor.next() ) {
+      resampler.add(cursor.getTimestamp(), cursor.getDoubleValue());
+    }
+    resampler.flush();
+
+    assertEquals(expected.size(), actual.size());
+    double total = 0.0;
+    cursor = expected.cursor();
+    while ( cursor.next() ) {
+      assertEquals(cursor.getDoubleValue(), actual.getTimestampSample(cursor.getTimestamp(), Double.NaN),
+              0.0000000001);
+      total += actual.getTimestampSample(cursor.getTimestamp(), Double.NaN);
+    }
+    assertEquals(70.0, total, 0.0000000001);
+  }
+
+  protected class RatioTransform implements TimeTransform {
+    private final double ratio;
+
+    public RatioTransform(double ratio) {
+      this.ratio = ratio;
+    }
+
+    @Override
+    public MisalignedTimestamp transformTime(long sourceTime) {
+      MisalignedTimestamp result = new MisalignedTimestamp();
+
+      double preciseTarget = ((double) sourceTime) * ratio;
+      result.timestamp = (long) preciseTarget;
+      result.overlap = 1.0 - ( preciseTarget - result.timestamp );
+
+      return result;
+    }
+  }
+}
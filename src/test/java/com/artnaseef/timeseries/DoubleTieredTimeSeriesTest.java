@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.calc.DoubleSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DoubleTieredTimeSeriesTest {
+
+  @Test
+  public void testSealing() throws Exception {
+    DoubleTieredTimeSeries series = new DoubleTieredTimeSeries(100, 2);
+
+    for ( long time = 0; time < 250; time++ ) {
+      series.add(time, time * 10.0);
+    }
+
+    // Chunks 100..199 and 200..299 are in the head; 0..99 is sealed.
+    assertEquals(1, series.getSealedChunkCount());
+    assertEquals(150, series.getHeadSize());
+    assertEquals(250, series.size());
+    assertEquals(Double.valueOf(50), series.getTimestampSample(5));
+    assertEquals(2490, series.getTimestampSample(249, -1), 0.0);
+    assertNull(series.getTimestampSample(250));
+
+    series.sealBefore(249);
+    assertEquals(2, series.getSealedChunkCount());
+    assertEquals(50, series.getHeadSize());
+    assertEquals(250, series.size());
+
+    // Regular samples encode in less than the 16 bytes per sample of the primitive arrays.
+    assertTrue(series.getSealedBytes() < 200 * 8);
+  }
+
+  @Test
+  public void testSealedWrites() throws Exception {
+    DoubleTieredTimeSeries series = new DoubleTieredTimeSeries(100, 1);
+    series.add(10, 1);
+    series.add(20, 2);
+    series.add(150, 3);
+    series.add(350, 4);
+    assertEquals(2, series.getSealedChunkCount());
+
+    assertEquals(6, series.add(20, 4), 0.0);
+    series.setTimestampSample(15, 7.0);
+    series.setTimestampSample(250, 8.0);
+    series.setTimestampSample(150, (Double) null);
+    series.setTimestampSample(10, (Double) null);
+
+    assertEquals(2, series.getSealedChunkCount());
+    assertEquals(-1, series.getTimestampSample(10, -1), 0.0);
+    assertEquals(7, series.getTimestampSample(15, -1), 0.0);
+    assertEquals(6, series.getTimestampSample(20, -1), 0.0);
+    assertEquals(-1, series.getTimestampSample(150, -1), 0.0);
+    assertEquals(8, series.getTimestampSample(250, -1), 0.0);
+    assertEquals(4, series.size());
+  }
+
+  @Test
+  public void testMatchesLongTimeSeries() throws Exception {
+    Random random = new Random(42);
+    DoubleTieredTimeSeries series = new DoubleTieredTimeSeries(50, 2);
+    DoubleTimeSeries expected = new DoubleTimeSeries();
+
+    for ( int cur = 0; cur < 5000; cur++ ) {
+      // Mostly in order, with some late samples landing in sealed chunks.
+      long time = ( cur / 2 ) - ( random.nextInt(10) == 0 ? random.nextInt(500) : 0 );
+      double value = random.nextInt(1000) - 500;
+      if ( random.nextInt(50) == 0 ) {
+        series.setTimestampSample(time, (Double) null);
+        expected.setTimestampSample(time, (Double) null);
+      } else {
+        assertEquals(expected.add(time, value), series.add(time, value), 0.0);
+      }
+    }
+
+    assertTrue(series.getSealedChunkCount() > 0);
+    assertEquals(expected.size(), series.size());
+    assertEquals(expected.getTimestamps(), series.getTimestamps());
+    this.verifySameSamples(expected, series);
+
+    for ( long time = -600; time < 3000; time += 7 ) {
+      assertEquals(expected.getFloorTimestamp(time), series.getFloorTimestamp(time));
+      assertEquals(expected.getCeilingTimestamp(time), series.getCeilingTimestamp(time));
+      assertEquals(expected.getTimestampSample(time), series.getTimestampSample(time));
+    }
+
+    this.verifySameSamples(expected.subSeries(-3, 1234), series.subSeries(-3, 1234));
+    this.verifySameSamples(expected.headSeries(777), series.headSeries(777));
+    this.verifySameSamples(expected.tailSeries(2400), series.tailSeries(2400));
+    assertEquals(expected.subSeries(100, 200).getFirstTimestamp(), series.subSeries(100, 200).getFirstTimestamp());
+    assertEquals(expected.subSeries(100, 200).getLastTimestamp(), series.subSeries(100, 200).getLastTimestamp());
+    assertEquals(expected.subSeries(100, 200).size(), series.subSeries(100, 200).size());
+  }
+
+  @Test
+  public void testResample() throws Exception {
+    DoubleTieredTimeSeries series = new DoubleTieredTimeSeries(1000, 1);
+    DoubleTimeSeries expected = new DoubleTimeSeries();
+    for ( long time = 0; time < 10000; time += 3 ) {
+      series.add(time, time % 17);
+      expected.add(time, time % 17);
+    }
+
+    DoubleTimeSeries actualResult = new DoubleTimeSeries();
+    DoubleTimeSeries expectedResult = new DoubleTimeSeries();
+    new DoubleResampleUtil(series).resampleDown(actualResult, new IntegerRatioTimeTransform(60),
+            new DoubleSumResampleCalculator());
+    new DoubleResampleUtil(expected).resampleDown(expectedResult, new IntegerRatioTimeTransform(60),
+            new DoubleSumResampleCalculator());
+
+    this.verifySameSamples(expectedResult, actualResult);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutsideViewRange() throws Exception {
+    new DoubleTieredTimeSeries(100, 1).subSeries(0, 10).add(10, 1);
+  }
+
+  private void verifySameSamples(TimeSeries<Double> expected, TimeSeries<Double> actual) {
+    TimeSeriesCursor<Double> expectedCursor = expected.cursor();
+    TimeSeriesCursor<Double> actualCursor = actual.cursor();
+    while ( expectedCursor.next() ) {
+      assertTrue(actualCursor.next());
+      assertEquals(expectedCursor.getTimestamp(), actualCursor.getTimestamp());
+      assertEquals(expectedCursor.getValue(), actualCursor.getValue());
+    }
+    assertFalse(actualCursor.next());
+  }
+}
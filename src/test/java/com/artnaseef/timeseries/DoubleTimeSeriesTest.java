@@ -44,4 +44,93 @@ public class DoubleTimeSeriesTest {
     assertEquals(2, doubleTimeSeries.getTimestamps().size());
 
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testOutOfOrderSet() throws Exception {
+    doubleTimeSeries.setTimestampSample(30, 3.0);
+    doubleTimeSeries.setTimestampSample(10, 1.0);
+    doubleTimeSeries.setTimestampSample(20, 2.0);
+    doubleTimeSeries.setTimestampSample(20, 2.5);
+
+    assertEquals(3, doubleTimeSeries.size());
+    assertEquals(1.0, doubleTimeSeries.getTimestampSample(10, Double.NaN), 0.0000000001);
+    assertEquals(2.5, doubleTimeSeries.getTimestampSample(20, Double.NaN), 0.0000000001);
+    assertEquals(3.0, doubleTimeSeries.getTimestampSample(30, Double.NaN), 0.0000000001);
+    assertTrue(Double.isNaN(doubleTimeSeries.getTimestampSample(15, Double.NaN)));
+
+    doubleTimeSeries.setTimestampSample(10, null);
+    assertNull(doubleTimeSeries.getTimestampSample(10));
+    assertEquals(2, doubleTimeSeries.size());
+  }
+
+  @Test
+  public void testCursorAndForEach() throws Exception {
+    doubleTimeSeries.add(2, 2.5);
+    doubleTimeSeries.add(1, 1.5);
+
+    DoubleTimeSeriesCursor cursor = doubleTimeSeries.cursor();
+    assertTrue(cursor.next());
+    assertEquals(1, cursor.getTimestamp());
+    assertEquals(1.5, cursor.getDoubleValue(), 0.0000000001);
+    assertTrue(cursor.next());
+    assertEquals(2, cursor.getTimestamp());
+    assertEquals(2.5, cursor.getValue(), 0.0000000001);
+    assertFalse(cursor.next());
+
+    final double[] sum = new double[1];
+    doubleTimeSeries.forEachDouble(new DoubleTimeSeriesVisitor() {
+      @Override
+      public void visit(long timestamp, double value) {
+        sum[0] += timestamp * value;
+      }
+    });
+    assertEquals(6.5, sum[0], 0.0000000001);
+  }
+
+  @Test
+  public void testRangeViews() throws Exception {
+    doubleTimeSeries.add(1, 1.5);
+    doubleTimeSeries.add(2, 2.5);
+    doubleTimeSeries.add(3, 3.5);
+    doubleTimeSeries.add(4, 4.5);
+
+    DoubleTimeSeries view = doubleTimeSeries.subSeries(2, 4);
+    assertEquals(2, view.size());
+    assertEquals(Long.valueOf(2), view.getFirstTimestamp());
+    assertEquals(Long.valueOf(3), view.getLastTimestamp());
+    assertEquals(3.5, view.getTimestampSample(3, -1.0), 0.0);
+    assertEquals(-1.0, view.getTimestampSample(4, -1.0), 0.0);
+
+    view.setTimestampSample(2, (Double) null);
+    assertEquals(3, doubleTimeSeries.size());
+    assertEquals(Long.valueOf(3), view.getFirstTimestamp());
+
+    assertEquals(Long.valueOf(1), doubleTimeSeries.headSeries(3).getLastTimestamp());
+    assertEquals(2, doubleTimeSeries.tailSeries(3).size());
+  }
+
+  @Test
+  public void testAddAllAndSetAll() throws Exception {
+    doubleTimeSeries.add(5, 1.0);
+
+    // Out of order, with a duplicate and an existing timestamp.
+    long[] times = { 9, 3, 5, 3, 7 };
+    double[] values = { 9.0, 3.0, 5.0, 0.5, 7.0 };
+    doubleTimeSeries.addAll(times, values, 0, times.length);
+
+    assertEquals(4, doubleTimeSeries.size());
+    assertEquals(3.5, doubleTimeSeries.getTimestampSample(3, Double.NaN), 0.0);
+    assertEquals(6.0, doubleTimeSeries.getTimestampSample(5, Double.NaN), 0.0);
+    assertEquals(9.0, doubleTimeSeries.getTimestampSample(9, Double.NaN), 0.0);
+
+    doubleTimeSeries.setAll(times, values, 1, 3);
+    assertEquals(0.5, doubleTimeSeries.getTimestampSample(3, Double.NaN), 0.0);
+    assertEquals(5.0, doubleTimeSeries.getTimestampSample(5, Double.NaN), 0.0);
+    assertEquals(7.0, doubleTimeSeries.getTimestampSample(7, Double.NaN), 0.0);
+
+    // Appending batch.
+    doubleTimeSeries.setAll(new long[] { 10, 11, 12 }, new double[] { 1.0, 2.0, 3.0 }, 0, 3);
+    assertEquals(7, doubleTimeSeries.size());
+    assertEquals(Long.valueOf(12), doubleTimeSeries.getLastTimestamp());
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class LongBatchResamplerTest {
+  private ForkJoinPool pool;
+  private long[] grid;
+  private List<TimeSeries<Long>> sources;
+
+  @Before
+  public void setupTest() throws Exception {
+    this.pool = new ForkJoinPool(4);
+
+    Random random = new Random(42);
+    this.grid = new long[2000];
+    long time = 0;
+    for ( int cur = 0; cur < this.grid.length; cur++ ) {
+      // Mostly dense, with occasional gaps.
+      time += ( random.nextInt(10) == 0 ) ? 1 + random.nextInt(20) : 1;
+      this.grid[cur] = time;
+    }
+
+    this.sources = new ArrayList<>();
+    for ( int series = 0; series < 200; series++ ) {
+      LongTimeSeries source = new LongTimeSeries();
+      for ( long oneTime : this.grid ) {
+        source.add(oneTime, random.nextInt(1000));
+      }
+      this.sources.add(source);
+    }
+
+    // Series which do not match the grid take the slower path.
+    LongTimeSeries missingSample = new LongTimeSeries();
+    LongTimeSeries extraSample = new LongTimeSeries();
+    TimeSeries<Long> boxed = new TimeSeries<>();
+    for ( int cur = 0; cur < this.grid.length; cur++ ) {
+      if ( cur != 700 ) {
+        missingSample.add(this.grid[cur], cur);
+      }
+      extraSample.add(this.grid[cur], cur);
+      boxed.setTimestampSample(this.grid[cur], (long) cur);
+    }
+    extraSample.add(this.grid[this.grid.length - 1] + 7, 5);
+
+    this.sources.add(missingSample);
+    this.sources.add(extraSample);
+    this.sources.add(boxed);
+    this.sources.add(((LongTimeSeries) this.sources.get(0)).subSeries(this.grid[100], this.grid[1500]));
+  }
+
+  @After
+  public void cleanupTest() throws Exception {
+    this.pool.shutdown();
+  }
+
+  @Test
+  public void testMatchesResampleUtilThreeToTwo() throws Exception {
+    ResamplePlan plan = new ResamplePlan(this.grid, new RationalRatioTimeTransform(3, 2));
+    this.verifyMatchesResampleUtil(new LongBatchResampler(plan));
+  }
+
+  @Test
+  public void testMatchesResampleUtilSixtyToOne() throws Exception {
+    ResamplePlan plan = ResamplePlan.forSeries(this.sources.get(0), new IntegerRatioTimeTransform(60));
+    this.verifyMatchesResampleUtil(new LongBatchResampler(plan));
+  }
+
+  @Test
+  public void testParallel() throws Exception {
+    ResamplePlan plan = new ResamplePlan(this.grid, new RationalRatioTimeTransform(7, 5));
+    this.verifyMatchesResampleUtil(new LongBatchResampler(plan, this.pool, 16));
+  }
+
+  @Test
+  public void testPlanSlotCount() throws Exception {
+    TimeTransform transform = new RationalRatioTimeTransform(3, 2);
+    ResamplePlan plan = new ResamplePlan(this.grid, transform);
+
+    LongTimeSeries expected = new LongTimeSeries();
+    new LongResampleUtil(this.sources.get(0)).resampleDown(expected, transform, new LongSumResampleCalculator());
+
+    assertEquals(this.grid.length, plan.getGridSize());
+    assertEquals(expected.size(), plan.getSlotCount());
+  }
+
+  @Test
+  public void testEmptyGrid() throws Exception {
+    ResamplePlan plan = new ResamplePlan(new long[0], new IntegerRatioTimeTransform(2));
+    LongTimeSeries target = new LongTimeSeries();
+    new LongBatchResampler(plan).resampleDown(new LongTimeSeries(), target, new LongSumResampleCalculator());
+
+    assertEquals(0, plan.getSlotCount());
+    assertEquals(0, target.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsortedGrid() throws Exception {
+    new ResamplePlan(new long[] { 1, 3, 2 }, new IntegerRatioTimeTransform(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTargetCountMismatch() throws Exception {
+    ResamplePlan plan = new ResamplePlan(this.grid, new IntegerRatioTimeTransform(2));
+    new LongBatchResampler(plan).resampleDown(this.sources, Collections.<LongTimeSeries>emptyList(),
+            new LongSumResampleCalculator());
+  }
+
+  private void verifyMatchesResampleUtil(LongBatchResampler resampler) {
+    LongSumResampleCalculator calculator = new LongSumResampleCalculator();
+
+    List<LongTimeSeries> targets = new ArrayList<>();
+    for ( int cur = 0; cur < this.sources.size(); cur++ ) {
+      targets.add(new LongTimeSeries());
+    }
+    resampler.resampleDown(this.sources, targets, calculator);
+
+    for ( int cur = 0; cur < this.sources.size(); cur++ ) {
+      LongTimeSeries expected = new LongTimeSeries();
+      new LongResampleUtil(this.sources.get(cur)).resampleDown(expected, resampler.getPlan().getTimeTransform(),
+              calculator);
+
+      LongTimeSeries actual = targets.get(cur);
+      assertEquals(expected.size(), actual.size());
+      LongTimeSeriesCursor expectedCursor = expected.cursor();
+      LongTimeSeriesCursor actualCursor = actual.cursor();
+      while ( expectedCursor.next() ) {
+        assertTrue(actualCursor.next());
+        assertEquals(expectedCursor.getTimestamp(), actualCursor.getTimestamp());
+        assertEquals(expectedCursor.getLongValue(), actualCursor.getLongValue());
+      }
+    }
+  }
+}
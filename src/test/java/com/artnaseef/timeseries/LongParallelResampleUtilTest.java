@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class LongParallelResampleUtilTest {
+  private ForkJoinPool pool;
+  private LongTimeSeries source;
+
+  @Before
+  public void setupTest() throws Exception {
+    this.pool = new ForkJoinPool(4);
+    this.source = new LongTimeSeries();
+
+    Random random = new Random(42);
+    long time = 0;
+    for ( int cur = 0; cur < 20000; cur++ ) {
+      // Mostly dense, with occasional gaps.
+      time += ( random.nextInt(10) == 0 ) ? 1 + random.nextInt(20) : 1;
+      this.source.add(time, random.nextInt(1000));
+    }
+  }
+
+  @After
+  public void cleanupTest() throws Exception {
+    this.pool.shutdown();
+  }
+
+  @Test
+  public void testMatchesSequentialThreeToTwo() throws Exception {
+    this.verifyMatchesSequential(new RationalRatioTimeTransform(3, 2), 100);
+  }
+
+  @Test
+  public void testMatchesSequentialSevenToFive() throws Exception {
+    this.verifyMatchesSequential(new RationalRatioTimeTransform(7, 5), 37);
+  }
+
+  @Test
+  public void testMatchesSequentialSixtyToOne() throws Exception {
+    this.verifyMatchesSequential(new IntegerRatioTimeTransform(60), 50);
+  }
+
+  @Test
+  public void testSingleChunk() throws Exception {
+    this.verifyMatchesSequential(new RationalRatioTimeTransform(3, 2), LongParallelResampleUtil.DEFAULT_MIN_CHUNK_SIZE);
+  }
+
+  @Test
+  public void testRangeViewSource() throws Exception {
+    LongSumResampleCalculator calculator = new LongSumResampleCalculator();
+    TimeTransform transform = new RationalRatioTimeTransform(3, 2);
+    LongTimeSeries view = this.source.subSeries(5000, 15000);
+
+    LongTimeSeries expected = new LongTimeSeries();
+    new LongResampleUtil(view).resampleDown(expected, transform, calculator);
+
+    LongTimeSeries actual = new LongTimeSeries();
+    new LongParallelResampleUtil(view, this.pool, 100).resampleDown(actual, transform, calculator);
+
+    assertTrue(expected.size() > 0);
+    assertEquals(expected.getTimestamps(), actual.getTimestamps());
+    for ( Long oneTimestamp : expected.getTimestamps() ) {
+      assertEquals(expected.getTimestampSample(oneTimestamp), actual.getTimestampSample(oneTimestamp));
+    }
+  }
+
+  @Test
+  public void testEmptySource() throws Exception {
+    LongTimeSeries target = new LongTimeSeries();
+    new LongParallelResampleUtil(new LongTimeSeries(), this.pool).resampleDown(target,
+            new IntegerRatioTimeTransform(2), new LongSumResampleCalculator());
+
+    assertEquals(0, target.size());
+  }
+
+  private void verifyMatchesSequential(TimeTransform transform, int minChunkSize) {
+    LongSumResampleCalculator calculator = new LongSumResampleCalculator();
+
+    LongTimeSeries expected = new LongTimeSeries();
+    new LongResampleUtil(this.source).resampleDown(expected, transform, calculator);
+
+    LongTimeSeries actual = new LongTimeSeries();
+    new LongParallelResampleUtil(this.source, this.pool, minChunkSize).resampleDown(actual, transform, calculator);
+
+    assertEquals(expected.size(), actual.size());
+    LongTimeSeriesCursor expectedCursor = expected.cursor();
+    LongTimeSeriesCursor actualCursor = actual.cursor();
+    while ( expectedCursor.next() ) {
+      assertTrue(actualCursor.next());
+      assertEquals(expectedCursor.getTimestamp(), actualCursor.getTimestamp());
+      assertEquals(expectedCursor.getLongValue(), actualCursor.getLongValue());
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleAccumulator;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongReorderBufferTest {
+  private LongTimeSeries released;
+  private LongTimeSeries late;
+  private LongReorderBuffer buffer;
+
+  @Before
+  public void setupTest() throws Exception {
+    this.released = new LongTimeSeries();
+    this.late = new LongTimeSeries();
+    this.buffer = new LongReorderBuffer(5, new SeriesOutput(this.released), new SeriesOutput(this.late));
+  }
+
+  @Test
+  public void testReleaseInOrder() throws Exception {
+    assertTrue(this.buffer.add(10, 1));
+    assertTrue(this.buffer.add(8, 2));
+    assertTrue(this.buffer.add(12, 4));
+    assertTrue(this.buffer.add(8, 8));
+    assertEquals(0, this.released.size());
+    assertEquals(3, this.buffer.getPendingCount());
+
+    // Watermark moves to 11, releasing 8 and 10.
+    assertTrue(this.buffer.add(16, 16));
+    assertEquals(11, this.buffer.getWatermark());
+    assertEquals(2, this.released.size());
+    assertEquals(10, this.released.getTimestampSample(8, -1));
+    assertEquals(1, this.released.getTimestampSample(10, -1));
+
+    // Within the lateness window, but behind the newest sample.
+    assertTrue(this.buffer.add(11, 32));
+    this.buffer.advanceTo(100);
+    assertEquals(5, this.released.size());
+    assertEquals(0, this.buffer.getPendingCount());
+    assertEquals(0, this.late.size());
+  }
+
+  @Test
+  public void testLateSamples() throws Exception {
+    this.buffer.add(20, 1);
+    this.buffer.add(30, 2);
+
+    assertFalse(this.buffer.add(24, 4));
+    assertTrue(this.buffer.add(25, 8));
+    assertEquals(1, this.buffer.getLateSampleCount());
+    assertEquals(4, this.late.getTimestampSample(24, -1));
+
+    this.buffer.flush();
+    assertEquals(3, this.released.size());
+    assertEquals(31, this.buffer.getWatermark());
+    assertFalse(this.buffer.add(30, 1));
+    assertEquals(2, this.buffer.getLateSampleCount());
+  }
+
+  /**
+   * Shuffled samples pass through the buffer into the stored series and a streaming re-sampler.  The few which arrive
+   * too late are added to the stored series and, once the re-sampler is done, only their target slots are recomputed.
+   * The result must match a re-sample of the complete data.
+   */
+  @Test
+  public void testLateSamplesRecomputeAffectedSlots() throws Exception {
+    Random random = new Random(31);
+    TimeTransform transform = new RationalRatioTimeTransform(3, 2);
+    LongSumResampleCalculator calculator = new LongSumResampleCalculator();
+
+    final LongTimeSeries stored = new LongTimeSeries();
+    LongTimeSeries target = new LongTimeSeries();
+    final LongStreamingResampler resampler = new LongStreamingResampler(transform, new LongSumResampleAccumulator(),
+            target);
+    final List<Long> lateTimes = new ArrayList<>();
+
+    LongReorderBuffer reorderBuffer = new LongReorderBuffer(10, new LongTimeSeriesVisitor() {
+      @Override
+      public void visit(long timestamp, long value) {
+        stored.add(timestamp, value);
+        resampler.add(timestamp, value);
+      }
+    }, new LongTimeSeriesVisitor() {
+      @Override
+      public void visit(long timestamp, long value) {
+        stored.add(timestamp, value);
+        lateTimes.add(timestamp);
+      }
+    });
+
+    LongTimeSeries complete = new LongTimeSeries();
+    int cur = 0;
+    while ( cur < 3000 ) {
+      long time = cur + random.nextInt(8);
+      if ( random.nextInt(100) == 0 ) {
+        // Occasionally far behind the lateness window.
+        time -= 50;
+      }
+      long value = random.nextInt(1000);
+
+      complete.add(time, value);
+      reorderBuffer.add(time, value);
+      cur++;
+    }
+    reorderBuffer.flush();
+    resampler.flush();
+
+    assertTrue(lateTimes.size() > 0);
+    LongResampleUtil storedResampleUtil = new LongResampleUtil(stored);
+    for ( Long oneTime : lateTimes ) {
+      storedResampleUtil.resampleDownAffected(target, transform, calculator, oneTime);
+    }
+
+    LongTimeSeries expected = new LongTimeSeries();
+    new LongResampleUtil(complete).resampleDown(expected, transform, calculator);
+
+    assertEquals(expected.getTimestamps(), target.getTimestamps());
+    LongTimeSeriesCursor cursor = expected.cursor();
+    while ( cursor.next() ) {
+      assertEquals(cursor.getLongValue(), target.getTimestampSample(cursor.getTimestamp(), -1));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeLateness() throws Exception {
+    new LongReorderBuffer(-1, new SeriesOutput(this.released));
+  }
+
+  private static class SeriesOutput implements LongTimeSeriesVisitor {
+    private final LongTimeSeries target;
+
+    public SeriesOutput(LongTimeSeries target) {
+      this.target = target;
+    }
+
+    @Override
+    public void visit(long timestamp, long value) {
+      this.target.add(timestamp, value);
+    }
+  }
+}
@@ -0,0 +1,342 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.CumulativeResampleListener;
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.ResampleMetrics;
+import com.artnaseef.timeseries.resample.SampleStats;
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleAccumulator;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import com.artnaseef.timeseries.resample.fill.LongLinearFill;
+import com.artnaseef.timeseries.resample.fill.LongPreviousValueFill;
+import com.artnaseef.timeseries.resample.fill.LongSplitFill;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LongResampleUtilTest {
+  private LongTimeSeries source;
+  private LongResampleUtil resampleUtil;
+
+  @Before
+  public void setupTest() throws Exception {
+    this.source = new LongTimeSeries();
+    this.resampleUtil = new LongResampleUtil(this.source);
+  }
+
+  @Test
+  public void testResampleDownTwoToOne () {
+    source.add(1000, 1);
+    source.add(1001, 2);
+    source.add(1010, 4);
+    source.add(1011, 8);
+    source.add(1200, 16);
+    source.add(1301, 32);
+
+    LongTimeSeries target = new LongTimeSeries();
+    this.resampleUtil.resampleDown(target, new TwoForOneTimeTransform(), new LongSumResampleCalculator());
+
+    assertEquals(3, target.getTimestampSample(500, -1));
+    assertEquals(12, target.getTimestampSample(505, -1));
+    assertEquals(16, target.getTimestampSample(600, -1));
+    assertEquals(32, target.getTimestampSample(650, -1));
+    assertEquals(4, target.size());
+  }
+
+  @Test
+  public void testResampleDownStats () {
+    source.add(1000, 1);
+    source.add(1001, 3);
+    source.add(1010, 4);
+    source.add(1200, 16);
+
+    TimeSeries<SampleStats> target = new TimeSeries<>();
+    this.resampleUtil.resampleDownStats(target, new TwoForOneTimeTransform());
+
+    SampleStats slotStats = target.getTimestampSample(500);
+    assertEquals(2, slotStats.getCount());
+    assertEquals(1.0, slotStats.getMin(), 0.0);
+    assertEquals(3.0, slotStats.getMax(), 0.0);
+    assertEquals(4.0, slotStats.getSum(), 0.0);
+    assertEquals(2.0, slotStats.getMean(), 0.0);
+    assertEquals(1.0, slotStats.getVariance(), 0.0);
+    assertEquals(16.0, target.getTimestampSample(600).getMax(), 0.0);
+    assertEquals(3, target.size());
+  }
+
+  @Test
+  public void testResampleDownAffected () {
+    for ( int cur = 0; cur < 300; cur++ ) {
+      source.add(cur * 3, cur);
+    }
+
+    LongSumResampleCalculator calculator = new LongSumResampleCalculator();
+    LongTimeSeries target = new LongTimeSeries();
+    this.resampleUtil.resampleDown(target, new ThreeToTwoTimeTransform(), calculator);
+
+    // Late samples, including one in a new slot and one changing an existing sample.
+    source.add(100, 1000);
+    this.resampleUtil.resampleDownAffected(target, new ThreeToTwoTimeTransform(), calculator, 100);
+    source.add(1000, 7);
+    this.resampleUtil.resampleDownAffected(target, new ThreeToTwoTimeTransform(), calculator, 1000);
+    source.add(0, 5);
+    this.resampleUtil.resampleDownAffected(target, new ThreeToTwoTimeTransform(), calculator, 0);
+
+    LongTimeSeries expected = new LongTimeSeries();
+    new LongResampleUtil(source).resampleDown(expected, new ThreeToTwoTimeTransform(), calculator);
+
+    assertEquals(expected.getTimestamps(), target.getTimestamps());
+    LongTimeSeriesCursor cursor = expected.cursor();
+    while ( cursor.next() ) {
+      assertEquals(cursor.getLongValue(), target.getTimestampSample(cursor.getTimestamp(), -1));
+    }
+  }
+
+  @Test
+  public void testMatchesGenericResample () {
+    for ( int cur = 0; cur < 500; cur++ ) {
+      source.add(cur * 13 % 1000, cur * 3);
+    }
+
+    LongSumResampleCalculator calculator = new LongSumResampleCalculator();
+    TimeTransform transform = new ThreeToTwoTimeTransform();
+
+    LongTimeSeries expected = new LongTimeSeries();
+    new ResampleUtil<>(source).resampleDown(expected, transform, calculator);
+
+    LongTimeSeries actual = new LongTimeSeries();
+    this.resampleUtil.resampleDown(actual, transform, calculator);
+
+    assertEquals(expected.size(), actual.size());
+    LongTimeSeriesCursor cursor = expected.cursor();
+    while ( cursor.next() ) {
+      assertEquals(cursor.getLongValue(), actual.getTimestampSample(cursor.getTimestamp(), -1));
+    }
+  }
+
+  @Test
+  public void testAccumulatorMatchesCalculator () {
+    for ( int cur = 0; cur < 500; cur++ ) {
+      source.add(cur * 13 % 1000, cur * 3);
+    }
+    source.add(2000, 5);
+
+    TimeTransform transform = new ThreeToTwoTimeTransform();
+
+    LongTimeSeries expected = new LongTimeSeries();
+    this.resampleUtil.resampleDown(expected, transform, new LongSumResampleCalculator());
+
+    LongTimeSeries actual = new LongTimeSeries();
+    this.resampleUtil.resampleDown(actual, transform, new LongSumResampleAccumulator());
+
+    assertEquals(expected.size(), actual.size());
+    LongTimeSeriesCursor cursor = expected.cursor();
+    while ( cursor.next() ) {
+      assertEquals(cursor.getLongValue(), actual.getTimestampSample(cursor.getTimestamp(), -1));
+    }
+  }
+
+  @Test
+  public void testResampleUpSplit () {
+    source.add(0, 120);
+    source.add(1, 61);
+    source.add(3, 7);
+
+    LongTimeSeries target = new LongTimeSeries();
+    this.resampleUtil.resampleUp(target, new IntegerRatioTimeTransform(60), new LongSplitFill());
+
+    assertEquals(180, target.size());
+    assertEquals(2, target.getTimestampSample(0, -1));
+    assertEquals(2, target.getTimestampSample(59, -1));
+    assertEquals(2, target.getTimestampSample(60, -1));
+    assertEquals(1, target.getTimestampSample(61, -1));
+    assertEquals(-1, target.getTimestampSample(120, -1));
+    assertEquals(1, target.getTimestampSample(186, -1));
+    assertEquals(0, target.getTimestampSample(187, -1));
+
+    // Re-sampling back down restores the totals exactly.
+    LongTimeSeries restored = new LongTimeSeries();
+    new LongResampleUtil(target).resampleDown(restored, new IntegerRatioTimeTransform(60),
+            new LongSumResampleCalculator());
+
+    assertEquals(source.getTimestamps(), restored.getTimestamps());
+    LongTimeSeriesCursor cursor = source.cursor();
+    while ( cursor.next() ) {
+      assertEquals(cursor.getLongValue(), restored.getTimestampSample(cursor.getTimestamp(), -1));
+    }
+  }
+
+  @Test
+  public void testResampleUpLinear () {
+    source.add(10, 0);
+    source.add(12, 100);
+
+    LongTimeSeries target = new LongTimeSeries();
+    this.resampleUtil.resampleUp(target, new IntegerRatioTimeTransform(4), new LongLinearFill());
+
+    assertEquals(12, target.size());
+    assertEquals(0, target.getTimestampSample(40, -1));
+    assertEquals(13, target.getTimestampSample(41, -1));
+    assertEquals(50, target.getTimestampSample(44, -1));
+    assertEquals(88, target.getTimestampSample(47, -1));
+    assertEquals(100, target.getTimestampSample(48, -1));
+    assertEquals(100, target.getTimestampSample(51, -1));
+  }
+
+  @Test
+  public void testResampleUpLinearFarApart () {
+    source.add(0, Long.MIN_VALUE + 10);
+    source.add(1, Long.MAX_VALUE - 10);
+
+    LongTimeSeries target = new LongTimeSeries();
+    this.resampleUtil.resampleUp(target, new IntegerRatioTimeTransform(4), new LongLinearFill());
+
+    assertEquals(8, target.size());
+    assertEquals(Long.MIN_VALUE + 10, target.getTimestampSample(0, -1));
+    assertEquals(-Math.pow(2, 62), target.getTimestampSample(1, -1), 4096.0);
+    assertEquals(0.0, target.getTimestampSample(2, -1), 4096.0);
+    assertEquals(Math.pow(2, 62), target.getTimestampSample(3, -1), 4096.0);
+    assertEquals(Long.MAX_VALUE - 10, target.getTimestampSample(4, -1));
+  }
+
+  @Test
+  public void testResampleUpAtLastTimestamp () {
+    source.add(Long.MAX_VALUE - 1, 3);
+    source.add(Long.MAX_VALUE, 4);
+
+    LongTimeSeries target = new LongTimeSeries();
+    this.resampleUtil.resampleUp(target, new IntegerRatioTimeTransform(1), new LongSplitFill());
+
+    // Target slots end before Long.MAX_VALUE, so only the first sample has one.
+    assertEquals(1, target.size());
+    assertEquals(3, target.getTimestampSample(Long.MAX_VALUE - 1, -1));
+  }
+
+  @Test
+  public void testResampleUpPreviousValue () {
+    source.add(0, 5);
+    source.add(3, 9);
+
+    LongTimeSeries filled = new LongTimeSeries();
+    this.resampleUtil.resampleUp(filled, new IntegerRatioTimeTransform(2), new LongPreviousValueFill());
+
+    assertEquals(8, filled.size());
+    assertEquals(5, filled.getTimestampSample(5, -1));
+    assertEquals(9, filled.getTimestampSample(7, -1));
+
+    LongTimeSeries gaps = new LongTimeSeries();
+    this.resampleUtil.resampleUp(gaps, new IntegerRatioTimeTransform(2), new LongPreviousValueFill(false));
+
+    assertEquals(4, gaps.size());
+    assertEquals(5, gaps.getTimestampSample(1, -1));
+    assertEquals(-1, gaps.getTimestampSample(2, -1));
+    assertEquals(9, gaps.getTimestampSample(6, -1));
+  }
+
+  @Test
+  public void testListener () {
+    source.add(0, 1);
+    source.add(1, 2);
+    source.add(2, 3);
+    source.add(3, 4);
+    source.add(5, 5);
+
+    CumulativeResampleListener listener = new CumulativeResampleListener(true);
+    this.resampleUtil.setListener(listener);
+    this.resampleUtil.resampleDown(new LongTimeSeries(), new ThreeToTwoTimeTransform(),
+            new LongSumResampleCalculator());
+
+    ResampleMetrics metrics = listener.getLast();
+    assertEquals(1, metrics.getCallCount());
+    assertEquals(5, metrics.getSampleCount());
+    assertEquals(5, metrics.getSlotCount());
+    assertEquals(3, metrics.getRemainderCount());
+    assertEquals(1, metrics.getRemainderSlotCount());
+    assertEquals(2, metrics.getMaxSlotSize());
+    assertEquals(0, metrics.getBufferAllocationCount());
+
+    // The generic re-sample reports the same counts.
+    ResampleUtil<Long> genericUtil = new ResampleUtil<>(source);
+    genericUtil.setListener(listener);
+    genericUtil.resampleDown(new LongTimeSeries(), new ThreeToTwoTimeTransform(), new LongSumResampleCalculator());
+
+    ResampleMetrics genericMetrics = listener.getLast();
+    assertEquals(5, genericMetrics.getSampleCount());
+    assertEquals(5, genericMetrics.getSlotCount());
+    assertEquals(3, genericMetrics.getRemainderCount());
+    assertEquals(1, genericMetrics.getRemainderSlotCount());
+
+    ResampleMetrics totals = listener.getTotals();
+    assertEquals(2, totals.getCallCount());
+    assertEquals(10, totals.getSampleCount());
+
+    long histogramTotal = 0;
+    for ( long oneBucket : listener.getDurationHistogram() ) {
+      histogramTotal += oneBucket;
+    }
+    assertEquals(2, histogramTotal);
+
+    listener.reset();
+    assertEquals(0, listener.getTotals().getCallCount());
+    assertNull(listener.getLast());
+  }
+
+  @Test
+  public void testListenerBufferGrowth () {
+    for ( int cur = 0; cur < 100; cur++ ) {
+      source.add(cur, cur);
+    }
+
+    CumulativeResampleListener listener = new CumulativeResampleListener();
+    this.resampleUtil.setListener(listener);
+    this.resampleUtil.resampleDown(new LongTimeSeries(), new TwoForOneTimeTransform(), new LongSumResampleCalculator());
+    this.resampleUtil.resampleDown(new LongTimeSeries(), new FixedTimeTransform(), new LongSumResampleCalculator());
+
+    ResampleMetrics totals = listener.getTotals();
+    assertEquals(51, totals.getSlotCount());
+    assertEquals(100, totals.getMaxSlotSize());
+    assertTrue(totals.getBufferAllocationCount() > 0);
+    assertEquals(0, totals.getTransformNanos());
+    assertEquals(0, totals.getCalculatorNanos());
+  }
+
+  protected class TwoForOneTimeTransform implements TimeTransform {
+    @Override
+    public MisalignedTimestamp transformTime(long sourceTime) {
+      return new MisalignedTimestamp(sourceTime / 2, 1.0);
+    }
+  }
+
+  protected class ThreeToTwoTimeTransform implements TimeTransform {
+    @Override
+    public MisalignedTimestamp transformTime(long sourceTime) {
+      long scaled = sourceTime * 2;
+      long timestamp = scaled / 3;
+
+      return new MisalignedTimestamp(timestamp, 1.0 - ( ( scaled - timestamp * 3 ) / 3.0 ));
+    }
+  }
+
+  protected class FixedTimeTransform implements TimeTransform {
+    @Override
+    public MisalignedTimestamp transformTime(long sourceTime) {
+      return new MisalignedTimestamp(0, 1.0);
+    }
+  }
+}
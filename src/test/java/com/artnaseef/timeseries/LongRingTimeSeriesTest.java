@@ -0,0 +1,196 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class LongRingTimeSeriesTest {
+
+  @Test
+  public void testAddAndGet() throws Exception {
+    LongRingTimeSeries series = new LongRingTimeSeries(4);
+
+    assertEquals(0, series.size());
+    assertNull(series.getTimestampSample(10));
+    assertEquals(Long.MIN_VALUE, series.getWindowStart());
+
+    assertEquals(1, series.add(10, 1));
+    assertEquals(3, series.add(10, 2));
+    series.setTimestampSample(11, 5L);
+
+    assertEquals(2, series.size());
+    assertEquals(Long.valueOf(3), series.getTimestampSample(10));
+    assertEquals(5, series.getTimestampSample(11, -1));
+    assertEquals(-1, series.getTimestampSample(12, -1));
+    assertEquals(8, series.getWindowStart());
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    LongRingTimeSeries series = new LongRingTimeSeries(4);
+
+    series.add(1, 1);
+    series.add(2, 2);
+    series.add(4, 4);
+    series.add(6, 6);   // Window is now 3..6; evicts 1 and 2.
+
+    assertEquals(2, series.size());
+    assertEquals(-1, series.getTimestampSample(1, -1));
+    assertEquals(-1, series.getTimestampSample(2, -1));
+    assertEquals(4, series.getTimestampSample(4, -1));
+    assertEquals(new TreeSet<>(Arrays.asList(4L, 6L)), series.getTimestamps());
+
+    // Older than the window; ignored.
+    assertEquals(0, series.add(2, 20));
+    assertEquals(2, series.size());
+
+    // Within the window, but before the newest; accepted.
+    series.add(3, 3);
+    assertEquals(3, series.size());
+
+    // Jump far beyond the window; everything is evicted.
+    series.add(100, 100);
+    assertEquals(1, series.size());
+    assertEquals(new TreeSet<>(Arrays.asList(100L)), series.getTimestamps());
+  }
+
+  @Test
+  public void testNegativeTimestampsAndRemove() throws Exception {
+    LongRingTimeSeries series = new LongRingTimeSeries(3);
+
+    series.add(-2, 2);
+    series.add(-1, 1);
+    series.add(0, 7);
+
+    assertEquals(3, series.size());
+    assertEquals(2, series.getTimestampSample(-2, -1));
+
+    series.setTimestampSample(-1, null);
+    assertEquals(2, series.size());
+    assertNull(series.getTimestampSample(-1));
+
+    // Removing an absent sample changes nothing.
+    series.setTimestampSample(-1, null);
+    assertEquals(2, series.size());
+  }
+
+  @Test
+  public void testCursorOrder() throws Exception {
+    LongRingTimeSeries series = new LongRingTimeSeries(5);
+
+    series.add(13, 3);
+    series.add(11, 1);
+    series.add(14, 4);
+    series.add(16, 6);   // Window is now 12..16; evicts 11.
+
+    LongTimeSeriesCursor cursor = series.cursor();
+    assertTrue(cursor.next());
+    assertEquals(13, cursor.getTimestamp());
+    assertEquals(3, cursor.getLongValue());
+    assertTrue(cursor.next());
+    assertEquals(14, cursor.getTimestamp());
+    assertEquals(Long.valueOf(4), cursor.getValue());
+    assertTrue(cursor.next());
+    assertEquals(16, cursor.getTimestamp());
+    assertFalse(cursor.next());
+    assertFalse(cursor.next());
+  }
+
+  @Test
+  public void testResampleSource() throws Exception {
+    LongRingTimeSeries ring = new LongRingTimeSeries(6);
+    LongTimeSeries plain = new LongTimeSeries();
+
+    long time = 0;
+    while ( time < 20 ) {
+      ring.add(time, time);
+      if ( time >= 14 ) {
+        plain.add(time, time);
+      }
+      time++;
+    }
+
+    IntegerRatioTimeTransform transform = new IntegerRatioTimeTransform(2);
+    LongSumResampleCalculator calculator = new LongSumResampleCalculator();
+
+    LongTimeSeries expected = new LongTimeSeries();
+    new LongResampleUtil(plain).resampleDown(expected, transform, calculator);
+
+    LongTimeSeries fromRing = new LongTimeSeries();
+    new LongResampleUtil(ring).resampleDown(fromRing, transform, calculator);
+
+    TimeSeries<Long> genericFromRing = new TimeSeries<>();
+    new ResampleUtil<>(ring).resampleDown(genericFromRing, transform, calculator);
+
+    assertEquals(3, expected.size());
+    for ( Long oneTimestamp : expected.getTimestamps() ) {
+      assertEquals(expected.getTimestampSample(oneTimestamp), fromRing.getTimestampSample(oneTimestamp));
+      assertEquals(expected.getTimestampSample(oneTimestamp), genericFromRing.getTimestampSample(oneTimestamp));
+    }
+    assertEquals(expected.getTimestamps(), fromRing.getTimestamps());
+    assertEquals(expected.getTimestamps(), genericFromRing.getTimestamps());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCapacity() throws Exception {
+    new LongRingTimeSeries(0);
+  }
+
+  @Test
+  public void testRangeViews() throws Exception {
+    LongRingTimeSeries series = new LongRingTimeSeries(10);
+
+    long time = 0;
+    while ( time < 15 ) {
+      series.add(time, time);
+      time++;
+    }
+
+    // Window is now 5..14.
+    LongRingTimeSeries view = series.subSeries(0, 8);
+    assertEquals(3, view.size());
+    assertEquals(Long.valueOf(5), view.getFirstTimestamp());
+    assertEquals(Long.valueOf(7), view.getLastTimestamp());
+    assertEquals(-1, view.getTimestampSample(8, -1));
+
+    series.setTimestampSample(6, null);
+    assertEquals(Long.valueOf(7), view.getFloorTimestamp(7));
+    assertEquals(Long.valueOf(5), view.getFloorTimestamp(6));
+    assertEquals(Long.valueOf(7), view.getCeilingTimestamp(6));
+    assertNull(view.getCeilingTimestamp(8));
+
+    // The window moves under the view.
+    series.add(16, 16);
+    assertEquals(1, view.size());
+    assertEquals(Long.valueOf(7), view.getFirstTimestamp());
+
+    assertEquals(Long.valueOf(16), series.tailSeries(10).getLastTimestamp());
+    assertEquals(Long.valueOf(7), series.getFirstTimestamp());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddOutsideOfView() throws Exception {
+    LongRingTimeSeries series = new LongRingTimeSeries(10);
+    series.headSeries(5).add(5, 1);
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongRollupPyramidTest {
+  private LongRollupPyramid pyramid;
+  private LongSumResampleCalculator calculator;
+
+  @Before
+  public void setupTest() throws Exception {
+    this.calculator = new LongSumResampleCalculator();
+    this.pyramid = new LongRollupPyramid();
+    this.pyramid.addLevel(60, this.calculator);
+    this.pyramid.addLevel(3600, this.calculator);
+    this.pyramid.addLevel(86400, this.calculator);
+  }
+
+  @Test
+  public void testMatchesResampleFromRaw() throws Exception {
+    Random random = new Random(7);
+    long time = -5000;
+    while ( time < 200000 ) {
+      this.pyramid.add(time, random.nextInt(100));
+      time += 1 + random.nextInt(30);
+    }
+
+    this.verifyMatchesRaw(60, 0, 100000);
+    this.verifyMatchesRaw(3600, -5000, 200000);
+    this.verifyMatchesRaw(86400, -86400, 300000);
+    this.verifyMatchesRaw(1, 1000, 2000);
+
+    // Multiples of a level re-sample the level with the given calculator.
+    assertEquals(3600, this.pyramid.getQueryLevelResolution(7200));
+    assertEquals(60, this.pyramid.getQueryLevelResolution(300));
+    assertEquals(1, this.pyramid.getQueryLevelResolution(45));
+    this.verifyMatchesRaw(300, 10000, 50000);
+    this.verifyMatchesRaw(7200, -5000, 200000);
+  }
+
+  @Test
+  public void testLateSamples() throws Exception {
+    this.pyramid.add(10, 1);
+    this.pyramid.add(4000, 2);
+    this.pyramid.add(100000, 4);
+
+    // Completed slots are recomputed as soon as a late sample arrives.
+    this.pyramid.add(20, 8);
+    this.pyramid.setTimestampSample(4000, 16);
+    this.pyramid.add(100001, 32);
+
+    LongTimeSeries minutes = this.pyramid.query(60, 0, 200000);
+    assertEquals(3, minutes.size());
+    assertEquals(9, minutes.getTimestampSample(0, -1));
+    assertEquals(16, minutes.getTimestampSample(66, -1));
+    assertEquals(36, minutes.getTimestampSample(1666, -1));
+
+    LongTimeSeries days = this.pyramid.query(86400, 0, 200000);
+    assertEquals(2, days.size());
+    assertEquals(25, days.getTimestampSample(0, -1));
+    assertEquals(36, days.getTimestampSample(1, -1));
+
+    // The newest slot follows further additions.
+    this.pyramid.add(100002, 64);
+    assertEquals(100, this.pyramid.query(86400, 90000, 90001).getTimestampSample(1, -1));
+  }
+
+  @Test
+  public void testQueryRangeSelectsWholeSlots() throws Exception {
+    long time = 0;
+    while ( time < 7200 ) {
+      this.pyramid.add(time, 1);
+      time++;
+    }
+
+    LongTimeSeries hours = this.pyramid.query(3600, 3599, 3601);
+    assertEquals(2, hours.size());
+    assertEquals(3600, hours.getTimestampSample(0, -1));
+    assertEquals(3600, hours.getTimestampSample(1, -1));
+
+    assertEquals(0, this.pyramid.query(3600, 10, 10).size());
+    assertEquals(1, this.pyramid.query(60, 120, 180).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testQueryWithoutLevel() throws Exception {
+    this.pyramid.add(0, 1);
+    this.pyramid.query(300, 0, 1000);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLevelNotMultiple() throws Exception {
+    this.pyramid.addLevel(100000, this.calculator);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testLevelAfterSamples() throws Exception {
+    LongRollupPyramid other = new LongRollupPyramid();
+    other.add(0, 1);
+    other.addLevel(60, this.calculator);
+  }
+
+  private void verifyMatchesRaw(long resolution, long from, long to) {
+    LongTimeSeries expected = new LongTimeSeries();
+    new LongResampleUtil(this.pyramid.getRawSeries()).resampleDown(expected,
+            new IntegerRatioTimeTransform(resolution), this.calculator);
+
+    LongTimeSeries actual = this.pyramid.query(resolution, from, to, this.calculator);
+
+    long firstSlot = Math.round(Math.floor((double) from / resolution));
+    long lastSlot = Math.round(Math.floor((double) ( to - 1 ) / resolution));
+    LongTimeSeries expectedRange = expected.subSeries(firstSlot, lastSlot + 1);
+
+    assertTrue(actual.size() > 0);
+    assertEquals(expectedRange.getTimestamps(), actual.getTimestamps());
+    for ( Long oneTimestamp : actual.getTimestamps() ) {
+      assertEquals(expectedRange.getTimestampSample(oneTimestamp), actual.getTimestampSample(oneTimestamp));
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleAccumulator;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LongStreamingResamplerTest {
+  private List<String> emitted;
+  private LongStreamingResampler resampler;
+
+  @Before
+  public void setupTest() throws Exception {
+    this.emitted = new ArrayList<>();
+    this.resampler = new LongStreamingResampler(new TenToOneTimeTransform(), new LongSumResampleAccumulator(),
+            new LongTimeSeriesVisitor() {
+              @Override
+              public void visit(long timestamp, long value) {
+                emitted.add(timestamp + "=" + value);
+              }
+            });
+  }
+
+  @Test
+  public void testEmitsWhenSlotCloses() throws Exception {
+    this.resampler.add(100, 1);
+    this.resampler.add(105, 2);
+    this.resampler.add(109, 3);
+    assertTrue(this.emitted.isEmpty());
+
+    this.resampler.add(110, 4);
+    assertEquals("[10=6]", this.emitted.toString());
+
+    this.resampler.add(135, 5);
+    assertEquals("[10=6, 11=4]", this.emitted.toString());
+
+    this.resampler.flush();
+    assertEquals("[10=6, 11=4, 13=5]", this.emitted.toString());
+  }
+
+  @Test
+  public void testAdvanceTo() throws Exception {
+    this.resampler.add(100, 1);
+    this.resampler.advanceTo(109);
+    assertTrue(this.emitted.isEmpty());
+
+    this.resampler.advanceTo(110);
+    assertEquals("[10=1]", this.emitted.toString());
+
+    this.resampler.flush();
+    assertEquals("[10=1]", this.emitted.toString());
+  }
+
+  @Test
+  public void testAdvanceToCarriesRemainderOnce() throws Exception {
+    LongTimeSeries target = new LongTimeSeries();
+    this.resampler = new LongStreamingResampler(new HalfOverlapTimeTransform(), new LongSumResampleAccumulator(),
+            target);
+
+    // Slot 1 gets half of 10; the other half carries into slot 2.
+    this.resampler.add(1, 10);
+    this.resampler.advanceTo(2);
+    assertEquals(5, target.getTimestampSample(1, -1));
+    assertEquals(1, target.size());
+
+    this.resampler.advanceTo(3);
+    assertEquals(5, target.getTimestampSample(2, -1));
+    assertEquals(2, target.size());
+
+    this.resampler.flush();
+    assertEquals(2, target.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutOfOrder() throws Exception {
+    this.resampler.add(100, 1);
+    this.resampler.add(99, 1);
+  }
+
+  @Test
+  public void testFlushResets() throws Exception {
+    this.resampler.add(100, 1);
+    this.resampler.flush();
+    this.resampler.add(50, 2);
+    this.resampler.flush();
+
+    assertEquals("[10=1, 5=2]", this.emitted.toString());
+  }
+
+  @Test
+  public void testMatchesResampleUtil() throws Exception {
+    LongTimeSeries source = new LongTimeSeries();
+    for ( int cur = 0; cur < 300; cur++ ) {
+      source.add(cur * 17 % 600, cur);
+    }
+
+    TimeTransform transform = new ThreeToTwoTimeTransform();
+
+    LongTimeSeries expected = new LongTimeSeries();
+    new LongResampleUtil(source).resampleDown(expected, transform, new LongSumResampleCalculator());
+
+    LongTimeSeries actual = new LongTimeSeries();
+    LongStreamingResampler streaming = new LongStreamingResampler(transform, new LongSumResampleAccumulator(), actual);
+    LongTimeSeriesCursor cursor = source.cursor();
+    while ( cursor.next() ) {
+      streaming.add(cursor.getTimestamp(), cursor.getLongValue());
+    }
+    streaming.flush();
+
+    assertEquals(expected.size(), actual.size());
+    cursor = expected.cursor();
+    while ( cursor.next() ) {
+      assertEquals(cursor.getLongValue(), actual.getTimestampSample(cursor.getTimestamp(), -1));
+    }
+  }
+
+  @Test
+  public void testMatchesResampleUtilSevenToFive() throws Exception {
+    LongTimeSeries source = new LongTimeSeries();
+    for ( long time = 0; time < 70; time++ ) {
+      source.add(time, 1000 + time);
+    }
+
+    // Some samples in the middle of a slot overlap it only partially; the calculator still counts them whole.
+    TimeTransform transform = new RationalRatioTimeTransform(7, 5);
+
+    LongTimeSeries expected = new LongTimeSeries();
+    new LongResampleUtil(source).resampleDown(expected, transform, new LongSumResampleCalculator());
+
+    LongTimeSeries actual = new LongTimeSeries();
+    LongStreamingResampler streaming = new LongStreamingResampler(transform, new LongSumResampleAccumulator(), actual);
+    LongTimeSeriesCursor cursor = source.cursor();
+    while ( cursor.next() ) {
+      streaming.add(cursor.getTimestamp(), cursor.getLongValue());
+    }
+    streaming.flush();
+
+    assertEquals(expected.size(), actual.size());
+    cursor = expected.cursor();
+    while ( cursor.next() ) {
+      assertEquals(cursor.getLongValue(), actual.getTimestampSample(cursor.getTimestamp(), -1));
+    }
+  }
+
+  protected class TenToOneTimeTransform implements TimeTransform {
+    @Override
+    public MisalignedTimestamp transformTime(long sourceTime) {
+      return new MisalignedTimestamp(sourceTime / 10, 1.0);
+    }
+  }
+
+  protected class HalfOverlapTimeTransform implements TimeTransform {
+    @Override
+    public MisalignedTimestamp transformTime(long sourceTime) {
+      return new MisalignedTimestamp(sourceTime, 0.5);
+    }
+  }
+
+  protected class ThreeToTwoTimeTransform implements TimeTransform {
+    @Override
+    public MisalignedTimestamp transformTime(long sourceTime) {
+      long scaled = sourceTime * 2;
+      long timestamp = scaled / 3;
+
+      return new MisalignedTimestamp(timestamp, 1.0 - ( ( scaled - timestamp * 3 ) / 3.0 ));
+    }
+  }
+}
@@ -17,6 +17,10 @@ package com.artnaseef.timeseries;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
 import static org.junit.Assert.*;
 
 public class LongTimeSeriesTest {
@@ -43,4 +47,320 @@ public class LongTimeSeriesTest {
 
     assertEquals(2, longTimeSeries.getTimestamps().size());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testOutOfOrderSet() throws Exception {
+    longTimeSeries.setTimestampSample(30, 3L);
+    longTimeSeries.setTimestampSample(10, 1L);
+    longTimeSeries.setTimestampSample(20, 2L);
+    longTimeSeries.setTimestampSample(40, 4L);
+    longTimeSeries.setTimestampSample(20, 22L);
+
+    assertEquals(4, longTimeSeries.size());
+    assertEquals(1, longTimeSeries.getTimestampSample(10, -1));
+    assertEquals(22, longTimeSeries.getTimestampSample(20, -1));
+    assertEquals(3, longTimeSeries.getTimestampSample(30, -1));
+    assertEquals(4, longTimeSeries.getTimestampSample(40, -1));
+    assertEquals(-1, longTimeSeries.getTimestampSample(25, -1));
+
+    Long[] expected = { 10L, 20L, 30L, 40L };
+    assertArrayEquals(expected, longTimeSeries.getTimestamps().toArray(new Long[0]));
+  }
+
+  @Test
+  public void testSetNullRemoves() throws Exception {
+    longTimeSeries.setTimestampSample(1, 1L);
+    longTimeSeries.setTimestampSample(2, 2L);
+    longTimeSeries.setTimestampSample(3, 3L);
+
+    longTimeSeries.setTimestampSample(2, null);
+    longTimeSeries.setTimestampSample(5, null);
+
+    assertNull(longTimeSeries.getTimestampSample(2));
+    assertEquals(2, longTimeSeries.size());
+    assertEquals(3, (long) longTimeSeries.getTimestampSample(3));
+  }
+
+  @Test
+  public void testGrowth() throws Exception {
+    longTimeSeries = new LongTimeSeries(0);
+
+    for ( int cur = 0; cur < 1000; cur++ ) {
+      longTimeSeries.add(cur * 2, cur);
+    }
+    for ( int cur = 999; cur >= 0; cur-- ) {
+      longTimeSeries.add(cur * 2 + 1, -cur);
+    }
+
+    assertEquals(2000, longTimeSeries.size());
+    assertEquals(500, longTimeSeries.getTimestampSample(1000, 0));
+    assertEquals(-500, longTimeSeries.getTimestampSample(1001, 0));
+  }
+
+  @Test
+  public void testCursor() throws Exception {
+    LongTimeSeriesCursor cursor = longTimeSeries.cursor();
+    assertFalse(cursor.next());
+
+    longTimeSeries.add(20, 2);
+    longTimeSeries.add(10, 1);
+    longTimeSeries.add(30, 3);
+
+    cursor = longTimeSeries.cursor();
+    assertTrue(cursor.next());
+    assertEquals(10, cursor.getTimestamp());
+    assertEquals(1, cursor.getLongValue());
+    assertTrue(cursor.next());
+    assertEquals(20, cursor.getTimestamp());
+    assertEquals(Long.valueOf(2), cursor.getValue());
+    assertTrue(cursor.next());
+    assertEquals(30, cursor.getTimestamp());
+    assertEquals(3, cursor.getLongValue());
+    assertFalse(cursor.next());
+    assertFalse(cursor.next());
+  }
+
+  @Test
+  public void testForEach() throws Exception {
+    longTimeSeries.add(2, 20);
+    longTimeSeries.add(1, 10);
+
+    final StringBuilder visited = new StringBuilder();
+    longTimeSeries.forEachLong(new LongTimeSeriesVisitor() {
+      @Override
+      public void visit(long timestamp, long value) {
+        visited.append(timestamp).append('=').append(value).append(';');
+      }
+    });
+    longTimeSeries.forEach(new TimeSeriesVisitor<Object>() {
+      @Override
+      public void visit(long timestamp, Object value) {
+        visited.append(timestamp).append(':').append(value).append(';');
+      }
+    });
+
+    assertEquals("1=10;2=20;1:10;2:20;", visited.toString());
+  }
+
+  @Test
+  public void testRangeViews() throws Exception {
+    for ( long time = 10; time <= 100; time += 10 ) {
+      longTimeSeries.add(time, time / 10);
+    }
+
+    LongTimeSeries view = longTimeSeries.subSeries(25, 60);
+    assertEquals(3, view.size());
+    assertEquals(Long.valueOf(30), view.getFirstTimestamp());
+    assertEquals(Long.valueOf(50), view.getLastTimestamp());
+    assertEquals(4, view.getTimestampSample(40, -1));
+    assertEquals(-1, view.getTimestampSample(60, -1));
+    assertNull(view.getTimestampSample(20));
+
+    LongTimeSeriesCursor cursor = view.cursor();
+    assertTrue(cursor.next());
+    assertEquals(30, cursor.getTimestamp());
+    assertTrue(cursor.next());
+    assertTrue(cursor.next());
+    assertEquals(50, cursor.getTimestamp());
+    assertFalse(cursor.next());
+
+    // The view is backed by the series.
+    view.add(45, 100);
+    longTimeSeries.add(35, 200);
+    assertEquals(5, view.size());
+    assertEquals(100, longTimeSeries.getTimestampSample(45, -1));
+    assertEquals(200, view.getTimestampSample(35, -1));
+
+    // Views of views are limited to both ranges.
+    LongTimeSeries inner = view.tailSeries(40).headSeries(1000);
+    assertEquals(3, inner.size());
+    assertEquals(Long.valueOf(40), inner.getFirstTimestamp());
+    assertEquals(Long.valueOf(50), inner.getLastTimestamp());
+
+    assertEquals(0, longTimeSeries.subSeries(60, 60).size());
+    assertEquals(0, longTimeSeries.subSeries(61, 69).size());
+    assertNull(longTimeSeries.subSeries(61, 69).getFirstTimestamp());
+    assertEquals(0, view.subSeries(70, 100).size());
+    assertEquals(2, longTimeSeries.headSeries(30).size());
+    assertEquals(0, longTimeSeries.headSeries(Long.MIN_VALUE).size());
+  }
+
+  @Test
+  public void testFloorAndCeiling() throws Exception {
+    assertNull(longTimeSeries.getFirstTimestamp());
+    assertNull(longTimeSeries.getFloorTimestamp(5));
+
+    longTimeSeries.add(10, 1);
+    longTimeSeries.add(20, 2);
+    longTimeSeries.add(30, 3);
+
+    assertNull(longTimeSeries.getFloorTimestamp(9));
+    assertEquals(Long.valueOf(10), longTimeSeries.getFloorTimestamp(10));
+    assertEquals(Long.valueOf(20), longTimeSeries.getFloorTimestamp(29));
+    assertEquals(Long.valueOf(30), longTimeSeries.getFloorTimestamp(Long.MAX_VALUE));
+    assertEquals(Long.valueOf(10), longTimeSeries.getCeilingTimestamp(Long.MIN_VALUE));
+    assertEquals(Long.valueOf(20), longTimeSeries.getCeilingTimestamp(11));
+    assertNull(longTimeSeries.getCeilingTimestamp(31));
+
+    LongTimeSeries view = longTimeSeries.subSeries(15, 25);
+    assertNull(view.getFloorTimestamp(19));
+    assertEquals(Long.valueOf(20), view.getFloorTimestamp(100));
+    assertNull(view.getCeilingTimestamp(21));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetOutsideOfView() throws Exception {
+    longTimeSeries.subSeries(10, 20).add(20, 1);
+  }
+
+  @Test
+  public void testAddAllAppend() throws Exception {
+    longTimeSeries.add(1, 1);
+
+    long[] times = { 0, 0, 2, 3, 4, 0 };
+    long[] values = { 0, 0, 20, 30, 40, 0 };
+    longTimeSeries.addAll(times, values, 2, 3);
+
+    assertEquals(4, longTimeSeries.size());
+    assertEquals(30, longTimeSeries.getTimestampSample(3, -1));
+    assertEquals(Long.valueOf(4), longTimeSeries.getLastTimestamp());
+
+    longTimeSeries.addAll(times, values, 0, 0);
+    assertEquals(4, longTimeSeries.size());
+  }
+
+  @Test
+  public void testBulkMatchesSingleSamples() throws Exception {
+    Random random = new Random(17);
+    LongTimeSeries expected = new LongTimeSeries();
+
+    int batch = 0;
+    while ( batch < 50 ) {
+      int len = random.nextInt(200);
+      long[] times = new long[len];
+      long[] values = new long[len];
+
+      int cur = 0;
+      while ( cur < len ) {
+        // Mix of appending batches, overlapping batches and duplicate timestamps.
+        times[cur] = ( ( batch % 3 ) == 0 ) ? batch * 1000 + cur : random.nextInt(60000);
+        values[cur] = random.nextInt(100);
+        cur++;
+      }
+
+      boolean accumulate = ( batch % 2 ) == 0;
+      cur = 0;
+      while ( cur < len ) {
+        if ( accumulate ) {
+          expected.add(times[cur], values[cur]);
+        } else {
+          expected.setTimestampSample(times[cur], values[cur]);
+        }
+        cur++;
+      }
+
+      if ( accumulate ) {
+        longTimeSeries.addAll(times, values, 0, len);
+      } else {
+        longTimeSeries.setAll(times, values, 0, len);
+      }
+      batch++;
+    }
+
+    assertEquals(expected.size(), longTimeSeries.size());
+    LongTimeSeriesCursor expectedCursor = expected.cursor();
+    LongTimeSeriesCursor actualCursor = longTimeSeries.cursor();
+    while ( expectedCursor.next() ) {
+      assertTrue(actualCursor.next());
+      assertEquals(expectedCursor.getTimestamp(), actualCursor.getTimestamp());
+      assertEquals(expectedCursor.getLongValue(), actualCursor.getLongValue());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddAllOutsideOfView() throws Exception {
+    longTimeSeries.subSeries(10, 20).addAll(new long[] { 10, 20 }, new long[] { 1, 2 }, 0, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddAllBadLength() throws Exception {
+    longTimeSeries.addAll(new long[] { 10, 20 }, new long[] { 1 }, 0, 2);
+  }
+
+  @Test
+  public void testStoreStats() throws Exception {
+    LongTimeSeries series = new LongTimeSeries(4);
+    series.add(10, 1);
+    series.add(20, 2);
+    series.add(30, 3);
+
+    SampleStoreStats before = series.getStoreStats();
+    assertEquals(3, before.getAppendCount());
+    assertEquals(0, before.getInsertCount());
+    assertEquals(1, before.getAllocationCount());
+    assertEquals(4 * SampleStoreStats.BYTES_PER_SAMPLE, before.getAllocatedBytes());
+
+    series.add(5, 4);
+    series.add(20, 5);
+    series.add(40, 6);
+
+    SampleStoreStats delta = series.getStoreStats().since(before);
+    assertEquals(5, delta.getSize());
+    assertEquals(1, delta.getAppendCount());
+    assertEquals(1, delta.getInsertCount());
+    assertEquals(3, delta.getMovedCount());
+    assertEquals(1, delta.getAllocationCount());
+
+    // Batches merged in front of existing samples count as inserts; views share the storage counters.
+    series.subSeries(0, 100).addAll(new long[] { 1, 50 }, new long[] { 7, 8 }, 0, 2);
+
+    SampleStoreStats after = series.getStoreStats().since(before);
+    assertEquals(2, after.getInsertCount());
+    assertEquals(2, after.getAppendCount());
+    assertEquals(7, series.size());
+  }
+
+  @Test
+  public void testLateBatchMergesInPlace() throws Exception {
+    LongTimeSeries series = new LongTimeSeries(20000);
+    for ( long time = 0; time < 10000; time++ ) {
+      series.add(time * 2, time);
+    }
+
+    // A batch of late samples overlapping only the last few entries, plus one new sample at the end.
+    SampleStoreStats before = series.getStoreStats();
+    series.addAll(new long[] { 19997, 19996, 19999, 20001 }, new long[] { 1, 2, 3, 4 }, 0, 4);
+
+    SampleStoreStats delta = series.getStoreStats().since(before);
+    assertEquals(0, delta.getAllocationCount());
+    assertEquals(1, delta.getMovedCount());
+    assertEquals(1, delta.getInsertCount());
+    assertEquals(2, delta.getAppendCount());
+    assertEquals(10003, series.size());
+
+    assertEquals(9998 + 2, series.getTimestampSample(19996, -1));
+    assertEquals(1, series.getTimestampSample(19997, -1));
+    assertEquals(9999, series.getTimestampSample(19998, -1));
+    assertEquals(3, series.getTimestampSample(19999, -1));
+    assertEquals(4, series.getTimestampSample(20001, -1));
+    assertEquals(9997, series.getTimestampSample(19994, -1));
+
+    Long previous = null;
+    LongTimeSeriesCursor cursor = series.cursor();
+    while ( cursor.next() ) {
+      assertTrue(( previous == null ) || ( previous < cursor.getTimestamp() ));
+      previous = cursor.getTimestamp();
+    }
+
+    // Without room, the arrays grow once, by the usual factor.
+    LongTimeSeries full = new LongTimeSeries(4);
+    full.setAll(new long[] { 1, 3, 5, 7 }, new long[] { 1, 3, 5, 7 }, 0, 4);
+    before = full.getStoreStats();
+    full.setAll(new long[] { 2, 6 }, new long[] { 2, 6 }, 0, 2);
+
+    delta = full.getStoreStats().since(before);
+    assertEquals(1, delta.getAllocationCount());
+    assertEquals(6, full.getStoreStats().getCapacity());
+    assertEquals(new TreeSet<>(Arrays.asList(1L, 2L, 3L, 5L, 6L, 7L)), full.getTimestamps());
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class MappedDoubleTimeSeriesTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testAppendReopenAndIterate() throws Exception {
+    File directory = this.temporaryFolder.newFolder();
+
+    MappedDoubleTimeSeries series = new MappedDoubleTimeSeries(directory, 2);
+    series.add(1, 1.5);
+    series.add(2, -2.5);
+    series.setTimestampSample(3, Double.NaN);
+    assertEquals(2.0, series.add(1, 0.5), 0.0);
+    series.close();
+
+    MappedDoubleTimeSeries reopened = new MappedDoubleTimeSeries(directory, 2);
+    assertEquals(3, reopened.size());
+    assertEquals(Double.valueOf(2.0), reopened.getTimestampSample(1));
+    assertEquals(-2.5, reopened.getTimestampSample(2, 0.0), 0.0);
+    assertTrue(Double.isNaN(reopened.getTimestampSample(3, 0.0)));
+    assertNull(reopened.getTimestampSample(4));
+
+    DoubleTimeSeriesCursor cursor = reopened.cursor();
+    assertTrue(cursor.next());
+    assertEquals(1, cursor.getTimestamp());
+    assertEquals(2.0, cursor.getDoubleValue(), 0.0);
+    assertTrue(cursor.next());
+    assertEquals(Double.valueOf(-2.5), cursor.getValue());
+    assertTrue(cursor.next());
+    assertEquals(3, cursor.getTimestamp());
+    assertFalse(cursor.next());
+
+    reopened.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutOfOrderAppend() throws Exception {
+    MappedDoubleTimeSeries series = new MappedDoubleTimeSeries(this.temporaryFolder.newFolder(), 4);
+    series.add(10, 1.0);
+    series.setTimestampSample(5, 1.0);
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class MappedLongTimeSeriesTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testAppendAndGetAcrossSegments() throws Exception {
+    File directory = this.temporaryFolder.newFolder();
+    MappedLongTimeSeries series = new MappedLongTimeSeries(directory, 4);
+
+    assertEquals(0, series.size());
+    assertNull(series.getTimestampSample(1));
+
+    long time = 10;
+    while ( time < 20 ) {
+      series.setTimestampSample(time, time * 100);
+      time++;
+    }
+
+    assertEquals(10, series.size());
+    assertEquals(10, series.getSampleCount());
+    assertEquals(3, directory.listFiles().length);
+    assertEquals(Long.valueOf(1000), series.getTimestampSample(10));
+    assertEquals(1500, series.getTimestampSample(15, -1));
+    assertEquals(1900, series.getTimestampSample(19, -1));
+    assertEquals(-1, series.getTimestampSample(9, -1));
+    assertEquals(-1, series.getTimestampSample(20, -1));
+
+    // Replace and add to existing samples.
+    series.setTimestampSample(12, 7L);
+    assertEquals(12, series.add(12, 5));
+    assertEquals(31, series.add(21, 31));
+    assertEquals(12, series.getTimestampSample(12, -1));
+    assertEquals(31, series.getTimestampSample(21, -1));
+
+    series.close();
+  }
+
+  @Test
+  public void testReopen() throws Exception {
+    File directory = this.temporaryFolder.newFolder();
+
+    MappedLongTimeSeries series = new MappedLongTimeSeries(directory, 3);
+    series.add(-5, 1);
+    series.add(0, 2);
+    series.add(5, 3);
+    series.add(10, 4);
+    series.close();
+
+    MappedLongTimeSeries reopened = new MappedLongTimeSeries(directory, 3);
+    assertEquals(4, reopened.size());
+    assertEquals(new TreeSet<>(Arrays.asList(-5L, 0L, 5L, 10L)), reopened.getTimestamps());
+    assertEquals(4, reopened.getTimestampSample(10, -1));
+
+    reopened.add(11, 5);
+    assertEquals(5, reopened.size());
+
+    LongTimeSeriesCursor cursor = reopened.cursor();
+    long expectedValue = 1;
+    while ( cursor.next() ) {
+      assertEquals(expectedValue, cursor.getLongValue());
+      expectedValue++;
+    }
+    assertEquals(6, expectedValue);
+    assertFalse(cursor.next());
+
+    reopened.close();
+  }
+
+  @Test
+  public void testReopenWithEmptySegment() throws Exception {
+    File directory = this.temporaryFolder.newFolder();
+
+    MappedLongTimeSeries series = new MappedLongTimeSeries(directory, 3);
+    series.add(1, 1);
+    series.add(2, 2);
+    series.add(3, 3);
+    series.close();
+
+    // Simulate a crash right after the next segment file was created, before its first sample was written.
+    RandomAccessFile emptySegment = new RandomAccessFile(new File(directory, "segment-0000000001.dat"), "rw");
+    try {
+      emptySegment.setLength(MappedSegmentStore.Segment.HEADER_SIZE + 3 * 16);
+      emptySegment.writeInt(0x54534D31);
+      emptySegment.writeInt(3);
+      emptySegment.writeInt(0);
+    } finally {
+      emptySegment.close();
+    }
+
+    MappedLongTimeSeries reopened = new MappedLongTimeSeries(directory, 3);
+    try {
+      reopened.add(2, 5);
+      assertEquals(7, reopened.getTimestampSample(2, -1));
+
+      try {
+        reopened.setTimestampSample(0, 5L);
+        fail("out-of-order timestamp was accepted");
+      } catch ( IllegalArgumentException expected ) {
+        // Expected
+      }
+
+      reopened.add(4, 4);
+      assertEquals(new TreeSet<>(Arrays.asList(1L, 2L, 3L, 4L)), reopened.getTimestamps());
+    } finally {
+      reopened.close();
+    }
+  }
+
+  @Test
+  public void testReopenWithInvalidSegment() throws Exception {
+    File directory = this.temporaryFolder.newFolder();
+
+    MappedLongTimeSeries series = new MappedLongTimeSeries(directory, 3);
+    series.add(1, 1);
+    series.close();
+
+    File badSegment = new File(directory, "segment-0000000001.dat");
+    RandomAccessFile badFile = new RandomAccessFile(badSegment, "rw");
+    try {
+      badFile.setLength(MappedSegmentStore.Segment.HEADER_SIZE + 3 * 16);
+      badFile.writeInt(0);
+    } finally {
+      badFile.close();
+    }
+
+    try {
+      new MappedLongTimeSeries(directory, 3);
+      fail("invalid segment was accepted");
+    } catch ( IOException expected ) {
+      // Expected
+    }
+
+    // Once the bad segment is gone, the store opens again.
+    assertTrue(badSegment.delete());
+    MappedLongTimeSeries reopened = new MappedLongTimeSeries(directory, 3);
+    try {
+      assertEquals(1, reopened.getTimestampSample(1, -1));
+    } finally {
+      reopened.close();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWriteAfterClose() throws Exception {
+    MappedLongTimeSeries series = new MappedLongTimeSeries(this.temporaryFolder.newFolder(), 3);
+    series.add(1, 1);
+    series.close();
+
+    series.setTimestampSample(1, 2L);
+  }
+
+  @Test
+  public void testResampleMatchesHeapSeries() throws Exception {
+    MappedLongTimeSeries mapped = new MappedLongTimeSeries(this.temporaryFolder.newFolder(), 64);
+    LongTimeSeries heap = new LongTimeSeries();
+
+    long time = 0;
+    while ( time < 1000 ) {
+      mapped.add(time * 3, time % 17);
+      heap.add(time * 3, time % 17);
+      time++;
+    }
+
+    IntegerRatioTimeTransform transform = new IntegerRatioTimeTransform(60);
+    LongSumResampleCalculator calculator = new LongSumResampleCalculator();
+
+    LongTimeSeries expected = new LongTimeSeries();
+    new LongResampleUtil(heap).resampleDown(expected, transform, calculator);
+
+    LongTimeSeries actual = new LongTimeSeries();
+    new LongResampleUtil(mapped).resampleDown(actual, transform, calculator);
+
+    assertEquals(expected.getTimestamps(), actual.getTimestamps());
+    for ( Long oneTimestamp : expected.getTimestamps() ) {
+      assertEquals(expected.getTimestampSample(oneTimestamp), actual.getTimestampSample(oneTimestamp));
+    }
+
+    mapped.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutOfOrderAppend() throws Exception {
+    MappedLongTimeSeries series = new MappedLongTimeSeries(this.temporaryFolder.newFolder(), 4);
+    series.add(10, 1);
+    series.add(5, 1);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testRemove() throws Exception {
+    MappedLongTimeSeries series = new MappedLongTimeSeries(this.temporaryFolder.newFolder(), 4);
+    series.add(10, 1);
+    series.setTimestampSample(10, null);
+  }
+
+  @Test
+  public void testRangeViews() throws Exception {
+    MappedLongTimeSeries series = new MappedLongTimeSeries(this.temporaryFolder.newFolder(), 4);
+
+    long time = 0;
+    while ( time < 20 ) {
+      series.add(time * 10, time);
+      time++;
+    }
+
+    MappedLongTimeSeries view = series.subSeries(35, 125);
+    assertEquals(9, view.size());
+    assertEquals(Long.valueOf(40), view.getFirstTimestamp());
+    assertEquals(Long.valueOf(120), view.getLastTimestamp());
+    assertEquals(Long.valueOf(70), view.getFloorTimestamp(79));
+    assertEquals(Long.valueOf(80), view.getCeilingTimestamp(71));
+    assertNull(view.getFloorTimestamp(39));
+    assertNull(view.getCeilingTimestamp(121));
+    assertEquals(-1, view.getTimestampSample(30, -1));
+
+    LongTimeSeriesCursor cursor = view.cursor();
+    long expected = 4;
+    while ( cursor.next() ) {
+      assertEquals(expected * 10, cursor.getTimestamp());
+      expected++;
+    }
+    assertEquals(13, expected);
+
+    assertEquals(0, series.subSeries(191, 1000).size());
+    assertFalse(series.subSeries(191, 1000).cursor().next());
+    assertEquals(20, series.tailSeries(Long.MIN_VALUE).size());
+    assertEquals(1, series.headSeries(10).size());
+
+    series.close();
+  }
+}
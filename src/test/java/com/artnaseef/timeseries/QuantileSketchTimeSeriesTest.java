@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.QuantileSketch;
+import com.artnaseef.timeseries.resample.calc.QuantileSketchMergeCalculator;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class QuantileSketchTimeSeriesTest {
+
+  @Test
+  public void testRollUpSecondsToMinutes() throws Exception {
+    Random random = new Random(21);
+    QuantileSketchTimeSeries seconds = new QuantileSketchTimeSeries(0.01);
+
+    double[] firstMinute = new double[600];
+    int cur = 0;
+    while ( cur < 1200 ) {
+      double latency = 5.0 + random.nextInt(200);
+      seconds.record(cur / 10, latency);
+      if ( cur < 600 ) {
+        firstMinute[cur] = latency;
+      }
+      cur++;
+    }
+    Arrays.sort(firstMinute);
+
+    assertEquals(120, seconds.size());
+
+    QuantileSketchTimeSeries minutes = new QuantileSketchTimeSeries(0.01);
+    new ResampleUtil<>(seconds).resampleDown(minutes, new IntegerRatioTimeTransform(60),
+            new QuantileSketchMergeCalculator());
+
+    assertEquals(2, minutes.size());
+    assertEquals(600.0, minutes.getTimestampSample(0).getCount(), 0.0);
+
+    double p50 = firstMinute[(int) ( 0.5 * 599 )];
+    double p99 = firstMinute[(int) ( 0.99 * 599 )];
+    assertEquals(p50, minutes.getQuantile(0, 0.5, Double.NaN), p50 * 0.01);
+    assertEquals(p99, minutes.getQuantile(0, 0.99, Double.NaN), p99 * 0.01);
+    assertTrue(Double.isNaN(minutes.getQuantile(5, 0.5, Double.NaN)));
+
+    // The per-second sketches are not changed by the roll-up.
+    assertEquals(10.0, seconds.getTimestampSample(0).getCount(), 0.0);
+  }
+
+  @Test
+  public void testPartialOverlapMerge() throws Exception {
+    QuantileSketch sketch = new QuantileSketch();
+    sketch.accept(10.0);
+    sketch.accept(20.0);
+
+    QuantileSketch merged = new QuantileSketchMergeCalculator().calculateTransformedSample(
+            new ArrayList<>(Arrays.asList(sketch, sketch)), 0.5, 1.0);
+
+    assertEquals(3.0, merged.getCount(), 0.0000000001);
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.calc.DoubleSumResampleCalculator;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.IntegerRatioTimeTransform;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ResampleCacheTest {
+  private LongTimeSeries source;
+  private TimeTransform transform;
+  private LongSumResampleCalculator calculator;
+
+  @Before
+  public void setupTest() throws Exception {
+    this.source = new LongTimeSeries();
+    for ( long time = 0; time < 1000; time++ ) {
+      this.source.add(time, time % 7);
+    }
+
+    this.transform = new IntegerRatioTimeTransform(10);
+    this.calculator = new LongSumResampleCalculator();
+  }
+
+  @Test
+  public void testHitAndMiss() throws Exception {
+    ResampleCache cache = new ResampleCache(1000);
+
+    LongTimeSeries first = cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500);
+    LongTimeSeries second = cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500);
+    LongTimeSeries other = cache.resampleDownLong(this.source, this.transform, this.calculator, 500, 1000);
+
+    assertSame(first, second);
+    assertNotSame(first, other);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+    assertEquals(2, cache.size());
+    assertEquals(100, cache.getWeight());
+    this.verifySameSamples(this.expected(this.source, 0, 500), first);
+
+    // A new calculator instance is a different key.
+    cache.resampleDownLong(this.source, this.transform, new LongSumResampleCalculator(), 0, 500);
+    assertEquals(3, cache.getMissCount());
+  }
+
+  @Test
+  public void testVersionChange() throws Exception {
+    ResampleCache cache = new ResampleCache(1000);
+
+    LongTimeSeries first = cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500);
+    this.source.add(1000, 5);
+    this.source.add(10, 5);
+    LongTimeSeries second = cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500);
+
+    assertNotSame(first, second);
+    assertEquals(2, cache.getMissCount());
+    this.verifySameSamples(this.expected(this.source, 0, 500), second);
+  }
+
+  @Test
+  public void testSampleChangedPatches() throws Exception {
+    ResampleCache cache = new ResampleCache(1000);
+
+    LongTimeSeries covering = cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500);
+    LongTimeSeries later = cache.resampleDownLong(this.source, this.transform, this.calculator, 500, 1000);
+    LongTimeSeries original = this.expected(this.source, 0, 500);
+
+    this.source.add(123, 100);
+    cache.sampleChanged(this.source, 123);
+    this.source.setTimestampSample(1234, 7L);
+    cache.sampleChanged(this.source, 1234);
+
+    // The patch goes into a copy; the series already returned is left as it was.
+    LongTimeSeries patched = cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500);
+    assertNotSame(covering, patched);
+    this.verifySameSamples(original, covering);
+    this.verifySameSamples(this.expected(this.source, 0, 500), patched);
+    assertSame(later, cache.resampleDownLong(this.source, this.transform, this.calculator, 500, 1000));
+    assertEquals(1, cache.getPatchCount());
+    assertEquals(2, cache.getMissCount());
+
+    // A change which is not reported is caught by the version; reporting a later one does not hide it.
+    this.source.add(600, 100);
+    this.source.add(124, 100);
+    cache.sampleChanged(this.source, 124);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testChangesOutsideRange() throws Exception {
+    ResampleCache cache = new ResampleCache(1000);
+
+    LongTimeSeries past = cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500);
+
+    // Appending after the window, without reporting the changes, leaves the result valid.
+    for ( long time = 1000; time < 1200; time++ ) {
+      this.source.add(time, 1);
+    }
+    this.source.addAll(new long[] { 1300, 1301 }, new long[] { 1, 2 }, 0, 2);
+
+    assertSame(past, cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500));
+    assertEquals(1, cache.getHitCount());
+
+    // Long runs of appends stay a hit.
+    for ( long time = 2000; time < 7000; time++ ) {
+      this.source.add(time, 1);
+    }
+    assertSame(past, cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500));
+    assertEquals(2, cache.getHitCount());
+
+    // More scattered late changes than the log holds can no longer be ruled out.
+    for ( long time = 900; time > 900 - 2 * ModificationLog.RECORD_COUNT; time-- ) {
+      this.source.add(time, 1);
+    }
+    assertNotSame(past, cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500));
+
+    // A change within the window is caught.
+    LongTimeSeries current = cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500);
+    this.source.add(499, 1);
+    LongTimeSeries changed = cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500);
+    assertNotSame(current, changed);
+    this.verifySameSamples(this.expected(this.source, 0, 500), changed);
+  }
+
+  @Test
+  public void testUnversionedSource() throws Exception {
+    TimeSeries<Double> boxed = new TimeSeries<>();
+    for ( long time = 0; time < 100; time++ ) {
+      boxed.setTimestampSample(time, 1.0);
+    }
+
+    ResampleCache cache = new ResampleCache(1000);
+    DoubleSumResampleCalculator doubleCalculator = new DoubleSumResampleCalculator();
+    TimeSeries<Double> result = cache.resampleDown(boxed, this.transform, doubleCalculator, 0, 100);
+    assertEquals(10.0, result.getTimestampSample(3), 0.0);
+
+    boxed.setTimestampSample(35, 2.0);
+    cache.sampleChanged(boxed, 35);
+    TimeSeries<Double> patched = cache.resampleDown(boxed, this.transform, doubleCalculator, 0, 100);
+    assertNotSame(result, patched);
+    assertEquals(11.0, patched.getTimestampSample(3), 0.0);
+    assertEquals(10.0, result.getTimestampSample(3), 0.0);
+
+    cache.invalidate(boxed, 100, 200);
+    assertEquals(1, cache.size());
+    cache.invalidate(boxed, 50, 200);
+    assertEquals(0, cache.size());
+
+    DoubleTimeSeries doubleResult = cache.resampleDownDouble(boxed, this.transform, doubleCalculator, 0, 100);
+    assertEquals(11.0, doubleResult.getTimestampSample(3, 0.0), 0.0);
+  }
+
+  @Test
+  public void testMixedLookups() throws Exception {
+    ResampleCache cache = new ResampleCache(1000);
+
+    // The calculator serves both lookups, which cache their results apart.
+    TimeSeries<Long> generic = cache.resampleDown(this.source, this.transform, this.calculator, 0, 500);
+    LongTimeSeries primitive = cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500);
+    assertEquals(2, cache.getMissCount());
+    assertEquals(2, cache.size());
+    assertEquals(generic.getTimestampSample(3), Long.valueOf(primitive.getTimestampSample(3, 0)));
+    this.verifySameSamples(this.expected(this.source, 0, 500), primitive);
+
+    assertSame(generic, cache.resampleDown(this.source, this.transform, this.calculator, 0, 500));
+    assertSame(primitive, cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500));
+
+    DoubleTimeSeries doubleSource = new DoubleTimeSeries();
+    for ( long time = 0; time < 100; time++ ) {
+      doubleSource.add(time, 1.0);
+    }
+    DoubleSumResampleCalculator doubleCalculator = new DoubleSumResampleCalculator();
+    TimeSeries<Double> doubleGeneric = cache.resampleDown(doubleSource, this.transform, doubleCalculator, 0, 100);
+    DoubleTimeSeries doublePrimitive = cache.resampleDownDouble(doubleSource, this.transform, doubleCalculator, 0,
+            100);
+    assertNotSame(doubleGeneric, doublePrimitive);
+    assertEquals(10.0, doubleGeneric.getTimestampSample(3), 0.0);
+    assertEquals(10.0, doublePrimitive.getTimestampSample(3, 0.0), 0.0);
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    ResampleCache cache = new ResampleCache(120);
+
+    cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 1000);
+    cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 1000);
+    LongTimeSeries small = cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500);
+    cache.resampleDownLong(this.source, this.transform, this.calculator, 500, 1000);
+
+    // The least recently used result, for the whole range, was evicted.
+    assertEquals(1, cache.getEvictionCount());
+    assertEquals(100, cache.getWeight());
+    assertSame(small, cache.resampleDownLong(this.source, this.transform, this.calculator, 0, 500));
+
+    // Results larger than the cache are returned, but not cached.
+    ResampleCache tiny = new ResampleCache(10);
+    assertEquals(100, tiny.resampleDownLong(this.source, this.transform, this.calculator, 0, 1000).size());
+    assertEquals(0, tiny.size());
+  }
+
+  private LongTimeSeries expected(LongTimeSeries series, long from, long to) {
+    LongTimeSeries result = new LongTimeSeries();
+    new LongResampleUtil(series.subSeries(from, to)).resampleDown(result, this.transform, this.calculator);
+    return  result;
+  }
+
+  private void verifySameSamples(LongTimeSeries expected, LongTimeSeries actual) {
+    assertEquals(expected.size(), actual.size());
+    LongTimeSeriesCursor expectedCursor = expected.cursor();
+    LongTimeSeriesCursor actualCursor = actual.cursor();
+    while ( expectedCursor.next() ) {
+      assertTrue(actualCursor.next());
+      assertEquals(expectedCursor.getTimestamp(), actualCursor.getTimestamp());
+      assertEquals(expectedCursor.getLongValue(), actualCursor.getLongValue());
+    }
+  }
+}
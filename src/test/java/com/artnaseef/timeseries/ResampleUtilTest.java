@@ -15,6 +15,7 @@
 package com.artnaseef.timeseries;
 
 import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.ResampleAccumulator;
 import com.artnaseef.timeseries.resample.ResampleValueCalculator;
 import com.artnaseef.timeseries.resample.TimeTransform;
 import org.junit.Before;
@@ -72,6 +73,83 @@ public class ResampleUtilTest {
     assertEquals("2.000K2.001K", target.getTimestampSample(1000));
   }
 
+  @Test
+  public void testResampleDownRange () {
+    this.sourceSeries.setTimestampSample(1000, "a");
+    this.sourceSeries.setTimestampSample(1001, "b");
+    this.sourceSeries.setTimestampSample(1002, "c");
+    this.sourceSeries.setTimestampSample(1003, "d");
+    this.sourceSeries.setTimestampSample(1004, "e");
+    this.sourceSeries.setTimestampSample(1005, "f");
+
+    TimeSeries<String> target = new TimeSeries<>();
+    this.resampleUtil.resampleDown(target, new TwoForOneTimeTransform(), new StringConcatCalculator(), 1001, 1005);
+
+    assertEquals(3, target.size());
+    assertEquals("b", target.getTimestampSample(500));
+    assertEquals("cd", target.getTimestampSample(501));
+    assertEquals("e", target.getTimestampSample(502));
+
+    target = new TimeSeries<>();
+    this.resampleUtil.resampleDown(target, new TwoForOneTimeTransform(), new StringConcatAccumulator(), 1002, 1004);
+
+    assertEquals(1, target.size());
+    assertEquals("501:cd", target.getTimestampSample(501));
+  }
+
+  @Test
+  public void testResampleDownAffected () {
+    this.sourceSeries.setTimestampSample(1000, "a");
+    this.sourceSeries.setTimestampSample(1001, "b");
+    this.sourceSeries.setTimestampSample(1004, "c");
+    this.sourceSeries.setTimestampSample(1009, "d");
+
+    TimeSeries<String> target = new TimeSeries<>();
+    this.resampleUtil.resampleDown(target, new TwoForOneTimeTransform(), new StringConcatCalculator());
+    assertEquals("c", target.getTimestampSample(502));
+
+    this.sourceSeries.setTimestampSample(1005, "x");
+    this.resampleUtil.resampleDownAffected(target, new TwoForOneTimeTransform(), new StringConcatCalculator(), 1005);
+
+    assertEquals(3, target.size());
+    assertEquals("ab", target.getTimestampSample(500));
+    assertEquals("cx", target.getTimestampSample(502));
+    assertEquals("d", target.getTimestampSample(504));
+  }
+
+  @Test
+  public void testRangeViews () {
+    this.sourceSeries.setTimestampSample(10, "a");
+    this.sourceSeries.setTimestampSample(20, "b");
+    this.sourceSeries.setTimestampSample(30, "c");
+    this.sourceSeries.setTimestampSample(40, "d");
+
+    TimeSeries<String> view = this.sourceSeries.subSeries(15, 40);
+    assertEquals(2, view.size());
+    assertEquals(Long.valueOf(20), view.getFirstTimestamp());
+    assertEquals(Long.valueOf(30), view.getLastTimestamp());
+    assertEquals(Long.valueOf(20), view.getFloorTimestamp(29));
+    assertNull(view.getFloorTimestamp(19));
+    assertEquals(Long.valueOf(30), view.getCeilingTimestamp(21));
+    assertNull(view.getCeilingTimestamp(31));
+    assertNull(view.getTimestampSample(40));
+
+    view.setTimestampSample(25, "x");
+    assertEquals("x", this.sourceSeries.getTimestampSample(25));
+    assertEquals(3, view.size());
+
+    assertEquals(1, view.subSeries(0, 21).size());
+    assertEquals(0, view.subSeries(31, 39).size());
+    assertEquals(0, view.subSeries(31, 39).subSeries(0, 100).size());
+    assertEquals(Long.valueOf(10), this.sourceSeries.headSeries(20).getLastTimestamp());
+    assertEquals(Long.valueOf(40), this.sourceSeries.tailSeries(31).getFirstTimestamp());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetOutsideOfView () {
+    this.sourceSeries.subSeries(10, 20).setTimestampSample(25, "x");
+  }
+
   /**
    * Test mapping of 3 samples slots down to 2 sample slots.  This test covers partial overlaps in all possible
    * combinations.
@@ -117,6 +195,62 @@ public class ResampleUtilTest {
     assertEquals(10, target.getTimestamps().size());
   }
 
+  @Test
+  public void testResampleDownAccumulator () {
+    this.sourceSeries.setTimestampSample(1000, "1.000K");
+    this.sourceSeries.setTimestampSample(1001, "1.001K");
+    this.sourceSeries.setTimestampSample(1200, "1.200K");
+    this.sourceSeries.setTimestampSample(1301, "1.301K");
+    this.sourceSeries.setTimestampSample(2000, "2.000K");
+    this.sourceSeries.setTimestampSample(2001, "2.001K");
+
+    TimeSeries<String> target = new TimeSeries<>();
+    this.resampleUtil.resampleDown(target, new TwoForOneTimeTransform(), new StringConcatAccumulator());
+
+    assertEquals("500:1.000K1.001K", target.getTimestampSample(500));
+    assertEquals("600:1.200K", target.getTimestampSample(600));
+    assertEquals("650:1.301K", target.getTimestampSample(650));
+    assertEquals("1000:2.000K2.001K", target.getTimestampSample(1000));
+    assertEquals(4, target.size());
+  }
+
+  /**
+   * Same as testResampleDownThreeToTwo(), using an accumulator.
+   */
+  @Test
+  public void testResampleDownThreeToTwoAccumulator () {
+    DoubleTimeSeries source = new DoubleTimeSeries();
+    ResampleUtil<Double> dblResampleUtil = new ResampleUtil<>(source);
+
+    source.add(3, 1.0);
+    source.add(4, 1.0);
+    source.add(5, 1.0);
+    source.add(6, 1.0);
+    source.add(7, 1.0);
+
+    source.add(9, 1.0);
+    source.add(30, 1.0);
+    source.add(61, 1.0);
+    source.add(92, 1.0);
+
+    DoubleTimeSeries target = new DoubleTimeSeries();
+    dblResampleUtil.resampleDown(target, new RatioTransform(2.0 / 3.0), new SumDoubleAccumulator());
+
+    assertEquals(( 4.0 / 3.0 ), (double) target.getTimestampSample(2), 0.0000000001);
+    assertEquals(( 4.0 / 3.0 ), (double) target.getTimestampSample(3), 0.0000000001);
+    assertEquals(( 5.0 / 3.0 ), (double) target.getTimestampSample(4), 0.0000000001);
+    assertEquals(( 2.0 / 3.0 ), (double) target.getTimestampSample(5), 0.0000000001);
+    assertEquals(1.0, (double) target.getTimestampSample(6), 0.0000000001);
+
+    assertEquals(1.0, (double) target.getTimestampSample(20), 0.0000000001);
+    assertEquals(( 1.0 / 3.0), (double) target.getTimestampSample(40), 0.0000000001);
+    assertEquals(( 2.0 / 3.0), (double) target.getTimestampSample(41), 0.0000000001);
+    assertEquals(( 2.0 / 3.0), (double) target.getTimestampSample(61), 0.0000000001);
+    assertEquals(( 1.0 / 3.0), (double) target.getTimestampSample(62), 0.0000000001);
+
+    assertEquals(10, target.getTimestamps().size());
+  }
+
   protected class RatioTransform implements TimeTransform {
     private final double ratio;
 
@@ -179,4 +313,43 @@ public class ResampleUtilTest {
       return  accum;
     }
   }
+
+  protected class StringConcatAccumulator implements ResampleAccumulator<String> {
+    private StringBuilder result;
+
+    @Override
+    public void beginSlot(long slotTimestamp) {
+      this.result = new StringBuilder();
+      this.result.append(slotTimestamp).append(':');
+    }
+
+    @Override
+    public void accept(String value, double overlap) {
+      this.result.append(value);
+    }
+
+    @Override
+    public String finishSlot() {
+      return this.result.toString();
+    }
+  }
+
+  protected class SumDoubleAccumulator implements ResampleAccumulator<Double> {
+    private double accum;
+
+    @Override
+    public void beginSlot(long slotTimestamp) {
+      this.accum = 0.0;
+    }
+
+    @Override
+    public void accept(Double value, double overlap) {
+      this.accum += value * overlap;
+    }
+
+    @Override
+    public Double finishSlot() {
+      return this.accum;
+    }
+  }
 }
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimeSeriesAlgebraTest {
+  private LongTimeSeries errors;
+  private LongTimeSeries requests;
+
+  @Before
+  public void setupTest() throws Exception {
+    this.errors = new LongTimeSeries();
+    this.requests = new LongTimeSeries();
+
+    this.errors.add(10, 1);
+    this.errors.add(20, 3);
+    this.errors.add(40, 2);
+
+    this.requests.add(10, 4);
+    this.requests.add(20, 12);
+    this.requests.add(30, 8);
+    this.requests.add(40, 0);
+  }
+
+  @Test
+  public void testDivideInner() throws Exception {
+    DoubleTimeSeries rate = new TimeSeriesAlgebra().divide(this.errors, this.requests);
+
+    assertEquals(3, rate.size());
+    assertEquals(0.25, rate.getTimestampSample(10, Double.NaN), 0.0);
+    assertEquals(0.25, rate.getTimestampSample(20, Double.NaN), 0.0);
+    assertTrue(Double.isNaN(rate.getTimestampSample(30, Double.NaN)));
+    assertEquals(Double.POSITIVE_INFINITY, rate.getTimestampSample(40, Double.NaN), 0.0);
+  }
+
+  @Test
+  public void testDivideOuter() throws Exception {
+    DoubleTimeSeries rate = new TimeSeriesAlgebra(TimeSeriesAlgebra.Join.OUTER, 0.0).divide(this.errors,
+            this.requests);
+
+    assertEquals(4, rate.size());
+    assertEquals(0.0, rate.getTimestampSample(30, Double.NaN), 0.0);
+
+    // The merge reserved room for all seven samples; the result holds only the four timestamps.
+    SampleStoreStats stats = rate.getStoreStats();
+    assertEquals(4, stats.getCapacity());
+    assertEquals(1, stats.getAllocationCount());
+    assertEquals(4 * SampleStoreStats.BYTES_PER_SAMPLE, stats.getAllocatedBytes());
+  }
+
+  @Test
+  public void testOuterJoinTails() throws Exception {
+    DoubleTimeSeries left = new DoubleTimeSeries();
+    left.add(1, 1.5);
+    left.add(5, 2.5);
+
+    LongTimeSeries right = new LongTimeSeries();
+    right.add(3, 10);
+    right.add(7, 20);
+    right.add(9, 30);
+
+    TimeSeriesAlgebra algebra = new TimeSeriesAlgebra(TimeSeriesAlgebra.Join.OUTER, -1.0);
+
+    DoubleTimeSeries sum = algebra.add(left, right);
+    assertEquals(5, sum.size());
+    assertEquals(0.5, sum.getTimestampSample(1, Double.NaN), 0.0);
+    assertEquals(9.0, sum.getTimestampSample(3, Double.NaN), 0.0);
+    assertEquals(1.5, sum.getTimestampSample(5, Double.NaN), 0.0);
+    assertEquals(29.0, sum.getTimestampSample(9, Double.NaN), 0.0);
+
+    DoubleTimeSeries difference = algebra.subtract(right, left);
+    assertEquals(-2.5, difference.getTimestampSample(1, Double.NaN), 0.0);
+    assertEquals(21.0, difference.getTimestampSample(7, Double.NaN), 0.0);
+
+    assertEquals(0, new TimeSeriesAlgebra().multiply(left, right).size());
+  }
+
+  @Test
+  public void testOtherSeriesAndViews() throws Exception {
+    TimeSeries<Long> boxed = new TimeSeries<>();
+    boxed.setTimestampSample(20, 2L);
+    boxed.setTimestampSample(30, 5L);
+
+    LongRingTimeSeries ring = new LongRingTimeSeries(100);
+    ring.add(20, 7);
+    ring.add(30, 3);
+
+    TimeSeriesAlgebra algebra = new TimeSeriesAlgebra();
+
+    DoubleTimeSeries product = algebra.multiply(boxed, this.requests.subSeries(15, 35));
+    assertEquals(2, product.size());
+    assertEquals(24.0, product.getTimestampSample(20, Double.NaN), 0.0);
+    assertEquals(40.0, product.getTimestampSample(30, Double.NaN), 0.0);
+
+    DoubleTimeSeries sum = algebra.add(ring, boxed);
+    assertEquals(9.0, sum.getTimestampSample(20, Double.NaN), 0.0);
+    assertEquals(8.0, sum.getTimestampSample(30, Double.NaN), 0.0);
+  }
+
+  @Test
+  public void testScale() throws Exception {
+    DoubleTimeSeries scaled = new TimeSeriesAlgebra().scale(this.requests.tailSeries(20), 0.5);
+
+    assertEquals(3, scaled.size());
+    assertEquals(6.0, scaled.getTimestampSample(20, Double.NaN), 0.0);
+    assertEquals(4.0, scaled.getTimestampSample(30, Double.NaN), 0.0);
+    assertEquals(0.0, scaled.getTimestampSample(40, Double.NaN), 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullJoin() throws Exception {
+    new TimeSeriesAlgebra(null, 0.0);
+  }
+}
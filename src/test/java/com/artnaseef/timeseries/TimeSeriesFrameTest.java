@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries;
+
+import com.artnaseef.timeseries.resample.DoubleResampleValueCalculator;
+import com.artnaseef.timeseries.resample.LongResampleValueCalculator;
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.calc.DoubleSumResampleCalculator;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TimeSeriesFrameTest {
+  private TimeSeriesFrame frame;
+  private int requests;
+  private int latency;
+
+  @Before
+  public void setupTest() throws Exception {
+    this.frame = new TimeSeriesFrame();
+    this.requests = this.frame.addLongColumn("requests");
+    this.latency = this.frame.addDoubleColumn("latency");
+
+    Random random = new Random(42);
+    long time = 0;
+    for ( int cur = 0; cur < 1000; cur++ ) {
+      time += 1 + random.nextInt(3);
+      int row = this.frame.appendRow(time);
+      this.frame.setLong(row, this.requests, random.nextInt(100));
+      this.frame.setDouble(row, this.latency, random.nextDouble());
+    }
+  }
+
+  @Test
+  public void testRowAndColumnAccess() throws Exception {
+    assertEquals(1000, this.frame.getRowCount());
+    assertEquals(2, this.frame.getColumnCount());
+    assertEquals("latency", this.frame.getColumnName(this.latency));
+    assertEquals(this.requests, this.frame.getColumnIndex("requests"));
+    assertEquals(-1, this.frame.getColumnIndex("errors"));
+    assertTrue(this.frame.isLongColumn(this.requests));
+    assertFalse(this.frame.isLongColumn(this.latency));
+
+    long time = this.frame.getTimestamp(500);
+    assertEquals(500, this.frame.getRowIndex(time));
+    assertEquals(-1, this.frame.getRowIndex(this.frame.getTimestamp(0) - 1));
+    assertEquals((double) this.frame.getLong(500, this.requests), this.frame.getDouble(500, this.requests), 0.0);
+
+    // A column added later is filled for the existing rows.
+    int errors = this.frame.addLongColumn("errors");
+    int load = this.frame.addDoubleColumn("load");
+    assertEquals(0, this.frame.getLong(999, errors));
+    assertTrue(Double.isNaN(this.frame.getDouble(999, load)));
+
+    int row = this.frame.appendRow(this.frame.getTimestamp(999) + 1);
+    assertEquals(0, this.frame.getLong(row, this.requests));
+    assertTrue(Double.isNaN(this.frame.getDouble(row, this.latency)));
+  }
+
+  @Test
+  public void testColumnSeries() throws Exception {
+    LongTimeSeries requestSeries = this.frame.toLongTimeSeries(this.requests);
+    DoubleTimeSeries latencySeries = this.frame.toDoubleTimeSeries(this.latency);
+    assertEquals(1000, requestSeries.size());
+    assertEquals(1000, latencySeries.size());
+
+    LongTimeSeriesCursor requestCursor = this.frame.longColumnCursor(this.requests);
+    DoubleTimeSeriesCursor latencyCursor = this.frame.doubleColumnCursor(this.latency);
+    int row = 0;
+    while ( requestCursor.next() ) {
+      assertTrue(latencyCursor.next());
+      assertEquals(this.frame.getTimestamp(row), requestCursor.getTimestamp());
+      assertEquals(this.frame.getLong(row, this.requests), requestCursor.getLongValue());
+      assertEquals(this.frame.getDouble(row, this.latency), latencyCursor.getDoubleValue(), 0.0);
+      assertEquals(requestSeries.getTimestampSample(requestCursor.getTimestamp()), requestCursor.getValue());
+      row++;
+    }
+    assertFalse(latencyCursor.next());
+    assertEquals(1000, row);
+  }
+
+  @Test
+  public void testResampleMatchesResampleUtil() throws Exception {
+    TimeTransform transform = new RationalRatioTimeTransform(7, 3);
+    LongResampleValueCalculator longCalculator = new LongSumResampleCalculator();
+    DoubleResampleValueCalculator doubleCalculator = new DoubleSumResampleCalculator();
+
+    TimeSeriesFrame result = this.frame.resampleDown(transform, longCalculator, doubleCalculator);
+
+    LongTimeSeries expectedRequests = new LongTimeSeries();
+    new LongResampleUtil(this.frame.toLongTimeSeries(this.requests)).resampleDown(expectedRequests, transform,
+            longCalculator);
+    DoubleTimeSeries expectedLatency = new DoubleTimeSeries();
+    new DoubleResampleUtil(this.frame.toDoubleTimeSeries(this.latency)).resampleDown(expectedLatency, transform,
+            doubleCalculator);
+
+    assertEquals(2, result.getColumnCount());
+    assertEquals(expectedRequests.size(), result.getRowCount());
+    LongTimeSeriesCursor requestCursor = expectedRequests.cursor();
+    DoubleTimeSeriesCursor latencyCursor = expectedLatency.cursor();
+    int row = 0;
+    while ( requestCursor.next() ) {
+      assertTrue(latencyCursor.next());
+      assertEquals(requestCursor.getTimestamp(), result.getTimestamp(row));
+      assertEquals(latencyCursor.getTimestamp(), result.getTimestamp(row));
+      assertEquals(requestCursor.getLongValue(), result.getLong(row, this.requests));
+      assertEquals(latencyCursor.getDoubleValue(), result.getDouble(row, this.latency), 0.0000001);
+      row++;
+    }
+  }
+
+  @Test
+  public void testResampleEmpty() throws Exception {
+    TimeSeriesFrame empty = new TimeSeriesFrame();
+    empty.addLongColumn("requests");
+
+    TimeSeriesFrame result = empty.resampleDown(new RationalRatioTimeTransform(2, 1), new LongSumResampleCalculator(),
+            new DoubleSumResampleCalculator());
+    assertEquals(0, result.getRowCount());
+    assertEquals(1, result.getColumnCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutOfOrderRow() throws Exception {
+    this.frame.appendRow(this.frame.getTimestamp(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDuplicateColumn() throws Exception {
+    this.frame.addDoubleColumn("requests");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongColumnType() throws Exception {
+    this.frame.setLong(0, this.latency, 1);
+  }
+}
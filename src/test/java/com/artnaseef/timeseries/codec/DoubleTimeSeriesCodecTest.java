@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.codec;
+
+import com.artnaseef.timeseries.DoubleTimeSeries;
+import com.artnaseef.timeseries.DoubleTimeSeriesCursor;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DoubleTimeSeriesCodecTest {
+
+  @Test
+  public void testRoundTripGaugeSeries() throws Exception {
+    DoubleTimeSeries source = new DoubleTimeSeries();
+    long time = 1430000000000L;
+
+    //
+    // A gauge which mostly holds steady, with occasional changes.
+    //
+    double value = 12.5;
+    int cur = 0;
+    while ( cur < 10000 ) {
+      if ( ( cur % 50 ) == 0 ) {
+        value += 0.25;
+      }
+      source.add(time, value);
+      time += 60000;
+      cur++;
+    }
+
+    byte[] encoded = encode(source);
+    assertSameSamples(source, decode(encoded));
+
+    assertTrue("encoded size " + encoded.length, encoded.length * 10 < source.size() * 16);
+  }
+
+  @Test
+  public void testRoundTripRandomSeries() throws Exception {
+    Random random = new Random(42);
+
+    DoubleTimeSeries source = new DoubleTimeSeries();
+    long time = -100000;
+    int cur = 0;
+    while ( cur < 5000 ) {
+      time += 1 + random.nextInt(1000);
+      source.add(time, random.nextGaussian() * 1000.0);
+      cur++;
+    }
+
+    assertSameSamples(source, decode(encode(source)));
+  }
+
+  @Test
+  public void testSpecialValues() throws Exception {
+    DoubleTimeSeries source = new DoubleTimeSeries();
+    source.add(1, 0.0);
+    source.add(2, -0.0);
+    source.add(3, Double.NaN);
+    source.add(4, Double.POSITIVE_INFINITY);
+    source.add(5, Double.NEGATIVE_INFINITY);
+    source.add(6, Double.MIN_VALUE);
+    source.add(7, Double.MAX_VALUE);
+    source.add(8, 1.0);
+    source.add(9, 1.0);
+
+    assertSameSamples(source, decode(encode(source)));
+  }
+
+  @Test
+  public void testReadIntoExistingSeries() throws Exception {
+    DoubleTimeSeries source = new DoubleTimeSeries();
+    source.add(1, 1.5);
+    source.add(2, 2.5);
+
+    DoubleTimeSeries target = new DoubleTimeSeries();
+    target.add(2, 100.0);
+    target.add(3, 3.5);
+
+    new DoubleTimeSeriesDecoder(new ByteArrayInputStream(encode(source))).readInto(target);
+
+    assertEquals(3, target.size());
+    assertEquals(1.5, target.getTimestampSample(1, -1.0), 0.0);
+    assertEquals(2.5, target.getTimestampSample(2, -1.0), 0.0);
+    assertEquals(3.5, target.getTimestampSample(3, -1.0), 0.0);
+  }
+
+  @Test(expected = IOException.class)
+  public void testWrongSeriesType() throws Exception {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    new LongTimeSeriesEncoder(buffer).finish();
+
+    new DoubleTimeSeriesDecoder(new ByteArrayInputStream(buffer.toByteArray()));
+  }
+
+  protected static byte[] encode(DoubleTimeSeries series) throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DoubleTimeSeriesEncoder encoder = new DoubleTimeSeriesEncoder(buffer);
+    encoder.writeSeries(series);
+    encoder.finish();
+
+    return  buffer.toByteArray();
+  }
+
+  protected static DoubleTimeSeries decode(byte[] encoded) throws IOException {
+    return  new DoubleTimeSeriesDecoder(new ByteArrayInputStream(encoded)).readSeries();
+  }
+
+  protected static void assertSameSamples(DoubleTimeSeries expected, DoubleTimeSeries actual) {
+    assertEquals(expected.size(), actual.size());
+
+    DoubleTimeSeriesCursor expectedCursor = expected.cursor();
+    DoubleTimeSeriesCursor actualCursor = actual.cursor();
+    while ( expectedCursor.next() ) {
+      assertTrue(actualCursor.next());
+      assertEquals(expectedCursor.getTimestamp(), actualCursor.getTimestamp());
+      assertEquals(Double.doubleToRawLongBits(expectedCursor.getDoubleValue()),
+              Double.doubleToRawLongBits(actualCursor.getDoubleValue()));
+    }
+    assertFalse(actualCursor.next());
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.codec;
+
+import com.artnaseef.timeseries.LongTimeSeries;
+import com.artnaseef.timeseries.LongTimeSeriesCursor;
+import com.artnaseef.timeseries.TimeSeries;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongTimeSeriesCodecTest {
+
+  @Test
+  public void testRoundTripRegularSeries() throws Exception {
+    LongTimeSeries source = new LongTimeSeries();
+    long time = 1430000000000L;
+    long value = 1000;
+    Random random = new Random(7);
+
+    int cur = 0;
+    while ( cur < 10000 ) {
+      source.add(time, value);
+      time += 1000;
+      value += random.nextInt(21) - 10;
+      cur++;
+    }
+
+    byte[] encoded = encode(source);
+    assertSameSamples(source, decode(encoded));
+
+    //
+    // Regular timestamps cost a bit, small value changes a byte; 16 bytes per sample uncompressed.
+    //
+    assertTrue("encoded size " + encoded.length, encoded.length * 10 < source.size() * 16);
+  }
+
+  @Test
+  public void testRoundTripIrregularSeries() throws Exception {
+    LongTimeSeries source = new LongTimeSeries();
+    source.add(Long.MIN_VALUE, Long.MAX_VALUE);
+    source.add(-5000000000L, Long.MIN_VALUE);
+    source.add(-3, -1);
+    source.add(0, 0);
+    source.add(1, 1);
+    source.add(100, 300);
+    source.add(700, -300);
+    source.add(5000, 1L << 40);
+    source.add(5000000000L, 0);
+    source.add(Long.MAX_VALUE, 12);
+
+    assertSameSamples(source, decode(encode(source)));
+  }
+
+  @Test
+  public void testRoundTripRandomSeries() throws Exception {
+    Random random = new Random(42);
+
+    LongTimeSeries source = new LongTimeSeries();
+    long time = 0;
+    int cur = 0;
+    while ( cur < 5000 ) {
+      time += 1 + ( random.nextBoolean() ? random.nextInt(10) : random.nextInt(100000) );
+      source.add(time, random.nextLong());
+      cur++;
+    }
+
+    assertSameSamples(source, decode(encode(source)));
+  }
+
+  @Test
+  public void testStreamingAndEmpty() throws Exception {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    LongTimeSeriesEncoder encoder = new LongTimeSeriesEncoder(buffer);
+    encoder.finish();
+
+    LongTimeSeriesDecoder decoder = new LongTimeSeriesDecoder(new ByteArrayInputStream(buffer.toByteArray()));
+    assertFalse(decoder.next());
+    assertFalse(decoder.next());
+
+    buffer = new ByteArrayOutputStream();
+    encoder = new LongTimeSeriesEncoder(buffer);
+    encoder.writeSample(10, 1);
+    encoder.writeSample(20, 2);
+    encoder.close();
+
+    decoder = new LongTimeSeriesDecoder(new ByteArrayInputStream(buffer.toByteArray()));
+    assertTrue(decoder.next());
+    assertEquals(10, decoder.getTimestamp());
+    assertEquals(1, decoder.getLongValue());
+    assertTrue(decoder.next());
+    assertEquals(20, decoder.getTimestamp());
+    assertEquals(2, decoder.getLongValue());
+    assertFalse(decoder.next());
+  }
+
+  @Test
+  public void testBoxedSource() throws Exception {
+    TimeSeries<Long> source = new TimeSeries<>();
+    source.setTimestampSample(3, 30L);
+    source.setTimestampSample(1, 10L);
+
+    LongTimeSeries decoded = decode(encode(source));
+    assertEquals(2, decoded.size());
+    assertEquals(10, decoded.getTimestampSample(1, -1));
+    assertEquals(30, decoded.getTimestampSample(3, -1));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWriteAfterFinish() throws Exception {
+    LongTimeSeriesEncoder encoder = new LongTimeSeriesEncoder(new ByteArrayOutputStream());
+    encoder.finish();
+    encoder.writeSample(1, 1);
+  }
+
+  @Test(expected = IOException.class)
+  public void testWrongSeriesType() throws Exception {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    new DoubleTimeSeriesEncoder(buffer).finish();
+
+    new LongTimeSeriesDecoder(new ByteArrayInputStream(buffer.toByteArray()));
+  }
+
+  @Test(expected = EOFException.class)
+  public void testTruncated() throws Exception {
+    LongTimeSeries source = new LongTimeSeries();
+    source.add(1, 1000000);
+    source.add(2, -1000000);
+
+    byte[] encoded = encode(source);
+    byte[] truncated = new byte[encoded.length - 3];
+    System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+
+    decode(truncated);
+  }
+
+  protected static byte[] encode(TimeSeries<Long> series) throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    LongTimeSeriesEncoder encoder = new LongTimeSeriesEncoder(buffer);
+    encoder.writeSeries(series);
+    encoder.finish();
+
+    return  buffer.toByteArray();
+  }
+
+  protected static LongTimeSeries decode(byte[] encoded) throws IOException {
+    return  new LongTimeSeriesDecoder(new ByteArrayInputStream(encoded)).readSeries();
+  }
+
+  protected static void assertSameSamples(LongTimeSeries expected, LongTimeSeries actual) {
+    assertEquals(expected.size(), actual.size());
+
+    LongTimeSeriesCursor expectedCursor = expected.cursor();
+    LongTimeSeriesCursor actualCursor = actual.cursor();
+    while ( expectedCursor.next() ) {
+      assertTrue(actualCursor.next());
+      assertEquals(expectedCursor.getTimestamp(), actualCursor.getTimestamp());
+      assertEquals(expectedCursor.getLongValue(), actualCursor.getLongValue());
+    }
+    assertFalse(actualCursor.next());
+  }
+}
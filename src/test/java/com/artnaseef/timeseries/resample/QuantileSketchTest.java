@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class QuantileSketchTest {
+
+  @Test
+  public void testRelativeAccuracy() throws Exception {
+    Random random = new Random(5);
+    QuantileSketch sketch = new QuantileSketch(0.01);
+
+    double[] values = new double[10000];
+    int cur = 0;
+    while ( cur < values.length ) {
+      // Long-tailed, like latencies.
+      values[cur] = Math.exp(random.nextGaussian() * 1.5 + 3.0);
+      sketch.accept(values[cur]);
+      cur++;
+    }
+    Arrays.sort(values);
+
+    assertEquals(10000.0, sketch.getCount(), 0.0);
+    assertEquals(values[0], sketch.getMin(), 0.0);
+    assertEquals(values[values.length - 1], sketch.getMax(), 0.0);
+    this.verifyQuantile(values, sketch, 0.5, 0.01);
+    this.verifyQuantile(values, sketch, 0.9, 0.01);
+    this.verifyQuantile(values, sketch, 0.99, 0.01);
+    this.verifyQuantile(values, sketch, 0.999, 0.01);
+  }
+
+  @Test
+  public void testMergeMatchesSingleSketch() throws Exception {
+    Random random = new Random(9);
+    QuantileSketch all = new QuantileSketch();
+    QuantileSketch first = new QuantileSketch();
+    QuantileSketch second = new QuantileSketch();
+
+    int cur = 0;
+    while ( cur < 5000 ) {
+      double value = random.nextDouble() * 1000 - 100;
+      all.accept(value);
+      if ( ( cur % 3 ) == 0 ) {
+        first.accept(value);
+      } else {
+        second.accept(value);
+      }
+      cur++;
+    }
+
+    QuantileSketch merged = new QuantileSketch(first);
+    merged.merge(second);
+
+    assertEquals(all.getCount(), merged.getCount(), 0.0);
+    assertEquals(all.getMin(), merged.getMin(), 0.0);
+    assertEquals(all.getMax(), merged.getMax(), 0.0);
+    for ( double quantile : new double[] { 0.0, 0.01, 0.05, 0.5, 0.99, 1.0 } ) {
+      assertEquals(all.getQuantile(quantile), merged.getQuantile(quantile), 0.0);
+    }
+
+    // The copy is independent of the original.
+    assertEquals(1667.0, first.getCount(), 0.0);
+  }
+
+  @Test
+  public void testNegativeAndZeroValues() throws Exception {
+    QuantileSketch sketch = new QuantileSketch(0.01);
+    sketch.accept(-100.0);
+    sketch.accept(-10.0);
+    sketch.accept(0.0);
+    sketch.accept(10.0);
+    sketch.accept(100.0);
+
+    assertEquals(-100.0, sketch.getQuantile(0.0), 0.0);
+    assertEquals(-10.0, sketch.getQuantile(0.25), 0.1);
+    assertEquals(0.0, sketch.getQuantile(0.5), 0.0);
+    assertEquals(10.0, sketch.getQuantile(0.75), 0.1);
+    assertEquals(100.0, sketch.getQuantile(1.0), 0.0);
+  }
+
+  @Test
+  public void testCollapseKeepsHighQuantiles() throws Exception {
+    QuantileSketch sketch = new QuantileSketch(0.01, 100);
+
+    double value = 0.000001;
+    while ( value < 1000000.0 ) {
+      sketch.accept(value);
+      value *= 1.1;
+    }
+
+    // The top 100 buckets (about 2 orders of magnitude) are kept at full accuracy.
+    assertEquals(sketch.getMax(), sketch.getQuantile(1.0), 0.0);
+    double p99 = sketch.getQuantile(0.99);
+    assertTrue(p99 > 400000.0);
+    assertTrue(p99 < sketch.getMax());
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    QuantileSketch sketch = new QuantileSketch();
+    sketch.merge(new QuantileSketch());
+
+    assertEquals(0.0, sketch.getCount(), 0.0);
+    assertTrue(Double.isNaN(sketch.getQuantile(0.5)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeDifferentAccuracy() throws Exception {
+    QuantileSketch other = new QuantileSketch(0.02);
+    other.accept(1.0);
+
+    new QuantileSketch(0.01).merge(other);
+  }
+
+  private void verifyQuantile(double[] sorted, QuantileSketch sketch, double quantile, double accuracy) {
+    double expected = sorted[(int) ( quantile * ( sorted.length - 1 ) )];
+    double actual = sketch.getQuantile(quantile);
+
+    assertEquals(expected, actual, expected * accuracy);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SampleStatsTest {
+
+  @Test
+  public void testMergeMatchesSinglePass() throws Exception {
+    Random random = new Random(3);
+    SampleStats all = new SampleStats();
+    SampleStats first = new SampleStats();
+    SampleStats second = new SampleStats();
+
+    int cur = 0;
+    while ( cur < 1000 ) {
+      double value = random.nextGaussian() * 10 + 100;
+      double overlap = random.nextDouble();
+      all.accept(value, overlap);
+      if ( cur < 300 ) {
+        first.accept(value, overlap);
+      } else {
+        second.accept(value, overlap);
+      }
+      cur++;
+    }
+
+    SampleStats merged = new SampleStats(first);
+    merged.merge(second);
+
+    assertEquals(all.getCount(), merged.getCount());
+    assertEquals(all.getMin(), merged.getMin(), 0.0);
+    assertEquals(all.getMax(), merged.getMax(), 0.0);
+    assertEquals(all.getSum(), merged.getSum(), 0.0000001);
+    assertEquals(all.getWeight(), merged.getWeight(), 0.0000001);
+    assertEquals(all.getMean(), merged.getMean(), 0.0000001);
+    assertEquals(all.getVariance(), merged.getVariance(), 0.0000001);
+
+    // The first set is untouched by the merge.
+    assertEquals(300, first.getCount());
+  }
+
+  @Test
+  public void testPartialOverlapMerge() throws Exception {
+    SampleStats half = new SampleStats();
+    half.accept(4.0, 1.0);
+    half.accept(8.0, 1.0);
+
+    SampleStats result = new SampleStats();
+    result.accept(2.0, 1.0);
+    result.merge(half, 0.5);
+
+    // Same as accepting each of the values at half weight.
+    SampleStats expected = new SampleStats();
+    expected.accept(2.0, 1.0);
+    expected.accept(4.0, 0.5);
+    expected.accept(8.0, 0.5);
+
+    assertEquals(expected.getSum(), result.getSum(), 0.0000000001);
+    assertEquals(expected.getMean(), result.getMean(), 0.0000000001);
+    assertEquals(expected.getVariance(), result.getVariance(), 0.0000000001);
+    assertEquals(3, result.getCount());
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    SampleStats stats = new SampleStats();
+    stats.merge(new SampleStats());
+
+    assertEquals(0, stats.getCount());
+    assertTrue(Double.isNaN(stats.getMin()));
+    assertTrue(Double.isNaN(stats.getMean()));
+    assertTrue(Double.isNaN(stats.getVariance()));
+  }
+}
@@ -48,4 +48,24 @@ public class DoubleAverageResampleCalculatorTest {
     result = this.calculator.calculateTransformedSample(sourceValues, 0.5, 0.75);
     assertEquals(5.875, result, 0.0000000001);
   }
+
+  @Test
+  public void testCalculateTransformedSampleSlice() throws Exception {
+    this.calculator = new DoubleAverageResampleCalculator(0.5);
+
+    double[] slice = { 99.0, 2.0, 3.0, 4.0, 5.0, 99.0 };
+    double result;
+
+    result = this.calculator.calculateTransformedSample(slice, 1, 2, 1.0, 1.0);
+    assertEquals(2.5, result, 0.0000000001);
+
+    result = this.calculator.calculateTransformedSample(slice, 1, 3, 0.5, 0.5);
+    assertEquals(3.0, result, 0.0000000001);
+
+    result = this.calculator.calculateTransformedSample(slice, 1, 4, 0.5, 0.5);
+    assertEquals(5.25, result, 0.0000000001);
+
+    result = this.calculator.calculateTransformedSample(slice, 1, 4, 0.5, 0.75);
+    assertEquals(5.875, result, 0.0000000001);
+  }
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.calc;
+
+import com.artnaseef.timeseries.DoubleResampleUtil;
+import com.artnaseef.timeseries.DoubleTimeSeries;
+import com.artnaseef.timeseries.DoubleTimeSeriesCursor;
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DoubleSumResampleAccumulatorTest {
+  private DoubleSumResampleAccumulator accumulator;
+
+  @Test
+  public void testAccumulate() throws Exception {
+    this.accumulator = new DoubleSumResampleAccumulator();
+
+    this.accumulator.beginSlot(1);
+    this.accumulator.accept(2.0, 1.0);
+    this.accumulator.accept(3.0, 1.0);
+    assertEquals(5, this.accumulator.finishSlot(), 0.0000000001);
+
+    this.accumulator.beginSlot(2);
+    this.accumulator.accept(2.0, 0.5);
+    this.accumulator.accept(3.0, 1.0);
+    this.accumulator.accept(4.0, 1.0);
+    this.accumulator.accept(5.0, 0.75);
+    assertEquals(11.75, this.accumulator.finishSlot(), 0.0000000001);
+
+    this.accumulator.beginSlot(3);
+    assertEquals(0.0, this.accumulator.finishSlot(), 0.0000000001);
+  }
+
+  @Test
+  public void testMatchesCalculatorSevenToFive() throws Exception {
+    DoubleTimeSeries source = new DoubleTimeSeries();
+    for ( long time = 0; time < 70; time++ ) {
+      source.add(time, 1.0 + ( time % 3 ));
+    }
+
+    // Samples in the middle of a slot may overlap it partially, yet count whole, as in the calculator.
+    TimeTransform transform = new RationalRatioTimeTransform(7, 5);
+
+    DoubleTimeSeries expected = new DoubleTimeSeries();
+    new DoubleResampleUtil(source).resampleDown(expected, transform, new DoubleSumResampleCalculator());
+
+    DoubleTimeSeries actual = new DoubleTimeSeries();
+    new DoubleResampleUtil(source).resampleDown(actual, transform, new DoubleSumResampleAccumulator());
+
+    assertEquals(expected.size(), actual.size());
+    DoubleTimeSeriesCursor cursor = expected.cursor();
+    while ( cursor.next() ) {
+      assertEquals(cursor.getDoubleValue(), actual.getTimestampSample(cursor.getTimestamp(), Double.NaN),
+              0.0000000001);
+    }
+  }
+}
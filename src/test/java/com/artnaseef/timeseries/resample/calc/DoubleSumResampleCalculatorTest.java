@@ -47,4 +47,24 @@ public class DoubleSumResampleCalculatorTest {
     result = this.calculator.calculateTransformedSample(sourceValues, 0.5, 0.75);
     assertEquals(11.75, result, 0.0000000001);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testCalculateTransformedSampleSlice() throws Exception {
+    this.calculator = new DoubleSumResampleCalculator();
+
+    double[] slice = { 99.0, 2.0, 3.0, 4.0, 5.0, 99.0 };
+    double result;
+
+    result = this.calculator.calculateTransformedSample(slice, 1, 2, 1.0, 1.0);
+    assertEquals(5, result, 0.0000000001);
+
+    result = this.calculator.calculateTransformedSample(slice, 1, 3, 0.5, 0.5);
+    assertEquals(6, result, 0.0000000001);
+
+    result = this.calculator.calculateTransformedSample(slice, 1, 4, 0.5, 0.5);
+    assertEquals(10.5, result, 0.0000000001);
+
+    result = this.calculator.calculateTransformedSample(slice, 1, 4, 0.5, 0.75);
+    assertEquals(11.75, result, 0.0000000001);
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.calc;
+
+import com.artnaseef.timeseries.LongResampleUtil;
+import com.artnaseef.timeseries.LongTimeSeries;
+import com.artnaseef.timeseries.LongTimeSeriesCursor;
+import com.artnaseef.timeseries.resample.TimeTransform;
+import com.artnaseef.timeseries.resample.transform.RationalRatioTimeTransform;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LongSumResampleAccumulatorTest {
+
+  private LongSumResampleAccumulator accumulator;
+
+  @Test
+  public void testAccumulate() throws Exception {
+    this.accumulator = new LongSumResampleAccumulator();
+
+    this.accumulator.beginSlot(1);
+    this.accumulator.accept(2, 1.0);
+    this.accumulator.accept(3, 1.0);
+    assertEquals(5, this.accumulator.finishSlot());
+
+    this.accumulator.beginSlot(2);
+    this.accumulator.accept(2, 0.5);
+    this.accumulator.accept(3, 1.0);
+    this.accumulator.accept(4, 0.5);
+    assertEquals(6, this.accumulator.finishSlot());
+
+    this.accumulator.beginSlot(3);
+    this.accumulator.accept(3, 0.5);
+    this.accumulator.accept(3, 0.5);
+    this.accumulator.accept(5, 0.75);
+    assertEquals(6, this.accumulator.finishSlot());
+
+    this.accumulator.beginSlot(4);
+    assertEquals(0, this.accumulator.finishSlot());
+  }
+
+  @Test
+  public void testMatchesCalculator() throws Exception {
+    this.accumulator = new LongSumResampleAccumulator();
+    LongSumResampleCalculator calculator = new LongSumResampleCalculator();
+
+    long[] values = { 7, 11, 13, 17, 19 };
+
+    this.accumulator.beginSlot(0);
+    this.accumulator.accept(values[0], 0.3);
+    this.accumulator.accept(values[1], 1.0);
+    this.accumulator.accept(values[2], 1.0);
+    this.accumulator.accept(values[3], 1.0);
+    this.accumulator.accept(values[4], 0.9);
+
+    assertEquals(calculator.calculateTransformedSample(values, 0, values.length, 0.3, 0.9),
+            this.accumulator.finishSlot());
+  }
+
+  @Test
+  public void testMatchesCalculatorSevenToFive() throws Exception {
+    LongTimeSeries source = new LongTimeSeries();
+    for ( long time = 0; time < 70; time++ ) {
+      source.add(time, 1000 + time);
+    }
+
+    // Samples in the middle of a slot may overlap it partially, yet count whole, as in the calculator.
+    TimeTransform transform = new RationalRatioTimeTransform(7, 5);
+
+    LongTimeSeries expected = new LongTimeSeries();
+    new LongResampleUtil(source).resampleDown(expected, transform, new LongSumResampleCalculator());
+
+    LongTimeSeries actual = new LongTimeSeries();
+    new LongResampleUtil(source).resampleDown(actual, transform, new LongSumResampleAccumulator());
+
+    assertEquals(expected.size(), actual.size());
+    LongTimeSeriesCursor cursor = expected.cursor();
+    while ( cursor.next() ) {
+      assertEquals(cursor.getLongValue(), actual.getTimestampSample(cursor.getTimestamp(), -1));
+    }
+  }
+}
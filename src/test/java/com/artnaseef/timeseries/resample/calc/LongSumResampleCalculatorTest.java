@@ -48,4 +48,24 @@ public class LongSumResampleCalculatorTest {
     result = this.calculator.calculateTransformedSample(sourceValues, 0.5, 0.75);
     assertEquals(11, result, 0.0000000001);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testCalculateTransformedSampleSlice() throws Exception {
+    this.calculator = new LongSumResampleCalculator();
+
+    long[] slice = { 99L, 2L, 3L, 4L, 5L, 99L };
+    long result;
+
+    result = this.calculator.calculateTransformedSample(slice, 1, 2, 1.0, 1.0);
+    assertEquals(5, result);
+
+    result = this.calculator.calculateTransformedSample(slice, 1, 3, 0.5, 0.5);
+    assertEquals(6, result);
+
+    result = this.calculator.calculateTransformedSample(slice, 1, 4, 0.5, 0.5);
+    assertEquals(10, result);
+
+    result = this.calculator.calculateTransformedSample(slice, 1, 4, 0.5, 0.75);
+    assertEquals(11, result);
+  }
+}
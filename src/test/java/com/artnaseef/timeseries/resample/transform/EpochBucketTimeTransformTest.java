@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.transform;
+
+import com.artnaseef.timeseries.LongResampleUtil;
+import com.artnaseef.timeseries.LongTimeSeries;
+import com.artnaseef.timeseries.resample.calc.LongSumResampleCalculator;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EpochBucketTimeTransformTest {
+
+  @Test
+  public void testMinutes() throws Exception {
+    EpochBucketTimeTransform transform = EpochBucketTimeTransform.minutes();
+
+    // 2015-05-01T00:00:00Z
+    long start = 1430438400000L;
+
+    long slot = transform.transformTime(start).timestamp;
+    assertEquals(start / 60000L, slot);
+    assertEquals(slot, transform.transformTime(start + 59999).timestamp);
+    assertEquals(slot + 1, transform.transformTime(start + 60000).timestamp);
+    assertEquals(start, transform.getSourceStart(slot));
+  }
+
+  @Test
+  public void testSecondsAndMinutesWithOffset() throws Exception {
+    // 2015-05-01T00:00:00Z
+    long start = 1430438400000L;
+
+    // Seconds starting on the half second.
+    EpochBucketTimeTransform seconds = EpochBucketTimeTransform.seconds(500);
+    long slot = seconds.transformTime(start + 500).timestamp;
+    assertEquals(slot, seconds.transformTime(start + 1499).timestamp);
+    assertEquals(slot + 1, seconds.transformTime(start + 1500).timestamp);
+    assertEquals(start + 500, seconds.getSourceStart(slot));
+
+    // Minutes starting at 30 seconds past the minute.
+    EpochBucketTimeTransform minutes = EpochBucketTimeTransform.minutes(30 * EpochBucketTimeTransform.SECOND_MILLIS);
+    slot = minutes.transformTime(start).timestamp;
+    assertEquals(slot, minutes.transformTime(start + 29999).timestamp);
+    assertEquals(slot + 1, minutes.transformTime(start + 30000).timestamp);
+    assertEquals(start - 30000, minutes.getSourceStart(slot));
+  }
+
+  @Test
+  public void testDaysWithOffset() throws Exception {
+    // Days starting at midnight in UTC+5, which is 19:00 UTC.
+    EpochBucketTimeTransform transform = EpochBucketTimeTransform.days(-5 * EpochBucketTimeTransform.HOUR_MILLIS);
+
+    // 2015-05-01T00:00:00Z
+    long midnightUtc = 1430438400000L;
+
+    long slot = transform.transformTime(midnightUtc).timestamp;
+    assertEquals(slot, transform.transformTime(midnightUtc + 18 * EpochBucketTimeTransform.HOUR_MILLIS).timestamp);
+    assertEquals(slot + 1, transform.transformTime(midnightUtc + 19 * EpochBucketTimeTransform.HOUR_MILLIS).timestamp);
+    assertEquals(midnightUtc - 5 * EpochBucketTimeTransform.HOUR_MILLIS, transform.getSourceStart(slot));
+  }
+
+  @Test
+  public void testResampleHits() throws Exception {
+    LongTimeSeries source = new LongTimeSeries();
+    for ( int cur = 0; cur < 180; cur++ ) {
+      source.add(cur * EpochBucketTimeTransform.SECOND_MILLIS, 1);
+    }
+
+    LongTimeSeries target = new LongTimeSeries();
+    new LongResampleUtil(source).resampleDown(target, EpochBucketTimeTransform.minutes(),
+            new LongSumResampleCalculator());
+
+    assertEquals(3, target.size());
+    assertEquals(60, target.getTimestampSample(0, -1));
+    assertEquals(60, target.getTimestampSample(1, -1));
+    assertEquals(60, target.getTimestampSample(2, -1));
+  }
+}
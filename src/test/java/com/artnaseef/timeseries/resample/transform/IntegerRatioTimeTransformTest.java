@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.transform;
+
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IntegerRatioTimeTransformTest {
+
+  @Test
+  public void testTransformTime() throws Exception {
+    IntegerRatioTimeTransform transform = new IntegerRatioTimeTransform(60);
+    MisalignedTimestamp result = new MisalignedTimestamp();
+
+    transform.transformTime(0, result);
+    assertEquals(0, result.timestamp);
+    assertEquals(1.0, result.overlap, 0.0000000001);
+
+    transform.transformTime(59, result);
+    assertEquals(0, result.timestamp);
+
+    transform.transformTime(60, result);
+    assertEquals(1, result.timestamp);
+
+    transform.transformTime(-1, result);
+    assertEquals(-1, result.timestamp);
+
+    transform.transformTime(-60, result);
+    assertEquals(-1, result.timestamp);
+
+    transform.transformTime(-61, result);
+    assertEquals(-2, result.timestamp);
+
+    assertEquals(2, transform.transformTime(179).timestamp);
+    assertEquals(120, transform.getSourceStart(2));
+  }
+
+  @Test
+  public void testOffset() throws Exception {
+    IntegerRatioTimeTransform transform = new IntegerRatioTimeTransform(10, 3);
+
+    assertEquals(-1, transform.transformTime(2).timestamp);
+    assertEquals(0, transform.transformTime(3).timestamp);
+    assertEquals(0, transform.transformTime(12).timestamp);
+    assertEquals(1, transform.transformTime(13).timestamp);
+    assertEquals(13, transform.getSourceStart(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRatio() throws Exception {
+    new IntegerRatioTimeTransform(0);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.timeseries.resample.transform;
+
+import com.artnaseef.timeseries.DoubleResampleUtil;
+import com.artnaseef.timeseries.DoubleTimeSeries;
+import com.artnaseef.timeseries.resample.MisalignedTimestamp;
+import com.artnaseef.timeseries.resample.calc.DoubleSumResampleCalculator;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RationalRatioTimeTransformTest {
+
+  @Test
+  public void testTransformTime() throws Exception {
+    RationalRatioTimeTransform transform = new RationalRatioTimeTransform(3, 2);
+    MisalignedTimestamp result = new MisalignedTimestamp();
+
+    transform.transformTime(3, result);
+    assertEquals(2, result.timestamp);
+    assertEquals(1.0, result.overlap, 0.0000000001);
+
+    transform.transformTime(4, result);
+    assertEquals(2, result.timestamp);
+    assertEquals(1.0 / 3.0, result.overlap, 0.0000000001);
+
+    transform.transformTime(5, result);
+    assertEquals(3, result.timestamp);
+    assertEquals(2.0 / 3.0, result.overlap, 0.0000000001);
+
+    // -1 => (-0.6) => -1 (2/3), 0 (1/3)
+    transform.transformTime(-1, result);
+    assertEquals(-1, result.timestamp);
+    assertEquals(2.0 / 3.0, result.overlap, 0.0000000001);
+  }
+
+  /**
+   * Same scenario as ResampleUtilTest.testResampleDownThreeToTwo(), using the built-in transform.
+   */
+  @Test
+  public void testResampleThreeToTwo() throws Exception {
+    DoubleTimeSeries source = new DoubleTimeSeries();
+    source.add(3, 1.0);
+    source.add(4, 1.0);
+    source.add(5, 1.0);
+    source.add(6, 1.0);
+    source.add(7, 1.0);
+    source.add(9, 1.0);
+
+    DoubleTimeSeries target = new DoubleTimeSeries();
+    new DoubleResampleUtil(source).resampleDown(target, new RationalRatioTimeTransform(3, 2),
+            new DoubleSumResampleCalculator());
+
+    assertEquals(( 4.0 / 3.0 ), target.getTimestampSample(2, Double.NaN), 0.0000000001);
+    assertEquals(( 4.0 / 3.0 ), target.getTimestampSample(3, Double.NaN), 0.0000000001);
+    assertEquals(( 5.0 / 3.0 ), target.getTimestampSample(4, Double.NaN), 0.0000000001);
+    assertEquals(( 2.0 / 3.0 ), target.getTimestampSample(5, Double.NaN), 0.0000000001);
+    assertEquals(1.0, target.getTimestampSample(6, Double.NaN), 0.0000000001);
+    assertEquals(5, target.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUpsampleRejected() throws Exception {
+    new RationalRatioTimeTransform(2, 3);
+  }
+}